@@ -19,7 +19,15 @@
  */
 package org.sonarlint.eclipse.cdt.internal;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -27,41 +35,92 @@ public class BuildWrapperJsonFactory {
   private static final String COMPILER = "clang";
 
   public String create(Collection<ConfiguredFile> files, String baseDirPath) {
-    StringBuilder builder = new StringBuilder();
-    builder.append("{"
+    StringWriter writer = new StringWriter();
+    try {
+      write(files, baseDirPath, writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Most translation units share the same scanner info, so files are grouped by includes and symbols, and compiler probes are only
+   * written once per group, using the path of its first file as compiler key.
+   */
+  public void write(Collection<ConfiguredFile> files, String baseDirPath, Writer writer) throws IOException {
+    writer.write("{"
       + "\"version\":0,"
       + "\"captures\":[");
 
     boolean first = true;
-    for (ConfiguredFile file : files) {
+    for (List<ConfiguredFile> group : groupByScannerInfo(files).values()) {
+      ConfiguredFile firstOfGroup = group.get(0);
+      String compilerKey = firstOfGroup.path();
+      String probeStdout = probeStdout(firstOfGroup.symbols());
+      String probeStderr = probeStderr(firstOfGroup.includes());
       if (first) {
         first = false;
       } else {
-        builder.append(",");
+        writer.write(",");
+      }
+      writeCompilerProbe(writer, compilerKey, probeStdout, probeStderr);
+      writer.write(",");
+      writeCompilerProbe(writer, compilerKey, probeStdout, probeStderr);
+      for (ConfiguredFile file : group) {
+        writer.write(",");
+        writeCommand(writer, baseDirPath, compilerKey, file.path());
       }
-      writeFile(builder, baseDirPath, file.path(), file.includes(), file.symbols());
     }
 
-    builder.append("]}");
-    return builder.toString();
+    writer.write("]}");
+  }
+
+  private static Map<ScannerInfoKey, List<ConfiguredFile>> groupByScannerInfo(Collection<ConfiguredFile> files) {
+    Map<ScannerInfoKey, List<ConfiguredFile>> filesPerScannerInfo = new LinkedHashMap<>();
+    for (ConfiguredFile file : files) {
+      filesPerScannerInfo.computeIfAbsent(new ScannerInfoKey(file), k -> new ArrayList<>()).add(file);
+    }
+    return filesPerScannerInfo;
   }
 
-  private static void writeFile(StringBuilder builder, String baseDirPath, String filePath, String[] includes, Map<String, String> symbols) {
-    String probeStdout = probeStdout(symbols);
-    String probeStderr = probeStderr(includes);
-    writeCompilerProbe(builder, filePath, probeStdout, probeStderr);
-    builder.append(",");
-    writeCompilerProbe(builder, filePath, probeStdout, probeStderr);
-    builder.append(",");
-    builder.append("{")
-      .append("\"compiler\":\"" + COMPILER + "\",")
-      .append("\"cwd\":" + quote(baseDirPath) + ",")
-      .append("\"executable\":" + quote(filePath) + ",")
-      .append("\"cmd\":[")
-      .append("\"clang\"")
-      .append("," + quote(filePath) + "")
-      .append("]}");
+  private static class ScannerInfoKey {
+    private final List<String> includes;
+    private final Map<String, String> symbols;
+    private final int hashCode;
 
+    private ScannerInfoKey(ConfiguredFile file) {
+      this.includes = Arrays.asList(file.includes());
+      this.symbols = file.symbols();
+      this.hashCode = 31 * includes.hashCode() + symbols.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ScannerInfoKey)) {
+        return false;
+      }
+      ScannerInfoKey other = (ScannerInfoKey) obj;
+      return hashCode == other.hashCode && includes.equals(other.includes) && symbols.equals(other.symbols);
+    }
+  }
+
+  private static void writeCommand(Writer writer, String baseDirPath, String compilerKey, String filePath) throws IOException {
+    writer.write("{\"compiler\":\"" + COMPILER + "\",\"cwd\":");
+    writeQuoted(writer, baseDirPath);
+    writer.write(",\"executable\":");
+    writeQuoted(writer, compilerKey);
+    writer.write(",\"cmd\":[\"clang\",");
+    writeQuoted(writer, filePath);
+    writer.write("]}");
   }
 
   private static String probeStderr(String[] includes) {
@@ -81,62 +140,57 @@ public class BuildWrapperJsonFactory {
     return builder.toString();
   }
 
-  private static void writeCompilerProbe(StringBuilder builder, String compilerKey, String stdout, String stderr) {
-    builder
-      .append("{")
-      .append("\"compiler\":\"").append(COMPILER).append("\",")
-      .append("\"executable\":").append(quote(compilerKey)).append(",")
-      .append("\"stdout\":").append(quote(stdout)).append(",")
-      .append("\"stderr\":").append(quote(stderr))
-      .append("}");
+  private static void writeCompilerProbe(Writer writer, String compilerKey, String stdout, String stderr) throws IOException {
+    writer.write("{\"compiler\":\"" + COMPILER + "\",\"executable\":");
+    writeQuoted(writer, compilerKey);
+    writer.write(",\"stdout\":");
+    writeQuoted(writer, stdout);
+    writer.write(",\"stderr\":");
+    writeQuoted(writer, stderr);
+    writer.write("}");
   }
 
-  private static String quote(@Nullable String string) {
+  private static void writeQuoted(Writer writer, @Nullable String string) throws IOException {
     if (string == null || string.length() == 0) {
-      return "\"\"";
+      writer.write("\"\"");
+      return;
     }
 
-    char c;
-    int i;
     int len = string.length();
-    StringBuilder sb = new StringBuilder(len + 4);
-    String t;
-
-    sb.append('"');
-    for (i = 0; i < len; i += 1) {
-      c = string.charAt(i);
+    writer.write('"');
+    for (int i = 0; i < len; i += 1) {
+      char c = string.charAt(i);
       switch (c) {
         case '\\':
         case '"':
-          sb.append('\\');
-          sb.append(c);
+          writer.write('\\');
+          writer.write(c);
           break;
         case '\b':
-          sb.append("\\b");
+          writer.write("\\b");
           break;
         case '\t':
-          sb.append("\\t");
+          writer.write("\\t");
           break;
         case '\n':
-          sb.append("\\n");
+          writer.write("\\n");
           break;
         case '\f':
-          sb.append("\\f");
+          writer.write("\\f");
           break;
         case '\r':
-          sb.append("\\r");
+          writer.write("\\r");
           break;
         default:
           if (c < ' ') {
-            t = "000" + Integer.toHexString(c);
-            sb.append("\\u" + t.substring(t.length() - 4));
+            String t = "000" + Integer.toHexString(c);
+            writer.write("\\u" + t.substring(t.length() - 4));
           } else {
-            sb.append(c);
+            writer.write(c);
           }
       }
     }
-    sb.append('"');
-    return sb.toString();
+    writer.write('"');
   }
 
 }
@@ -0,0 +1,209 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent cache directory of the CFamily analyzer for a project, so that headers don't have to be preprocessed and parsed again on each analysis.
+ * The analyzer doesn't know about CDT scanner info, so the whole directory is discarded as soon as includes or symbols of an analyzed file change,
+ * or when it exceeds its budget (see {@link #trim(int)}). It is never discarded while another analysis of the project uses it.
+ */
+public class CFamilyCache {
+
+  private static final String SCANNER_INFO_FILENAME = "sonarlint-scanner-info.properties";
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+  private static final int OVERFLOW_FACTOR = 2;
+
+  private final Path cacheDir;
+  private final Predicate<String> fileExists;
+  /**
+   * Temporary folders of the analyses using the cache. An analysis failing before it completes no longer holds the cache once its folder is deleted.
+   */
+  private final Set<Path> users = new HashSet<>();
+  private boolean discardedForBudget;
+  private boolean keptAboveBudget;
+
+  public CFamilyCache(Path cacheDir) {
+    this(cacheDir, fullPath -> ResourcesPlugin.getWorkspace().getRoot().exists(new org.eclipse.core.runtime.Path(fullPath)));
+  }
+
+  public CFamilyCache(Path cacheDir, Predicate<String> fileExists) {
+    this.cacheDir = cacheDir;
+    this.fileExists = fileExists;
+  }
+
+  public Path getCacheDir() {
+    return cacheDir;
+  }
+
+  /**
+   * Record the scanner info of the files about to be analyzed, and discard the cache if it changed for any of them since the previous analysis.
+   * Scanner info of files that no longer exist is forgotten.
+   *
+   * @param analysisDir temporary folder of the analysis, that holds the cache until {@link #release(Path)}
+   * @return false if the cache is outdated but still used by another analysis, in which case it must not be used by this one
+   */
+  public synchronized boolean prepare(Path analysisDir, Collection<ConfiguredFile> files) throws IOException {
+    Path scannerInfoPath = cacheDir.resolve(SCANNER_INFO_FILENAME);
+    Properties scannerInfoPerFile = new Properties();
+    if (Files.exists(scannerInfoPath)) {
+      try (InputStream in = Files.newInputStream(scannerInfoPath)) {
+        scannerInfoPerFile.load(in);
+      }
+    }
+    boolean changed = false;
+    for (String key : scannerInfoPerFile.stringPropertyNames()) {
+      if (!fileExists.test(key)) {
+        scannerInfoPerFile.remove(key);
+        changed = true;
+      }
+    }
+    boolean outdated = false;
+    for (ConfiguredFile file : files) {
+      String key = String.valueOf(file.file().getFullPath());
+      String digest = digest(file);
+      Object previous = scannerInfoPerFile.setProperty(key, digest);
+      if (!digest.equals(previous)) {
+        changed = true;
+        outdated |= previous != null;
+      }
+    }
+    if (outdated) {
+      if (isInUse()) {
+        return false;
+      }
+      FileUtils.deleteRecursively(cacheDir);
+    }
+    Files.createDirectories(cacheDir);
+    if (changed) {
+      try (OutputStream out = Files.newOutputStream(scannerInfoPath)) {
+        scannerInfoPerFile.store(out, null);
+      }
+    }
+    users.add(analysisDir);
+    return true;
+  }
+
+  public synchronized void release(Path analysisDir) {
+    users.remove(analysisDir);
+  }
+
+  /**
+   * Discard the whole cache if it exceeds the budget and no analysis uses it. Deleting single files would leave inconsistent entries for the analyzer.
+   * Once the cache was discarded for its budget, it is kept up to twice the budget, as the files analyzed together don't fit in it and discarding
+   * it after each analysis would make it useless.
+   *
+   * @return true the first time the cache is kept above the budget, so that a larger budget can be recommended
+   */
+  public synchronized boolean trim(int maxSizeInMb) throws IOException {
+    if (!Files.isDirectory(cacheDir) || isInUse()) {
+      return false;
+    }
+    long maxSize = maxSizeInMb * BYTES_PER_MB;
+    long totalSize;
+    try (Stream<Path> stream = Files.walk(cacheDir)) {
+      totalSize = stream
+        .filter(Files::isRegularFile)
+        .mapToLong(p -> p.toFile().length())
+        .sum();
+    }
+    if (totalSize <= maxSize) {
+      return false;
+    }
+    if (!discardedForBudget) {
+      FileUtils.deleteRecursively(cacheDir);
+      discardedForBudget = true;
+      return false;
+    }
+    boolean firstTimeAboveBudget = !keptAboveBudget;
+    keptAboveBudget = true;
+    if (totalSize > OVERFLOW_FACTOR * maxSize) {
+      FileUtils.deleteRecursively(cacheDir);
+    }
+    return firstTimeAboveBudget;
+  }
+
+  /**
+   * @return false if the cache is still used by an analysis, and was kept
+   */
+  public synchronized boolean delete() {
+    if (isInUse()) {
+      return false;
+    }
+    FileUtils.deleteRecursively(cacheDir);
+    return true;
+  }
+
+  private boolean isInUse() {
+    users.removeIf(analysisDir -> !Files.exists(analysisDir));
+    return !users.isEmpty();
+  }
+
+  private static String digest(ConfiguredFile file) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (String include : file.includes()) {
+      update(digest, "I", include);
+    }
+    // CDT doesn't guarantee the order of symbols
+    for (Map.Entry<String, String> symbol : new TreeMap<>(file.symbols()).entrySet()) {
+      update(digest, "D", symbol.getKey());
+      update(digest, "=", symbol.getValue());
+    }
+    byte[] bytes = digest.digest();
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[i * 2] = DIGITS[(bytes[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = DIGITS[bytes[i] & 0xF];
+    }
+    return new String(hex);
+  }
+
+  private static void update(MessageDigest digest, String prefix, String value) {
+    digest.update(prefix.getBytes(UTF_8));
+    digest.update(String.valueOf(value).getBytes(UTF_8));
+    digest.update((byte) 0);
+  }
+
+}
@@ -32,6 +32,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
 import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
+import org.sonarlint.eclipse.core.analysis.IPostAnalysisContext;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -93,6 +94,11 @@ public class CProjectConfiguratorExtension implements IAnalysisConfigurator, IFi
     cdtUtils.configure(context, monitor);
   }
 
+  @Override
+  public void analysisComplete(IPostAnalysisContext context, IProgressMonitor monitor) {
+    cdtUtils.analysisComplete(context.getProject(), context.getAnalysisProperties());
+  }
+
   @Nullable
   @Override
   public String language(ISonarLintFile file) {
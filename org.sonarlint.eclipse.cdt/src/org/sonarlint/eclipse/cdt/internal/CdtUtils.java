@@ -20,21 +20,37 @@
 package org.sonarlint.eclipse.cdt.internal;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.language.settings.providers.ILanguageSettingsProvider;
+import org.eclipse.cdt.core.language.settings.providers.ILanguageSettingsProvidersKeeper;
+import org.eclipse.cdt.core.language.settings.providers.LanguageSettingsManager;
+import org.eclipse.cdt.core.language.settings.providers.ScannerDiscoveryLegacySupport;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.parser.IScannerInfo;
 import org.eclipse.cdt.core.parser.IScannerInfoProvider;
+import org.eclipse.cdt.core.settings.model.ICConfigurationDescription;
+import org.eclipse.cdt.core.settings.model.ICLanguageSettingEntry;
+import org.eclipse.cdt.core.settings.model.ICProjectDescription;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
@@ -44,11 +60,15 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.jobs.DefaultPreAnalysisContext;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 
 public class CdtUtils {
   private static final String CFAMILY_USE_CACHE = "sonar.cfamily.useCache";
+  private static final String CFAMILY_CACHE_ENABLED = "sonar.cfamily.cache.enabled";
+  private static final String CFAMILY_CACHE_PATH = "sonar.cfamily.cache.path";
+  private static final String CFAMILY_CACHE_DIRNAME = "cfamily-cache";
   private static final String BUILD_WRAPPER_OUTPUT_PROP = "sonar.cfamily.build-wrapper-output";
   private static final String BUILD_WRAPPER_OUTPUT_FILENAME = "build-wrapper-dump.json";
   private static final Charset BUILD_WRAPPER_OUTPUT_CHARSET = StandardCharsets.UTF_8;
@@ -57,19 +77,30 @@ public class CdtUtils {
   private final Predicate<IFile> fileValidator;
   private final SonarLintLogger logger;
   private final BiFunction<IProject, String, IContentType> contentTypeResolver;
+  private final IntSupplier cacheSizeMb;
+  private final Function<IProject, Predicate<IFile>> fileSpecificSettingsResolver;
+  private final Map<String, CFamilyCache> cachePerProject = new ConcurrentHashMap<>();
 
   public CdtUtils() {
     this(new BuildWrapperJsonFactory(), CCorePlugin.getDefault(), CoreModel::isTranslationUnit,
-      CCorePlugin::getContentType, SonarLintLogger.get());
+      CCorePlugin::getContentType, SonarLintLogger.get(), SonarLintGlobalConfiguration::getCFamilyCacheSizeMb, CdtUtils::hasFileSpecificSettings);
   }
 
   public CdtUtils(BuildWrapperJsonFactory jsonFactory, CCorePlugin cCorePlugin, Predicate<IFile> fileValidator,
     BiFunction<IProject, String, IContentType> contentTypeResolver, SonarLintLogger logger) {
+    this(jsonFactory, cCorePlugin, fileValidator, contentTypeResolver, logger, () -> 0, project -> file -> true);
+  }
+
+  public CdtUtils(BuildWrapperJsonFactory jsonFactory, CCorePlugin cCorePlugin, Predicate<IFile> fileValidator,
+    BiFunction<IProject, String, IContentType> contentTypeResolver, SonarLintLogger logger, IntSupplier cacheSizeMb,
+    Function<IProject, Predicate<IFile>> fileSpecificSettingsResolver) {
     this.jsonFactory = jsonFactory;
     this.cCorePlugin = cCorePlugin;
     this.fileValidator = fileValidator;
     this.logger = logger;
     this.contentTypeResolver = contentTypeResolver;
+    this.cacheSizeMb = cacheSizeMb;
+    this.fileSpecificSettingsResolver = fileSpecificSettingsResolver;
   }
 
   public void configure(IPreAnalysisContext context, IProgressMonitor monitor) {
@@ -82,22 +113,75 @@ public class CdtUtils {
       Collection<ConfiguredFile> configuredFiles = configureCProject(context, context.getProject(), filesToAnalyze);
       Path jsonPath = writeJson(context, context.getProject(), configuredFiles);
       logger.debug("Wrote build info to: " + jsonPath.toString());
-      context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.FALSE.toString());
+      configureCache(context, configuredFiles);
       context.setAnalysisProperty(BUILD_WRAPPER_OUTPUT_PROP, jsonPath.getParent().toString());
     } catch (Exception e) {
       logger.error(e.getMessage(), e);
     }
   }
 
+  private void configureCache(IPreAnalysisContext context, Collection<ConfiguredFile> configuredFiles) throws IOException {
+    if (cacheSizeMb.getAsInt() <= 0) {
+      context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.FALSE.toString());
+      return;
+    }
+    CFamilyCache cache = getCache(context.getProject());
+    if (!cache.prepare(context.getAnalysisTemporaryFolder(), configuredFiles)) {
+      logger.debug("CFamily cache is outdated but still used by another analysis, not using it");
+      context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.FALSE.toString());
+      return;
+    }
+    context.setAnalysisProperty(CFAMILY_USE_CACHE, Boolean.TRUE.toString());
+    context.setAnalysisProperty(CFAMILY_CACHE_ENABLED, Boolean.TRUE.toString());
+    context.setAnalysisProperty(CFAMILY_CACHE_PATH, cache.getCacheDir().toString());
+  }
+
+  /**
+   * Keep the cache of the project within the configured budget once the analysis no longer uses it
+   */
+  public void analysisComplete(ISonarLintProject project, Map<String, String> analysisProperties) {
+    int maxSizeMb = cacheSizeMb.getAsInt();
+    try {
+      CFamilyCache cache = cachePerProject.get(project.getName());
+      if (cache == null) {
+        return;
+      }
+      // The build wrapper output is in the temporary folder of the analysis
+      String analysisDir = analysisProperties.get(BUILD_WRAPPER_OUTPUT_PROP);
+      if (analysisDir != null && Boolean.parseBoolean(analysisProperties.get(CFAMILY_USE_CACHE))) {
+        cache.release(Paths.get(analysisDir));
+      }
+      if (maxSizeMb <= 0) {
+        // The cache was disabled since it was created
+        if (cache.delete()) {
+          cachePerProject.remove(project.getName(), cache);
+        }
+        return;
+      }
+      if (cache.trim(maxSizeMb)) {
+        logger.info("The CFamily cache of project '" + project.getName() + "' needs more than " + maxSizeMb
+          + " MB. Increase the cache size in SonarLint preferences to avoid analyzing headers again.");
+      }
+    } catch (Exception e) {
+      logger.error("Unable to clean the CFamily cache of project '" + project.getName() + "'", e);
+    }
+  }
+
+  private CFamilyCache getCache(ISonarLintProject project) {
+    return cachePerProject.computeIfAbsent(project.getName(), k -> new CFamilyCache(project.getWorkingDir().resolve(CFAMILY_CACHE_DIRNAME)));
+  }
+
   private Collection<ConfiguredFile> configureCProject(IPreAnalysisContext context, ISonarLintProject project, Collection<ISonarLintFile> filesToAnalyze) {
     List<ConfiguredFile> files = new LinkedList<>();
     IScannerInfoProvider infoProvider = cCorePlugin.getScannerInfoProvider((IProject) project.getResource());
+    Predicate<IFile> hasFileSpecificSettings = fileSpecificSettingsResolver.apply((IProject) project.getResource());
+    Map<String, IScannerInfo> infoPerFolder = new HashMap<>();
 
     for (ISonarLintFile file : filesToAnalyze) {
       ConfiguredFile.Builder builder = new ConfiguredFile.Builder((IFile) file.getResource());
 
       String path = ((DefaultPreAnalysisContext) context).getLocalPath(file);
-      IScannerInfo fileInfo = infoProvider.getScannerInformation(file.getResource());
+      IScannerInfo fileInfo = getScannerInformation(infoProvider, infoPerFolder, hasFileSpecificSettings, (IFile) file.getResource());
 
       builder.includes(fileInfo.getIncludePaths() != null ? fileInfo.getIncludePaths() : new String[0])
         .symbols(fileInfo.getDefinedSymbols() != null ? fileInfo.getDefinedSymbols() : Collections.emptyMap())
@@ -109,9 +193,65 @@ public class CdtUtils {
 
   }
 
+  /**
+   * Computing scanner info is costly, so it is shared between files of a folder when they are proven to only inherit the settings of the folder.
+   * C and C++ files get different built-in includes and symbols, so they are not shared across file extensions.
+   */
+  private static IScannerInfo getScannerInformation(IScannerInfoProvider infoProvider, Map<String, IScannerInfo> infoPerFolder,
+    Predicate<IFile> hasFileSpecificSettings, IFile file) {
+    IContainer folder = file.getParent();
+    if (folder == null || hasFileSpecificSettings.test(file)) {
+      return infoProvider.getScannerInformation(file);
+    }
+    return infoPerFolder.computeIfAbsent(folder.getFullPath() + "/*." + file.getFileExtension(), k -> infoProvider.getScannerInformation(file));
+  }
+
+  /**
+   * A file may have its own settings, unless it has no resource description and every language settings provider returns the same entries for
+   * the file as for its folder. Legacy scanner discovery can't tell, so all files are then considered specific.
+   */
+  private static Predicate<IFile> hasFileSpecificSettings(IProject project) {
+    ICProjectDescription projectDescription = CoreModel.getDefault().getProjectDescription(project, false);
+    ICConfigurationDescription configuration = projectDescription != null ? projectDescription.getDefaultSettingConfiguration() : null;
+    if (configuration == null || !(configuration instanceof ILanguageSettingsProvidersKeeper)
+      || !ScannerDiscoveryLegacySupport.isLanguageSettingsProvidersFunctionalityEnabled(project)) {
+      return file -> true;
+    }
+    List<ILanguageSettingsProvider> providers = ((ILanguageSettingsProvidersKeeper) configuration).getLanguageSettingProviders();
+    Predicate<IFile> hasFileSpecificEntries = hasFileSpecificEntries(configuration, providers, file -> LanguageSettingsManager.getLanguages(file, configuration));
+    return file -> configuration.getResourceDescription(file.getProjectRelativePath(), true) != null
+      || hasFileSpecificEntries.test(file);
+  }
+
+  /**
+   * Entries of a folder are only queried once per language, and then compared with the entries of each of its files.
+   */
+  public static Predicate<IFile> hasFileSpecificEntries(ICConfigurationDescription configuration, List<ILanguageSettingsProvider> providers,
+    Function<IFile, List<String>> languagesResolver) {
+    Map<String, List<List<ICLanguageSettingEntry>>> folderEntriesPerLanguage = new HashMap<>();
+    return file -> {
+      IContainer folder = file.getParent();
+      for (String languageId : languagesResolver.apply(file)) {
+        List<List<ICLanguageSettingEntry>> folderEntries = folderEntriesPerLanguage.computeIfAbsent(folder.getFullPath() + "|" + languageId,
+          k -> providers.stream().map(provider -> provider.getSettingEntries(configuration, folder, languageId)).collect(Collectors.toList()));
+        for (int i = 0; i < providers.size(); i++) {
+          if (!Objects.equals(providers.get(i).getSettingEntries(configuration, file, languageId), folderEntries.get(i))) {
+            return true;
+          }
+        }
+      }
+      return false;
+    };
+  }
+
   private Path writeJson(IPreAnalysisContext context, ISonarLintProject project, Collection<ConfiguredFile> files) throws IOException {
-    String json = jsonFactory.create(files, getBaseDir(context, project));
-    return createJsonFile(context.getAnalysisTemporaryFolder(), json);
+    Path workDir = context.getAnalysisTemporaryFolder();
+    Path jsonFilePath = workDir.resolve(BUILD_WRAPPER_OUTPUT_FILENAME);
+    Files.createDirectories(workDir);
+    try (Writer writer = Files.newBufferedWriter(jsonFilePath, BUILD_WRAPPER_OUTPUT_CHARSET)) {
+      jsonFactory.write(files, getBaseDir(context, project), writer);
+    }
+    return jsonFilePath;
   }
 
   private static String getBaseDir(IPreAnalysisContext context, ISonarLintProject project) {
@@ -148,13 +288,6 @@ public class CdtUtils {
     }
   }
 
-  private static Path createJsonFile(Path workDir, String content) throws IOException {
-    Path jsonFilePath = workDir.resolve(BUILD_WRAPPER_OUTPUT_FILENAME);
-    Files.createDirectories(workDir);
-    Files.write(jsonFilePath, content.getBytes(BUILD_WRAPPER_OUTPUT_CHARSET));
-    return jsonFilePath;
-  }
-
   @Nullable
   public String language(IFile iFile) {
     return getFileLanguage(iFile.getProject(), iFile);
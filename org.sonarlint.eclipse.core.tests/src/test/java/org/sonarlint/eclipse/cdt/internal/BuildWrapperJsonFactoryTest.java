@@ -23,11 +23,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +75,55 @@ public class BuildWrapperJsonFactoryTest {
 
   }
 
+  @Test
+  public void should_write_probes_once_per_scanner_info() {
+    List<ConfiguredFile> info = new ArrayList<>();
+    info.add(file("a.c", "/inc1", "M", "1"));
+    info.add(file("b.c", "/inc2", "M", "1"));
+    info.add(file("c.c", "/inc1", "M", "1"));
+
+    String json = writer.create(info, "/base");
+
+    assertThat(json).isEqualTo("{\"version\":0,\"captures\":["
+      + probe("a.c", "/inc1") + "," + probe("a.c", "/inc1") + "," + command("a.c", "a.c") + "," + command("a.c", "c.c") + ","
+      + probe("b.c", "/inc2") + "," + probe("b.c", "/inc2") + "," + command("b.c", "b.c")
+      + "]}");
+  }
+
+  @Test
+  public void should_write_one_probe_per_folder_settings() throws IOException {
+    List<ConfiguredFile> info = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      info.add(file("src/folder" + (i % 50) + "/file" + i + ".c", "/path/to/include" + (i % 50), "FOLDER", Integer.toString(i % 50)));
+    }
+
+    StringWriter out = new StringWriter();
+    writer.write(info, "/path/to/projectBaseDir", out);
+
+    String json = out.toString();
+    // Files of a folder are compiled with the probe of the first one
+    assertThat(json).contains("\"executable\":\"src/folder0/file0.c\",\"cmd\":[\"clang\",\"src/folder0/file450.c\"]");
+    assertThat(json.split("\"stdout\"", -1)).hasSize(2 * 50 + 1);
+    assertThat(json.split("\"cmd\"", -1)).hasSize(500 + 1);
+  }
+
+  private static ConfiguredFile file(String path, String include, String symbol, String value) {
+    return new ConfiguredFile.Builder(mock(IFile.class))
+      .includes(new String[] {include})
+      .symbols(Collections.singletonMap(symbol, value))
+      .path(path)
+      .build();
+  }
+
+  private static String probe(String compilerKey, String include) {
+    return "{\"compiler\":\"clang\",\"executable\":\"" + compilerKey + "\",\"stdout\":\"#define M 1\\n\","
+      + "\"stderr\":\"#include <...> search starts here:\\n " + include + "\\nEnd of search list.\\n\"}";
+  }
+
+  private static String command(String compilerKey, String path) {
+    return "{\"compiler\":\"clang\",\"cwd\":\"/base\",\"executable\":\"" + compilerKey + "\",\"cmd\":[\"clang\",\"" + path + "\"]}";
+  }
+
   private String loadExpected() throws IOException, URISyntaxException {
     String str = new String(Files.readAllBytes(Paths.get("src", "test", "resources", "expected.json")), StandardCharsets.UTF_8);
     return str.replace("\n", "").replace("\r", "");
@@ -0,0 +1,178 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.cdt.internal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.core.resources.IFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CFamilyCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final Set<String> existingFiles = new HashSet<>();
+  private Path cacheDir;
+  private CFamilyCache cache;
+  private Path analysisDir;
+  private IFile file;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = temp.getRoot().toPath().resolve("cache");
+    cache = new CFamilyCache(cacheDir, existingFiles::contains);
+    analysisDir = temp.newFolder().toPath();
+    file = mockFile("/project/main.c");
+    existingFiles.add("/project/main.c");
+  }
+
+  @Test
+  public void should_keep_cache_while_scanner_info_is_unchanged() throws IOException {
+    assertThat(cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "1")))).isTrue();
+    Path entry = Files.write(cacheDir.resolve("entry"), new byte[10]);
+    cache.release(analysisDir);
+
+    assertThat(cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "1")))).isTrue();
+
+    assertThat(entry).exists();
+  }
+
+  @Test
+  public void should_discard_cache_when_scanner_info_changes() throws IOException {
+    cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "1")));
+    Path entry = Files.write(cacheDir.resolve("entry"), new byte[10]);
+    cache.release(analysisDir);
+
+    assertThat(cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "0")))).isTrue();
+
+    assertThat(entry).doesNotExist();
+    assertThat(cacheDir).isDirectory();
+  }
+
+  @Test
+  public void should_not_discard_cache_used_by_another_analysis() throws IOException {
+    cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "1")));
+    Path entry = Files.write(cacheDir.resolve("entry"), new byte[10]);
+    Path otherAnalysisDir = temp.newFolder().toPath();
+
+    assertThat(cache.prepare(otherAnalysisDir, Collections.singleton(configuredFile(file, "DEBUG", "0")))).isFalse();
+    assertThat(entry).exists();
+
+    cache.release(analysisDir);
+    assertThat(cache.prepare(otherAnalysisDir, Collections.singleton(configuredFile(file, "DEBUG", "0")))).isTrue();
+    assertThat(entry).doesNotExist();
+  }
+
+  @Test
+  public void should_discard_whole_cache_above_budget() throws IOException {
+    cache.prepare(analysisDir, Collections.emptyList());
+    Path entry1 = Files.write(cacheDir.resolve("entry1"), new byte[700 * 1024]);
+    Path entry2 = Files.write(cacheDir.resolve("entry2"), new byte[700 * 1024]);
+
+    // Still used by the analysis
+    cache.trim(1);
+    assertThat(entry1).exists();
+
+    cache.release(analysisDir);
+    assertThat(cache.trim(1)).isFalse();
+
+    assertThat(entry1).doesNotExist();
+    assertThat(entry2).doesNotExist();
+  }
+
+  @Test
+  public void should_keep_cache_up_to_twice_the_budget_once_discarded_for_it() throws IOException {
+    Files.createDirectories(cacheDir);
+    Files.write(cacheDir.resolve("entry1"), new byte[1100 * 1024]);
+    assertThat(cache.trim(1)).isFalse();
+    assertThat(cacheDir).doesNotExist();
+
+    Files.createDirectories(cacheDir);
+    Path entry2 = Files.write(cacheDir.resolve("entry2"), new byte[1100 * 1024]);
+    assertThat(cache.trim(1)).isTrue();
+    assertThat(entry2).exists();
+    assertThat(cache.trim(1)).isFalse();
+    assertThat(entry2).exists();
+
+    Path entry3 = Files.write(cacheDir.resolve("entry3"), new byte[1100 * 1024]);
+    assertThat(cache.trim(1)).isFalse();
+    assertThat(entry2).doesNotExist();
+    assertThat(entry3).doesNotExist();
+  }
+
+  @Test
+  public void should_not_be_held_by_analysis_whose_folder_was_deleted() throws IOException {
+    cache.prepare(analysisDir, Collections.emptyList());
+    Files.write(cacheDir.resolve("entry"), new byte[10]);
+
+    FileUtils.deleteRecursively(analysisDir);
+
+    assertThat(cache.delete()).isTrue();
+    assertThat(cacheDir).doesNotExist();
+  }
+
+  @Test
+  public void should_forget_scanner_info_of_deleted_files() throws IOException {
+    cache.prepare(analysisDir, Collections.singleton(configuredFile(file, "DEBUG", "1")));
+    assertThat(scannerInfo()).contains("/project/main.c");
+
+    existingFiles.clear();
+    IFile other = mockFile("/project/other.c");
+    existingFiles.add("/project/other.c");
+    cache.prepare(analysisDir, Collections.singleton(configuredFile(other, "DEBUG", "1")));
+
+    assertThat(scannerInfo())
+      .contains("/project/other.c")
+      .doesNotContain("/project/main.c");
+  }
+
+  private String scannerInfo() throws IOException {
+    return new String(Files.readAllBytes(cacheDir.resolve("sonarlint-scanner-info.properties")), UTF_8);
+  }
+
+  private static IFile mockFile(String fullPath) {
+    IFile iFile = mock(IFile.class);
+    when(iFile.getFullPath()).thenReturn(new org.eclipse.core.runtime.Path(fullPath));
+    return iFile;
+  }
+
+  private static ConfiguredFile configuredFile(IFile iFile, String symbol, String value) {
+    return new ConfiguredFile.Builder(iFile)
+      .includes(new String[] {"/usr/include"})
+      .symbols(Collections.singletonMap(symbol, value))
+      .path("main.c")
+      .build();
+  }
+
+}
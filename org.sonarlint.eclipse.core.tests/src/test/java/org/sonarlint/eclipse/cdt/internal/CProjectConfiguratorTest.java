@@ -19,13 +19,22 @@
  */
 package org.sonarlint.eclipse.cdt.internal;
 
+import java.io.File;
+import java.io.Writer;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Predicate;
 import org.eclipse.cdt.core.CCorePlugin;
+import org.eclipse.cdt.core.language.settings.providers.ILanguageSettingsProvider;
 import org.eclipse.cdt.core.parser.IScannerInfo;
 import org.eclipse.cdt.core.parser.IScannerInfoProvider;
+import org.eclipse.cdt.core.settings.model.ICConfigurationDescription;
+import org.eclipse.cdt.core.settings.model.ICLanguageSettingEntry;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
@@ -36,15 +45,19 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
+import org.sonarlint.eclipse.core.internal.jobs.DefaultPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -82,7 +95,10 @@ public class CProjectConfiguratorTest {
     when(project.getLocation()).thenReturn(Path.fromOSString(projectBaseDir.toString()));
     when(infoProvider.getScannerInformation(file)).thenReturn(info);
     when(fileValidator.test(file)).thenReturn(true);
-    when(jsonFactory.create(anyCollection(), anyString())).thenReturn("json");
+    doAnswer(invocation -> {
+      invocation.<Writer>getArgument(2).write("json");
+      return null;
+    }).when(jsonFactory).write(anyCollection(), anyString(), any(Writer.class));
 
     IPreAnalysisContext context = mock(IPreAnalysisContext.class);
     DefaultSonarLintProjectAdapter slProject = new DefaultSonarLintProjectAdapter(project);
@@ -95,7 +111,7 @@ public class CProjectConfiguratorTest {
     configurator.configure(context, monitor);
 
     // json created
-    verify(jsonFactory).create(anyCollection(), eq(projectBaseDir.toAbsolutePath().toString()));
+    verify(jsonFactory).write(anyCollection(), eq(projectBaseDir.toAbsolutePath().toString()), any(Writer.class));
 
     // json written
     assertThat(temp.getRoot().toPath().resolve("build-wrapper-dump.json")).hasContent("json");
@@ -109,4 +125,105 @@ public class CProjectConfiguratorTest {
     verify(logger, never()).error(Mockito.any());
   }
 
+  @Test
+  public void should_configure_persistent_cache() throws Exception {
+    configurator = new CdtUtils(jsonFactory, cCorePlugin, fileValidator, (proj, path) -> null, logger, () -> 100, p -> f -> false);
+    File workingDir = temp.newFolder();
+    IProject project = mock(IProject.class);
+    when(project.getLocation()).thenReturn(Path.fromOSString(temp.newFolder().getAbsolutePath()));
+    when(project.getWorkingLocation(anyString())).thenReturn(Path.fromOSString(workingDir.toString()));
+    when(cCorePlugin.getScannerInfoProvider(project)).thenReturn(mock(IScannerInfoProvider.class));
+    doAnswer(invocation -> {
+      invocation.<Writer>getArgument(2).write("json");
+      return null;
+    }).when(jsonFactory).write(anyCollection(), anyString(), any(Writer.class));
+
+    IPreAnalysisContext context = mock(IPreAnalysisContext.class);
+    when(context.getProject()).thenReturn(new DefaultSonarLintProjectAdapter(project));
+    when(context.getFilesToAnalyze()).thenReturn(Collections.emptyList());
+    when(context.getAnalysisTemporaryFolder()).thenReturn(temp.newFolder().toPath());
+
+    configurator.configure(context, mock(IProgressMonitor.class));
+
+    File cacheDir = new File(workingDir, "cfamily-cache");
+    assertThat(cacheDir).isDirectory();
+    verify(context).setAnalysisProperty("sonar.cfamily.useCache", "true");
+    verify(context).setAnalysisProperty("sonar.cfamily.cache.enabled", "true");
+    verify(context).setAnalysisProperty("sonar.cfamily.cache.path", cacheDir.toString());
+    verify(logger, never()).error(Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  public void should_only_share_scanner_info_between_files_without_specific_settings() throws Exception {
+    IProject project = mock(IProject.class);
+    when(project.getLocation()).thenReturn(Path.fromOSString(temp.newFolder().getAbsolutePath()));
+    IFolder folder = mock(IFolder.class);
+    when(folder.getFullPath()).thenReturn(new Path("/project/src"));
+    IFile shared1 = mockFile(folder);
+    IFile shared2 = mockFile(folder);
+    IFile specific = mockFile(folder);
+    IScannerInfoProvider infoProvider = mock(IScannerInfoProvider.class);
+    when(infoProvider.getScannerInformation(any())).thenReturn(mock(IScannerInfo.class));
+    when(cCorePlugin.getScannerInfoProvider(project)).thenReturn(infoProvider);
+    when(fileValidator.test(any())).thenReturn(true);
+    configurator = new CdtUtils(jsonFactory, cCorePlugin, fileValidator, (proj, path) -> null, logger, () -> 0, p -> f -> f == specific);
+
+    DefaultPreAnalysisContext context = mock(DefaultPreAnalysisContext.class);
+    when(context.getProject()).thenReturn(new DefaultSonarLintProjectAdapter(project));
+    when(context.getFilesToAnalyze()).thenReturn(Arrays.asList(slFile(shared1), slFile(shared2), slFile(specific)));
+    when(context.getLocalPath(any())).thenReturn("src/file.c");
+    when(context.getAnalysisTemporaryFolder()).thenReturn(temp.newFolder().toPath());
+
+    configurator.configure(context, mock(IProgressMonitor.class));
+
+    verify(infoProvider).getScannerInformation(shared1);
+    verify(infoProvider, never()).getScannerInformation(shared2);
+    verify(infoProvider).getScannerInformation(specific);
+    verify(logger, never()).error(Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  public void should_query_settings_of_each_folder_once_per_language() {
+    ICConfigurationDescription configuration = mock(ICConfigurationDescription.class);
+    ILanguageSettingsProvider provider1 = mock(ILanguageSettingsProvider.class);
+    ILanguageSettingsProvider provider2 = mock(ILanguageSettingsProvider.class);
+    List<ILanguageSettingsProvider> providers = Arrays.asList(provider1, provider2);
+    Predicate<IFile> hasFileSpecificEntries = CdtUtils.hasFileSpecificEntries(configuration, providers, f -> Arrays.asList("c", "cpp"));
+    int folderCount = 50;
+    int filesPerFolder = 100;
+    List<IFile> files = new ArrayList<>();
+    for (int i = 0; i < folderCount; i++) {
+      IFolder folder = mock(IFolder.class);
+      when(folder.getFullPath()).thenReturn(new Path("/project/src" + i));
+      for (int j = 0; j < filesPerFolder; j++) {
+        files.add(mockFile(folder));
+      }
+    }
+    IFile specific = files.get(files.size() - 1);
+    when(provider2.getSettingEntries(configuration, specific, "cpp")).thenReturn(Collections.singletonList(mock(ICLanguageSettingEntry.class)));
+
+    for (IFile file : files) {
+      assertThat(hasFileSpecificEntries.test(file)).isEqualTo(file == specific);
+    }
+
+    // Querying both the file and its folder for every file would need 20000 queries per provider
+    for (ILanguageSettingsProvider provider : providers) {
+      verify(provider, times(folderCount * filesPerFolder * 2)).getSettingEntries(eq(configuration), any(IFile.class), anyString());
+      verify(provider, times(folderCount * 2)).getSettingEntries(eq(configuration), any(IFolder.class), anyString());
+    }
+  }
+
+  private static IFile mockFile(IFolder folder) {
+    IFile file = mock(IFile.class);
+    when(file.getParent()).thenReturn(folder);
+    when(file.getFileExtension()).thenReturn("c");
+    return file;
+  }
+
+  private static ISonarLintFile slFile(IFile file) {
+    ISonarLintFile slFile = mock(ISonarLintFile.class);
+    when(slFile.getResource()).thenReturn(file);
+    return slFile;
+  }
+
 }
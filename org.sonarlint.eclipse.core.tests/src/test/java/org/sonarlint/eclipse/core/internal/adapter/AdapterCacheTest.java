@@ -0,0 +1,114 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.adapter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdapterCacheTest extends SonarTestCase {
+
+  private static IProject project;
+  private AdapterCache cache;
+  private final AtomicInteger adaptCount = new AtomicInteger();
+  private final Function<IFile, String> adapter = file -> {
+    adaptCount.incrementAndGet();
+    return file.getName();
+  };
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleNonJdtProject");
+  }
+
+  @Before
+  public void prepare() {
+    cache = new AdapterCache();
+    workspace.addResourceChangeListener(cache, IResourceChangeEvent.POST_CHANGE);
+    cache.setEnabled(true);
+  }
+
+  @After
+  public void cleanup() {
+    workspace.removeResourceChangeListener(cache);
+  }
+
+  @Test
+  public void should_reuse_adapter_until_file_changes() throws CoreException {
+    IFile file = project.getFile("src/main/sample.js");
+    assertThat(cache.getOrAdapt(file, String.class, adapter)).isEqualTo("sample.js");
+    // Another handle on the same file
+    assertThat(cache.getOrAdapt(project.getFile("src/main/sample.js"), String.class, adapter)).isEqualTo("sample.js");
+    assertThat(adaptCount).hasValue(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+
+    IMarker marker = file.createMarker(IMarker.PROBLEM);
+    marker.delete();
+    cache.getOrAdapt(file, String.class, adapter);
+    assertThat(adaptCount).hasValue(1);
+
+    file.touch(MONITOR);
+    cache.getOrAdapt(file, String.class, adapter);
+    assertThat(adaptCount).hasValue(2);
+  }
+
+  @Test
+  public void should_discard_members_of_changed_folders() throws CoreException {
+    IFile file = project.getFile("src/main/sample.js");
+    cache.getOrAdapt(file, String.class, adapter);
+
+    project.getFolder("src/main").setDerived(true, MONITOR);
+    try {
+      cache.getOrAdapt(file, String.class, adapter);
+      assertThat(adaptCount).hasValue(2);
+    } finally {
+      project.getFolder("src/main").setDerived(false, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_not_cache_missing_files() {
+    IFile missing = project.getFile("src/main/missing.js");
+    cache.getOrAdapt(missing, String.class, adapter);
+    cache.getOrAdapt(missing, String.class, adapter);
+    assertThat(adaptCount).hasValue(2);
+  }
+
+  @Test
+  public void should_forget_everything_when_cleared() {
+    IFile file = project.getFile("src/main/sample.js");
+    cache.getOrAdapt(file, String.class, adapter);
+    cache.clear();
+    cache.getOrAdapt(file, String.class, adapter);
+    assertThat(adaptCount).hasValue(2);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EngineLifecycleLockTest {
+
+  private final EngineLifecycleLock underTest = new EngineLifecycleLock();
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void analyses_should_overlap() throws Exception {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    AtomicInteger maxConcurrentAnalyses = new AtomicInteger();
+    AtomicInteger concurrentAnalyses = new AtomicInteger();
+
+    Runnable analysis = () -> underTest.withSharedAccess(() -> {
+      maxConcurrentAnalyses.accumulateAndGet(concurrentAnalyses.incrementAndGet(), Math::max);
+      bothStarted.countDown();
+      try {
+        // Each analysis waits for the other one to be started, this would time out if analyses were serialized
+        return bothStarted.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        concurrentAnalyses.decrementAndGet();
+      }
+    });
+
+    Future<?> analysis1 = executor.submit(analysis);
+    Future<?> analysis2 = executor.submit(analysis);
+    analysis1.get(10, TimeUnit.SECONDS);
+    analysis2.get(10, TimeUnit.SECONDS);
+
+    assertThat(bothStarted.getCount()).isZero();
+    assertThat(maxConcurrentAnalyses.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void storage_update_should_wait_for_running_analyses() throws Exception {
+    CountDownLatch analysisStarted = new CountDownLatch(1);
+    CountDownLatch finishAnalysis = new CountDownLatch(1);
+    AtomicBoolean analysisRunning = new AtomicBoolean();
+    AtomicBoolean updateOverlappedAnalysis = new AtomicBoolean();
+
+    Future<?> analysis = executor.submit(() -> underTest.withSharedAccess(() -> {
+      analysisRunning.set(true);
+      analysisStarted.countDown();
+      try {
+        return finishAnalysis.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        analysisRunning.set(false);
+      }
+    }));
+    assertThat(analysisStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    Future<?> update = executor.submit(() -> underTest.withExclusiveAccess(() -> updateOverlappedAnalysis.set(analysisRunning.get())));
+
+    // The update is blocked as long as the analysis is running
+    Thread.sleep(100);
+    assertThat(update.isDone()).isFalse();
+
+    finishAnalysis.countDown();
+    analysis.get(10, TimeUnit.SECONDS);
+    update.get(10, TimeUnit.SECONDS);
+    assertThat(updateOverlappedAnalysis.get()).isFalse();
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonarlint.eclipse.tests.common.BindingHelpers.bind;
+import static org.sonarlint.eclipse.tests.common.BindingHelpers.unbind;
+
+public class BoundProjectsIndexTest extends SonarTestCase {
+
+  private static final String CONNECTION_ID = "indexConnection";
+
+  private static IProject project;
+  private static IProject otherProject;
+  private BoundProjectsIndex index;
+
+  @BeforeClass
+  public static void importProjects() throws Exception {
+    project = importEclipseProject("SimpleNonJdtProject");
+    otherProject = importEclipseProject("SimpleProject");
+  }
+
+  @Before
+  public void prepare() throws CoreException {
+    project.open(MONITOR);
+    otherProject.open(MONITOR);
+    index = new BoundProjectsIndex(workspace, SonarLintCorePlugin.getInstance().getProjectConfigManager());
+    index.start();
+  }
+
+  @After
+  public void cleanup() throws CoreException {
+    index.stop();
+    project.open(MONITOR);
+    otherProject.open(MONITOR);
+    unbind(project);
+    unbind(otherProject);
+  }
+
+  @Test
+  public void should_index_bound_projects_by_connection_and_project_key() {
+    bind(project, CONNECTION_ID, "key1");
+    bind(otherProject, CONNECTION_ID, "key2");
+
+    assertThat(index.getBoundProjects(CONNECTION_ID)).extracting(ISonarLintProject::getName).containsExactly("SimpleNonJdtProject", "SimpleProject");
+    assertThat(index.getBoundProjects(CONNECTION_ID, "key1")).extracting(ISonarLintProject::getName).containsExactly("SimpleNonJdtProject");
+    assertThat(index.getBoundProjects(CONNECTION_ID, "unknown")).isEmpty();
+    assertThat(index.getBoundProjects("unknownConnection")).isEmpty();
+    assertThat(index.getBoundProjectKeys(CONNECTION_ID)).containsExactly("key1", "key2");
+  }
+
+  @Test
+  public void should_only_index_again_projects_whose_binding_changed() {
+    bind(project, CONNECTION_ID, "key1");
+    assertThat(index.getBoundProjects(CONNECTION_ID, "key1")).hasSize(1);
+    long indexedProjects = index.getProjectIndexingCount();
+
+    bind(otherProject, CONNECTION_ID, "key1");
+    assertThat(index.getBoundProjects(CONNECTION_ID, "key1")).extracting(ISonarLintProject::getName).containsExactly("SimpleNonJdtProject", "SimpleProject");
+    assertThat(index.getProjectIndexingCount()).isEqualTo(indexedProjects + 1);
+
+    unbind(project);
+    assertThat(index.getBoundProjects(CONNECTION_ID, "key1")).extracting(ISonarLintProject::getName).containsExactly("SimpleProject");
+    assertThat(index.getBoundProjectKeys(CONNECTION_ID)).containsExactly("key1");
+    assertThat(index.getProjectIndexingCount()).isEqualTo(indexedProjects + 2);
+    assertThat(index.getFullBuildCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_follow_project_close_and_open() throws CoreException {
+    bind(project, CONNECTION_ID, "key1");
+    assertThat(index.getBoundProjects(CONNECTION_ID)).hasSize(1);
+
+    project.close(MONITOR);
+    assertThat(index.getBoundProjects(CONNECTION_ID)).isEmpty();
+    assertThat(index.getBoundProjectKeys(CONNECTION_ID)).isEmpty();
+
+    project.open(MONITOR);
+    assertThat(index.getBoundProjects(CONNECTION_ID)).extracting(ISonarLintProject::getName).containsExactly("SimpleNonJdtProject");
+    assertThat(index.getFullBuildCount()).isEqualTo(1);
+  }
+}
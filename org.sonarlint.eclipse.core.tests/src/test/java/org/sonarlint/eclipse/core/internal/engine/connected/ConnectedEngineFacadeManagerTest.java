@@ -28,6 +28,7 @@ import org.eclipse.equinox.security.storage.SecurePreferencesFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarsource.sonarlint.core.serverapi.HttpClient;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -100,6 +101,28 @@ public class ConnectedEngineFacadeManagerTest {
     assertThat(ROOT_SECURE.node(PREF_SERVERS).nodeExists("foo%2Fbar")).isFalse();
   }
 
+  @Test
+  public void reuse_http_client_until_connection_changes() throws Exception {
+    String id = "foo";
+    ConnectedEngineFacade server = (ConnectedEngineFacade) manager.create(id, "http://foo", null, "login", "pwd", false);
+    manager.addServer(server, "login", "pwd");
+
+    HttpClient client = server.buildClientWithProxyAndCredentials();
+    assertThat(server.buildClientWithProxyAndCredentials()).isSameAs(client);
+    assertThat(server.getCachedHttpClient().getHitCount()).isEqualTo(1);
+    assertThat(server.getCachedHttpClient().getMissCount()).isEqualTo(1);
+
+    // Credentials changed
+    manager.updateConnection(manager.create(id, "http://foo", null, "login2", "pwd2", false), "login2", "pwd2");
+    HttpClient clientWithNewCredentials = server.buildClientWithProxyAndCredentials();
+    assertThat(clientWithNewCredentials).isNotSameAs(client);
+    assertThat(server.buildClientWithProxyAndCredentials()).isSameAs(clientWithNewCredentials);
+
+    server.setHost("http://foo2");
+    assertThat(server.buildClientWithProxyAndCredentials()).isNotSameAs(clientWithNewCredentials);
+    assertThat(server.getCachedHttpClient().getMissCount()).isEqualTo(3);
+  }
+
   @Test
   public void should_use_defaults_from_plugin_customization() throws Exception {
     assertThat(ROOT.nodeExists(PREF_SERVERS)).isFalse();
@@ -0,0 +1,140 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.tracking.ServerIssueUpdater;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine.State;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
+import org.sonarsource.sonarlint.core.client.api.exceptions.DownloadException;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectedEngineFacadeTest {
+
+  private final ConnectedSonarLintEngine engine = mock(ConnectedSonarLintEngine.class);
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final CountDownLatch updateStarted = new CountDownLatch(1);
+  private final CountDownLatch finishUpdate = new CountDownLatch(1);
+  private ConnectedEngineFacade underTest;
+
+  @Before
+  public void prepare() {
+    when(engine.getState()).thenReturn(State.UPDATED);
+    when(engine.getServerIssues(any(), anyString())).thenReturn(emptyList());
+    doAnswer(invocation -> {
+      updateStarted.countDown();
+      return finishUpdate.await(10, TimeUnit.SECONDS);
+    }).when(engine).updateProject(any(), any(), eq("myProject"), anyBoolean(), any());
+    underTest = new ConnectedEngineFacade("facadeTest") {
+      @Override
+      protected ConnectedSonarLintEngine newEngine(ConnectedGlobalConfiguration globalConfig) {
+        return engine;
+      }
+    };
+    underTest.setHost("http://localhost:9000");
+  }
+
+  @After
+  public void cleanup() {
+    finishUpdate.countDown();
+    executor.shutdownNow();
+    underTest.stop();
+  }
+
+  @Test
+  public void storage_reads_should_wait_for_project_update() throws Exception {
+    Future<?> update = executor.submit(() -> underTest.updateProjectStorage("myProject", new NullProgressMonitor()));
+    assertThat(updateStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    Future<?> read = executor.submit(() -> underTest.getServerIssues(new ProjectBinding("myProject", "", ""), "Foo.java"));
+    Thread.sleep(100);
+    assertThat(read.isDone()).isFalse();
+
+    finishUpdate.countDown();
+    update.get(10, TimeUnit.SECONDS);
+    read.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void issue_download_should_wait_for_project_update() throws Exception {
+    Future<?> update = executor.submit(() -> underTest.updateProjectStorage("myProject", new NullProgressMonitor()));
+    assertThat(updateStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    Future<?> download = executor.submit(() -> underTest.downloadServerIssues(new ProjectBinding("myProject", "", ""), "Foo.java", new NullProgressMonitor()));
+    Thread.sleep(100);
+    assertThat(download.isDone()).isFalse();
+
+    finishUpdate.countDown();
+    update.get(10, TimeUnit.SECONDS);
+    download.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void editor_opens_after_project_issues_sync_should_not_download_issues_again() {
+    ProjectBinding binding = new ProjectBinding("syncedProject", "", "");
+    assertThat(underTest.syncServerIssuesIfNeeded("syncedProject", ServerIssueUpdater.PROJECT_ISSUES_MAX_AGE_MILLIS, new NullProgressMonitor())).isTrue();
+
+    for (int i = 0; i < 10; i++) {
+      ISonarLintFile file = mock(ISonarLintFile.class);
+      when(file.getProjectRelativePath()).thenReturn("File" + i + ".java");
+      ServerIssueUpdater.fetchServerIssues(underTest, binding, file, new NullProgressMonitor());
+    }
+
+    verify(engine, never()).downloadServerIssues(any(), any(), any(ProjectBinding.class), anyString(), anyBoolean(), any());
+    verify(engine, times(10)).getServerIssues(eq(binding), anyString());
+  }
+
+  @Test
+  public void failed_project_issues_download_should_be_retried() {
+    doThrow(new DownloadException()).when(engine).downloadServerIssues(any(), any(), eq("failingProject"), anyBoolean(), any());
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> underTest.syncServerIssuesIfNeeded("failingProject", TimeUnit.HOURS.toMillis(1), new NullProgressMonitor()))
+        .isInstanceOf(DownloadException.class);
+    }
+    verify(engine, times(2)).downloadServerIssues(any(), any(), eq("failingProject"), anyBoolean(), any());
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.internal.jobs.WrappedProgressMonitor;
+import org.sonarsource.sonarlint.core.ConnectedSonarLintEngineImpl;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
+import org.sonarsource.sonarlint.core.container.storage.StoragePaths;
+import org.sonarsource.sonarlint.core.serverapi.EndpointParams;
+import org.sonarsource.sonarlint.core.serverapi.HttpClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Document the locking of the SonarLint core engine that {@link ConnectedEngineFacade} relies on: the engine keeps its own write lock
+ * for the whole download of project issues, so nothing else can use it, analyses included, until the server answered.
+ */
+public class ConnectedSonarLintEngineLockTest {
+
+  private static final String PROJECT_KEY = "myProject";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final HttpClient httpClient = mock(HttpClient.class);
+  private final CountDownLatch requestStarted = new CountDownLatch(1);
+  private final CountDownLatch answerRequest = new CountDownLatch(1);
+  private ConnectedSonarLintEngineImpl engine;
+
+  @Before
+  public void prepare() throws Exception {
+    ConnectedGlobalConfiguration globalConfig = ConnectedGlobalConfiguration.builder()
+      .setConnectionId("lockTest")
+      .setStorageRoot(temp.newFolder("storage").toPath())
+      .setWorkDir(temp.newFolder("work").toPath())
+      .build();
+    // An empty file is a valid empty project configuration
+    Path projectConfig = new StoragePaths(globalConfig).getProjectConfigurationPath(PROJECT_KEY);
+    Files.createDirectories(projectConfig.getParent());
+    Files.createFile(projectConfig);
+    when(httpClient.get(anyString())).thenAnswer(invocation -> {
+      requestStarted.countDown();
+      answerRequest.await(10, TimeUnit.SECONDS);
+      throw new IllegalStateException("Server unreachable");
+    });
+    engine = new ConnectedSonarLintEngineImpl(globalConfig);
+  }
+
+  @After
+  public void cleanup() {
+    answerRequest.countDown();
+    executor.shutdownNow();
+    engine.stop(false);
+  }
+
+  @Test
+  public void engine_should_be_locked_during_the_whole_issue_download() throws Exception {
+    Future<?> download = executor.submit(() -> engine.downloadServerIssues(new EndpointParams("http://localhost:9000", false, null), httpClient,
+      PROJECT_KEY, false, new WrappedProgressMonitor(new NullProgressMonitor(), "Fetch issues")));
+    assertThat(requestStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    // Takes the same read lock as analyses
+    Future<?> read = executor.submit(() -> engine.getPluginDetails());
+    Thread.sleep(100);
+    assertThat(read.isDone()).isFalse();
+
+    answerRequest.countDown();
+    read.get(10, TimeUnit.SECONDS);
+    assertThatThrownBy(() -> download.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+  }
+
+}
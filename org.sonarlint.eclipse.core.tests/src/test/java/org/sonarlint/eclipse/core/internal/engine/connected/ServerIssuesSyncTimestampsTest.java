@@ -0,0 +1,79 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerIssuesSyncTimestampsTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path file;
+
+  @Before
+  public void prepare() throws IOException {
+    file = temporaryFolder.newFolder().toPath().resolve("storage").resolve("issues-sync.properties");
+  }
+
+  @Test
+  public void never_synced_project() {
+    assertThat(new ServerIssuesSyncTimestamps(file).getLastSync("myProject")).isZero();
+  }
+
+  @Test
+  public void persist_last_sync_per_project() {
+    ServerIssuesSyncTimestamps timestamps = new ServerIssuesSyncTimestamps(file);
+    timestamps.setLastSync("myProject", 42L);
+    timestamps.setLastSync("otherProject", 50L);
+
+    ServerIssuesSyncTimestamps reloaded = new ServerIssuesSyncTimestamps(file);
+    assertThat(reloaded.getLastSync("myProject")).isEqualTo(42L);
+    assertThat(reloaded.getLastSync("otherProject")).isEqualTo(50L);
+  }
+
+  @Test
+  public void clear_all_projects() {
+    ServerIssuesSyncTimestamps timestamps = new ServerIssuesSyncTimestamps(file);
+    timestamps.setLastSync("myProject", 42L);
+    timestamps.clear();
+
+    assertThat(timestamps.getLastSync("myProject")).isZero();
+    assertThat(new ServerIssuesSyncTimestamps(file).getLastSync("myProject")).isZero();
+  }
+
+  @Test
+  public void forget_last_sync_when_storage_is_deleted() throws IOException {
+    ServerIssuesSyncTimestamps timestamps = new ServerIssuesSyncTimestamps(file);
+    timestamps.setLastSync("myProject", 42L);
+    Files.delete(file);
+
+    assertThat(timestamps.getLastSync("myProject")).isZero();
+  }
+
+}
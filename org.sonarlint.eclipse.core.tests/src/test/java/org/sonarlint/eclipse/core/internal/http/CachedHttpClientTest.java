@@ -0,0 +1,68 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.sonarsource.sonarlint.core.serverapi.HttpClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class CachedHttpClientTest {
+
+  private final CachedHttpClient cachedClient = new CachedHttpClient();
+  private final AtomicInteger buildCount = new AtomicInteger();
+
+  private HttpClient build() {
+    buildCount.incrementAndGet();
+    return mock(HttpClient.class);
+  }
+
+  @Test
+  public void reuse_client_while_key_is_the_same() {
+    HttpClient client = cachedClient.get("key", this::build);
+
+    assertThat(cachedClient.get("key", this::build)).isSameAs(client);
+    assertThat(buildCount.get()).isEqualTo(1);
+    assertThat(cachedClient.getHitCount()).isEqualTo(1);
+    assertThat(cachedClient.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void build_new_client_when_key_changes() {
+    HttpClient client = cachedClient.get("key", this::build);
+    HttpClient otherClient = cachedClient.get("other", this::build);
+
+    assertThat(otherClient).isNotSameAs(client);
+    assertThat(cachedClient.get("other", this::build)).isSameAs(otherClient);
+    assertThat(buildCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void build_new_client_after_invalidation() {
+    HttpClient client = cachedClient.get("key", this::build);
+    cachedClient.invalidate();
+
+    assertThat(cachedClient.get("key", this::build)).isNotSameAs(client);
+    assertThat(buildCount.get()).isEqualTo(2);
+  }
+
+}
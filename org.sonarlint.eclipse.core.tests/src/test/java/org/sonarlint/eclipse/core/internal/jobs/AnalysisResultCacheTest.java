@@ -0,0 +1,169 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.sonarlint.core.client.api.common.TextRange;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisResultCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path basePath;
+  private int maxSizeInMb = 1;
+  private AnalysisResultCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    basePath = temporaryFolder.newFolder().toPath();
+    cache = new AnalysisResultCache(basePath, () -> maxSizeInMb);
+  }
+
+  @Test
+  public void key_depends_on_all_parts() {
+    assertThat(AnalysisResultCache.key("content", "rules")).isEqualTo(AnalysisResultCache.key("content", "rules"));
+    assertThat(AnalysisResultCache.key("content", "rules")).isNotEqualTo(AnalysisResultCache.key("content", "rules2"));
+    assertThat(AnalysisResultCache.key("ab", "c")).isNotEqualTo(AnalysisResultCache.key("a", "bc"));
+  }
+
+  @Test
+  public void should_count_hits_and_misses() {
+    String key = AnalysisResultCache.key("content");
+    assertThat(cache.get(key)).isEmpty();
+
+    cache.put(key, Collections.emptyList());
+
+    assertThat(cache.get(key)).hasValueSatisfying(issues -> assertThat(issues).isEmpty());
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_restore_issues_with_flows() {
+    String key = AnalysisResultCache.key("content");
+    cache.put(key, Arrays.asList(issueWithFlow(), fileLevelIssue()));
+
+    List<Issue> issues = new AnalysisResultCache(basePath, () -> maxSizeInMb).get(key).get();
+
+    assertThat(issues).hasSize(2);
+    Issue restored = issues.get(0);
+    assertThat(restored.getRuleKey()).isEqualTo("java:S2259");
+    assertThat(restored.getRuleName()).isEqualTo("Null pointers should not be dereferenced");
+    assertThat(restored.getSeverity()).isEqualTo("MAJOR");
+    assertThat(restored.getType()).isEqualTo("BUG");
+    assertThat(restored.getMessage()).isEqualTo("NPE");
+    assertThat(restored.getStartLine()).isEqualTo(11);
+    assertThat(restored.getStartLineOffset()).isEqualTo(4);
+    assertThat(restored.getEndLine()).isEqualTo(11);
+    assertThat(restored.getEndLineOffset()).isEqualTo(7);
+    assertThat(restored.flows()).hasSize(1);
+    IssueLocation location = restored.flows().get(0).locations().get(0);
+    assertThat(location.getMessage()).isEqualTo("null assigned");
+    assertThat(location.getStartLine()).isEqualTo(7);
+    assertThat(location.getStartLineOffset()).isNull();
+
+    Issue fileLevel = issues.get(1);
+    assertThat(fileLevel.getTextRange()).isNull();
+    assertThat(fileLevel.getStartLine()).isNull();
+    assertThat(fileLevel.flows()).isEmpty();
+  }
+
+  @Test
+  public void should_evict_least_recently_used_entries_when_over_budget() {
+    maxSizeInMb = 0;
+    String key = AnalysisResultCache.key("content");
+    cache.put(key, Arrays.asList(issueWithFlow()));
+
+    assertThat(cache.get(key)).isEmpty();
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+    assertThat(cache.getSizeOnDisk()).isZero();
+    assertThat(cache.isEnabled()).isFalse();
+  }
+
+  @Test
+  public void should_reload_index_from_disk() {
+    String key = AnalysisResultCache.key("content");
+    cache.put(key, Arrays.asList(issueWithFlow()));
+    long size = cache.getSizeOnDisk();
+
+    AnalysisResultCache reloaded = new AnalysisResultCache(basePath, () -> maxSizeInMb);
+
+    assertThat(size).isPositive();
+    assertThat(reloaded.getSizeOnDisk()).isEqualTo(size);
+    assertThat(reloaded.get(key)).isPresent();
+  }
+
+  @Test
+  public void clear_should_remove_all_entries() {
+    String key = AnalysisResultCache.key("content");
+    cache.put(key, Collections.emptyList());
+
+    cache.clear();
+
+    Optional<List<Issue>> issues = cache.get(key);
+    assertThat(issues).isEmpty();
+    assertThat(cache.getSizeOnDisk()).isZero();
+  }
+
+  private static Issue issueWithFlow() {
+    IssueLocation location = mock(IssueLocation.class);
+    when(location.getMessage()).thenReturn("null assigned");
+    when(location.getTextRange()).thenReturn(new TextRange(7, null, 7, null));
+    Issue.Flow flow = mock(Issue.Flow.class);
+    when(flow.locations()).thenReturn(Arrays.asList(location));
+
+    Issue issue = mock(Issue.class);
+    when(issue.getRuleKey()).thenReturn("java:S2259");
+    when(issue.getRuleName()).thenReturn("Null pointers should not be dereferenced");
+    when(issue.getSeverity()).thenReturn("MAJOR");
+    when(issue.getType()).thenReturn("BUG");
+    when(issue.getMessage()).thenReturn("NPE");
+    when(issue.getTextRange()).thenReturn(new TextRange(11, 4, 11, 7));
+    when(issue.flows()).thenReturn(Arrays.asList(flow));
+    return issue;
+  }
+
+  private static Issue fileLevelIssue() {
+    Issue issue = mock(Issue.class);
+    when(issue.getRuleKey()).thenReturn("java:S1451");
+    when(issue.getRuleName()).thenReturn("Copyright and license headers should be defined");
+    when(issue.getSeverity()).thenReturn("BLOCKER");
+    when(issue.getType()).thenReturn("CODE_SMELL");
+    when(issue.getMessage()).thenReturn("Add or update the header of this file.");
+    when(issue.flows()).thenReturn(Collections.emptyList());
+    return issue;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisSchedulerTest {
+
+  private static final ISchedulingRule RULE = new ISchedulingRule() {
+    @Override
+    public boolean contains(ISchedulingRule rule) {
+      return rule == this;
+    }
+
+    @Override
+    public boolean isConflicting(ISchedulingRule rule) {
+      return rule == this;
+    }
+  };
+
+  private final ISonarLintProject project = mock(ISonarLintProject.class);
+  private final ISonarLintFile file1 = mock(ISonarLintFile.class);
+  private final ISonarLintFile file2 = mock(ISonarLintFile.class);
+  private final List<FakeAnalysisJob> createdJobs = new ArrayList<>();
+  private final List<AnalyzeProjectRequest> analyzedRequests = new ArrayList<>();
+  private final CountDownLatch firstJobStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseJobs = new CountDownLatch(1);
+  private AnalysisScheduler underTest;
+
+  @Before
+  public void prepare() {
+    when(project.getName()).thenReturn("project");
+    underTest = new AnalysisScheduler(request -> {
+      FakeAnalysisJob job = new FakeAnalysisJob(request);
+      synchronized (createdJobs) {
+        createdJobs.add(job);
+      }
+      return job;
+    });
+  }
+
+  @Test
+  public void should_merge_requests_while_analysis_is_waiting() throws InterruptedException {
+    releaseJobs.countDown();
+    Job.getJobManager().beginRule(RULE, null);
+    try {
+      underTest.schedule(request(TriggerType.EDITOR_CHANGE, file1));
+      underTest.schedule(request(TriggerType.EDITOR_OPEN, file2));
+
+      assertThat(underTest.getQueueDepth()).isEqualTo(1);
+      assertThat(underTest.getMergedRequestCount()).isEqualTo(1);
+    } finally {
+      Job.getJobManager().endRule(RULE);
+    }
+    joinAll();
+
+    assertThat(createdJobs.get(0).getResult().getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(analyzedRequests).hasSize(1);
+    AnalyzeProjectRequest merged = analyzedRequests.get(0);
+    assertThat(merged.getFiles()).extracting(FileWithDocument::getFile).containsExactly(file1, file2);
+    assertThat(merged.getTriggerType()).isEqualTo(TriggerType.EDITOR_OPEN);
+    assertThat(underTest.getQueueDepth()).isZero();
+  }
+
+  @Test
+  public void should_cancel_running_analysis_superseded_by_new_request() throws InterruptedException {
+    underTest.schedule(request(TriggerType.EDITOR_CHANGE, file1));
+    assertThat(firstJobStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    underTest.schedule(request(TriggerType.EDITOR_CHANGE, file1, file2));
+    releaseJobs.countDown();
+    joinAll();
+
+    assertThat(underTest.getSupersededJobCount()).isEqualTo(1);
+    assertThat(underTest.getMergedRequestCount()).isZero();
+    assertThat(createdJobs.get(0).getResult().getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(createdJobs.get(1).getResult().isOK()).isTrue();
+    assertThat(analyzedRequests).extracting(r -> r.getFiles().size()).containsExactly(2);
+  }
+
+  @Test
+  public void should_keep_trigger_of_running_analysis_superseded_by_weaker_request() throws InterruptedException {
+    underTest.schedule(new AnalyzeProjectRequest(project, asList(new FileWithDocument(file1, null)), TriggerType.STARTUP, true));
+    assertThat(firstJobStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    underTest.schedule(request(TriggerType.EDITOR_CHANGE, file1));
+    releaseJobs.countDown();
+    joinAll();
+
+    assertThat(underTest.getSupersededJobCount()).isEqualTo(1);
+    assertThat(createdJobs.get(0).getResult().getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(analyzedRequests).hasSize(1);
+    AnalyzeProjectRequest merged = analyzedRequests.get(0);
+    assertThat(merged.getFiles()).extracting(FileWithDocument::getFile).containsExactly(file1);
+    assertThat(merged.getTriggerType()).isEqualTo(TriggerType.STARTUP);
+    assertThat(merged.shouldClearReport()).isTrue();
+  }
+
+  @Test
+  public void should_not_cancel_running_analysis_of_other_files() throws InterruptedException {
+    underTest.schedule(request(TriggerType.EDITOR_CHANGE, file1));
+    assertThat(firstJobStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+    underTest.schedule(request(TriggerType.EDITOR_CHANGE, file2));
+    releaseJobs.countDown();
+    joinAll();
+
+    assertThat(underTest.getSupersededJobCount()).isZero();
+    assertThat(createdJobs).extracting(j -> j.getResult().isOK()).containsExactly(true, true);
+    assertThat(analyzedRequests).hasSize(2);
+  }
+
+  private AnalyzeProjectRequest request(TriggerType triggerType, ISonarLintFile... files) {
+    List<FileWithDocument> filesWithDocument = new ArrayList<>();
+    for (ISonarLintFile file : files) {
+      filesWithDocument.add(new FileWithDocument(file, null));
+    }
+    return new AnalyzeProjectRequest(project, filesWithDocument, triggerType);
+  }
+
+  private void joinAll() throws InterruptedException {
+    List<FakeAnalysisJob> jobs;
+    synchronized (createdJobs) {
+      jobs = new ArrayList<>(createdJobs);
+    }
+    for (FakeAnalysisJob job : jobs) {
+      assertThat(job.join(10_000, new NullProgressMonitor())).isTrue();
+    }
+  }
+
+  private class FakeAnalysisJob extends Job {
+    private final AnalyzeProjectRequest request;
+
+    private FakeAnalysisJob(AnalyzeProjectRequest request) {
+      super("Fake analysis");
+      this.request = request;
+      setRule(RULE);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      firstJobStarted.countDown();
+      try {
+        while (!releaseJobs.await(10, TimeUnit.MILLISECONDS)) {
+          if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Status.CANCEL_STATUS;
+      }
+      if (monitor.isCanceled()) {
+        return Status.CANCEL_STATUS;
+      }
+      synchronized (analyzedRequests) {
+        analyzedRequests.add(request);
+      }
+      return Status.OK_STATUS;
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+public class AnalyzeProjectRequestTest {
+
+  private final ISonarLintProject project = mock(ISonarLintProject.class);
+  private final ISonarLintFile file1 = mock(ISonarLintFile.class);
+  private final ISonarLintFile file2 = mock(ISonarLintFile.class);
+  private final IDocument oldDoc = mock(IDocument.class);
+  private final IDocument newDoc = mock(IDocument.class);
+
+  @Test
+  public void merge_should_keep_union_of_files_with_most_recent_documents() {
+    AnalyzeProjectRequest pending = new AnalyzeProjectRequest(project, asList(new FileWithDocument(file1, oldDoc)), TriggerType.EDITOR_CHANGE);
+    AnalyzeProjectRequest newer = new AnalyzeProjectRequest(project, asList(new FileWithDocument(file1, newDoc), new FileWithDocument(file2, null)),
+      TriggerType.EDITOR_CHANGE);
+
+    AnalyzeProjectRequest merged = pending.merge(newer);
+
+    assertThat(merged.getProject()).isSameAs(project);
+    assertThat(merged.getFiles()).extracting(FileWithDocument::getFile, FileWithDocument::getDocument)
+      .containsExactly(tuple(file1, newDoc), tuple(file2, null));
+    assertThat(merged.shouldClearReport()).isFalse();
+  }
+
+  @Test
+  public void merge_should_keep_strongest_trigger() {
+    AnalyzeProjectRequest editorChange = new AnalyzeProjectRequest(project, asList(new FileWithDocument(file1, null)), TriggerType.EDITOR_CHANGE);
+    AnalyzeProjectRequest editorOpen = new AnalyzeProjectRequest(project, asList(new FileWithDocument(file1, null)), TriggerType.EDITOR_OPEN);
+
+    assertThat(editorChange.merge(editorOpen).getTriggerType()).isEqualTo(TriggerType.EDITOR_OPEN);
+    assertThat(editorOpen.merge(editorChange).getTriggerType()).isEqualTo(TriggerType.EDITOR_OPEN);
+  }
+
+  @Test
+  public void strongest_trigger_should_be_stable_on_equality() {
+    assertThat(TriggerType.EDITOR_OPEN.strongest(TriggerType.BINDING_CHANGE)).isEqualTo(TriggerType.EDITOR_OPEN);
+    assertThat(TriggerType.EDITOR_CHANGE.strongest(TriggerType.MANUAL)).isEqualTo(TriggerType.MANUAL);
+  }
+
+}
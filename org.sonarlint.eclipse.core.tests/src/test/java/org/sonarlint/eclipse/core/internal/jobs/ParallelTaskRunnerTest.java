@@ -0,0 +1,187 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ParallelTaskRunnerTest {
+
+  private final ParallelTaskRunner underTest = new ParallelTaskRunner("test worker", 2, "%d remaining task(s) on %d thread(s)");
+
+  @After
+  public void clearInterruption() {
+    Thread.interrupted();
+  }
+
+  @Test
+  public void should_run_tasks_concurrently_up_to_the_limit() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    Map<Integer, Integer> results = underTest.run(asList(1, 2, 3, 4, 5, 6), (item, monitor) -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(50);
+      running.decrementAndGet();
+      return item * 10;
+    }, new NullProgressMonitor());
+
+    assertThat(results).containsExactly(entry(1, 10), entry(2, 20), entry(3, 30), entry(4, 40), entry(5, 50), entry(6, 60));
+    assertThat(maxRunning.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_wait_for_all_tasks_and_skip_failed_ones() {
+    Map<Integer, String> results = underTest.run(asList(1, 2, 3), (item, monitor) -> {
+      if (item == 2) {
+        throw new IllegalStateException("failure");
+      }
+      sleep(item * 50L);
+      return "done " + item;
+    }, new NullProgressMonitor());
+
+    assertThat(results).containsExactly(entry(1, "done 1"), entry(3, "done 3"));
+  }
+
+  @Test
+  public void should_forward_cancellation_to_running_and_queued_tasks() throws InterruptedException {
+    IProgressMonitor monitor = new NullProgressMonitor();
+    CountDownLatch tasksStarted = new CountDownLatch(2);
+    AtomicInteger canceledTasks = new AtomicInteger();
+    Thread canceler = new Thread(() -> {
+      try {
+        if (tasksStarted.await(10, TimeUnit.SECONDS)) {
+          monitor.setCanceled(true);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    canceler.start();
+
+    Map<Integer, Boolean> results = underTest.run(asList(1, 2, 3, 4), (item, workerMonitor) -> {
+      tasksStarted.countDown();
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (!workerMonitor.isCanceled() && System.currentTimeMillis() < deadline) {
+        sleep(5);
+      }
+      if (workerMonitor.isCanceled()) {
+        canceledTasks.incrementAndGet();
+      }
+      return workerMonitor.isCanceled();
+    }, monitor);
+    canceler.join(10_000);
+
+    assertThat(results).hasSize(4).containsValues(true).doesNotContainValue(false);
+    assertThat(canceledTasks.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_cancel_workers_when_caller_is_interrupted() {
+    AtomicBoolean workerCanceled = new AtomicBoolean();
+    CountDownLatch workerStopped = new CountDownLatch(1);
+    Thread.currentThread().interrupt();
+
+    Map<Integer, Boolean> results = underTest.run(asList(1), (item, workerMonitor) -> {
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (!workerMonitor.isCanceled() && System.currentTimeMillis() < deadline) {
+        sleep(5);
+      }
+      workerCanceled.set(workerMonitor.isCanceled());
+      workerStopped.countDown();
+      return true;
+    }, new NullProgressMonitor());
+
+    assertThat(Thread.interrupted()).isTrue();
+    assertThat(results).isEmpty();
+    try {
+      assertThat(workerStopped.await(10, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    assertThat(workerCanceled.get()).isTrue();
+  }
+
+  @Test
+  public void should_forward_progress_of_workers_to_caller() {
+    ProgressRecorder monitor = new ProgressRecorder();
+
+    Map<Integer, Double> results = underTest.run(asList(1), (item, workerMonitor) -> {
+      workerMonitor.beginTask("Task " + item, 2);
+      workerMonitor.worked(1);
+      workerMonitor.subTask("Step 1");
+      try {
+        assertThat(monitor.stepForwarded.await(10, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return monitor.work;
+    }, monitor);
+
+    assertThat(results.get(1)).isPositive();
+    assertThat(monitor.subTasks).contains("Step 1");
+  }
+
+  private static class ProgressRecorder extends NullProgressMonitor {
+    private final List<String> subTasks = new CopyOnWriteArrayList<>();
+    private final CountDownLatch stepForwarded = new CountDownLatch(1);
+    private volatile double work;
+
+    @Override
+    public void subTask(String name) {
+      subTasks.add(name);
+      if ("Step 1".equals(name)) {
+        stepForwarded.countDown();
+      }
+    }
+
+    @Override
+    public void worked(int work) {
+      internalWorked(work);
+    }
+
+    @Override
+    public void internalWorked(double work) {
+      this.work += work;
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
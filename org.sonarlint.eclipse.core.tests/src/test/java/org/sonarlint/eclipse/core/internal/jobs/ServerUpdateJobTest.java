@@ -0,0 +1,137 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.sonarlint.eclipse.core.internal.engine.connected.IConnectedEngineFacade;
+import org.sonarlint.eclipse.core.internal.jobs.ServerUpdateJob.ProjectUpdateOutcome;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine.State;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.sonarlint.eclipse.tests.common.BindingHelpers.bind;
+
+public class ServerUpdateJobTest extends SonarTestCase {
+
+  private static final String CONNECTION_ID = "updateConnection";
+
+  private static ISonarLintProject project;
+  private static ISonarLintProject otherProject;
+  private IConnectedEngineFacade server;
+
+  @BeforeClass
+  public static void importProjects() throws Exception {
+    project = bind(importEclipseProject("SimpleNonJdtProject"), CONNECTION_ID, "key1");
+    otherProject = bind(importEclipseProject("SimpleProject"), CONNECTION_ID, "key2");
+  }
+
+  @Before
+  public void prepare() {
+    server = mock(IConnectedEngineFacade.class);
+    when(server.getId()).thenReturn(CONNECTION_ID);
+    when(server.getBoundProjects()).thenReturn(asList(project, otherProject));
+    when(server.getStorageState()).thenReturn(State.UPDATED);
+  }
+
+  @Test
+  public void only_update_stale_storages() throws InterruptedException {
+    when(server.checkIfGlobalStorageNeedUpdate(any())).thenReturn(false);
+    when(server.checkIfProjectStorageNeedUpdate(eq("key1"), any())).thenReturn(true);
+    when(server.checkIfProjectStorageNeedUpdate(eq("key2"), any())).thenReturn(false);
+
+    ServerUpdateJob underTest = runJob();
+
+    assertThat(underTest.getResult().isOK()).isTrue();
+    verify(server, never()).updateStorage(any());
+    verify(server).updateProjectStorage(eq("key1"), any());
+    verify(server, never()).updateProjectStorage(eq("key2"), any());
+    verify(server).updateProjectIssues(eq("key2"), any());
+    assertThat(underTest.getProjectOutcomes()).containsExactly(entry("key1", ProjectUpdateOutcome.UPDATED), entry("key2", ProjectUpdateOutcome.UP_TO_DATE));
+  }
+
+  @Test
+  public void check_projects_after_global_storage_update() throws InterruptedException {
+    when(server.checkIfGlobalStorageNeedUpdate(any())).thenReturn(true);
+    when(server.checkIfProjectStorageNeedUpdate(anyString(), any())).thenReturn(false);
+
+    ServerUpdateJob underTest = runJob();
+
+    assertThat(underTest.getResult().isOK()).isTrue();
+    InOrder inOrder = inOrder(server);
+    inOrder.verify(server).updateStorage(any());
+    inOrder.verify(server).checkIfProjectStorageNeedUpdate(eq("key1"), any());
+    verify(server, never()).updateProjectStorage(anyString(), any());
+    verify(server).updateProjectIssues(eq("key1"), any());
+    verify(server).updateProjectIssues(eq("key2"), any());
+    assertThat(underTest.getProjectOutcomes()).containsExactly(entry("key1", ProjectUpdateOutcome.UP_TO_DATE), entry("key2", ProjectUpdateOutcome.UP_TO_DATE));
+  }
+
+  @Test
+  public void update_everything_when_storage_was_never_updated() throws InterruptedException {
+    when(server.getStorageState()).thenReturn(State.NEVER_UPDATED);
+
+    ServerUpdateJob underTest = runJob();
+
+    assertThat(underTest.getResult().isOK()).isTrue();
+    verify(server, never()).checkIfGlobalStorageNeedUpdate(any());
+    verify(server, never()).checkIfProjectStorageNeedUpdate(anyString(), any());
+    verify(server).updateStorage(any());
+    assertThat(underTest.getProjectOutcomes()).containsExactly(entry("key1", ProjectUpdateOutcome.UPDATED), entry("key2", ProjectUpdateOutcome.UPDATED));
+  }
+
+  @Test
+  public void update_when_check_fails_and_report_failures() throws InterruptedException {
+    when(server.checkIfGlobalStorageNeedUpdate(any())).thenReturn(false);
+    when(server.checkIfProjectStorageNeedUpdate(eq("key1"), any())).thenThrow(new IllegalStateException("unreachable"));
+    when(server.checkIfProjectStorageNeedUpdate(eq("key2"), any())).thenReturn(true);
+    doThrow(new IllegalStateException("failure")).when(server).updateProjectStorage(eq("key2"), any());
+
+    ServerUpdateJob underTest = runJob();
+
+    assertThat(underTest.getResult().getSeverity()).isEqualTo(IStatus.ERROR);
+    assertThat(underTest.getResult().getChildren()).hasSize(1);
+    assertThat(underTest.getProjectOutcomes()).containsExactly(entry("key1", ProjectUpdateOutcome.UPDATED), entry("key2", ProjectUpdateOutcome.FAILED));
+  }
+
+  private ServerUpdateJob runJob() throws InterruptedException {
+    ServerUpdateJob underTest = new ServerUpdateJob(server);
+    underTest.schedule();
+    assertThat(underTest.join(10_000, new NullProgressMonitor())).isTrue();
+    return underTest;
+  }
+
+}
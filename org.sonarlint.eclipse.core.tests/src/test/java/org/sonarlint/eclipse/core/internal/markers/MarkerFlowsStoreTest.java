@@ -0,0 +1,202 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.markers;
+
+import java.util.Arrays;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MarkerFlowsStoreTest extends SonarTestCase {
+
+  private static IProject project;
+  private IFile file;
+  private ISonarLintFile sonarLintFile;
+  private MarkerFlowsStore store;
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleNonJdtProject");
+  }
+
+  @Before
+  public void prepare() {
+    file = project.getFile("src/main/sample.js");
+    sonarLintFile = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), file);
+    store = new MarkerFlowsStore(2);
+  }
+
+  @After
+  public void cleanup() throws CoreException {
+    store.clear();
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO);
+  }
+
+  @Test
+  public void create_flow_markers_on_demand_only() throws Exception {
+    IMarker issueMarker = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    MarkerFlows flows = newFlows("message");
+    store.put(issueMarker, flows);
+
+    assertThat(store.get(issueMarker)).isSameAs(flows);
+    assertThat(flowMarkers()).isEmpty();
+    assertThat(flows.getSummaryDescription()).isEqualTo(" [+1 location]");
+    assertThat(flowMarkers()).isEmpty();
+
+    assertThat(location(flows).getMarker()).isNull();
+    assertThat(flows.createMarkersIfNeeded()).isTrue();
+    IMarker flowMarker = location(flows).getMarker();
+    assertThat(flowMarker).isNotNull();
+    assertThat(flowMarker.getAttribute(IMarker.MESSAGE)).isEqualTo("message");
+    assertThat(flowMarker.getAttribute(IMarker.LINE_NUMBER)).isEqualTo(1);
+    assertThat(flows.createMarkersIfNeeded()).isFalse();
+    assertThat(location(flows).getMarker()).isEqualTo(flowMarker);
+    assertThat(flowMarkers()).containsExactly(flowMarker);
+    assertThat(store.getCreatedFlowMarkersCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void delete_flow_markers_of_least_recently_used_issues() throws Exception {
+    MarkerFlows flows1 = putNewFlows();
+    MarkerFlows flows2 = putNewFlows();
+    MarkerFlows flows3 = putNewFlows();
+
+    IMarker flowMarker1 = createMarker(flows1);
+    IMarker flowMarker2 = createMarker(flows2);
+    createMarker(flows1);
+    createMarker(flows3);
+
+    assertThat(flowMarkers()).hasSize(2);
+    assertThat(flowMarker2.exists()).isFalse();
+
+    // Evicted flows are still valid
+    assertThat(location(flows2).getMarker()).isNull();
+    IMarker newFlowMarker2 = createMarker(flows2);
+    assertThat(newFlowMarker2).isNotNull();
+    assertThat(newFlowMarker2.exists()).isTrue();
+    assertThat(flowMarker1.exists()).isFalse();
+    assertThat(flowMarkers()).hasSize(2);
+    assertThat(store.getCreatedFlowMarkersCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void delete_flow_markers_of_replaced_or_removed_flows() throws Exception {
+    IMarker issueMarker = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    MarkerFlows previousFlows = newFlows("previous");
+    store.put(issueMarker, previousFlows);
+    IMarker previousFlowMarker = createMarker(previousFlows);
+
+    MarkerFlows newFlows = newFlows("new");
+    store.put(issueMarker, newFlows);
+
+    assertThat(previousFlowMarker.exists()).isFalse();
+    assertThat(location(previousFlows).getMarker()).isNull();
+    assertThat(previousFlows.createMarkersIfNeeded()).isFalse();
+    assertThat(location(previousFlows).getMarker()).isNull();
+    assertThat(store.get(issueMarker)).isSameAs(newFlows);
+
+    createMarker(newFlows);
+    store.remove(issueMarker);
+
+    assertThat(flowMarkers()).isEmpty();
+    assertThat(store.get(issueMarker).isEmpty()).isTrue();
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  public void key_flows_by_marker_resource_and_id() throws Exception {
+    IMarker issueMarker = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    MarkerFlows flows = newFlows("message");
+    store.put(issueMarker, flows);
+
+    IMarker sameIdOnOtherFile = project.getFile("src/main/Program.cbl").getMarker(issueMarker.getId());
+    assertThat(store.get(sameIdOnOtherFile).isEmpty()).isTrue();
+    store.remove(sameIdOnOtherFile);
+    assertThat(store.get(issueMarker)).isSameAs(flows);
+  }
+
+  @Test
+  public void remove_flows_of_resource_and_marker_type() throws Exception {
+    IFile otherFile = project.getFile("src/main/Program.cbl");
+    IMarker issueMarker = file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    store.put(issueMarker, newFlows("message"));
+    IMarker otherFileMarker = otherFile.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
+    MarkerFlows otherFileFlows = newFlows("other file");
+    store.put(otherFileMarker, otherFileFlows);
+    IMarker reportMarker = file.createMarker(SonarLintCorePlugin.MARKER_REPORT_ID);
+    MarkerFlow flow = new MarkerFlow(1);
+    new MarkerFlowLocation(flow, "report").setLocation(sonarLintFile, sonarLintFile::getDocument, TextRange.get(1), null);
+    MarkerFlows reportFlows = new MarkerFlows(Arrays.asList(flow), SonarLintCorePlugin.MARKER_REPORT_FLOW_ID);
+    store.put(reportMarker, reportFlows);
+    createMarker(store.get(issueMarker));
+
+    store.removeAll(file, SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID);
+
+    assertThat(store.get(issueMarker).isEmpty()).isTrue();
+    assertThat(flowMarkers()).isEmpty();
+    assertThat(store.get(otherFileMarker)).isSameAs(otherFileFlows);
+    assertThat(store.get(reportMarker)).isSameAs(reportFlows);
+
+    store.removeAll(project, SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID);
+    assertThat(store.size()).isEqualTo(1);
+    otherFile.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_REPORT_ID, false, IResource.DEPTH_ZERO);
+  }
+
+  private static IMarker createMarker(MarkerFlows flows) {
+    flows.createMarkersIfNeeded();
+    return location(flows).getMarker();
+  }
+
+  private MarkerFlows putNewFlows() throws CoreException {
+    MarkerFlows flows = newFlows("message");
+    store.put(file.createMarker(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID), flows);
+    return flows;
+  }
+
+  private MarkerFlows newFlows(String message) {
+    MarkerFlow flow = new MarkerFlow(1);
+    new MarkerFlowLocation(flow, message).setLocation(sonarLintFile, sonarLintFile::getDocument, TextRange.get(1), null);
+    return new MarkerFlows(Arrays.asList(flow), SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID);
+  }
+
+  private static MarkerFlowLocation location(MarkerFlows flows) {
+    return flows.getFlows().get(0).getLocations().get(0);
+  }
+
+  private IMarker[] flowMarkers() throws CoreException {
+    return file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO);
+  }
+
+}
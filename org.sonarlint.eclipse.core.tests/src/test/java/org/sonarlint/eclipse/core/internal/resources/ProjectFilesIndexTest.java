@@ -0,0 +1,110 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectFilesIndexTest extends SonarTestCase {
+
+  private static IProject project;
+  private ProjectFilesIndex index;
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    project = importEclipseProject("SimpleNonJdtProject");
+  }
+
+  @Before
+  public void prepare() {
+    index = new ProjectFilesIndex(workspace);
+    index.start();
+  }
+
+  @After
+  public void cleanup() throws CoreException {
+    index.stop();
+    IFile added = project.getFile("src/main/added.js");
+    if (added.exists()) {
+      added.delete(true, MONITOR);
+    }
+  }
+
+  @Test
+  public void should_walk_project_once() {
+    assertThat(index.files(project)).extracting(ISonarLintFile::getProjectRelativePath)
+      .containsOnly("src/main/sample.js", "src/main/Program.cbl", "src/main/ClassOnDefaultPackage.java");
+    assertThat(index.find(project, "src/main/sample.js")).isPresent();
+    assertThat(index.find(project, ".project")).isEmpty();
+    long generation = index.getGeneration(project);
+
+    assertThat(index.files(project)).hasSize(3);
+    assertThat(index.getFullBuildCount()).isEqualTo(1);
+    assertThat(index.getGeneration(project)).isEqualTo(generation);
+  }
+
+  @Test
+  public void should_only_adapt_changed_files() throws CoreException {
+    assertThat(index.files(project)).hasSize(3);
+    long generation = index.getGeneration(project);
+
+    IFile added = project.getFile("src/main/added.js");
+    added.create(new ByteArrayInputStream("var a = 1;".getBytes(StandardCharsets.UTF_8)), true, MONITOR);
+    assertThat(index.find(project, "src/main/added.js")).isPresent();
+    assertThat(index.files(project)).hasSize(4);
+    assertThat(index.getAdaptedChangeCount()).isEqualTo(1);
+    assertThat(index.getGeneration(project)).isGreaterThan(generation);
+    generation = index.getGeneration(project);
+
+    // Markers don't change the files of the project
+    IMarker marker = added.createMarker(IMarker.PROBLEM);
+    marker.delete();
+    assertThat(index.files(project)).hasSize(4);
+    assertThat(index.getAdaptedChangeCount()).isEqualTo(1);
+
+    added.delete(true, MONITOR);
+    assertThat(index.find(project, "src/main/added.js")).isEmpty();
+    assertThat(index.files(project)).hasSize(3);
+    assertThat(index.getGeneration(project)).isGreaterThan(generation);
+    assertThat(index.getFullBuildCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_walk_project_again_when_its_settings_change() throws CoreException {
+    assertThat(index.files(project)).hasSize(3);
+
+    project.getFile(".project").touch(MONITOR);
+
+    assertThat(index.files(project)).hasSize(3);
+    assertThat(index.getFullBuildCount()).isEqualTo(2);
+  }
+}
@@ -32,9 +32,11 @@ import org.sonarlint.eclipse.core.internal.LogListener;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfigurationManager;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class SonarLintProjectConfigurationManagerTest extends SonarTestCase {
 
@@ -87,4 +89,26 @@ public class SonarLintProjectConfigurationManagerTest extends SonarTestCase {
     assertThat(errors).isEmpty();
 
   }
+
+  @Test
+  public void snapshots_are_cached_until_settings_change() throws IOException, CoreException {
+    IProject project = importEclipseProject("SimpleNonJdtProject");
+    ProjectScope projectScope = new ProjectScope(project);
+    SonarLintProjectConfigurationManager manager = SonarLintCorePlugin.getInstance().getProjectConfigManager();
+    SonarLintProjectConfiguration snapshot = manager.loadSnapshot(projectScope, "SimpleNonJdtProject");
+    assertThat(manager.loadSnapshot(projectScope, "SimpleNonJdtProject")).isSameAs(snapshot);
+    assertThatThrownBy(() -> snapshot.setAutoEnabled(false)).isInstanceOf(UnsupportedOperationException.class);
+
+    SonarLintProjectConfiguration configuration = snapshot.copy();
+    configuration.setAutoEnabled(!snapshot.isAutoEnabled());
+    manager.save(projectScope, configuration);
+    try {
+      SonarLintProjectConfiguration newSnapshot = manager.loadSnapshot(projectScope, "SimpleNonJdtProject");
+      assertThat(newSnapshot).isNotSameAs(snapshot);
+      assertThat(newSnapshot.getVersion()).isGreaterThan(snapshot.getVersion());
+      assertThat(newSnapshot.isAutoEnabled()).isEqualTo(configuration.isAutoEnabled());
+    } finally {
+      manager.save(projectScope, snapshot.copy());
+    }
+  }
 }
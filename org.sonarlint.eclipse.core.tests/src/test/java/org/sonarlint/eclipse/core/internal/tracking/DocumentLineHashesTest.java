@@ -0,0 +1,59 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import org.eclipse.jface.text.Document;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class DocumentLineHashesTest {
+
+  private final DocumentLineHashes lineHashes = new DocumentLineHashes(mock(ISonarLintFile.class), new Document("int a = 0;\n  int b;\r\nint a = 0;"));
+
+  @Test
+  public void should_compute_line_hashes_lazily() {
+    assertThat(lineHashes.getComputedLineCount()).isZero();
+
+    assertThat(lineHashes.getLineHash(1)).isEqualTo(TextChecksum.checksum("int a = 0;"));
+    assertThat(lineHashes.getLineHash(2)).isEqualTo(TextChecksum.checksum("int b;"));
+    assertThat(lineHashes.getLineHash(3)).isEqualTo(lineHashes.getLineHash(1));
+    assertThat(lineHashes.getLineHash(2)).isEqualTo(TextChecksum.checksum("int b;"));
+
+    assertThat(lineHashes.getComputedLineCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_return_null_for_lines_out_of_document() {
+    assertThat(lineHashes.getLineHash(0)).isNull();
+    assertThat(lineHashes.getLineHash(4)).isNull();
+  }
+
+  @Test
+  public void should_compute_text_range_hashes() {
+    assertThat(lineHashes.getTextRangeHash(TextRange.get(2))).isEqualTo(lineHashes.getLineHash(2));
+    assertThat(lineHashes.getTextRangeHash(TextRange.get(1, 4, 1, 5))).isEqualTo(TextChecksum.checksum("a"));
+    assertThat(lineHashes.getTextRangeHash(TextRange.get(1, 8, 2, 5))).isEqualTo(TextChecksum.checksum("0;\n  int"));
+    assertThat(lineHashes.getTextRangeHash(TextRange.get(null))).isNull();
+  }
+}
@@ -376,7 +376,7 @@ public class IssueTrackerTest {
     ServerIssue serverIssue = mock(ServerIssue.class);
     when(serverIssue.ruleKey()).thenReturn(ruleKey);
     when(serverIssue.getMessage()).thenReturn(message);
-    when(serverIssue.lineHash()).thenReturn(DigestUtils.digest(lineContent));
+    when(serverIssue.lineHash()).thenReturn(TextChecksumTest.md5Hex(lineContent));
     when(serverIssue.getStartLine()).thenReturn(newLine + 3);
     when(serverIssue.creationDate()).thenReturn(Instant.now());
     when(serverIssue.key()).thenReturn(serverIssueKey);
@@ -418,7 +418,7 @@ public class IssueTrackerTest {
     ServerIssue serverIssue1 = mock(ServerIssue.class);
     when(serverIssue1.ruleKey()).thenReturn(ruleKey);
     when(serverIssue1.getMessage()).thenReturn(message);
-    when(serverIssue1.lineHash()).thenReturn(DigestUtils.digest(lineContent));
+    when(serverIssue1.lineHash()).thenReturn(TextChecksumTest.md5Hex(lineContent));
     when(serverIssue1.getStartLine()).thenReturn(1);
     when(serverIssue1.creationDate()).thenReturn(Instant.now());
     when(serverIssue1.key()).thenReturn(serverIssueKey1);
@@ -428,7 +428,7 @@ public class IssueTrackerTest {
     ServerIssue serverIssue2 = mock(ServerIssue.class);
     when(serverIssue2.ruleKey()).thenReturn(ruleKey);
     when(serverIssue2.getMessage()).thenReturn(message);
-    when(serverIssue2.lineHash()).thenReturn(DigestUtils.digest(lineContent));
+    when(serverIssue2.lineHash()).thenReturn(TextChecksumTest.md5Hex(lineContent));
     when(serverIssue2.getStartLine()).thenReturn(2);
     when(serverIssue2.creationDate()).thenReturn(Instant.now());
     when(serverIssue2.key()).thenReturn(serverIssueKey2);
@@ -24,6 +24,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ProjectScope;
 import org.junit.Before;
@@ -38,14 +40,19 @@ import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class PersistentIssueTrackerCacheTest extends SonarTestCase {
 
+  // Budget fitting this number of files without issues
+  private static final int MAX_ENTRIES = 100;
+
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   private static IProject project;
 
+  private IssueCacheMemoryBudget budget;
   private PersistentIssueTrackerCache cache;
   private StubIssueStore stubIssueStore;
 
@@ -91,27 +98,166 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
   @Before
   public void setUp() throws IOException {
     stubIssueStore = new StubIssueStore(new DefaultSonarLintProjectAdapter(project));
-    cache = new PersistentIssueTrackerCache(stubIssueStore);
+    budget = new IssueCacheMemoryBudget(() -> MAX_ENTRIES * IssueCacheMemoryBudget.weigh(Collections.emptyList()));
+    cache = new PersistentIssueTrackerCache(stubIssueStore, budget, false);
   }
 
   @Test
   public void should_persist_issues_when_inmemory_limit_reached() {
     int i = 0;
-    for (; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
+    for (; i < MAX_ENTRIES; i++) {
       cache.put("file" + i, Collections.emptyList());
     }
     assertThat(stubIssueStore.size()).isEqualTo(0);
 
     cache.put("file" + i++, Collections.emptyList());
-    assertThat(stubIssueStore.size()).isEqualTo(1);
+    assertThat(cache.getBacklogSize()).isEqualTo(1);
 
     cache.put("file" + i++, Collections.emptyList());
+    assertThat(cache.getBacklogSize()).isEqualTo(2);
+    assertThat(stubIssueStore.size()).isEqualTo(0);
+
+    cache.flushBacklog();
     assertThat(stubIssueStore.size()).isEqualTo(2);
+    assertThat(cache.getBacklogSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_read_evicted_issues_not_yet_persisted() {
+    Collection<Trackable> issues = Collections.singletonList(mock(Trackable.class));
+    cache.put("file", issues);
+    for (int i = 0; i < MAX_ENTRIES; i++) {
+      cache.put("other" + i, Collections.emptyList());
+    }
+
+    assertThat(cache.getBacklogSize()).isEqualTo(1);
+    assertThat(cache.isFirstAnalysis("file")).isFalse();
+    assertThat(cache.getCurrentTrackables("file")).containsExactlyElementsOf(issues);
+  }
+
+  @Test
+  public void should_flush_backlog_when_full() {
+    int total = MAX_ENTRIES + PersistentIssueTrackerCache.MAX_BACKLOG + 1;
+    for (int i = 0; i < total; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+
+    assertThat(cache.getBacklogSize()).isLessThanOrEqualTo(PersistentIssueTrackerCache.MAX_BACKLOG);
+    assertThat(stubIssueStore.size()).isEqualTo(PersistentIssueTrackerCache.MAX_BACKLOG);
+  }
+
+  @Test
+  public void should_share_budget_between_projects() throws IOException {
+    StubIssueStore otherStore = new StubIssueStore(new DefaultSonarLintProjectAdapter(project));
+    PersistentIssueTrackerCache otherCache = new PersistentIssueTrackerCache(otherStore, budget, false);
+    otherCache.put("file", Collections.emptyList());
+    for (int i = 0; i < MAX_ENTRIES; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+
+    assertThat(otherCache.getBacklogSize()).isEqualTo(1);
+    assertThat(cache.getBacklogSize()).isZero();
+    assertThat(budget.getEntryCount()).isEqualTo(MAX_ENTRIES);
+    assertThat(budget.getEvictionCount()).isEqualTo(1);
+    assertThat(budget.getEvictedWeight()).isEqualTo(IssueCacheMemoryBudget.weigh(Collections.emptyList()));
+    assertThat(budget.getWeight()).isEqualTo(budget.getMaxWeight());
+  }
+
+  @Test
+  public void should_evict_least_recently_used_entries_by_weight() {
+    Trackable trackable = mock(Trackable.class);
+    when(trackable.getMessage()).thenReturn(String.join("", Collections.nCopies(350, "message")));
+    Collection<Trackable> heavy = Collections.singletonList(trackable);
+    long heavyWeight = IssueCacheMemoryBudget.weigh(heavy);
+    assertThat(heavyWeight).isGreaterThan(budget.getMaxWeight() / 2);
+
+    cache.put("heavy", heavy);
+    cache.put("other", Collections.emptyList());
+    // Recently used, the other entry is evicted first
+    cache.getCurrentTrackables("heavy");
+    cache.put("heavy2", heavy);
+
+    assertThat(cache.getBacklogSize()).isEqualTo(2);
+    assertThat(budget.getEvictionCount()).isEqualTo(2);
+    assertThat(budget.getEntryCount()).isEqualTo(1);
+    assertThat(cache.getLiveOrFail("heavy2")).isSameAs(heavy);
+  }
+
+  @Test
+  public void should_keep_entry_exceeding_budget_alone() {
+    Trackable trackable = mock(Trackable.class);
+    when(trackable.getMessage()).thenReturn(String.join("", Collections.nCopies(10_000, "message")));
+    Collection<Trackable> huge = Collections.singletonList(trackable);
+
+    cache.put("huge", huge);
+
+    assertThat(budget.getWeight()).isGreaterThan(budget.getMaxWeight());
+    assertThat(cache.getLiveOrFail("huge")).isSameAs(huge);
+  }
+
+  @Test
+  public void should_only_persist_modified_entries_after_checkpoint() {
+    for (int i = 0; i < 10; i++) {
+      cache.put("file" + i, Collections.emptyList());
+    }
+    assertThat(cache.getDirtyCount()).isEqualTo(10);
+
+    cache.checkpoint();
+    assertThat(cache.getDirtyCount()).isZero();
+    assertThat(cache.getFlushedCount()).isEqualTo(10);
+
+    cache.put("file0", Collections.emptyList());
+    cache.shutdown();
+    assertThat(cache.getFlushedCount()).isEqualTo(11);
+    assertThat(stubIssueStore.size()).isEqualTo(10);
+  }
+
+  @Test
+  public void should_keep_entry_evicted_during_checkpoint_until_saved() throws Exception {
+    CountDownLatch saving = new CountDownLatch(1);
+    CountDownLatch canSave = new CountDownLatch(1);
+    StubIssueStore slowStore = new StubIssueStore(new DefaultSonarLintProjectAdapter(project)) {
+      @Override
+      public void save(String key, Collection<Trackable> issues) throws IOException {
+        if (key.equals("file")) {
+          saving.countDown();
+          try {
+            canSave.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        super.save(key, issues);
+      }
+    };
+    cache = new PersistentIssueTrackerCache(slowStore, budget, false);
+    // Issues of a previous analysis
+    slowStore.cache.put("file", Collections.emptyList());
+    Collection<Trackable> issues = Collections.singletonList(mock(Trackable.class));
+    cache.put("file", issues);
+
+    Thread checkpoint = new Thread(cache::checkpoint);
+    checkpoint.start();
+    assertThat(saving.await(10, TimeUnit.SECONDS)).isTrue();
+    // Evict the entry being saved
+    for (int i = 0; i < MAX_ENTRIES; i++) {
+      cache.put("other" + i, Collections.emptyList());
+    }
+
+    assertThat(cache.getBacklogSize()).isEqualTo(1);
+    assertThat(cache.getCurrentTrackables("file")).containsExactlyElementsOf(issues);
+
+    canSave.countDown();
+    checkpoint.join(10_000);
+
+    assertThat(cache.getBacklogSize()).isZero();
+    assertThat(slowStore.read("file")).isSameAs(issues);
+    assertThat(cache.getCurrentTrackables("file")).containsExactlyElementsOf(issues);
   }
 
   @Test
   public void should_persist_issues_on_shutdown() {
-    int count = PersistentIssueTrackerCache.MAX_ENTRIES / 2;
+    int count = MAX_ENTRIES / 2;
     for (int i = 0; i < count; i++) {
       cache.put("file" + i, Collections.emptyList());
     }
@@ -0,0 +1,198 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SegmentedObjectStoreTest {
+
+  private static final long MAX_SEGMENT_SIZE = 256;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Set<String> invalidKeys = new HashSet<>();
+  private Path basePath;
+  private SegmentedObjectStore<String> store;
+
+  @Before
+  public void setUp() throws IOException {
+    basePath = temporaryFolder.newFolder().toPath();
+    store = newStore();
+  }
+
+  private SegmentedObjectStore<String> newStore() {
+    return newStore(MAX_SEGMENT_SIZE);
+  }
+
+  private SegmentedObjectStore<String> newStore(long maxSegmentSize) {
+    Reader<String> reader = is -> {
+      try {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), UTF_8);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+    Writer<String> writer = (os, value) -> {
+      try {
+        os.write(value.getBytes(UTF_8));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+    return new SegmentedObjectStore<>(basePath, reader, writer, k -> !invalidKeys.contains(k), maxSegmentSize, Runnable::run);
+  }
+
+  @Test
+  public void should_read_back_written_values_after_restart() throws IOException {
+    store.write("src/Foo.java", "foo");
+    store.write("src/Bar.java", "bar");
+    store.write("src/Foo.java", "foo2");
+    store.delete("src/Bar.java");
+
+    assertThat(store.read("src/Foo.java")).contains("foo2");
+    assertThat(store.contains("src/Bar.java")).isFalse();
+
+    store.close();
+    SegmentedObjectStore<String> reloaded = newStore();
+    assertThat(reloaded.read("src/Foo.java")).contains("foo2");
+    assertThat(reloaded.read("src/Bar.java")).isEmpty();
+  }
+
+  @Test
+  public void should_compact_overwritten_records() throws IOException {
+    for (int i = 0; i < 100; i++) {
+      store.write("src/Foo" + (i % 3) + ".java", "value" + i);
+    }
+    store.delete("src/Foo0.java");
+
+    assertThat(store.getGarbageBytes()).isLessThanOrEqualTo(MAX_SEGMENT_SIZE * 2);
+    assertThat(store.getSegmentCount()).isLessThan(5);
+    assertThat(segmentFiles()).isEqualTo(store.getSegmentCount());
+
+    store.close();
+    SegmentedObjectStore<String> reloaded = newStore();
+    assertThat(reloaded.read("src/Foo0.java")).isEmpty();
+    assertThat(reloaded.read("src/Foo1.java")).contains("value97");
+    assertThat(reloaded.read("src/Foo2.java")).contains("value98");
+  }
+
+  @Test
+  public void should_split_segments_before_exceeding_max_size() throws IOException {
+    String value = "0123456789012345678901234567890123456789";
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 20; i++) {
+        store.write("src/Foo" + i + ".java", value + round);
+      }
+    }
+
+    assertThat(store.getSegmentCount()).isGreaterThan(1);
+    try (Stream<Path> files = Files.list(basePath)) {
+      assertThat(files).allSatisfy(f -> assertThat(f.toFile().length()).isLessThanOrEqualTo(MAX_SEGMENT_SIZE));
+    }
+
+    store.close();
+    SegmentedObjectStore<String> reloaded = newStore();
+    for (int i = 0; i < 20; i++) {
+      assertThat(reloaded.read("src/Foo" + i + ".java")).contains(value + 2);
+    }
+  }
+
+  @Test
+  public void should_reject_segments_that_cannot_be_mapped() {
+    assertThatThrownBy(() -> newStore(SegmentedObjectStore.MAX_SEGMENT_SIZE + 1))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void should_ignore_partially_written_record() throws IOException {
+    store.write("src/Foo.java", "foo");
+    store.close();
+    Path segment;
+    try (Stream<Path> files = Files.list(basePath)) {
+      segment = files.findFirst().get();
+    }
+    try (OutputStream out = Files.newOutputStream(segment, StandardOpenOption.APPEND)) {
+      out.write(new byte[] {0, 0, 0, 12, 's', 'r', 'c'});
+    }
+
+    SegmentedObjectStore<String> reloaded = newStore();
+
+    assertThat(reloaded.read("src/Foo.java")).contains("foo");
+    reloaded.write("src/Bar.java", "bar");
+    reloaded.close();
+    assertThat(newStore().read("src/Bar.java")).contains("bar");
+  }
+
+  @Test
+  public void should_delete_invalid_entries() throws IOException {
+    store.write("src/Foo.java", "foo");
+    store.write("src/Deleted.java", "bar");
+    invalidKeys.add("src/Deleted.java");
+
+    store.deleteInvalid();
+
+    assertThat(store.contains("src/Foo.java")).isTrue();
+    assertThat(store.contains("src/Deleted.java")).isFalse();
+  }
+
+  @Test
+  public void should_forget_everything_on_clear() throws IOException {
+    store.write("src/Foo.java", "foo");
+
+    store.clear();
+
+    assertThat(store.contains("src/Foo.java")).isFalse();
+    assertThat(segmentFiles()).isZero();
+    store.write("src/Foo.java", "foo2");
+    assertThat(store.read("src/Foo.java")).contains("foo2");
+  }
+
+  private long segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(basePath)) {
+      return files.count();
+    }
+  }
+}
@@ -38,12 +38,15 @@ import org.sonarlint.eclipse.core.internal.LogListener;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.jobs.SonarLintMarkerUpdater;
+import org.sonarlint.eclipse.core.internal.markers.MarkerFlows;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -242,4 +245,108 @@ public class SonarLintMarkerUpdaterTest extends SonarTestCase {
     assertThat(markers).hasSize(1);
     assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR)).isNull();
   }
+
+  @Test
+  public void reuse_markers_of_tracked_issues_and_delete_stale_ones() throws Exception {
+    Trackable kept = newMockTrackable();
+    when(kept.getMessage()).thenReturn("kept");
+    Trackable fixed = newMockTrackable();
+    when(fixed.getMessage()).thenReturn("fixed");
+
+    IMarker[] markers = processTrackable(kept, fixed);
+    assertThat(markers).hasSize(2);
+    IMarker keptMarker = markers[0].getAttribute(IMarker.MESSAGE).equals("kept") ? markers[0] : markers[1];
+    when(kept.getMarkerId()).thenReturn(keptMarker.getId());
+    when(kept.getMessage()).thenReturn("kept and updated");
+
+    markers = processTrackable(kept);
+
+    assertThat(markers).hasSize(1);
+    assertThat(markers[0].getId()).isEqualTo(keptMarker.getId());
+    assertThat(markers[0].getAttribute(IMarker.MESSAGE)).isEqualTo("kept and updated");
+  }
+
+  @Test
+  public void update_markers_with_server_side_data_and_delete_resolved_ones() throws Exception {
+    Trackable updated = newMockTrackable();
+    when(updated.getMessage()).thenReturn("updated");
+    Trackable resolved1 = newMockTrackable();
+    when(resolved1.getMessage()).thenReturn("resolved1");
+    Trackable resolved2 = newMockTrackable();
+    when(resolved2.getMessage()).thenReturn("resolved2");
+    IMarker[] markers = processTrackable(updated, resolved1, resolved2);
+    assertThat(markers).hasSize(3);
+    for (IMarker marker : markers) {
+      Trackable trackable = marker.getAttribute(IMarker.MESSAGE).equals("updated") ? updated
+        : marker.getAttribute(IMarker.MESSAGE).equals("resolved1") ? resolved1 : resolved2;
+      when(trackable.getMarkerId()).thenReturn(marker.getId());
+    }
+    when(updated.getSeverity()).thenReturn("BLOCKER");
+    when(updated.getServerIssueKey()).thenReturn("serverIssueKey");
+    when(resolved1.isResolved()).thenReturn(true);
+    when(resolved2.isResolved()).thenReturn(true);
+
+    SonarLintMarkerUpdater.updateMarkersWithServerSideData(sonarLintFile, sonarLintFile.getDocument(), asList(updated, resolved1, resolved2),
+      TriggerType.EDITOR_CHANGE);
+
+    markers = project.getFile("src/Findbugs.java").findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, true, IResource.DEPTH_INFINITE);
+    assertThat(markers).hasSize(1);
+    assertThat(markers[0].getId()).isEqualTo(updated.getMarkerId());
+    assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR)).isEqualTo("BLOCKER");
+    assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_SERVER_ISSUE_KEY_ATTR)).isEqualTo("serverIssueKey");
+    verify(resolved1).setMarkerId(null);
+    verify(resolved2).setMarkerId(null);
+  }
+
+  @Test
+  public void forget_flows_of_cleared_markers() throws Exception {
+    Trackable trackable = newMockTrackable();
+    IssueLocation location = mock(IssueLocation.class);
+    when(location.getStartLine()).thenReturn(1);
+    when(location.getStartLineOffset()).thenReturn(0);
+    when(location.getEndLine()).thenReturn(1);
+    when(location.getEndLineOffset()).thenReturn(5);
+    Issue.Flow flow = mock(Issue.Flow.class);
+    when(flow.locations()).thenReturn(asList(location));
+    when(trackable.getFlows()).thenReturn(asList(flow));
+    IMarker[] markers = processTrackable(trackable);
+    assertThat(MarkerUtils.getIssueFlows(markers[0]).isEmpty()).isFalse();
+
+    SonarLintMarkerUpdater.clearMarkers(sonarLintFile);
+
+    assertThat(markers[0].exists()).isFalse();
+    assertThat(MarkerUtils.getIssueFlows(markers[0]).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void create_flow_markers_only_when_locations_are_requested() throws Exception {
+    Trackable trackable = newMockTrackable();
+    IssueLocation location = mock(IssueLocation.class);
+    when(location.getMessage()).thenReturn("secondary");
+    when(location.getStartLine()).thenReturn(5);
+    when(location.getStartLineOffset()).thenReturn(4);
+    when(location.getEndLine()).thenReturn(5);
+    when(location.getEndLineOffset()).thenReturn(14);
+    Issue.Flow flow = mock(Issue.Flow.class);
+    when(flow.locations()).thenReturn(asList(location));
+    when(trackable.getFlows()).thenReturn(asList(flow));
+
+    IMarker[] markers = processTrackable(trackable);
+    assertThat(markers).hasSize(1);
+    IFile file = project.getFile("src/Findbugs.java");
+    assertThat(file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO)).isEmpty();
+
+    MarkerFlows flows = MarkerUtils.getIssueFlows(markers[0]);
+    assertThat(flows.getSummaryDescription()).isEqualTo(" [+1 location]");
+    assertThat(file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO)).isEmpty();
+
+    assertThat(flows.createMarkersIfNeeded()).isTrue();
+    IMarker flowMarker = flows.getFlows().get(0).getLocations().get(0).getMarker();
+    assertThat(flowMarker).isNotNull();
+    assertThat(flowMarker.getAttribute(IMarker.MESSAGE)).isEqualTo("secondary");
+    assertThat(flowMarker.getAttribute(IMarker.CHAR_START)).isEqualTo(78);
+    assertThat(flowMarker.getAttribute(IMarker.CHAR_END)).isEqualTo(88);
+    assertThat(file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO)).containsExactly(flowMarker);
+  }
+
 }
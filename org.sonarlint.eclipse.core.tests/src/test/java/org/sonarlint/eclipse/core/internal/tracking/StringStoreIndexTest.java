@@ -0,0 +1,122 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringStoreIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path basePath;
+  private StringStoreIndex index;
+
+  @Before
+  public void setUp() throws IOException {
+    basePath = temporaryFolder.newFolder().toPath();
+    index = new StringStoreIndex(basePath);
+  }
+
+  @Test
+  public void should_reload_saved_and_deleted_keys() {
+    index.save("key1", basePath.resolve("a/1"));
+    index.save("key2", basePath.resolve("b/2"));
+    index.delete("key1");
+
+    assertThat(index.keys()).containsOnly("key2");
+    assertThat(new StringStoreIndex(basePath).keys()).containsOnly("key2");
+  }
+
+  @Test
+  public void should_not_journal_unchanged_mappings() {
+    index.save("key1", basePath.resolve("a/1"));
+    index.save("key1", basePath.resolve("a/1"));
+    index.delete("unknown");
+
+    assertThat(index.getJournalSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_ignore_truncated_change_at_the_end_of_journal() throws IOException {
+    index.save("key1", basePath.resolve("a/1"));
+    index.save("key2", basePath.resolve("b/2"));
+    // Simulate a crash while appending a change
+    try (OutputStream stream = Files.newOutputStream(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME), StandardOpenOption.APPEND)) {
+      stream.write(new byte[] {42, 10, 4, 'k'});
+    }
+
+    StringStoreIndex reloaded = new StringStoreIndex(basePath);
+
+    assertThat(reloaded.keys()).containsOnly("key1", "key2");
+    assertThat(reloaded.getJournalSize()).isZero();
+    assertThat(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME)).doesNotExist();
+    assertThat(new StringStoreIndex(basePath).keys()).containsOnly("key1", "key2");
+  }
+
+  @Test
+  public void should_compact_journal_into_snapshot() {
+    for (int i = 0; i <= StringStoreIndex.MIN_COMPACTION_THRESHOLD; i++) {
+      index.save("key" + i, basePath.resolve("a/" + i));
+    }
+
+    assertThat(index.getJournalSize()).isZero();
+    assertThat(basePath.resolve(StringStoreIndex.INDEX_FILENAME)).exists();
+    assertThat(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME)).doesNotExist();
+    assertThat(new StringStoreIndex(basePath).keys()).hasSize(StringStoreIndex.MIN_COMPACTION_THRESHOLD + 1);
+  }
+
+  @Test
+  public void write_cost_should_not_depend_on_index_size() throws IOException {
+    long smallIndexWriteCost = bytesWrittenBySave(10);
+    setUp();
+    long bigIndexWriteCost = bytesWrittenBySave(20_000);
+
+    assertThat(bigIndexWriteCost).isEqualTo(smallIndexWriteCost);
+  }
+
+  private long bytesWrittenBySave(int indexSize) throws IOException {
+    for (int i = 0; i < indexSize; i++) {
+      index.save(String.format("key%05d", i), basePath.resolve(String.format("a/%05d", i)));
+    }
+    Path snapshot = basePath.resolve(StringStoreIndex.INDEX_FILENAME);
+    long snapshotSizeBefore = snapshot.toFile().length();
+    long journalSizeBefore = journalFileSize();
+
+    index.save("newKey", basePath.resolve("b/newKey"));
+
+    assertThat(snapshot.toFile().length()).isEqualTo(snapshotSizeBefore);
+    return journalFileSize() - journalSizeBefore;
+  }
+
+  private long journalFileSize() {
+    return basePath.resolve(StringStoreIndex.JOURNAL_FILENAME).toFile().length();
+  }
+}
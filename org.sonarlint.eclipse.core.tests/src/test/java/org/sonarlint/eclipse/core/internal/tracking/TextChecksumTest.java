@@ -0,0 +1,107 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextChecksumTest {
+
+  private static final char[] CHARS = {'a', 'Z', '0', ';', ' ', '\t', '\n', '\r', '\f', '\u000B', '\u00A0', '\u2003', '\u00E9', '\u20AC', '\uD83D', '\uDE00'};
+
+  private final Random random = new Random(42);
+
+  /**
+   * Hexadecimal MD5 digest of the content without whitespaces, like line hashes computed by SonarQube
+   */
+  static String md5Hex(String content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(content.replaceAll("[\\s]", "").getBytes(UTF_8));
+      StringBuilder sb = new StringBuilder();
+      for (byte b : digest) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  public void should_ignore_whitespaces() {
+    assertThat(TextChecksum.checksum(" int  a = 0;\n")).isEqualTo(TextChecksum.checksum("inta=0;"));
+    assertThat(TextChecksum.checksum("int a = 0;")).isNotEqualTo(TextChecksum.checksum("int a = 1;"));
+  }
+
+  @Test
+  public void should_be_hash_code_of_hexadecimal_md5() {
+    assertThat(TextChecksum.checksum("")).isEqualTo(md5Hex("").hashCode());
+    assertThat(TextChecksum.checksum("  foo(bar);\t")).isEqualTo(md5Hex("  foo(bar);\t").hashCode());
+    for (int i = 0; i < 1000; i++) {
+      String content = randomContent(random.nextInt(i < 990 ? 100 : 5000));
+      assertThat(TextChecksum.checksum(content)).as(content).isEqualTo(md5Hex(content).hashCode());
+    }
+  }
+
+  @Test
+  public void should_encode_surrogates_like_string() {
+    for (String content : new String[] {"\uD83D\uDE00", "\uD83D \uDE00", "\uD83D", "a\uDE00b", "\uDE00\uD83D", "\uD83D\uD83D\uDE00", "x\uD83D\n"}) {
+      assertThat(TextChecksum.checksum(content)).isEqualTo(md5Hex(content).hashCode());
+    }
+  }
+
+  @Test
+  public void should_be_thread_safe() throws Exception {
+    List<String> contents = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      contents.add(randomContent(random.nextInt(2000)));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(() -> contents.stream().allMatch(c -> TextChecksum.checksum(c) == md5Hex(c).hashCode())));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get()).isTrue();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private String randomContent(int length) {
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append(CHARS[random.nextInt(CHARS.length)]);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare {@link Tracker} with a straightforward implementation of the matching passes, on random issues sharing many field values.
+ */
+public class TrackerTest {
+
+  private static final int ITERATIONS = 200;
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void should_match_like_reference_implementation_for_raw_issues() {
+    for (int i = 0; i < ITERATIONS; i++) {
+      List<Trackable> raws = randomTrackables(random.nextInt(60), false);
+      List<Trackable> bases = randomTrackables(random.nextInt(60), false);
+
+      Tracking<Trackable, Trackable> tracking = new Tracker<>().trackRaw(() -> raws, () -> bases);
+
+      assertThat(tracking.getMatchedRaws()).isEqualTo(ReferenceTracker.trackRaw(raws, bases));
+    }
+  }
+
+  @Test
+  public void should_match_like_reference_implementation_for_server_issues() {
+    for (int i = 0; i < ITERATIONS; i++) {
+      List<Trackable> raws = randomTrackables(random.nextInt(60), true);
+      List<Trackable> bases = randomTrackables(random.nextInt(60), true);
+
+      Tracking<Trackable, Trackable> tracking = new Tracker<>().trackServer(() -> raws, () -> bases);
+
+      assertThat(tracking.getMatchedRaws()).isEqualTo(ReferenceTracker.trackServer(raws, bases));
+    }
+  }
+
+  @Test
+  public void should_match_large_number_of_identical_issues() {
+    List<Trackable> raws = new ArrayList<>();
+    List<Trackable> bases = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      raws.add(new SimpleTrackable("rule", i % 10, 1, 2, "message", null));
+      bases.add(new SimpleTrackable("rule", null, 3, 2, "message", null));
+    }
+
+    Tracking<Trackable, Trackable> tracking = new Tracker<>().trackRaw(() -> raws, () -> bases);
+
+    assertThat(tracking.getMatchedRaws()).hasSize(20_000);
+    assertThat(tracking.getMatchedRaws()).isEqualTo(ReferenceTracker.trackRaw(raws, bases));
+  }
+
+  private List<Trackable> randomTrackables(int count, boolean withServerIssueKeys) {
+    List<Trackable> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(new SimpleTrackable(
+        "rule" + random.nextInt(3),
+        randomOrNull(5),
+        randomOrNull(4),
+        randomOrNull(4),
+        random.nextInt(8) == 0 ? null : ("message" + random.nextInt(3)),
+        withServerIssueKeys ? randomServerIssueKey() : null));
+    }
+    return result;
+  }
+
+  @Nullable
+  private Integer randomOrNull(int bound) {
+    return random.nextInt(bound + 1) == 0 ? null : random.nextInt(bound);
+  }
+
+  @Nullable
+  private String randomServerIssueKey() {
+    switch (random.nextInt(4)) {
+      case 0:
+        return null;
+      case 1:
+        return " ";
+      default:
+        return "key" + random.nextInt(20);
+    }
+  }
+
+  /**
+   * Multi-pass matching as specified: each pass indexes unmatched bases by key, and matches each unmatched raw with the first base of its key.
+   */
+  private static class ReferenceTracker {
+
+    static Map<Trackable, Trackable> trackRaw(List<Trackable> raws, List<Trackable> bases) {
+      Map<Trackable, Trackable> matches = new IdentityHashMap<>();
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLine(), t.getTextRangeHash()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getMessage(), t.getTextRangeHash()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLine(), t.getMessage()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getTextRangeHash()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLine(), t.getLineHash()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLineHash()));
+      return matches;
+    }
+
+    static Map<Trackable, Trackable> trackServer(List<Trackable> raws, List<Trackable> bases) {
+      Map<Trackable, Trackable> matches = new IdentityHashMap<>();
+      // Blank keys never match, make them unique
+      match(raws, bases, matches, t -> isBlank(t.getServerIssueKey()) ? Collections.singletonList(new Object()) : Collections.singletonList(t.getServerIssueKey()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLine(), t.getMessage()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLine(), t.getLineHash()));
+      match(raws, bases, matches, t -> Arrays.asList(t.getRuleKey(), t.getLineHash()));
+      return matches;
+    }
+
+    private static boolean isBlank(@Nullable String s) {
+      return s == null || s.trim().isEmpty();
+    }
+
+    private static void match(List<Trackable> raws, List<Trackable> bases, Map<Trackable, Trackable> matches, Function<Trackable, List<?>> keyFunction) {
+      Map<Trackable, Trackable> matchedBases = new IdentityHashMap<>();
+      matches.values().forEach(b -> matchedBases.put(b, b));
+      Map<List<?>, List<Trackable>> baseSearch = new HashMap<>();
+      for (Trackable base : bases) {
+        if (!matchedBases.containsKey(base)) {
+          baseSearch.computeIfAbsent(keyFunction.apply(base), k -> new ArrayList<>()).add(base);
+        }
+      }
+      for (Trackable raw : raws) {
+        if (matches.containsKey(raw)) {
+          continue;
+        }
+        List<Trackable> candidates = baseSearch.get(keyFunction.apply(raw));
+        if (candidates != null && !candidates.isEmpty()) {
+          matches.put(raw, candidates.remove(0));
+        }
+      }
+    }
+  }
+
+  private static class SimpleTrackable implements Trackable {
+    private final String ruleKey;
+    @Nullable
+    private final Integer line;
+    @Nullable
+    private final Integer textRangeHash;
+    @Nullable
+    private final Integer lineHash;
+    @Nullable
+    private final String message;
+    @Nullable
+    private final String serverIssueKey;
+
+    SimpleTrackable(String ruleKey, @Nullable Integer line, @Nullable Integer textRangeHash, @Nullable Integer lineHash, @Nullable String message,
+      @Nullable String serverIssueKey) {
+      this.ruleKey = ruleKey;
+      this.line = line;
+      this.textRangeHash = textRangeHash;
+      this.lineHash = lineHash;
+      this.message = message;
+      this.serverIssueKey = serverIssueKey;
+    }
+
+    @Override
+    public Long getMarkerId() {
+      return null;
+    }
+
+    @Override
+    public void setMarkerId(@Nullable Long id) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Integer getLine() {
+      return line;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public Integer getTextRangeHash() {
+      return textRangeHash;
+    }
+
+    @Override
+    public Integer getLineHash() {
+      return lineHash;
+    }
+
+    @Override
+    public String getRuleKey() {
+      return ruleKey;
+    }
+
+    @Override
+    public String getRuleName() {
+      return ruleKey;
+    }
+
+    @Override
+    public Long getCreationDate() {
+      return null;
+    }
+
+    @Override
+    public String getServerIssueKey() {
+      return serverIssueKey;
+    }
+
+    @Override
+    public boolean isResolved() {
+      return false;
+    }
+
+    @Override
+    public String getAssignee() {
+      return "";
+    }
+
+    @Override
+    public String getSeverity() {
+      return "MAJOR";
+    }
+
+    @Override
+    public String getRawSeverity() {
+      return "MAJOR";
+    }
+
+    @Override
+    public String getType() {
+      return "BUG";
+    }
+
+    @Override
+    public String getRawType() {
+      return "BUG";
+    }
+
+    @Override
+    public TextRange getTextRange() {
+      return null;
+    }
+
+    @Override
+    public List<Flow> getFlows() {
+      return Collections.emptyList();
+    }
+  }
+}
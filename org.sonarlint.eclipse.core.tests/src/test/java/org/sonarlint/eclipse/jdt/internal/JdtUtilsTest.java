@@ -19,11 +19,16 @@
  */
 package org.sonarlint.eclipse.jdt.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -45,12 +50,15 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.sonarlint.eclipse.core.analysis.IFileTypeProvider.ISonarLintFileType;
 import org.sonarlint.eclipse.core.analysis.IPreAnalysisContext;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisConfigurationCache;
+import org.sonarlint.eclipse.core.internal.jobs.DefaultPreAnalysisContext;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -86,6 +94,69 @@ public class JdtUtilsTest extends SonarTestCase {
     verify(context).setAnalysisProperty("sonar.java.target", "1.6");
   }
 
+  @Test
+  public void configurationFingerprintShouldChangeWithJavaLevels() {
+    IJavaProject project = mock(IJavaProject.class);
+    when(project.getOption(JavaCore.COMPILER_SOURCE, true)).thenReturn("1.6");
+    when(project.getOption(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, true)).thenReturn("1.6");
+    String fingerprint = JdtUtils.configurationFingerprint(project);
+
+    assertThat(JdtUtils.configurationFingerprint(project)).isEqualTo(fingerprint);
+    when(project.getOption(JavaCore.COMPILER_SOURCE, true)).thenReturn("1.8");
+    assertThat(JdtUtils.configurationFingerprint(project)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void configurationFingerprintShouldChangeWhenDependencyIsCompiledAgain() throws CoreException {
+    IFolder output = jdtProject.getFolder("fingerprint-bin");
+    output.create(true, true, null);
+    IFile dependency = output.getFile("Dependency.class");
+    dependency.create(new ByteArrayInputStream(new byte[] {1}), true, null);
+    IJavaProject javaProject = JavaCore.create(jdtProject);
+    String fingerprint = JdtUtils.configurationFingerprint(javaProject);
+
+    assertThat(JdtUtils.configurationFingerprint(javaProject)).isEqualTo(fingerprint);
+    dependency.setContents(new ByteArrayInputStream(new byte[] {2}), true, false, null);
+    assertThat(JdtUtils.configurationFingerprint(javaProject)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void shouldReuseClasspathUntilItChanges() throws JavaModelException, IOException {
+    IJavaProject project = mock(IJavaProject.class);
+    AnalysisConfigurationCache cache = new AnalysisConfigurationCache();
+
+    when(project.getResolvedClasspath(true)).thenReturn(new IClasspathEntry[] {});
+    when(project.getOutputLocation()).thenReturn(new Path(temp.newFolder("output").getAbsolutePath()));
+
+    Map<String, String> firstProps = new LinkedHashMap<>();
+    jdtUtils.configureJavaProject(project, newContext(firstProps, cache));
+    Map<String, String> secondProps = new LinkedHashMap<>();
+    jdtUtils.configureJavaProject(project, newContext(secondProps, cache));
+
+    verify(project, times(1)).getResolvedClasspath(true);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(secondProps).isEqualTo(firstProps).containsKey("sonar.java.binaries");
+  }
+
+  @Test
+  public void shouldNotReuseClasspathWithMissingOutputFolder() throws JavaModelException, IOException {
+    IJavaProject project = mock(IJavaProject.class);
+    AnalysisConfigurationCache cache = new AnalysisConfigurationCache();
+
+    when(project.getResolvedClasspath(true)).thenReturn(new IClasspathEntry[] {});
+    when(project.getOutputLocation()).thenReturn(new Path(new File(temp.getRoot(), "notBuiltYet").getAbsolutePath()));
+
+    jdtUtils.configureJavaProject(project, newContext(new LinkedHashMap<>(), cache));
+    jdtUtils.configureJavaProject(project, newContext(new LinkedHashMap<>(), cache));
+
+    verify(project, times(2)).getResolvedClasspath(true);
+    assertThat(cache.getHitCount()).isZero();
+  }
+
+  private static IPreAnalysisContext newContext(Map<String, String> props, AnalysisConfigurationCache cache) {
+    return new DefaultPreAnalysisContext(new DefaultSonarLintProjectAdapter(jdtProject), props, Collections.emptyList(), null, cache);
+  }
+
   @Test
   public void shouldConfigureSimpleProject() throws JavaModelException, IOException {
     IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
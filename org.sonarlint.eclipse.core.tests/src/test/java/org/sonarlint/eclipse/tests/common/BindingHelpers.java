@@ -0,0 +1,51 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.tests.common;
+
+import org.eclipse.core.resources.IProject;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Change the binding saved in the configuration of test projects
+ */
+public final class BindingHelpers {
+
+  public static ISonarLintProject bind(IProject project, String connectionId, String projectKey) {
+    ISonarLintProject slProject = Adapters.adapt(project, ISonarLintProject.class);
+    SonarLintProjectConfiguration configuration = SonarLintCorePlugin.loadConfig(slProject).copy();
+    configuration.setProjectBinding(new EclipseProjectBinding(connectionId, projectKey, "", ""));
+    SonarLintCorePlugin.saveConfig(slProject, configuration);
+    return slProject;
+  }
+
+  public static void unbind(IProject project) {
+    ISonarLintProject slProject = Adapters.adapt(project, ISonarLintProject.class);
+    SonarLintProjectConfiguration configuration = SonarLintCorePlugin.loadConfig(slProject).copy();
+    configuration.setProjectBinding(null);
+    SonarLintCorePlugin.saveConfig(slProject, configuration);
+  }
+
+  private BindingHelpers() {
+  }
+}
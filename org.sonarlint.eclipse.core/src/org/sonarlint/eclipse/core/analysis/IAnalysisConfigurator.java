@@ -22,6 +22,7 @@ package org.sonarlint.eclipse.core.analysis;
 import java.util.Collections;
 import java.util.Set;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarsource.sonarlint.core.client.api.common.Language;
 
@@ -43,6 +44,18 @@ public interface IAnalysisConfigurator {
    */
   void configure(IPreAnalysisContext context, IProgressMonitor monitor);
 
+  /**
+   * Identify the project configuration used by {@link #configure(IPreAnalysisContext, IProgressMonitor)} (classpath, build configuration...).
+   * It should change each time the analysis properties set by this configurator may change, since results of previous analyses of unchanged
+   * files are only reused while it is the same.
+   * @return null if the configuration can't be identified cheaply, in which case results of previous analyses are never reused
+   * @since 5.10
+   */
+  @Nullable
+  default String getConfigurationFingerprint(ISonarLintProject project) {
+    return null;
+  }
+
   /**
    * This method is called after analysis is finished. Can be used to perform some cleanup.
    */
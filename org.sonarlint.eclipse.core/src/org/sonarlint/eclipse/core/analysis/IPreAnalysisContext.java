@@ -45,4 +45,25 @@ public interface IPreAnalysisContext {
    */
   Path getAnalysisTemporaryFolder();
 
+  /**
+   * Set the analysis properties that were cached for this project by a previous call to
+   * {@link #cacheAnalysisProperties(String, Object, Collection)} with the same cache key and an equal invalidation key.
+   * @return true if cached properties were found, false if they have to be computed again
+   * @since 5.10
+   */
+  default boolean reuseAnalysisProperties(String cacheKey, Object invalidationKey) {
+    return false;
+  }
+
+  /**
+   * Remember the current value of the given analysis properties, so that next analyses of this project can reuse them
+   * with {@link #reuseAnalysisProperties(String, Object)} until the invalidation key changes.
+   * @param cacheKey identify the cached properties, usually the configurator name
+   * @param invalidationKey any value implementing {@link Object#equals(Object)}, that changes when the properties should be computed again
+   * @since 5.10
+   */
+  default void cacheAnalysisProperties(String cacheKey, Object invalidationKey, Collection<String> propertyKeys) {
+    // Nothing is cached by default
+  }
+
 }
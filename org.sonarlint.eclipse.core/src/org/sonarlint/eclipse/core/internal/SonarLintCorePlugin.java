@@ -19,9 +19,14 @@
  */
 package org.sonarlint.eclipse.core.internal;
 
-import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import org.eclipse.core.net.proxy.IProxyService;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
@@ -31,22 +36,31 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.util.tracker.ServiceTracker;
 import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.adapter.AdapterCache;
 import org.sonarlint.eclipse.core.internal.engine.StandaloneEngineFacade;
+import org.sonarlint.eclipse.core.internal.engine.connected.BoundProjectsIndex;
 import org.sonarlint.eclipse.core.internal.engine.connected.ConnectedEngineFacadeManager;
 import org.sonarlint.eclipse.core.internal.event.AnalysisListenerManager;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
+import org.sonarlint.eclipse.core.internal.http.HttpConnectionMetrics;
 import org.sonarlint.eclipse.core.internal.http.UserAgentInterceptor;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisConfigurationCache;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisResultCache;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisScheduler;
+import org.sonarlint.eclipse.core.internal.markers.MarkerFlowsStore;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsManager;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTracker;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTrackerRegistry;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfigurationManager;
+import org.sonarlint.eclipse.core.internal.resources.ProjectFilesIndex;
 import org.sonarlint.eclipse.core.internal.telemetry.SonarLintTelemetry;
-import org.sonarlint.eclipse.core.internal.tracking.IssueStore;
+import org.sonarlint.eclipse.core.internal.tracking.IssueCacheMemoryBudget;
+import org.sonarlint.eclipse.core.internal.tracking.IssueStoreLayout;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTrackerCacheFactory;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTrackerRegistry;
-import org.sonarlint.eclipse.core.internal.tracking.PersistentIssueTrackerCache;
 import org.sonarlint.eclipse.core.internal.tracking.ServerIssueUpdater;
 import org.sonarlint.eclipse.core.internal.utils.NodeJsManager;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
@@ -64,6 +78,9 @@ public class SonarLintCorePlugin extends Plugin {
   public static final String MARKER_TAINT_ID = PLUGIN_ID + ".sonarlintTaintVulnerability";
   public static final String MARKER_TAINT_FLOW_ID = PLUGIN_ID + ".sonarlintTaintVulnerabilityFlowLocation";
 
+  private static final int HTTP_MAX_IDLE_CONNECTIONS = 10;
+  private static final long HTTP_KEEP_ALIVE_MINUTES = 5;
+
   private static SonarLintCorePlugin plugin;
   private static SonarLintProjectConfigurationManager configManager;
   private static NotificationsManager notificationsManager;
@@ -75,19 +92,32 @@ public class SonarLintCorePlugin extends Plugin {
   private final ServiceTracker<IProxyService, IProxyService> proxyTracker;
 
   private final AnalysisListenerManager analysisListenerManager = new AnalysisListenerManager();
+  private final AnalysisScheduler analysisScheduler = new AnalysisScheduler();
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Map<String, AnalysisResultCache> analysisResultCaches = new ConcurrentHashMap<>();
   private final SonarLintTelemetry telemetry = new SonarLintTelemetry();
+  private final AdapterCache adapterCache = new AdapterCache();
+  private final AnalysisConfigurationCache analysisConfigurationCache = new AnalysisConfigurationCache();
+  private final MarkerFlowsStore markerFlowsStore = new MarkerFlowsStore();
+  private final Runnable extensionChangeListener = SonarLintCorePlugin::extensionsChanged;
   private ConnectedEngineFacadeManager serversManager = null;
+  private BoundProjectsIndex boundProjectsIndex = null;
+  private ProjectFilesIndex projectFilesIndex = null;
 
   private NotificationsTrackerRegistry notificationsTrackerRegistry;
   private NodeJsManager nodeJsManager;
 
+  private final HttpConnectionMetrics httpConnectionMetrics = new HttpConnectionMetrics();
   private final OkHttpClient okhttpClient;
 
   public SonarLintCorePlugin() {
     plugin = this;
     proxyTracker = new ServiceTracker<>(FrameworkUtil.getBundle(this.getClass()).getBundleContext(), IProxyService.class, null);
     proxyTracker.open();
+    // Shared by the clients of all connections, keep connections alive long enough to be reused by consecutive synchronization steps
     okhttpClient = new OkHttpClient.Builder()
+      .connectionPool(new ConnectionPool(HTTP_MAX_IDLE_CONNECTIONS, HTTP_KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+      .eventListener(httpConnectionMetrics)
       .addNetworkInterceptor(new UserAgentInterceptor("SonarLint Eclipse " + SonarLintUtils.getPluginVersion()))
       .build();
   }
@@ -114,12 +144,9 @@ public class SonarLintCorePlugin extends Plugin {
   public void start(BundleContext context) throws Exception {
     super.start(context);
 
-    IssueTrackerCacheFactory factory = project -> {
-      Path storeBasePath = StoragePathManager.getIssuesDir(project);
-      IssueStore issueStore = new IssueStore(storeBasePath, project);
-      return new PersistentIssueTrackerCache(issueStore);
-    };
-    issueTrackerRegistry = new IssueTrackerRegistry(factory);
+    IssueCacheMemoryBudget issueCacheBudget = IssueCacheMemoryBudget.ofMegabytes(SonarLintGlobalConfiguration::getIssueCacheSizeMb);
+    IssueTrackerCacheFactory factory = IssueTrackerCacheFactory.persistent(IssueStoreLayout.fromSystemProperty(), issueCacheBudget);
+    issueTrackerRegistry = new IssueTrackerRegistry(factory, issueCacheBudget);
 
     serverIssueUpdater = new ServerIssueUpdater(issueTrackerRegistry);
 
@@ -127,9 +154,26 @@ public class SonarLintCorePlugin extends Plugin {
 
     nodeJsManager = new NodeJsManager();
 
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(adapterCache, IResourceChangeEvent.POST_CHANGE);
+    SonarLintExtensionTracker.getInstance().addChangeListener(extensionChangeListener);
+    adapterCache.setEnabled(true);
+
     startupAsync();
   }
 
+  private static synchronized void extensionsChanged() {
+    // Participants and projects providers may have changed
+    getInstance().adapterCache.clear();
+    // Configurators may have changed
+    getInstance().analysisConfigurationCache.clear();
+    if (getInstance().boundProjectsIndex != null) {
+      getInstance().boundProjectsIndex.clear();
+    }
+    if (getInstance().projectFilesIndex != null) {
+      getInstance().projectFilesIndex.invalidateAll();
+    }
+  }
+
   public void startupAsync() {
     // SLE-122 Delay a little bit to let the time to the workspace to initialize (and avoid NPE)
     new StartupJob().schedule(2000);
@@ -172,6 +216,15 @@ public class SonarLintCorePlugin extends Plugin {
     if (notificationsManager != null) {
       notificationsManager.stop();
     }
+    if (boundProjectsIndex != null) {
+      boundProjectsIndex.stop();
+    }
+    if (projectFilesIndex != null) {
+      projectFilesIndex.stop();
+    }
+    adapterCache.setEnabled(false);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(adapterCache);
+    SonarLintExtensionTracker.getInstance().removeChangeListener(extensionChangeListener);
     SonarLintExtensionTracker.close();
 
     super.stop(context);
@@ -184,6 +237,10 @@ public class SonarLintCorePlugin extends Plugin {
     return sonarlint;
   }
 
+  public AdapterCache getAdapterCache() {
+    return adapterCache;
+  }
+
   public IProxyService getProxyService() {
     return proxyTracker.getService();
   }
@@ -200,10 +257,27 @@ public class SonarLintCorePlugin extends Plugin {
     getInstance().issueTrackerRegistry.get(project).ifPresent(IssueTracker::clear);
   }
 
+  public static AnalysisResultCache getOrCreateAnalysisResultCache(ISonarLintProject project) {
+    return getInstance().analysisResultCaches.computeIfAbsent(project.getName(),
+      k -> new AnalysisResultCache(StoragePathManager.getAnalysisCacheDir(project), SonarLintGlobalConfiguration::getAnalysisCacheSizeMb));
+  }
+
+  public static AnalysisConfigurationCache getAnalysisConfigurationCache() {
+    return getInstance().analysisConfigurationCache;
+  }
+
+  public static MarkerFlowsStore getMarkerFlowsStore() {
+    return getInstance().markerFlowsStore;
+  }
+
   public static AnalysisListenerManager getAnalysisListenerManager() {
     return getInstance().analysisListenerManager;
   }
 
+  public static AnalysisScheduler getAnalysisScheduler() {
+    return getInstance().analysisScheduler;
+  }
+
   public static SonarLintTelemetry getTelemetry() {
     return getInstance().telemetry;
   }
@@ -216,6 +290,10 @@ public class SonarLintCorePlugin extends Plugin {
     return getInstance().okhttpClient;
   }
 
+  public static HttpConnectionMetrics getHttpConnectionMetrics() {
+    return getInstance().httpConnectionMetrics;
+  }
+
   public static synchronized ConnectedEngineFacadeManager getServersManager() {
     if (getInstance().serversManager == null) {
       getInstance().serversManager = new ConnectedEngineFacadeManager();
@@ -224,12 +302,33 @@ public class SonarLintCorePlugin extends Plugin {
     return getInstance().serversManager;
   }
 
+  public static synchronized BoundProjectsIndex getBoundProjectsIndex() {
+    if (getInstance().boundProjectsIndex == null) {
+      BoundProjectsIndex index = new BoundProjectsIndex(ResourcesPlugin.getWorkspace(), getInstance().getProjectConfigManager());
+      index.start();
+      getInstance().boundProjectsIndex = index;
+    }
+    return getInstance().boundProjectsIndex;
+  }
+
+  public static synchronized ProjectFilesIndex getProjectFilesIndex() {
+    if (getInstance().projectFilesIndex == null) {
+      ProjectFilesIndex index = new ProjectFilesIndex(ResourcesPlugin.getWorkspace());
+      index.start();
+      getInstance().projectFilesIndex = index;
+    }
+    return getInstance().projectFilesIndex;
+  }
+
   public static NotificationsTracker getOrCreateNotificationsTracker(ISonarLintProject project) {
     return getInstance().notificationsTrackerRegistry.getOrCreate(project);
   }
 
+  /**
+   * @return read only configuration of the project, use {@link SonarLintProjectConfiguration#copy()} to modify it
+   */
   public static SonarLintProjectConfiguration loadConfig(ISonarLintProject project) {
-    return getInstance().getProjectConfigManager().load(project.getScopeContext(), project.getName());
+    return getInstance().getProjectConfigManager().loadSnapshot(project.getScopeContext(), project.getName());
   }
 
   public static void saveConfig(ISonarLintProject project, SonarLintProjectConfiguration config) {
@@ -22,6 +22,7 @@ package org.sonarlint.eclipse.core.internal;
 import java.nio.file.Path;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.container.storage.StoragePaths;
 
 /**
  * Utility class to centralize access to relevant global paths.
@@ -44,10 +45,29 @@ public class StoragePathManager {
     return getSonarLintUserHome().resolve("storage");
   }
 
+  /**
+   * Folder where SonarLint core stores the data of a connection
+   */
+  public static Path getServerStorageDir(String serverId) {
+    return getServerStorageRoot().resolve(StoragePaths.encodeForFs(serverId));
+  }
+
+  public static Path getServerIssuesSyncFile(String serverId) {
+    return getServerStorageDir(serverId).resolve("issues-sync.properties");
+  }
+
   public static Path getIssuesDir(ISonarLintProject project) {
     return project.getWorkingDir().resolve("issues");
   }
 
+  public static Path getIssueSegmentsDir(ISonarLintProject project) {
+    return project.getWorkingDir().resolve("issue-segments");
+  }
+
+  public static Path getAnalysisCacheDir(ISonarLintProject project) {
+    return project.getWorkingDir().resolve("analysis-cache");
+  }
+
   public static Path getNotificationsDir(ISonarLintProject project) {
     return project.getWorkingDir().resolve("notifications");
   }
@@ -35,10 +35,19 @@ public enum TriggerType {
 
   private final String name;
 
+  /**
+   * The priority is used to keep the strongest strategy when requests are merged, see {@link TriggerType#strongest(TriggerType)}
+   */
   private enum ServerIssueUpdateStrategy {
-    NO_UPDATE,
-    PER_PROJECT_OR_PER_FILE_SYNC,
-    PER_FILE_ASYNC
+    NO_UPDATE(0),
+    PER_FILE_ASYNC(1),
+    PER_PROJECT_OR_PER_FILE_SYNC(2);
+
+    private final int priority;
+
+    ServerIssueUpdateStrategy(int priority) {
+      this.priority = priority;
+    }
   }
 
   private final ServerIssueUpdateStrategy updateStrategy;
@@ -56,6 +65,14 @@ public enum TriggerType {
     return updateStrategy == ServerIssueUpdateStrategy.PER_FILE_ASYNC;
   }
 
+  /**
+   * Only background updates of many files at once (startup, binding change) download issues of the whole project, an opened editor
+   * still downloads issues of its file only, unless issues of the project were downloaded recently
+   */
+  public boolean shouldUpdateProjectIssuesAsync(int fileCount) {
+    return shouldUpdateFileIssuesAsync() && this != EDITOR_OPEN && fileCount >= PER_FILE_THRESHOLD;
+  }
+
   public boolean shouldUpdateFileIssuesSync(int fileCount) {
     return updateStrategy == ServerIssueUpdateStrategy.PER_PROJECT_OR_PER_FILE_SYNC && fileCount < PER_FILE_THRESHOLD;
   }
@@ -68,4 +85,12 @@ public enum TriggerType {
     return this != MANUAL && this != MANUAL_CHANGESET;
   }
 
+  /**
+   * When two analysis requests are merged, keep the trigger requiring the most server issues synchronization.
+   * In case of equality, the current trigger is kept.
+   */
+  public TriggerType strongest(TriggerType other) {
+    return other.updateStrategy.priority > this.updateStrategy.priority ? other : this;
+  }
+
 }
@@ -0,0 +1,214 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.adapter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Remember how resources were adapted by {@link DefaultSonarLintAdapterFactory}, since running all participants is costly.
+ * Entries are discarded when participants change or when resource deltas report a change that may affect the adaptation.
+ */
+public class AdapterCache implements IResourceChangeListener {
+
+  static final int MAX_ENTRIES = 10_000;
+  // Changes of those files may change the files excluded by adapter participants (JDT classpath, Maven modules)
+  private static final Set<String> PROJECT_SETTINGS = new HashSet<>(Arrays.asList(".project", ".classpath", ".settings", "pom.xml"));
+  private static final int CONTAINER_CHANGE_FLAGS = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION | IResourceDelta.DERIVED_CHANGED | IResourceDelta.TYPE
+    | IResourceDelta.REPLACED;
+
+  // Guarded by this
+  private final Map<Key, Optional<Object>> entries = new LinkedHashMap<Key, Optional<Object>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Optional<Object>> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+  private long invalidationCount;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private volatile boolean enabled;
+
+  /**
+   * Resources are keyed by their concrete class and path, since some IDEs provide their own resource implementations
+   */
+  private static class Key {
+    private final Class<?> resourceClass;
+    private final IPath path;
+    private final Class<?> adapterType;
+
+    private Key(IResource resource, Class<?> adapterType) {
+      this.resourceClass = resource.getClass();
+      this.path = resource.getFullPath();
+      this.adapterType = adapterType;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(resourceClass, path, adapterType);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return resourceClass == other.resourceClass && adapterType == other.adapterType && path.equals(other.path);
+    }
+  }
+
+  /**
+   * Only cache adapters while changes are notified to this cache
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      clear();
+    }
+  }
+
+  @Nullable
+  public <R extends IResource, T> T getOrAdapt(R resource, Class<T> adapterType, Function<R, T> adapter) {
+    // Missing resources are not cached, so that the adapter is computed again as soon as they are created
+    if (!enabled || !resource.exists()) {
+      return adapter.apply(resource);
+    }
+    Key key = new Key(resource, adapterType);
+    Optional<Object> cached;
+    long invalidationCountBeforeAdapt;
+    synchronized (this) {
+      cached = entries.get(key);
+      invalidationCountBeforeAdapt = invalidationCount;
+    }
+    if (cached != null) {
+      hitCount.incrementAndGet();
+      return adapterType.cast(cached.orElse(null));
+    }
+    missCount.incrementAndGet();
+    T adapted = adapter.apply(resource);
+    synchronized (this) {
+      // Don't cache what was adapted before a change
+      if (invalidationCount == invalidationCountBeforeAdapt) {
+        entries.put(key, Optional.ofNullable(adapted));
+      }
+    }
+    return adapted;
+  }
+
+  public synchronized void clear() {
+    invalidationCount++;
+    entries.clear();
+  }
+
+  private synchronized void invalidate(Set<IPath> files, Set<IPath> containers) {
+    invalidationCount++;
+    entries.keySet().removeIf(key -> files.contains(key.path) || isMemberOf(key.path, containers));
+  }
+
+  private static boolean isMemberOf(IPath path, Set<IPath> containers) {
+    for (IPath parent = path; parent.segmentCount() > 0; parent = parent.removeLastSegments(1)) {
+      if (containers.contains(parent)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null) {
+      return;
+    }
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & CONTAINER_CHANGE_FLAGS) != 0) {
+        // Adaptation of other projects might change too, i.e. nested Maven modules
+        clear();
+        return;
+      }
+    }
+    Set<IPath> files = new HashSet<>();
+    Set<IPath> containers = new HashSet<>();
+    try {
+      rootDelta.accept(delta -> visit(delta, files, containers));
+    } catch (CoreException e) {
+      SonarLintLogger.get().error("Unable to process resource changes", e);
+      clear();
+      return;
+    }
+    if (!files.isEmpty() || !containers.isEmpty()) {
+      invalidate(files, containers);
+    }
+  }
+
+  private static boolean visit(IResourceDelta delta, Set<IPath> files, Set<IPath> containers) {
+    IResource resource = delta.getResource();
+    int type = resource.getType();
+    if (type == IResource.ROOT || type == IResource.PROJECT) {
+      return true;
+    }
+    if (resource.getParent().getType() == IResource.PROJECT && PROJECT_SETTINGS.contains(resource.getName())) {
+      containers.add(resource.getProject().getFullPath());
+      return false;
+    }
+    boolean addedOrRemoved = delta.getKind() == IResourceDelta.ADDED || delta.getKind() == IResourceDelta.REMOVED;
+    int flags = delta.getFlags();
+    if (type == IResource.FILE) {
+      // Also discard modified files: JDT excludes compilation units with unknown structure
+      if (addedOrRemoved || (flags & ~IResourceDelta.MARKERS) != 0) {
+        files.add(resource.getFullPath());
+      }
+      return false;
+    }
+    if (addedOrRemoved || (flags & CONTAINER_CHANGE_FLAGS) != 0) {
+      containers.add(resource.getFullPath());
+      return false;
+    }
+    return true;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+}
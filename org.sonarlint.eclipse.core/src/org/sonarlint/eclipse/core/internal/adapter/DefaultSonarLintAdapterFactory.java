@@ -19,6 +19,7 @@
  */
 package org.sonarlint.eclipse.core.internal.adapter;
 
+import java.util.function.Function;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -26,6 +27,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IAdapterFactory;
 import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
@@ -47,50 +49,64 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
     if (ISonarLintProject.class.equals(adapterType) || ISonarLintIssuable.class.equals(adapterType)) {
       IProject project = ((IAdaptable) adaptableObject).getAdapter(IProject.class);
       if (project != null) {
-        return getProjectAdapter(adapterType, project);
+        return castOrNull(adapterType, getOrAdapt(project, ISonarLintProject.class, DefaultSonarLintAdapterFactory::getProjectAdapter));
       }
     }
     if (ISonarLintFile.class.equals(adapterType) || ISonarLintIssuable.class.equals(adapterType)) {
       IFile file = ((IAdaptable) adaptableObject).getAdapter(IFile.class);
       if (file != null) {
-        return getFileAdapter(adapterType, file);
+        return castOrNull(adapterType, getOrAdapt(file, ISonarLintFile.class, DefaultSonarLintAdapterFactory::getFileAdapter));
       }
       // Some objects may not have an adapter for IFile but only for IResource
       IResource resource = ((IAdaptable) adaptableObject).getAdapter(IResource.class);
       if (resource instanceof IFile) {
-        return getFileAdapter(adapterType, (IFile) resource);
+        return castOrNull(adapterType, getOrAdapt((IFile) resource, ISonarLintFile.class, DefaultSonarLintAdapterFactory::getFileAdapter));
       }
     }
     return null;
   }
 
   @Nullable
-  private static <T> T getProjectAdapter(Class<T> adapterType, IProject project) {
+  private static <R extends IResource, T> T getOrAdapt(R resource, Class<T> adapterType, Function<R, T> adapter) {
+    SonarLintCorePlugin plugin = SonarLintCorePlugin.getInstance();
+    if (plugin == null) {
+      return adapter.apply(resource);
+    }
+    return plugin.getAdapterCache().getOrAdapt(resource, adapterType, adapter);
+  }
+
+  @Nullable
+  private static <T> T castOrNull(Class<T> adapterType, @Nullable Object adapted) {
+    return adapted != null ? adapterType.cast(adapted) : null;
+  }
+
+  @Nullable
+  private static ISonarLintProject getProjectAdapter(IProject project) {
     for (ISonarLintProjectAdapterParticipant projectAdapterParticipant : SonarLintExtensionTracker.getInstance().getProjectAdapterParticipants()) {
       if (projectAdapterParticipant.exclude(project)) {
         SonarLintLogger.get().debug("Project '" + project.getName() + "' excluded by '" + projectAdapterParticipant.getClass().getSimpleName() + "'");
         return null;
       }
     }
-    return adaptProject(adapterType, project);
+    return adaptProject(project);
   }
 
-  private static <T> T adaptProject(Class<T> adapterType, IProject project) {
+  private static ISonarLintProject adaptProject(IProject project) {
     DefaultSonarLintProjectAdapter defaultSonarLintProjectAdapter = new DefaultSonarLintProjectAdapter(project);
     for (ISonarLintProjectAdapterParticipant p : SonarLintExtensionTracker.getInstance().getProjectAdapterParticipants()) {
       ISonarLintProject adapted = p.adapt(project, defaultSonarLintProjectAdapter);
       if (adapted != null) {
-        return adapterType.cast(adapted);
+        return adapted;
       }
     }
-    return adapterType.cast(defaultSonarLintProjectAdapter);
+    return defaultSonarLintProjectAdapter;
   }
 
   /**
    * Change this method with caution since it is critical for some Cobol IDEs integration
    */
   @Nullable
-  private static <T> T getFileAdapter(Class<T> adapterType, IFile file) {
+  private static ISonarLintFile getFileAdapter(IFile file) {
     // First do some very cheap checks to see if we can exclude the physical file
     if (!SonarLintUtils.isSonarLintFileCandidate(file)) {
       return null;
@@ -102,16 +118,16 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
         return null;
       }
     }
-    return adaptFile(adapterType, file);
+    return adaptFile(file);
   }
 
   @Nullable
-  private static <T> T adaptFile(Class<T> adapterType, IFile file) {
+  private static ISonarLintFile adaptFile(IFile file) {
     // Try to find one ISonarLintFileAdapterParticipant that will adapt the IFile
     for (ISonarLintFileAdapterParticipant p : SonarLintExtensionTracker.getInstance().getFileAdapterParticipants()) {
       ISonarLintFile adapted = p.adapt(file);
       if (adapted != null) {
-        return adapterType.cast(adapted);
+        return adapted;
       }
     }
     // Fallback to our default behavior
@@ -120,7 +136,7 @@ public class DefaultSonarLintAdapterFactory implements IAdapterFactory {
       // IProject was likely excluded by a ISonarLintProjectAdapterParticipant, so don't try to adapt the file
       return null;
     }
-    return adapterType.cast(new DefaultSonarLintFileAdapter(project, file));
+    return new DefaultSonarLintFileAdapter(project, file);
   }
 
   @Override
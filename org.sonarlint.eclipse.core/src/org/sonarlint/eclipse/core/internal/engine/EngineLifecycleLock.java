@@ -0,0 +1,61 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Guard access to a SonarLint engine. Analyses and other read-only operations share the engine and can run concurrently,
+ * while operations changing the engine lifecycle or its storage (stop, storage updates, issue downloads) have exclusive access.
+ * SonarLint core holds its own write lock during the whole network calls of storage updates and issue downloads, so analyses would wait
+ * for them anyway.
+ */
+public class EngineLifecycleLock {
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public <G> G withSharedAccess(Supplier<G> action) {
+    return withLock(lock.readLock(), action);
+  }
+
+  public <G> G withExclusiveAccess(Supplier<G> action) {
+    return withLock(lock.writeLock(), action);
+  }
+
+  public void withExclusiveAccess(Runnable action) {
+    withExclusiveAccess(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  private static <G> G withLock(Lock l, Supplier<G> action) {
+    l.lock();
+    try {
+      return action.get();
+    } finally {
+      l.unlock();
+    }
+  }
+
+}
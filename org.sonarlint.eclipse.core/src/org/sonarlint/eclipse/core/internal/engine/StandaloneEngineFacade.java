@@ -50,10 +50,21 @@ import static java.util.stream.Collectors.toSet;
 
 public class StandaloneEngineFacade {
 
-  private StandaloneSonarLintEngine wrappedEngine;
+  private final EngineLifecycleLock engineLock = new EngineLifecycleLock();
+  @Nullable
+  private volatile StandaloneSonarLintEngine wrappedEngine;
+
+  @Nullable
+  private StandaloneSonarLintEngine getOrCreateEngine() {
+    StandaloneSonarLintEngine engine = wrappedEngine;
+    if (engine != null) {
+      return engine;
+    }
+    return createEngineIfNeeded();
+  }
 
   @Nullable
-  private synchronized StandaloneSonarLintEngine getOrCreateEngine() {
+  private synchronized StandaloneSonarLintEngine createEngineIfNeeded() {
     if (wrappedEngine == null) {
       SonarLintLogger.get().info("Starting standalone SonarLint engine " + SonarLintUtils.getPluginVersion() + "...");
       Enumeration<URL> pluginEntriesEnum = SonarLintCorePlugin.getInstance().getBundle().findEntries("/plugins", "*.jar", false);
@@ -85,12 +96,10 @@ public class StandaloneEngineFacade {
 
   private <G> Optional<G> withEngine(Function<StandaloneSonarLintEngine, G> function) {
     getOrCreateEngine();
-    synchronized (this) {
-      if (wrappedEngine != null) {
-        return Optional.ofNullable(function.apply(wrappedEngine));
-      }
-    }
-    return Optional.empty();
+    return engineLock.withSharedAccess(() -> {
+      StandaloneSonarLintEngine engine = wrappedEngine;
+      return engine != null ? Optional.ofNullable(function.apply(engine)) : Optional.<G>empty();
+    });
   }
 
   @Nullable
@@ -116,10 +125,13 @@ public class StandaloneEngineFacade {
   }
 
   public synchronized void stop() {
-    if (wrappedEngine != null) {
-      wrappedEngine.stop();
-      wrappedEngine = null;
-    }
+    engineLock.withExclusiveAccess(() -> {
+      StandaloneSonarLintEngine engine = wrappedEngine;
+      if (engine != null) {
+        engine.stop();
+        wrappedEngine = null;
+      }
+    });
   }
 
 }
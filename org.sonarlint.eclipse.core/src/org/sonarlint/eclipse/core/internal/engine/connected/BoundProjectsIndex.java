@@ -0,0 +1,252 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfigurationManager;
+import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Index of open projects by connection id and project key. It is built on first access, then only projects reported by
+ * resource deltas (open/close/add/remove) or by binding changes are indexed again.
+ */
+public class BoundProjectsIndex implements IResourceChangeListener {
+
+  private static final int PROJECT_CHANGE_FLAGS = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION;
+
+  private final IWorkspace workspace;
+  private final SonarLintProjectConfigurationManager configManager;
+  private final Consumer<String> configurationListener = this::configurationChanged;
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  // All fields are guarded by this
+  private final Map<String, IndexedProject> projectsByName = new HashMap<>();
+  private final Map<String, Map<String, Map<String, ISonarLintProject>>> projectsByConnectionAndKey = new HashMap<>();
+  private final Map<String, Optional<ISonarLintProject>> changedProjects = new LinkedHashMap<>();
+  private final Set<String> changedConfigurations = new LinkedHashSet<>();
+  private boolean built;
+  private long fullBuildCount;
+  private long projectIndexingCount;
+
+  private static class IndexedProject {
+    private final ISonarLintProject project;
+    @Nullable
+    private final EclipseProjectBinding binding;
+
+    private IndexedProject(ISonarLintProject project, @Nullable EclipseProjectBinding binding) {
+      this.project = project;
+      this.binding = binding;
+    }
+  }
+
+  public BoundProjectsIndex(IWorkspace workspace, SonarLintProjectConfigurationManager configManager) {
+    this.workspace = workspace;
+    this.configManager = configManager;
+  }
+
+  public void start() {
+    workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    configManager.addConfigurationChangeListener(configurationListener);
+  }
+
+  public void stop() {
+    workspace.removeResourceChangeListener(this);
+    configManager.removeConfigurationChangeListener(configurationListener);
+    clear();
+  }
+
+  public synchronized List<ISonarLintProject> getBoundProjects(String connectionId) {
+    refresh();
+    return projectsByConnectionAndKey.getOrDefault(connectionId, Collections.emptyMap()).values().stream()
+      .flatMap(projects -> projects.values().stream())
+      .collect(toList());
+  }
+
+  public synchronized List<ISonarLintProject> getBoundProjects(String connectionId, String projectKey) {
+    refresh();
+    return new ArrayList<>(projectsByConnectionAndKey.getOrDefault(connectionId, Collections.emptyMap()).getOrDefault(projectKey, Collections.emptyMap()).values());
+  }
+
+  /**
+   * @return sorted keys of remote projects having at least one open project bound to them
+   */
+  public synchronized List<String> getBoundProjectKeys(String connectionId) {
+    refresh();
+    return new ArrayList<>(projectsByConnectionAndKey.getOrDefault(connectionId, Collections.emptyMap()).keySet());
+  }
+
+  /**
+   * Called when the configuration of a project might have changed, the project will be indexed again on next access.
+   */
+  public synchronized void configurationChanged(String projectName) {
+    if (built) {
+      changedConfigurations.add(projectName);
+    }
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || event.getDelta() == null) {
+      return;
+    }
+    Map<String, Optional<ISonarLintProject>> projects = new LinkedHashMap<>();
+    for (IResourceDelta projectDelta : event.getDelta().getAffectedChildren()) {
+      if (isProjectChange(projectDelta)) {
+        IResource resource = projectDelta.getResource();
+        ISonarLintProject project = projectDelta.getKind() == IResourceDelta.REMOVED ? null : Adapters.adapt(resource, ISonarLintProject.class);
+        projects.put(resource.getName(), Optional.ofNullable(project));
+      }
+    }
+    if (!projects.isEmpty()) {
+      projectsChanged(projects);
+    }
+  }
+
+  private static boolean isProjectChange(IResourceDelta projectDelta) {
+    switch (projectDelta.getKind()) {
+      case IResourceDelta.ADDED:
+      case IResourceDelta.REMOVED:
+        return true;
+      case IResourceDelta.CHANGED:
+        return (projectDelta.getFlags() & PROJECT_CHANGE_FLAGS) != 0;
+      default:
+        return false;
+    }
+  }
+
+  private synchronized void projectsChanged(Map<String, Optional<ISonarLintProject>> projects) {
+    if (built) {
+      changedProjects.putAll(projects);
+    }
+  }
+
+  /**
+   * Forget everything, the index will be fully built again on next access.
+   */
+  public synchronized void clear() {
+    built = false;
+    projectsByName.clear();
+    projectsByConnectionAndKey.clear();
+    changedProjects.clear();
+    changedConfigurations.clear();
+  }
+
+  private void refresh() {
+    if (!built) {
+      build();
+      return;
+    }
+    if (!changedProjects.isEmpty()) {
+      Map<String, Optional<ISonarLintProject>> projects = new LinkedHashMap<>(changedProjects);
+      changedProjects.clear();
+      projects.forEach((name, project) -> {
+        unindex(name);
+        project.ifPresent(this::index);
+      });
+    }
+    if (!changedConfigurations.isEmpty()) {
+      // Loading the configuration may report other changes, that will be handled on next access
+      List<String> projectNames = new ArrayList<>(changedConfigurations);
+      changedConfigurations.clear();
+      for (String projectName : projectNames) {
+        IndexedProject indexed = unindex(projectName);
+        if (indexed != null) {
+          index(indexed.project);
+        }
+      }
+    }
+  }
+
+  private void build() {
+    // Set before indexing so that changes reported meanwhile are not lost
+    built = true;
+    fullBuildCount++;
+    Collection<ISonarLintProject> allProjects = ProjectsProviderUtils.allProjects();
+    for (ISonarLintProject project : allProjects) {
+      index(project);
+    }
+  }
+
+  private void index(ISonarLintProject project) {
+    if (!project.isOpen()) {
+      return;
+    }
+    projectIndexingCount++;
+    EclipseProjectBinding binding = configManager.loadSnapshot(project.getScopeContext(), project.getName()).getProjectBinding().orElse(null);
+    projectsByName.put(project.getName(), new IndexedProject(project, binding));
+    if (binding != null) {
+      projectsByConnectionAndKey.computeIfAbsent(binding.connectionId(), k -> new TreeMap<>())
+        .computeIfAbsent(binding.projectKey(), k -> new TreeMap<>())
+        .put(project.getName(), project);
+    }
+  }
+
+  @Nullable
+  private IndexedProject unindex(String projectName) {
+    IndexedProject removed = projectsByName.remove(projectName);
+    if (removed != null && removed.binding != null) {
+      EclipseProjectBinding binding = removed.binding;
+      Map<String, Map<String, ISonarLintProject>> projectsByKey = projectsByConnectionAndKey.get(binding.connectionId());
+      if (projectsByKey != null) {
+        Map<String, ISonarLintProject> projects = projectsByKey.get(binding.projectKey());
+        if (projects != null) {
+          projects.remove(projectName);
+          if (projects.isEmpty()) {
+            projectsByKey.remove(binding.projectKey());
+          }
+        }
+        if (projectsByKey.isEmpty()) {
+          projectsByConnectionAndKey.remove(binding.connectionId());
+        }
+      }
+    }
+    return removed;
+  }
+
+  public synchronized long getFullBuildCount() {
+    return fullBuildCount;
+  }
+
+  public synchronized long getProjectIndexingCount() {
+    return projectIndexingCount;
+  }
+
+}
@@ -23,18 +23,18 @@ import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import okhttp3.Credentials;
 import okhttp3.OkHttpClient;
+import org.eclipse.core.net.proxy.IProxyData;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -46,14 +46,15 @@ import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.StoragePathManager;
 import org.sonarlint.eclipse.core.internal.engine.AnalysisRequirementNotifications;
+import org.sonarlint.eclipse.core.internal.engine.EngineLifecycleLock;
 import org.sonarlint.eclipse.core.internal.engine.SkippedPluginsNotifier;
+import org.sonarlint.eclipse.core.internal.http.CachedHttpClient;
 import org.sonarlint.eclipse.core.internal.http.PreemptiveAuthenticatorInterceptor;
 import org.sonarlint.eclipse.core.internal.http.SonarLintHttpClientOkHttpImpl;
 import org.sonarlint.eclipse.core.internal.jobs.SonarLintAnalyzerLogOutput;
 import org.sonarlint.eclipse.core.internal.jobs.WrappedProgressMonitor;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
-import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.utils.NodeJsManager;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
@@ -71,6 +72,7 @@ import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEng
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectionValidator;
 import org.sonarsource.sonarlint.core.client.api.connected.GlobalStorageStatus;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectStorageStatus;
 import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
 import org.sonarsource.sonarlint.core.client.api.connected.SonarAnalyzer;
 import org.sonarsource.sonarlint.core.client.api.connected.StateListener;
@@ -88,6 +90,7 @@ import org.sonarsource.sonarlint.core.serverapi.hotspot.ServerHotspot;
 import org.sonarsource.sonarlint.core.serverapi.organization.ServerOrganization;
 import org.sonarsource.sonarlint.core.serverapi.project.ServerProject;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.stream.Collectors.toList;
@@ -101,25 +104,40 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
   private String host;
   private String organization;
   private boolean hasAuth;
-  private ConnectedSonarLintEngine wrappedEngine;
+  private final EngineLifecycleLock engineLock = new EngineLifecycleLock();
+  @Nullable
+  private volatile ConnectedSonarLintEngine wrappedEngine;
   private final List<IConnectedEngineFacadeListener> facadeListeners = new ArrayList<>();
   private GlobalStorageStatus updateStatus;
   private boolean hasUpdates;
   private boolean notificationsDisabled;
   // Cache the project list to avoid dead lock
   private final Map<String, ServerProject> allProjectsByKey = new ConcurrentHashMap<>();
+  private final CachedHttpClient httpClient = new CachedHttpClient();
+  private final ServerIssuesSyncTimestamps issuesSyncTimestamps;
+  private final Map<String, Object> issuesSyncLocks = new ConcurrentHashMap<>();
 
   public static String getSonarCloudUrl() {
     // For testing we need to allow changing default URL
     return System.getProperty("sonarlint.internal.sonarcloud.url", "https://sonarcloud.io");
   }
 
-  ConnectedEngineFacade(String id) {
+  protected ConnectedEngineFacade(String id) {
     this.id = id;
+    this.issuesSyncTimestamps = new ServerIssuesSyncTimestamps(StoragePathManager.getServerIssuesSyncFile(id));
   }
 
   @Nullable
-  private synchronized ConnectedSonarLintEngine getOrCreateEngine() {
+  private ConnectedSonarLintEngine getOrCreateEngine() {
+    ConnectedSonarLintEngine engine = wrappedEngine;
+    if (engine != null) {
+      return engine;
+    }
+    return createEngineIfNeeded();
+  }
+
+  @Nullable
+  private synchronized ConnectedSonarLintEngine createEngineIfNeeded() {
     if (wrappedEngine == null) {
       SonarLintLogger.get().info("Starting SonarLint engine for connection '" + id + "'...");
       NodeJsManager nodeJsManager = SonarLintCorePlugin.getNodeJsManager();
@@ -132,7 +150,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
         .setNodeJs(nodeJsManager.getNodeJsPath(), nodeJsManager.getNodeJsVersion())
         .build();
       try {
-        this.wrappedEngine = new ConnectedSonarLintEngineImpl(globalConfig);
+        this.wrappedEngine = newEngine(globalConfig);
         this.wrappedEngine.addStateListener(this);
         this.updateStatus = wrappedEngine.getGlobalStorageStatus();
         if (wrappedEngine.getState().equals(State.UPDATED)) {
@@ -147,23 +165,38 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
     return wrappedEngine;
   }
 
+  /**
+   * Only overridden in tests
+   */
+  protected ConnectedSonarLintEngine newEngine(ConnectedGlobalConfiguration globalConfig) {
+    return new ConnectedSonarLintEngineImpl(globalConfig);
+  }
+
   private <G> Optional<G> withEngine(Function<ConnectedSonarLintEngine, G> function) {
     getOrCreateEngine();
-    synchronized (this) {
-      if (wrappedEngine != null) {
-        return Optional.ofNullable(function.apply(wrappedEngine));
-      }
-    }
-    return Optional.empty();
+    return engineLock.withSharedAccess(() -> {
+      ConnectedSonarLintEngine engine = wrappedEngine;
+      return engine != null ? Optional.ofNullable(function.apply(engine)) : Optional.<G>empty();
+    });
   }
 
-  private void doWithEngine(Consumer<ConnectedSonarLintEngine> consumer) {
+  /**
+   * For operations changing the storage, that should not run while analyses are using it. SonarLint core would anyway block analyses
+   * during the whole download.
+   */
+  private <G> Optional<G> withEngineExclusively(Function<ConnectedSonarLintEngine, G> function) {
     getOrCreateEngine();
-    synchronized (this) {
-      if (wrappedEngine != null) {
-        consumer.accept(wrappedEngine);
-      }
-    }
+    return engineLock.withExclusiveAccess(() -> {
+      ConnectedSonarLintEngine engine = wrappedEngine;
+      return engine != null ? Optional.ofNullable(function.apply(engine)) : Optional.<G>empty();
+    });
+  }
+
+  private void doWithEngineExclusively(Consumer<ConnectedSonarLintEngine> consumer) {
+    withEngineExclusively(engine -> {
+      consumer.accept(engine);
+      return null;
+    });
   }
 
   private void reloadProjects(ConnectedSonarLintEngine engine) {
@@ -241,17 +274,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
           }
         });
 
-      Set<String> projectKeys = getBoundProjects()
-        .stream()
-        .map(SonarLintCorePlugin::loadConfig)
-        .map(SonarLintProjectConfiguration::getProjectBinding)
-        // Useless in practice because we only have bound projects
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(ProjectBinding::projectKey)
-        .collect(Collectors.toSet());
-
-      for (String projectKey : projectKeys) {
+      for (String projectKey : SonarLintCorePlugin.getBoundProjectsIndex().getBoundProjectKeys(id)) {
         SubMonitor projectMonitor = subMonitor.newChild(1);
         if (progress.isCanceled()) {
           return;
@@ -274,6 +297,32 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
     }
   }
 
+  @Override
+  public boolean checkIfGlobalStorageNeedUpdate(IProgressMonitor monitor) {
+    return withEngine(engine -> engine.checkIfGlobalStorageNeedUpdate(createEndpointParams(), buildClientWithProxyAndCredentials(),
+      new WrappedProgressMonitor(monitor, "Check for configuration updates on server '" + getId() + "'")))
+        .map(result -> {
+          result.changelog().forEach(line -> SonarLintLogger.get().debug("  - " + line));
+          return result.needUpdate();
+        })
+        .orElse(true);
+  }
+
+  @Override
+  public boolean checkIfProjectStorageNeedUpdate(String projectKey, IProgressMonitor monitor) {
+    boolean upToDateFormat = withEngine(engine -> engine.getProjectStorageStatus(projectKey)).map(status -> !status.isStale()).orElse(false);
+    if (!upToDateFormat) {
+      return true;
+    }
+    return withEngine(engine -> engine.checkIfProjectStorageNeedUpdate(createEndpointParams(), buildClientWithProxyAndCredentials(), projectKey,
+      new WrappedProgressMonitor(monitor, "Checking for binding data update for project '" + projectKey + "'")))
+        .map(result -> {
+          result.changelog().forEach(line -> SonarLintLogger.get().debug("  - " + line));
+          return result.needUpdate();
+        })
+        .orElse(true);
+  }
+
   @Override
   public boolean hasUpdates() {
     return hasUpdates;
@@ -327,6 +376,8 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
   @Override
   public synchronized void delete() {
     doStop();
+    invalidateHttpClient();
+    issuesSyncTimestamps.clear();
     for (ISonarLintProject sonarLintProject : getBoundProjects()) {
       unbind(sonarLintProject);
     }
@@ -335,7 +386,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   public static void unbind(ISonarLintProject project) {
     SonarLintCorePlugin.getInstance().notificationsManager().unsubscribe(project);
-    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(project).copy();
     config.setProjectBinding(null);
     SonarLintCorePlugin.saveConfig(project, config);
     project.deleteAllMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
@@ -375,15 +426,18 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
   }
 
   private void doStop() {
-    if (wrappedEngine != null) {
-      wrappedEngine.stop(false);
-      wrappedEngine = null;
-    }
+    engineLock.withExclusiveAccess(() -> {
+      ConnectedSonarLintEngine engine = wrappedEngine;
+      if (engine != null) {
+        engine.stop(false);
+        wrappedEngine = null;
+      }
+    });
   }
 
   @Override
   public void updateStorage(IProgressMonitor monitor) {
-    doWithEngine(engine -> {
+    doWithEngineExclusively(engine -> {
       UpdateResult updateResult = engine.update(createEndpointParams(), buildClientWithProxyAndCredentials(),
         new WrappedProgressMonitor(monitor, "Update configuration from server '" + getId() + "'"));
       Collection<SonarAnalyzer> tooOld = updateResult.analyzers().stream()
@@ -396,6 +450,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
       updateStatus = updateResult.status();
       hasUpdates = false;
       SkippedPluginsNotifier.notifyForSkippedPlugins(engine.getPluginDetails(), id);
+      SonarLintLogger.get().debug("HTTP connections after update of '" + getId() + "': " + SonarLintCorePlugin.getHttpConnectionMetrics());
     });
   }
 
@@ -417,7 +472,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   @Override
   public void updateProjectList(IProgressMonitor monitor) {
-    doWithEngine(engine -> {
+    doWithEngineExclusively(engine -> {
       engine.downloadAllProjects(createEndpointParams(), buildClientWithProxyAndCredentials(),
         new WrappedProgressMonitor(monitor, "Download project list from server '" + getId() + "'"));
       reloadProjects(engine);
@@ -426,24 +481,11 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   @Override
   public List<ISonarLintProject> getBoundProjects() {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.connectionId())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getBoundProjectsIndex().getBoundProjects(id);
   }
 
   public List<RemoteSonarProject> getBoundRemoteProjects(IProgressMonitor monitor) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .map(SonarLintCorePlugin::loadConfig)
-      .map(SonarLintProjectConfiguration::getProjectBinding)
-      .flatMap(o -> o.isPresent() ? Stream.of(o.get()) : Stream.empty())
-      .filter(c -> c.connectionId().equals(id))
-      .map(ProjectBinding::projectKey)
-      .distinct()
-      .sorted()
+    return SonarLintCorePlugin.getBoundProjectsIndex().getBoundProjectKeys(id).stream()
       .map(projectKey -> {
         Optional<ServerProject> remoteProject = getRemoteProject(projectKey, monitor);
         if (remoteProject.isPresent()) {
@@ -457,28 +499,32 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   @Override
   public List<ISonarLintProject> getBoundProjects(String projectKey) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.connectionId()) && projectKey.equals(b.projectKey())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getBoundProjectsIndex().getBoundProjects(id, projectKey);
   }
 
   @Override
   public void updateProjectStorage(String projectKey, IProgressMonitor monitor) {
-    doWithEngine(engine -> {
-      engine.updateProject(createEndpointParams(), buildClientWithProxyAndCredentials(), projectKey,
-        true, new WrappedProgressMonitor(monitor, "Update configuration from server '" + getId() + "' for project '" + projectKey + "'"));
-      getBoundProjects(projectKey).forEach(p -> {
-        ProjectBinding projectBinding = engine.calculatePathPrefixes(projectKey, p.files().stream().map(ISonarLintFile::getProjectRelativePath).collect(toList()));
-        String idePathPrefix = projectBinding.idePathPrefix();
-        String sqPathPrefix = projectBinding.sqPathPrefix();
-        SonarLintLogger.get().debug("Detected prefixes for " + p.getName() + ":\n  IDE prefix: " + idePathPrefix + "\n  Server side prefix: " + sqPathPrefix);
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        config.setProjectBinding(new EclipseProjectBinding(getId(), projectKey, sqPathPrefix, idePathPrefix));
-        SonarLintCorePlugin.saveConfig(p, config);
-      });
+    doWithEngineExclusively(engine -> engine.updateProject(createEndpointParams(), buildClientWithProxyAndCredentials(), projectKey,
+      true, new WrappedProgressMonitor(monitor, "Update configuration from server '" + getId() + "' for project '" + projectKey + "'")));
+    updatePathPrefixes(projectKey);
+  }
+
+  @Override
+  public void updateProjectIssues(String projectKey, IProgressMonitor monitor) {
+    downloadServerIssues(projectKey, true, monitor);
+    updatePathPrefixes(projectKey);
+  }
+
+  private void updatePathPrefixes(String projectKey) {
+    // Listing files and saving the configuration don't need to block analyses
+    getBoundProjects(projectKey).forEach(p -> {
+      ProjectBinding projectBinding = calculatePathPrefixes(projectKey, p.files().stream().map(ISonarLintFile::getProjectRelativePath).collect(toList()));
+      String idePathPrefix = projectBinding.idePathPrefix();
+      String sqPathPrefix = projectBinding.sqPathPrefix();
+      SonarLintLogger.get().debug("Detected prefixes for " + p.getName() + ":\n  IDE prefix: " + idePathPrefix + "\n  Server side prefix: " + sqPathPrefix);
+      SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p).copy();
+      config.setProjectBinding(new EclipseProjectBinding(getId(), projectKey, sqPathPrefix, idePathPrefix));
+      SonarLintCorePlugin.saveConfig(p, config);
     });
     // Some prefix/suffix might have been changed
     notifyAllListenersStateChanged();
@@ -510,8 +556,38 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
     return serverApi.organization().listUserOrganizations(new WrappedProgressMonitor(monitor, "Fetch organizations"));
   }
 
+  /**
+   * The client is reused as long as the URL, the authentication and the proxy settings of the connection don't change, and until
+   * {@link #invalidateHttpClient()} is called
+   */
   public HttpClient buildClientWithProxyAndCredentials() {
-    OkHttpClient.Builder withProxy = SonarLintUtils.withProxy(getHost(), SonarLintCorePlugin.getOkHttpClient());
+    String url = getHost();
+    return httpClient.get(httpClientKey(url, hasAuth()), () -> doBuildClientWithProxyAndCredentials(url));
+  }
+
+  /**
+   * Credentials are only read when the client is built, so it has to be invalidated when they change
+   */
+  public void invalidateHttpClient() {
+    httpClient.invalidate();
+  }
+
+  public CachedHttpClient getCachedHttpClient() {
+    return httpClient;
+  }
+
+  private static List<Object> httpClientKey(String url, boolean hasAuth) {
+    IProxyData proxyData = SonarLintUtils.selectProxy(url);
+    if (proxyData == null) {
+      return asList(url, hasAuth);
+    }
+    return asList(url, hasAuth, proxyData.getType(), proxyData.getHost(), proxyData.getPort(), proxyData.isRequiresAuthentication(), proxyData.getUserId(),
+      proxyData.getPassword());
+  }
+
+  private HttpClient doBuildClientWithProxyAndCredentials(String url) {
+    SonarLintLogger.get().debug("Creating HTTP client for connection '" + getId() + "'");
+    OkHttpClient.Builder withProxy = SonarLintUtils.withProxy(url, SonarLintCorePlugin.getOkHttpClient());
     if (hasAuth()) {
       @Nullable
       String username;
@@ -639,18 +715,68 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
     return this;
   }
 
-  public void downloadServerIssues(String projectKey, IProgressMonitor monitor) {
-    doWithEngine(
-      engine -> engine.downloadServerIssues(createEndpointParams(), buildClientWithProxyAndCredentials(), projectKey, false, new WrappedProgressMonitor(monitor, "Fetch issues")));
+  /**
+   * @return false if the engine could not be started, so nothing was downloaded
+   */
+  public boolean downloadServerIssues(String projectKey, IProgressMonitor monitor) {
+    return downloadServerIssues(projectKey, false, monitor);
+  }
+
+  private boolean downloadServerIssues(String projectKey, boolean fetchTaintVulnerabilities, IProgressMonitor monitor) {
+    long syncStart = System.currentTimeMillis();
+    boolean downloaded = withEngineExclusively(engine -> {
+      engine.downloadServerIssues(createEndpointParams(), buildClientWithProxyAndCredentials(), projectKey, fetchTaintVulnerabilities,
+        new WrappedProgressMonitor(monitor, "Fetch issues"));
+      return true;
+    }).orElse(false);
+    if (downloaded) {
+      issuesSyncTimestamps.setLastSync(projectKey, syncStart);
+    }
+    return downloaded;
+  }
+
+  /**
+   * Download all issues of the project in a single request, unless this was already done less than maxAgeMillis ago. Issues of each file
+   * can then be read from the local storage using {@link #getServerIssues(ProjectBinding, String)}.
+   * Concurrent callers for the same project wait for the first one, so that the project issues are only downloaded once.
+   * @return true if the local storage holds issues of the project downloaded less than maxAgeMillis ago
+   */
+  public boolean syncServerIssuesIfNeeded(String projectKey, long maxAgeMillis, IProgressMonitor monitor) {
+    synchronized (issuesSyncLocks.computeIfAbsent(projectKey, k -> new Object())) {
+      if (hasRecentServerIssues(projectKey, maxAgeMillis)) {
+        SonarLintLogger.get().debug("Server issues of project '" + projectKey + "' were downloaded less than " + maxAgeMillis + "ms ago");
+        return true;
+      }
+      SonarLintLogger.get().debug("Download server issues of project '" + projectKey + "'");
+      return downloadServerIssues(projectKey, monitor);
+    }
+  }
+
+  /**
+   * @return true if issues of the whole project were downloaded less than maxAgeMillis ago, so that issues of a file can be read from the
+   * local storage instead of being downloaded again
+   */
+  public boolean hasRecentServerIssues(String projectKey, long maxAgeMillis) {
+    return System.currentTimeMillis() - issuesSyncTimestamps.getLastSync(projectKey) < maxAgeMillis;
   }
 
   public List<ServerIssue> downloadServerIssues(ProjectBinding projectBinding, String filePath, IProgressMonitor monitor) {
-    return withEngine(
+    return withEngineExclusively(
       engine -> engine.downloadServerIssues(createEndpointParams(), buildClientWithProxyAndCredentials(), projectBinding, filePath,
         true, new WrappedProgressMonitor(monitor, "Fetch issues")))
           .orElse(emptyList());
   }
 
+  /**
+   * Identify the version of the local storage used to analyze files of the given project, changing each time the storage is updated
+   */
+  public String getStorageFingerprint(String projectKey) {
+    GlobalStorageStatus globalStatus = updateStatus;
+    Optional<Date> projectUpdateDate = withEngine(engine -> engine.getProjectStorageStatus(projectKey)).map(ProjectStorageStatus::getLastUpdateDate);
+    return getId() + "|" + projectKey + "|" + (globalStatus != null ? globalStatus.getLastUpdateDate().getTime() : "") + "|"
+      + projectUpdateDate.map(Date::getTime).map(String::valueOf).orElse("");
+  }
+
   public List<ServerIssue> getServerIssues(ProjectBinding projectBinding, String filePath) {
     return withEngine(engine -> engine.getServerIssues(projectBinding, filePath)).orElse(emptyList());
   }
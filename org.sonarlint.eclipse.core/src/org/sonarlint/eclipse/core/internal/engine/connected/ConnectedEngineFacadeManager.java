@@ -378,6 +378,8 @@ public class ConnectedEngineFacadeManager {
     }
     ConnectedEngineFacade connectionToUpdate = (ConnectedEngineFacade) facadesByConnectionId.get(facade.getId());
     update(connectionToUpdate, facade.getHost(), facade.getOrganization(), facade.hasAuth(), facade.areNotificationsDisabled());
+    // Credentials may have changed
+    connectionToUpdate.invalidateHttpClient();
 
     fireServerEvent(connectionToUpdate, EVENT_CHANGED);
   }
@@ -109,6 +109,13 @@ public interface IConnectedEngineFacade {
 
   void updateProjectStorage(String moduleKey, IProgressMonitor monitor);
 
+  /**
+   * Download issues and taint vulnerabilities of the project, and detect path prefixes of bound projects again, without updating the rest of
+   * the project storage. This is what {@link #updateProjectStorage(String, IProgressMonitor)} still needs to do when the project storage
+   * is up to date.
+   */
+  void updateProjectIssues(String projectKey, IProgressMonitor monitor);
+
   State getStorageState();
 
   List<ISonarLintProject> getBoundProjects();
@@ -121,6 +128,17 @@ public interface IConnectedEngineFacade {
 
   void checkForUpdates(IProgressMonitor progress);
 
+  /**
+   * Ask the server whether the global storage (plugins, quality profiles...) changed since the last update
+   */
+  boolean checkIfGlobalStorageNeedUpdate(IProgressMonitor monitor);
+
+  /**
+   * Ask the server whether the storage of the given project (quality profiles, settings...) changed since the last update.
+   * Also true when the project storage is missing or has an outdated format.
+   */
+  boolean checkIfProjectStorageNeedUpdate(String projectKey, IProgressMonitor monitor);
+
   boolean hasUpdates();
 
   void updateProjectList(IProgressMonitor monitor);
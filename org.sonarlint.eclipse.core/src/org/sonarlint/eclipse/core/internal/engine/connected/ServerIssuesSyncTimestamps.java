@@ -0,0 +1,95 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.engine.connected;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Remember, per project key, when all server issues of the project were last downloaded into the local storage of a connection,
+ * so that opening files does not need to download issues of each file again while this snapshot is recent enough.
+ * The file is read again on each access, so that timestamps are forgotten when the storage of the connection is deleted.
+ */
+public class ServerIssuesSyncTimestamps {
+
+  private final Path file;
+
+  public ServerIssuesSyncTimestamps(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @return epoch millis of the last successful download of the project issues, or 0 if they were never downloaded
+   */
+  public synchronized long getLastSync(String projectKey) {
+    String value = load().getProperty(projectKey);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  public synchronized void setLastSync(String projectKey, long epochMillis) {
+    Properties timestamps = load();
+    timestamps.setProperty(projectKey, Long.toString(epochMillis));
+    save(timestamps);
+  }
+
+  public synchronized void clear() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      SonarLintLogger.get().error("Unable to delete server issues synchronization state " + file, e);
+    }
+  }
+
+  private Properties load() {
+    Properties loaded = new Properties();
+    if (Files.exists(file)) {
+      try (InputStream in = Files.newInputStream(file)) {
+        loaded.load(in);
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Unable to read server issues synchronization state from " + file, e);
+      }
+    }
+    return loaded;
+  }
+
+  private void save(Properties timestamps) {
+    try {
+      Files.createDirectories(file.getParent());
+      try (OutputStream out = Files.newOutputStream(file)) {
+        timestamps.store(out, null);
+      }
+    } catch (IOException e) {
+      SonarLintLogger.get().error("Unable to save server issues synchronization state to " + file, e);
+    }
+  }
+
+}
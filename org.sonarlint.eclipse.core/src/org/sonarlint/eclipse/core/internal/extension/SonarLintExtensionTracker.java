@@ -22,6 +22,8 @@ package org.sonarlint.eclipse.core.internal.extension;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
@@ -70,6 +72,7 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
     languageEp, typeEp);
 
   private ExtensionTracker tracker;
+  private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
   private SonarLintExtensionTracker() {
     IExtensionRegistry reg = Platform.getExtensionRegistry();
@@ -109,6 +112,7 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
         SonarLintLogger.get().error("Unable to load one SonarLint extension", e);
       }
     }
+    notifyChanged();
   }
 
   private void instanciateAndRegister(IExtensionTracker tracker, IExtension extension, final IConfigurationElement element) throws CoreException {
@@ -132,6 +136,22 @@ public class SonarLintExtensionTracker implements IExtensionChangeHandler {
         break;
       }
     }
+    notifyChanged();
+  }
+
+  /**
+   * The listener is called each time an extension is added or removed, so that anything computed from extensions can be discarded.
+   */
+  public void addChangeListener(Runnable listener) {
+    changeListeners.add(listener);
+  }
+
+  public void removeChangeListener(Runnable listener) {
+    changeListeners.remove(listener);
+  }
+
+  private void notifyChanged() {
+    changeListeners.forEach(Runnable::run);
   }
 
   public Collection<ProjectConfigurator> getConfigurators() {
@@ -0,0 +1,71 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarsource.sonarlint.core.serverapi.HttpClient;
+
+/**
+ * HTTP client of a connection, built again only when its key (URL, authentication, proxy settings...) changes or after it has been
+ * invalidated, for example because credentials have been updated. Building the client can be expensive, since it reads credentials from
+ * the secure storage, that may prompt for its master password.
+ */
+public class CachedHttpClient {
+
+  // Guarded by this
+  @Nullable
+  private Object key;
+  // Guarded by this
+  @Nullable
+  private HttpClient client;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Concurrent callers wait for the client being built, so that credentials are only read once.
+   */
+  public synchronized HttpClient get(Object currentKey, Supplier<HttpClient> factory) {
+    HttpClient cachedClient = client;
+    if (cachedClient != null && currentKey.equals(key)) {
+      hitCount.incrementAndGet();
+      return cachedClient;
+    }
+    missCount.incrementAndGet();
+    HttpClient newClient = factory.get();
+    key = currentKey;
+    client = newClient;
+    return newClient;
+  }
+
+  public synchronized void invalidate() {
+    key = null;
+    client = null;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.http;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+
+/**
+ * Counts the connections opened by OkHttp clients sharing the same connection pool, to know how often requests reuse a pooled connection
+ * instead of paying for a new TCP connection and TLS handshake.
+ */
+public class HttpConnectionMetrics extends EventListener {
+
+  private final AtomicLong acquiredConnections = new AtomicLong();
+  private final AtomicLong newConnections = new AtomicLong();
+  private final AtomicLong tlsHandshakes = new AtomicLong();
+
+  @Override
+  public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+    newConnections.incrementAndGet();
+  }
+
+  @Override
+  public void secureConnectStart(Call call) {
+    tlsHandshakes.incrementAndGet();
+  }
+
+  @Override
+  public void connectionAcquired(Call call, Connection connection) {
+    acquiredConnections.incrementAndGet();
+  }
+
+  public long getAcquiredConnections() {
+    return acquiredConnections.get();
+  }
+
+  /**
+   * Connection attempts, including the ones that failed or were retried on another route
+   */
+  public long getNewConnections() {
+    return newConnections.get();
+  }
+
+  public long getReusedConnections() {
+    return Math.max(0, acquiredConnections.get() - newConnections.get());
+  }
+
+  public long getTlsHandshakes() {
+    return tlsHandshakes.get();
+  }
+
+  @Override
+  public String toString() {
+    return "acquired=" + getAcquiredConnections() + ", new=" + getNewConnections() + ", reused=" + getReusedConnections() + ", tls=" + getTlsHandshakes();
+  }
+}
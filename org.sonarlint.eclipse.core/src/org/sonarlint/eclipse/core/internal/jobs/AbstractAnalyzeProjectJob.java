@@ -32,19 +32,21 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceRuleFactory;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
 import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
@@ -56,11 +58,11 @@ import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.engine.connected.ConnectedEngineFacade;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
 import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
-import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProperty;
 import org.sonarlint.eclipse.core.internal.telemetry.SonarLintTelemetry;
+import org.sonarlint.eclipse.core.internal.tracking.DocumentLineHashes;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.RawIssueTrackable;
 import org.sonarlint.eclipse.core.internal.tracking.Trackable;
@@ -73,12 +75,18 @@ import org.sonarsource.sonarlint.core.client.api.common.Language;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.AnalysisResults;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
 import org.sonarsource.sonarlint.core.client.api.exceptions.CanceledException;
 import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
 import static java.text.MessageFormat.format;
 
 public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisConfiguration> extends AbstractSonarProjectJob {
+  /**
+   * Markers are updated by small batches of files, each batch only locking its own files, so that the workspace stays responsive
+   */
+  private static final int MARKER_UPDATE_BATCH_SIZE = 20;
+
   private final List<SonarLintProperty> extraProps;
   private final TriggerType triggerType;
   private final boolean shouldClearReport;
@@ -120,11 +128,13 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       Collection<FileWithDocument> filesToAnalyze = new ArrayList<>();
 
       FileExclusionsChecker exclusionsChecker = new FileExclusionsChecker(getProject());
+      Set<ISonarLintFile> notExcludedFiles = exclusionsChecker.filterExcludedFiles(getProject(),
+        files.stream().map(FileWithDocument::getFile).collect(Collectors.toList()));
       files.forEach(fWithDoc -> {
-        if (exclusionsChecker.isExcluded(fWithDoc.getFile(), true)) {
-          excludedFiles.add(fWithDoc.getFile());
-        } else {
+        if (notExcludedFiles.contains(fWithDoc.getFile())) {
           filesToAnalyze.add(fWithDoc);
+        } else {
+          excludedFiles.add(fWithDoc.getFile());
         }
       });
 
@@ -133,13 +143,15 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
         .collect(HashMap::new, (m, fWithDoc) -> m.put(fWithDoc.getFile(), fWithDoc.getDocument()), HashMap::putAll);
 
       SonarLintLogger.get().debug("Clear markers on " + excludedFiles.size() + " excluded files");
+      ISchedulingRule clearMarkersRule = shouldClearReport ? ResourcesPlugin.getWorkspace().getRuleFactory().markerRule(ResourcesPlugin.getWorkspace().getRoot())
+        : markerRule(excludedFiles);
       ResourcesPlugin.getWorkspace().run(m -> {
         excludedFiles.forEach(SonarLintMarkerUpdater::clearMarkers);
 
         if (shouldClearReport) {
           SonarLintMarkerUpdater.deleteAllMarkersFromReport();
         }
-      }, monitor);
+      }, clearMarkersRule, 0, monitor);
 
       if (filesToAnalyze.isEmpty()) {
         return Status.OK_STATUS;
@@ -151,14 +163,27 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       Map<String, String> mergedExtraProps = new LinkedHashMap<>();
       Collection<ProjectConfigurator> usedDeprecatedConfigurators = configureDeprecated(getProject(), filesToAnalyzeMap.keySet(), mergedExtraProps, monitor);
 
+      // Reuse results of files that were already analyzed with the same content and configuration
+      Map<ISonarLintIssuable, List<Issue>> cachedIssuesPerFile = new LinkedHashMap<>();
+      Map<ISonarLintFile, String> cacheKeyPerFile = new HashMap<>();
+      Map<ISonarLintFile, IDocument> filesToRunMap = lookupCachedResults(filesToAnalyzeMap, mergedExtraProps, cachedIssuesPerFile, cacheKeyPerFile);
+      if (filesToRunMap.isEmpty()) {
+        trackIssues(filesToAnalyzeMap, cachedIssuesPerFile, triggerType, monitor);
+        analysisCompleted(usedDeprecatedConfigurators, Collections.emptyList(), mergedExtraProps, monitor);
+        SonarLintCorePlugin.getAnalysisListenerManager().notifyListeners();
+        SonarLintLogger.get().debug(String.format("Done in %d ms", System.currentTimeMillis() - startTime));
+        return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+      }
+
       analysisWorkDir = Files.createTempDirectory(getProject().getWorkingDir(), "sonarlint");
-      List<ClientInputFile> inputFiles = buildInputFiles(analysisWorkDir, filesToAnalyzeMap);
+      List<ClientInputFile> inputFiles = buildInputFiles(analysisWorkDir, filesToRunMap);
       Collection<IAnalysisConfigurator> usedConfigurators = configure(getProject(), inputFiles, mergedExtraProps, analysisWorkDir, monitor);
 
       extraProps.forEach(sonarProperty -> mergedExtraProps.put(sonarProperty.getName(), sonarProperty.getValue()));
 
       if (!inputFiles.isEmpty()) {
-        runAnalysisAndUpdateMarkers(filesToAnalyzeMap, monitor, mergedExtraProps, inputFiles, analysisWorkDir);
+        runAnalysisAndUpdateMarkers(filesToAnalyzeMap, filesToRunMap.keySet(), cachedIssuesPerFile, cacheKeyPerFile, monitor, mergedExtraProps, inputFiles,
+          analysisWorkDir);
       }
 
       analysisCompleted(usedDeprecatedConfigurators, usedConfigurators, mergedExtraProps, monitor);
@@ -184,7 +209,71 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
   }
 
-  private void runAnalysisAndUpdateMarkers(Map<ISonarLintFile, IDocument> docPerFiles, final IProgressMonitor monitor,
+  /**
+   * Collect cached results of the given files into <code>cachedIssuesPerFile</code>, and the cache key of the other ones into <code>cacheKeyPerFile</code>
+   * @return the files that have to be analyzed
+   */
+  private Map<ISonarLintFile, IDocument> lookupCachedResults(Map<ISonarLintFile, IDocument> filesToAnalyze, Map<String, String> configuredProps,
+    Map<ISonarLintIssuable, List<Issue>> cachedIssuesPerFile, Map<ISonarLintFile, String> cacheKeyPerFile) {
+    AnalysisResultCache cache = SonarLintCorePlugin.getOrCreateAnalysisResultCache(getProject());
+    if (!cache.isEnabled()) {
+      return filesToAnalyze;
+    }
+    // Properties set by analysis configurators are only known after they run on the files to analyze, so rely on their fingerprint
+    String configuratorsFingerprint = analysisConfiguratorsFingerprint();
+    if (configuratorsFingerprint == null) {
+      return filesToAnalyze;
+    }
+    Map<String, String> analysisProps = new TreeMap<>(configuredProps);
+    extraProps.forEach(sonarProperty -> analysisProps.put(sonarProperty.getName(), sonarProperty.getValue()));
+    String propertiesFingerprint = analysisProps.toString() + configuratorsFingerprint;
+    String rulesFingerprint = activeRulesFingerprint();
+
+    Map<ISonarLintFile, IDocument> filesToRun = new HashMap<>();
+    for (Map.Entry<ISonarLintFile, IDocument> fileWithDoc : filesToAnalyze.entrySet()) {
+      ISonarLintFile file = fileWithDoc.getKey();
+      IDocument document = Optional.ofNullable(fileWithDoc.getValue()).orElseGet(file::getDocument);
+      Language language = tryDetectLanguage(file);
+      String key = AnalysisResultCache.key(document.get(), file.getProjectRelativePath(), language != null ? language.getLanguageKey() : "",
+        Boolean.toString(TestFileClassifier.get().isTest(file)), rulesFingerprint, propertiesFingerprint);
+      Optional<List<Issue>> cachedIssues = cache.get(key);
+      if (cachedIssues.isPresent()) {
+        cachedIssuesPerFile.put(file, cachedIssues.get());
+      } else {
+        cacheKeyPerFile.put(file, key);
+        filesToRun.put(file, fileWithDoc.getValue());
+      }
+    }
+    SonarLintLogger.get().debug(format("Analysis cache: reusing results of {0} file(s), {1} file(s) to analyze", cachedIssuesPerFile.size(), filesToRun.size()));
+    return filesToRun;
+  }
+
+  /**
+   * @return null if one of the analysis configurators of the project can't identify its configuration
+   */
+  @Nullable
+  private String analysisConfiguratorsFingerprint() {
+    StringBuilder fingerprint = new StringBuilder();
+    for (IAnalysisConfigurator configurator : SonarLintExtensionTracker.getInstance().getAnalysisConfigurators()) {
+      if (configurator.canConfigure(getProject())) {
+        String configuratorFingerprint = configurator.getConfigurationFingerprint(getProject());
+        if (configuratorFingerprint == null) {
+          SonarLintLogger.get().debug("Analysis cache: configuration of " + configurator.getClass().getSimpleName() + " can't be identified, analyze all files");
+          return null;
+        }
+        fingerprint.append('|').append(configurator.getClass().getName()).append('=').append(configuratorFingerprint);
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  /**
+   * Fingerprint of the active rules and of their parameters. Cached analysis results are only reused when it did not change.
+   */
+  protected abstract String activeRulesFingerprint();
+
+  private void runAnalysisAndUpdateMarkers(Map<ISonarLintFile, IDocument> docPerFiles, Collection<ISonarLintFile> filesToRun,
+    Map<ISonarLintIssuable, List<Issue>> cachedIssuesPerFile, Map<ISonarLintFile, String> cacheKeyPerFile, final IProgressMonitor monitor,
     Map<String, String> mergedExtraProps, List<ClientInputFile> inputFiles, Path analysisWorkDir) throws CoreException {
     IPath projectLocation = getProject().getResource().getLocation();
     // In some unfrequent cases the project may be virtual and don't have physical location
@@ -193,12 +282,12 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     CONFIG config = prepareAnalysisConfig(projectBaseDir, inputFiles, mergedExtraProps);
 
     Map<ISonarLintIssuable, List<Issue>> issuesPerResource = new LinkedHashMap<>();
-    docPerFiles.keySet().forEach(slFile -> issuesPerResource.put(slFile, new ArrayList<>()));
+    filesToRun.forEach(slFile -> issuesPerResource.put(slFile, new ArrayList<>()));
 
     long start = System.currentTimeMillis();
     AnalysisResults result = run(config, issuesPerResource, monitor);
     if (!monitor.isCanceled()) {
-      updateMarkers(docPerFiles, issuesPerResource, result, triggerType, monitor);
+      updateMarkers(docPerFiles, issuesPerResource, cachedIssuesPerFile, cacheKeyPerFile, result, triggerType, monitor);
       updateTelemetry(result, start);
     }
   }
@@ -270,7 +359,8 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     final Map<String, String> extraProperties, Path tempDir, final IProgressMonitor monitor) {
     Collection<IAnalysisConfigurator> usedConfigurators = new ArrayList<>();
     Collection<IAnalysisConfigurator> configurators = SonarLintExtensionTracker.getInstance().getAnalysisConfigurators();
-    DefaultPreAnalysisContext context = new DefaultPreAnalysisContext(project, extraProperties, filesToAnalyze, tempDir);
+    DefaultPreAnalysisContext context = new DefaultPreAnalysisContext(project, extraProperties, filesToAnalyze, tempDir,
+      SonarLintCorePlugin.getAnalysisConfigurationCache());
     for (IAnalysisConfigurator configurator : configurators) {
       if (configurator.canConfigure(project)) {
         configurator.configure(context, monitor);
@@ -281,7 +371,8 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     return usedConfigurators;
   }
 
-  private void updateMarkers(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> issuesPerResource, AnalysisResults result,
+  private void updateMarkers(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> issuesPerResource,
+    Map<ISonarLintIssuable, List<Issue>> cachedIssuesPerFile, Map<ISonarLintFile, String> cacheKeyPerFile, AnalysisResults result,
     TriggerType triggerType, final IProgressMonitor monitor) throws CoreException {
     Set<ISonarLintFile> failedFiles = result.failedAnalysisFiles().stream().map(ClientInputFile::<ISonarLintFile>getClientObject).collect(Collectors.toSet());
     Map<ISonarLintIssuable, List<Issue>> successfulFiles = issuesPerResource.entrySet().stream()
@@ -290,78 +381,101 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       .filter(e -> e.getKey() instanceof ISonarLintFile)
       .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 
-    ResourcesPlugin.getWorkspace().run(m -> trackIssues(docPerFile, successfulFiles, triggerType, monitor), monitor);
+    storeInCache(successfulFiles, cacheKeyPerFile);
+    successfulFiles.putAll(cachedIssuesPerFile);
+    trackIssues(docPerFile, successfulFiles, triggerType, monitor);
   }
 
-  protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
-    final IProgressMonitor monitor) {
+  private void storeInCache(Map<ISonarLintIssuable, List<Issue>> issuesPerFile, Map<ISonarLintFile, String> cacheKeyPerFile) {
+    if (cacheKeyPerFile.isEmpty()) {
+      return;
+    }
+    AnalysisResultCache cache = SonarLintCorePlugin.getOrCreateAnalysisResultCache(getProject());
+    issuesPerFile.forEach((file, issues) -> {
+      String key = cacheKeyPerFile.get(file);
+      if (key != null && isCacheable(file, issues)) {
+        cache.put(key, issues);
+      }
+    });
+  }
+
+  /**
+   * Results having secondary locations in other files can't be reused without analyzing those files
+   */
+  private static boolean isCacheable(ISonarLintIssuable file, List<Issue> issues) {
+    return issues.stream()
+      .flatMap(issue -> issue.flows().stream())
+      .flatMap(flow -> flow.locations().stream())
+      .map(IssueLocation::getInputFile)
+      .allMatch(inputFile -> inputFile == null || file.equals(inputFile.getClientObject()));
+  }
 
-    for (Map.Entry<ISonarLintIssuable, List<Issue>> entry : rawIssuesPerResource.entrySet()) {
+  protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
+    final IProgressMonitor monitor) throws CoreException {
+    List<Map.Entry<ISonarLintIssuable, List<Issue>>> entries = new ArrayList<>(rawIssuesPerResource.entrySet());
+    int totalTrackedFiles = entries.size();
+    for (int batchStart = 0; batchStart < totalTrackedFiles; batchStart += MARKER_UPDATE_BATCH_SIZE) {
       if (monitor.isCanceled()) {
         return;
       }
-      ISonarLintFile file = (ISonarLintFile) entry.getKey();
-      Optional<IDocument> openedDocument = Optional.ofNullable(docPerFile.get(file));
-      IssueTracker issueTracker = SonarLintCorePlugin.getOrCreateIssueTracker(getProject());
-      List<Issue> rawIssues = entry.getValue();
-      List<Trackable> trackables;
-      if (!rawIssues.isEmpty()) {
-        IDocument document = openedDocument.orElseGet(file::getDocument);
-        trackables = rawIssues.stream().map(issue -> transform(issue, file, document)).collect(Collectors.toList());
-      } else {
-        trackables = Collections.emptyList();
-      }
-      Collection<Trackable> tracked = trackFileIssues(file, trackables, issueTracker, triggerType, rawIssuesPerResource.size(), monitor);
-      SonarLintMarkerUpdater.createOrUpdateMarkers(file, openedDocument, tracked, triggerType);
-      // Now that markerId are set, store issues in cache
-      issueTracker.updateCache(file, tracked);
+      List<Map.Entry<ISonarLintIssuable, List<Issue>>> batch = entries.subList(batchStart, Math.min(batchStart + MARKER_UPDATE_BATCH_SIZE, totalTrackedFiles));
+      ISchedulingRule batchRule = markerRule(batch.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+      ResourcesPlugin.getWorkspace().run(m -> {
+        for (Map.Entry<ISonarLintIssuable, List<Issue>> entry : batch) {
+          if (monitor.isCanceled()) {
+            return;
+          }
+          trackIssuesAndUpdateMarkers(docPerFile, (ISonarLintFile) entry.getKey(), entry.getValue(), triggerType, totalTrackedFiles, monitor);
+        }
+      }, batchRule, 0, monitor);
     }
   }
 
+  private void trackIssuesAndUpdateMarkers(Map<ISonarLintFile, IDocument> docPerFile, ISonarLintFile file, List<Issue> rawIssues, TriggerType triggerType,
+    int totalTrackedFiles, IProgressMonitor monitor) {
+    Optional<IDocument> openedDocument = Optional.ofNullable(docPerFile.get(file));
+    IssueTracker issueTracker = SonarLintCorePlugin.getOrCreateIssueTracker(getProject());
+    List<Trackable> trackables;
+    if (!rawIssues.isEmpty()) {
+      IDocument document = openedDocument.orElseGet(file::getDocument);
+      DocumentLineHashes lineHashes = new DocumentLineHashes(file, document);
+      trackables = rawIssues.stream().map(issue -> transform(issue, lineHashes)).collect(Collectors.toList());
+    } else {
+      trackables = Collections.emptyList();
+    }
+    Collection<Trackable> tracked = trackFileIssues(file, trackables, issueTracker, triggerType, totalTrackedFiles, monitor);
+    SonarLintMarkerUpdater.createOrUpdateMarkers(file, openedDocument, tracked, triggerType);
+    // Now that markerId are set, store issues in cache
+    issueTracker.updateCache(file, tracked);
+  }
+
+  @Nullable
+  private static ISchedulingRule markerRule(Collection<? extends ISonarLintIssuable> issuables) {
+    IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+    ISchedulingRule rule = null;
+    for (ISonarLintIssuable issuable : issuables) {
+      rule = MultiRule.combine(rule, ruleFactory.markerRule(issuable.getResource()));
+    }
+    return rule;
+  }
+
   protected Collection<Trackable> trackFileIssues(ISonarLintFile file, List<Trackable> trackables, IssueTracker issueTracker, TriggerType triggerType, int totalTrackedFiles,
     IProgressMonitor monitor) {
     return issueTracker.matchAndTrackAsNew(file, trackables);
   }
 
-  private static RawIssueTrackable transform(Issue issue, ISonarLintFile resource, IDocument document) {
+  private static RawIssueTrackable transform(Issue issue, DocumentLineHashes lineHashes) {
     Integer startLine = issue.getStartLine();
     if (startLine == null) {
       return new RawIssueTrackable(issue);
     }
     TextRange textRange = TextRange.get(startLine, issue.getStartLineOffset(), issue.getEndLine(), issue.getEndLineOffset());
-    String textRangeContent = readTextRangeContent(resource, document, textRange);
-    String lineContent = readLineContent(resource, document, startLine);
-    return new RawIssueTrackable(issue, textRange, textRangeContent, lineContent);
-  }
-
-  @Nullable
-  private static String readTextRangeContent(ISonarLintFile resource, IDocument document, TextRange textRange) {
-    Position position = MarkerUtils.getPosition(document, textRange);
-    if (position != null) {
-      try {
-        return document.get(position.getOffset(), position.getLength());
-      } catch (BadLocationException e) {
-        SonarLintLogger.get().error("failed to get text range content of resource " + resource.getName(), e);
-      }
-    }
-    return null;
-  }
-
-  @Nullable
-  private static String readLineContent(ISonarLintFile resource, IDocument document, int startLine) {
-    Position position = MarkerUtils.getPosition(document, startLine);
-    if (position != null) {
-      try {
-        return document.get(position.getOffset(), position.getLength());
-      } catch (BadLocationException e) {
-        SonarLintLogger.get().error("Failed to get line content of file " + resource.getName(), e);
-      }
-    }
-    return null;
+    return new RawIssueTrackable(issue, textRange, lineHashes.getTextRangeHash(textRange), lineHashes.getLineHash(startLine));
   }
 
-  private static void analysisCompleted(Collection<ProjectConfigurator> usedDeprecatedConfigurators, Collection<IAnalysisConfigurator> usedConfigurators,
+  private void analysisCompleted(Collection<ProjectConfigurator> usedDeprecatedConfigurators, Collection<IAnalysisConfigurator> usedConfigurators,
     Map<String, String> properties, final IProgressMonitor monitor) {
+    ISonarLintProject project = getProject();
     Map<String, String> unmodifiableMap = Collections.unmodifiableMap(properties);
     for (ProjectConfigurator p : usedDeprecatedConfigurators) {
       p.analysisComplete(unmodifiableMap, monitor);
@@ -370,7 +484,7 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
 
       @Override
       public ISonarLintProject getProject() {
-        return getProject();
+        return project;
       }
 
       @Override
@@ -0,0 +1,84 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analysis properties published by {@link org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator}s, so that next analyses of the same
+ * project don't have to compute them again.
+ * Each entry is published with an invalidation key chosen by the configurator, and is only reused as long as the configurator provides an
+ * equal key.
+ */
+public class AnalysisConfigurationCache {
+
+  private static class Entry {
+    private final Object invalidationKey;
+    private final Map<String, String> properties;
+
+    private Entry(Object invalidationKey, Map<String, String> properties) {
+      this.invalidationKey = invalidationKey;
+      this.properties = properties;
+    }
+  }
+
+  // Guarded by this
+  private final Map<String, Map<String, Entry>> entriesPerProject = new HashMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public Optional<Map<String, String>> get(String projectName, String cacheKey, Object invalidationKey) {
+    Entry entry;
+    synchronized (this) {
+      entry = entriesPerProject.getOrDefault(projectName, Collections.emptyMap()).get(cacheKey);
+    }
+    if (entry == null || !entry.invalidationKey.equals(invalidationKey)) {
+      missCount.incrementAndGet();
+      return Optional.empty();
+    }
+    hitCount.incrementAndGet();
+    return Optional.of(entry.properties);
+  }
+
+  public void put(String projectName, String cacheKey, Object invalidationKey, Map<String, String> properties) {
+    Entry entry = new Entry(invalidationKey, Collections.unmodifiableMap(new LinkedHashMap<>(properties)));
+    synchronized (this) {
+      entriesPerProject.computeIfAbsent(projectName, k -> new HashMap<>()).put(cacheKey, entry);
+    }
+  }
+
+  public synchronized void clear() {
+    entriesPerProject.clear();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+}
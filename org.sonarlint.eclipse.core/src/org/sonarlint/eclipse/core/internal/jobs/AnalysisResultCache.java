@@ -0,0 +1,243 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.CachedAnalysis;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent cache of raw analysis results of a project, so that files whose content and analysis context did not change since the last
+ * analysis don't have to be analyzed again.
+ * Entries are keyed by the digest of everything that can influence the result (see {@link #key(String...)}), and the least recently used
+ * entries are evicted once the size on disk exceeds the configured budget.
+ */
+public class AnalysisResultCache {
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+
+  private final Path basePath;
+  private final IntSupplier maxSizeInMb;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Size on disk of each entry, in access order
+   */
+  @Nullable
+  private LinkedHashMap<String, Long> sizePerKey;
+  private long totalSize;
+
+  public AnalysisResultCache(Path basePath, IntSupplier maxSizeInMb) {
+    this.basePath = basePath;
+    this.maxSizeInMb = maxSizeInMb;
+  }
+
+  public boolean isEnabled() {
+    return maxSizeInMb.getAsInt() > 0;
+  }
+
+  /**
+   * Compute a cache key from the file content and every other input of the analysis
+   */
+  public static String key(String... parts) {
+    MessageDigest digest = newDigest();
+    for (String part : parts) {
+      digest.update(part.getBytes(UTF_8));
+      // Separator, to not confuse ("ab", "c") with ("a", "bc")
+      digest.update((byte) 0);
+    }
+    return toHex(digest.digest());
+  }
+
+  public synchronized Optional<List<Issue>> get(String key) {
+    Map<String, Long> index = index();
+    Path entryPath = entryPath(key);
+    if (index.get(key) != null) {
+      try (InputStream stream = Files.newInputStream(entryPath)) {
+        List<Issue> issues = CachedAnalysis.parseFrom(stream).getIssueList().stream()
+          .map(CachedIssue::new)
+          .collect(Collectors.toList());
+        // Keep track of the access time on disk, to evict least recently used entries after a restart
+        Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+        hitCount.incrementAndGet();
+        return Optional.of(issues);
+      } catch (IOException e) {
+        SonarLintLogger.get().debug("Unable to read analysis cache entry " + entryPath, e);
+        remove(key);
+      }
+    }
+    missCount.incrementAndGet();
+    return Optional.empty();
+  }
+
+  public synchronized void put(String key, Collection<Issue> issues) {
+    CachedAnalysis.Builder builder = CachedAnalysis.newBuilder();
+    issues.forEach(issue -> builder.addIssue(CachedIssue.toProto(issue)));
+    CachedAnalysis entry = builder.build();
+    Path entryPath = entryPath(key);
+    Map<String, Long> index = index();
+    try {
+      FileUtils.mkdirs(entryPath.getParent());
+      try (OutputStream stream = Files.newOutputStream(entryPath)) {
+        entry.writeTo(stream);
+      }
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to write analysis cache entry " + entryPath, e);
+      remove(key);
+      return;
+    }
+    Long previousSize = index.put(key, (long) entry.getSerializedSize());
+    totalSize += entry.getSerializedSize() - (previousSize != null ? previousSize : 0L);
+    evictIfNeeded();
+  }
+
+  public synchronized void clear() {
+    FileUtils.deleteRecursively(basePath);
+    sizePerKey = null;
+    totalSize = 0;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public synchronized long getSizeOnDisk() {
+    index();
+    return totalSize;
+  }
+
+  private void evictIfNeeded() {
+    long maxSize = maxSizeInMb.getAsInt() * BYTES_PER_MB;
+    Iterator<Map.Entry<String, Long>> it = index().entrySet().iterator();
+    while (totalSize > maxSize && it.hasNext()) {
+      Map.Entry<String, Long> eldest = it.next();
+      it.remove();
+      totalSize -= eldest.getValue();
+      deleteEntryFile(eldest.getKey());
+      evictionCount.incrementAndGet();
+    }
+  }
+
+  private void remove(String key) {
+    Long size = index().remove(key);
+    if (size != null) {
+      totalSize -= size;
+    }
+    deleteEntryFile(key);
+  }
+
+  private void deleteEntryFile(String key) {
+    try {
+      Files.deleteIfExists(entryPath(key));
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to delete analysis cache entry " + key, e);
+    }
+  }
+
+  private Path entryPath(String key) {
+    return basePath.resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  /**
+   * Lazily rebuild the index from the entries stored on disk, least recently used first
+   */
+  private LinkedHashMap<String, Long> index() {
+    LinkedHashMap<String, Long> index = sizePerKey;
+    if (index == null) {
+      index = new LinkedHashMap<>(16, 0.75f, true);
+      totalSize = 0;
+      if (Files.isDirectory(basePath)) {
+        try (Stream<Path> paths = Files.find(basePath, 2, (p, attrs) -> attrs.isRegularFile())) {
+          List<Path> entries = paths.collect(Collectors.toList());
+          entries.sort(Comparator.comparing(AnalysisResultCache::lastModified));
+          for (Path entry : entries) {
+            long size = entry.toFile().length();
+            index.put(entry.getFileName().toString(), size);
+            totalSize += size;
+          }
+        } catch (IOException e) {
+          SonarLintLogger.get().debug("Unable to load analysis cache from " + basePath, e);
+        }
+      }
+      sizePerKey = index;
+    }
+    return index;
+  }
+
+  private static FileTime lastModified(Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime();
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] data) {
+    char[] out = new char[data.length << 1];
+    for (int i = 0, j = 0; i < data.length; ++i, j += 2) {
+      out[j] = DIGITS[(0xF0 & data[i]) >>> 4];
+      out[j + 1] = DIGITS[0x0F & data[i]];
+    }
+    return new String(out);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Schedule on-the-fly analyses, with at most one queued analysis job per project.
+ * A new request for a project having an analysis still waiting to run is merged into it. A running analysis is canceled
+ * when all its files are part of a newer request, and is then merged into this request, so that its trigger and report clearing are
+ * not lost.
+ */
+public class AnalysisScheduler {
+
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Map<String, ProjectQueue> queuePerProject = new HashMap<>();
+  private final Function<AnalyzeProjectRequest, Job> jobFactory;
+  private long mergedRequestCount;
+  private long supersededJobCount;
+
+  private static class ProjectQueue {
+    @Nullable
+    private Job pendingJob;
+    @Nullable
+    private AnalyzeProjectRequest pendingRequest;
+    @Nullable
+    private Job runningJob;
+    @Nullable
+    private AnalyzeProjectRequest runningRequest;
+
+    private boolean isEmpty() {
+      return pendingJob == null && runningJob == null;
+    }
+  }
+
+  public AnalysisScheduler() {
+    this(AbstractAnalyzeProjectJob::create);
+  }
+
+  /**
+   * @param jobFactory creates the job running the analysis of a request, only replaced in tests
+   */
+  public AnalysisScheduler(Function<AnalyzeProjectRequest, Job> jobFactory) {
+    this.jobFactory = jobFactory;
+  }
+
+  public synchronized void schedule(AnalyzeProjectRequest request) {
+    String projectName = request.getProject().getName();
+    ProjectQueue queue = queuePerProject.computeIfAbsent(projectName, k -> new ProjectQueue());
+    AnalyzeProjectRequest toSchedule = request;
+    Job pendingJob = queue.pendingJob;
+    AnalyzeProjectRequest pendingRequest = queue.pendingRequest;
+    if (pendingJob != null && pendingRequest != null) {
+      // Canceling a waiting job notifies listeners synchronously, so the queue may be cleared in between
+      if (pendingJob.cancel()) {
+        toSchedule = pendingRequest.merge(request);
+        mergedRequestCount++;
+        SonarLintLogger.get().debug("Merged pending analysis request of project " + projectName);
+      } else {
+        // Too late, the job has just started
+        queue.runningJob = pendingJob;
+        queue.runningRequest = pendingRequest;
+      }
+      queue.pendingJob = null;
+      queue.pendingRequest = null;
+    }
+    Job runningJob = queue.runningJob;
+    AnalyzeProjectRequest runningRequest = queue.runningRequest;
+    if (runningJob != null && runningRequest != null && filesOf(toSchedule).containsAll(filesOf(runningRequest))) {
+      runningJob.cancel();
+      // Keep the strongest trigger and the report clearing of the canceled analysis
+      toSchedule = runningRequest.merge(toSchedule);
+      supersededJobCount++;
+      SonarLintLogger.get().debug("Canceled running analysis of project " + projectName + " superseded by a new request");
+    }
+
+    Job job = jobFactory.apply(toSchedule);
+    job.addJobChangeListener(new QueueUpdater(projectName));
+    queue.pendingJob = job;
+    queue.pendingRequest = toSchedule;
+    queuePerProject.put(projectName, queue);
+    job.schedule();
+  }
+
+  private static Set<ISonarLintFile> filesOf(AnalyzeProjectRequest request) {
+    return request.getFiles().stream().map(FileWithDocument::getFile).collect(Collectors.toSet());
+  }
+
+  private synchronized void jobRunning(String projectName, Job job) {
+    ProjectQueue queue = queuePerProject.get(projectName);
+    if (queue != null && queue.pendingJob == job && queue.pendingRequest != null) {
+      queue.runningJob = job;
+      queue.runningRequest = queue.pendingRequest;
+      queue.pendingJob = null;
+      queue.pendingRequest = null;
+    }
+  }
+
+  private synchronized void jobDone(String projectName, Job job) {
+    ProjectQueue queue = queuePerProject.get(projectName);
+    if (queue == null) {
+      return;
+    }
+    if (queue.runningJob == job) {
+      queue.runningJob = null;
+      queue.runningRequest = null;
+    }
+    if (queue.pendingJob == job) {
+      queue.pendingJob = null;
+      queue.pendingRequest = null;
+    }
+    if (queue.isEmpty()) {
+      queuePerProject.remove(projectName);
+    }
+  }
+
+  /**
+   * Number of analysis jobs scheduled but not yet running
+   */
+  public synchronized int getQueueDepth() {
+    return (int) queuePerProject.values().stream().filter(q -> q.pendingJob != null).count();
+  }
+
+  /**
+   * Number of requests that were merged into an analysis not yet started
+   */
+  public synchronized long getMergedRequestCount() {
+    return mergedRequestCount;
+  }
+
+  /**
+   * Number of running analyses canceled because a newer request covered all their files
+   */
+  public synchronized long getSupersededJobCount() {
+    return supersededJobCount;
+  }
+
+  private class QueueUpdater extends JobChangeAdapter {
+    private final String projectName;
+
+    private QueueUpdater(String projectName) {
+      this.projectName = projectName;
+    }
+
+    @Override
+    public void running(IJobChangeEvent event) {
+      jobRunning(projectName, event.getJob());
+    }
+
+    @Override
+    public void done(IJobChangeEvent event) {
+      jobDone(projectName, event.getJob());
+    }
+  }
+
+}
@@ -24,7 +24,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -38,7 +38,10 @@ import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdap
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 
-public class AnalyzeChangedFilesJob extends WorkspaceJob {
+/**
+ * Not a WorkspaceJob, since projects are analyzed from worker threads that would be blocked by the workspace lock.
+ */
+public class AnalyzeChangedFilesJob extends Job {
   private static final String UNABLE_TO_ANALYZE_CHANGED_FILES = "Unable to analyze changed files";
   private final Collection<ISonarLintProject> projects;
 
@@ -49,11 +52,11 @@ public class AnalyzeChangedFilesJob extends WorkspaceJob {
   }
 
   @Override
-  public IStatus runInWorkspace(IProgressMonitor monitor) {
+  public IStatus run(IProgressMonitor monitor) {
     SubMonitor global = SubMonitor.convert(monitor, 100);
     try {
       global.setTaskName("Collect changed file(s) list");
-      SonarLintMarkerUpdater.deleteAllMarkersFromReport();
+      ResourcesPlugin.getWorkspace().run(m -> SonarLintMarkerUpdater.deleteAllMarkersFromReport(), null);
       Collection<ISonarLintFile> collectChangedFiles = collectChangedFiles(projects, global.newChild(20));
 
       if (collectChangedFiles.isEmpty()) {
@@ -61,39 +64,19 @@ public class AnalyzeChangedFilesJob extends WorkspaceJob {
         return Status.OK_STATUS;
       }
 
-      Map<ISonarLintProject, List<ISonarLintFile>> changedFilesPerProject = collectChangedFiles.stream().collect(Collectors.groupingBy(ISonarLintFile::getProject));
+      Map<ISonarLintProject, List<FileWithDocument>> changedFilesPerProject = collectChangedFiles.stream()
+        .collect(Collectors.groupingBy(ISonarLintFile::getProject, Collectors.mapping(f -> new FileWithDocument(f, null), Collectors.toList())));
 
       long fileCount = changedFilesPerProject.values().stream().flatMap(Collection::stream).count();
 
       SonarLintLogger.get().info("Analyzing " + fileCount + " changed file(s) in " + changedFilesPerProject.size() + " project(s)");
 
       global.setTaskName("Analysis");
-      SubMonitor analysisMonitor = SubMonitor.convert(global.newChild(80), changedFilesPerProject.size());
-      for (Map.Entry<ISonarLintProject, List<ISonarLintFile>> entry : changedFilesPerProject.entrySet()) {
-        if (monitor.isCanceled()) {
-          return Status.CANCEL_STATUS;
-        }
-        ISonarLintProject project = entry.getKey();
-        if (!project.isOpen()) {
-          analysisMonitor.worked(1);
-          continue;
-        }
-        global.setTaskName("Analyzing project " + project.getName());
-        Collection<FileWithDocument> filesToAnalyze = entry.getValue().stream()
-          .map(f -> new FileWithDocument(f, null))
-          .collect(Collectors.toList());
-        AnalyzeProjectRequest req = new AnalyzeProjectRequest(project, filesToAnalyze, TriggerType.MANUAL_CHANGESET);
-        AbstractSonarProjectJob job = AbstractAnalyzeProjectJob.create(req);
-        SubMonitor subMonitor = analysisMonitor.newChild(1);
-        job.run(subMonitor);
-        subMonitor.done();
-      }
-
+      return new ParallelProjectAnalyzer(TriggerType.MANUAL_CHANGESET, UNABLE_TO_ANALYZE_CHANGED_FILES).analyze(changedFilesPerProject, global.newChild(80));
     } catch (Exception e) {
       SonarLintLogger.get().error(UNABLE_TO_ANALYZE_CHANGED_FILES, e);
       return new Status(Status.ERROR, SonarLintCorePlugin.PLUGIN_ID, UNABLE_TO_ANALYZE_CHANGED_FILES, e);
     }
-    return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
   }
 
   private static Collection<ISonarLintFile> collectChangedFiles(Collection<ISonarLintProject> projects, IProgressMonitor monitor) {
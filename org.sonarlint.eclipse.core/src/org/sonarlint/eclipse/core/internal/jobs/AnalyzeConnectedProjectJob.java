@@ -21,9 +21,12 @@ package org.sonarlint.eclipse.core.internal.jobs;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.IDocument;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -47,6 +50,8 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
 
   private final EclipseProjectBinding binding;
   private final ConnectedEngineFacade engineFacade;
+  // Server issues downloaded before markers are updated, so that no request is sent while holding marker rules
+  private Map<ISonarLintFile, List<ServerIssue>> prefetchedServerIssues = Collections.emptyMap();
 
   public AnalyzeConnectedProjectJob(AnalyzeProjectRequest request, EclipseProjectBinding binding, ConnectedEngineFacade engineFacade) {
     super(request);
@@ -65,6 +70,12 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
       .build();
   }
 
+  @Override
+  protected String activeRulesFingerprint() {
+    // Active rules and their parameters come from the quality profiles stored locally
+    return engineFacade.getStorageFingerprint(binding.projectKey());
+  }
+
   @Override
   protected AnalysisResults runAnalysis(ConnectedAnalysisConfiguration analysisConfig, SonarLintIssueListener issueListener, IProgressMonitor monitor) {
     return engineFacade.runAnalysis(analysisConfig, issueListener, monitor);
@@ -72,11 +83,13 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
 
   @Override
   protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
-    IProgressMonitor monitor) {
+    IProgressMonitor monitor) throws CoreException {
     if (triggerType.shouldUpdateProjectIssuesSync(rawIssuesPerResource.size())) {
       SonarLintLogger.get().debug("Download engineFacade issues for project " + getProject().getName());
       engineFacade.downloadServerIssues(binding.projectKey(), monitor);
     }
+    prefetchedServerIssues = triggerType.shouldUpdateFileIssuesSync(rawIssuesPerResource.size()) ? fetchServerIssues(rawIssuesPerResource, monitor)
+      : Collections.emptyMap();
     super.trackIssues(docPerFile, rawIssuesPerResource, triggerType, monitor);
     if (triggerType.shouldUpdateFileIssuesAsync()) {
       trackServerIssuesAsync(engineFacade, rawIssuesPerResource.keySet(), docPerFile, triggerType);
@@ -88,12 +101,29 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
     IProgressMonitor monitor) {
     Collection<Trackable> tracked = super.trackFileIssues(file, trackables, issueTracker, triggerType, totalTrackedFiles, monitor);
     if (!tracked.isEmpty()) {
-      tracked = trackServerIssuesSync(engineFacade, file, tracked, triggerType.shouldUpdateFileIssuesSync(totalTrackedFiles), monitor);
+      tracked = trackServerIssuesSync(file, tracked);
     }
     return tracked;
 
   }
 
+  /**
+   * Only files having issues are tracked against server issues, so issues of other files are not downloaded
+   */
+  private Map<ISonarLintFile, List<ServerIssue>> fetchServerIssues(Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, IProgressMonitor monitor) {
+    Map<ISonarLintFile, List<ServerIssue>> serverIssuesPerFile = new HashMap<>();
+    for (Map.Entry<ISonarLintIssuable, List<Issue>> entry : rawIssuesPerResource.entrySet()) {
+      if (monitor.isCanceled()) {
+        break;
+      }
+      if (entry.getKey() instanceof ISonarLintFile && !entry.getValue().isEmpty()) {
+        ISonarLintFile file = (ISonarLintFile) entry.getKey();
+        serverIssuesPerFile.put(file, ServerIssueUpdater.fetchServerIssues(engineFacade, binding, file, monitor));
+      }
+    }
+    return serverIssuesPerFile;
+  }
+
   private void trackServerIssuesAsync(ConnectedEngineFacade engineFacade, Collection<ISonarLintIssuable> resources, Map<ISonarLintFile, IDocument> docPerFile,
     TriggerType triggerType) {
     SonarLintCorePlugin.getInstance().getServerIssueUpdater().updateAsync(engineFacade, getProject(),
@@ -102,12 +132,9 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
       docPerFile, triggerType);
   }
 
-  private Collection<Trackable> trackServerIssuesSync(ConnectedEngineFacade engineFacade, ISonarLintFile file, Collection<Trackable> tracked, boolean updateServerIssues,
-    IProgressMonitor monitor) {
-    List<ServerIssue> serverIssues;
-    if (updateServerIssues) {
-      serverIssues = ServerIssueUpdater.fetchServerIssues(engineFacade, binding, file, monitor);
-    } else {
+  private Collection<Trackable> trackServerIssuesSync(ISonarLintFile file, Collection<Trackable> tracked) {
+    List<ServerIssue> serverIssues = prefetchedServerIssues.get(file);
+    if (serverIssues == null) {
       serverIssues = engineFacade.getServerIssues(binding, file.getProjectRelativePath());
     }
     Collection<Trackable> serverIssuesTrackable = serverIssues.stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
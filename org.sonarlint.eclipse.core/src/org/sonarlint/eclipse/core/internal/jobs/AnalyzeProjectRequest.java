@@ -19,7 +19,10 @@
  */
 package org.sonarlint.eclipse.core.internal.jobs;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IDocument;
 import org.sonarlint.eclipse.core.internal.TriggerType;
@@ -80,4 +83,16 @@ public class AnalyzeProjectRequest {
     return shouldClearReport;
   }
 
+  /**
+   * Merge a more recent request for the same project into this one. The resulting request analyzes the union of files,
+   * using the most recent document of each file, and the strongest trigger.
+   */
+  public AnalyzeProjectRequest merge(AnalyzeProjectRequest newer) {
+    Map<ISonarLintFile, FileWithDocument> mergedFiles = new LinkedHashMap<>();
+    files.forEach(f -> mergedFiles.put(f.getFile(), f));
+    newer.getFiles().forEach(f -> mergedFiles.put(f.getFile(), f));
+    return new AnalyzeProjectRequest(project, new ArrayList<>(mergedFiles.values()), triggerType.strongest(newer.getTriggerType()),
+      shouldClearReport || newer.shouldClearReport());
+  }
+
 }
@@ -21,7 +21,7 @@ package org.sonarlint.eclipse.core.internal.jobs;
 
 import java.util.Collection;
 import java.util.Map;
-import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -33,7 +33,10 @@ import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 
-public class AnalyzeProjectsJob extends WorkspaceJob {
+/**
+ * Not a WorkspaceJob, since projects are analyzed from worker threads that would be blocked by the workspace lock.
+ */
+public class AnalyzeProjectsJob extends Job {
   private static final String UNABLE_TO_ANALYZE_FILES = "Unable to analyze files";
   private final Map<ISonarLintProject, Collection<FileWithDocument>> filesPerProject;
 
@@ -44,34 +47,16 @@ public class AnalyzeProjectsJob extends WorkspaceJob {
   }
 
   @Override
-  public IStatus runInWorkspace(IProgressMonitor monitor) {
+  public IStatus run(IProgressMonitor monitor) {
     SubMonitor global = SubMonitor.convert(monitor, 100);
     try {
       global.setTaskName("Analysis");
-      SonarLintMarkerUpdater.deleteAllMarkersFromReport();
-      SubMonitor analysisMonitor = SubMonitor.convert(global.newChild(100), filesPerProject.size());
-      for (Map.Entry<ISonarLintProject, Collection<FileWithDocument>> entry : filesPerProject.entrySet()) {
-        if (monitor.isCanceled()) {
-          return Status.CANCEL_STATUS;
-        }
-        ISonarLintProject project = entry.getKey();
-        if (!project.isOpen()) {
-          analysisMonitor.worked(1);
-          continue;
-        }
-        global.setTaskName("Analyzing project " + project.getName());
-        AnalyzeProjectRequest req = new AnalyzeProjectRequest(project, entry.getValue(), TriggerType.MANUAL);
-        AbstractSonarProjectJob job = AbstractAnalyzeProjectJob.create(req);
-        SubMonitor subMonitor = analysisMonitor.newChild(1);
-        job.run(subMonitor);
-        subMonitor.done();
-      }
-
+      ResourcesPlugin.getWorkspace().run(m -> SonarLintMarkerUpdater.deleteAllMarkersFromReport(), global.newChild(1));
+      return new ParallelProjectAnalyzer(TriggerType.MANUAL, UNABLE_TO_ANALYZE_FILES).analyze(filesPerProject, global.newChild(99));
     } catch (Exception e) {
       SonarLintLogger.get().error(UNABLE_TO_ANALYZE_FILES, e);
       return new Status(Status.ERROR, SonarLintCorePlugin.PLUGIN_ID, UNABLE_TO_ANALYZE_FILES, e);
     }
-    return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
   }
 
 }
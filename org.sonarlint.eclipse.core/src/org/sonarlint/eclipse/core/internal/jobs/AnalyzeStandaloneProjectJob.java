@@ -21,8 +21,10 @@ package org.sonarlint.eclipse.core.internal.jobs;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -57,6 +59,17 @@ public class AnalyzeStandaloneProjectJob extends AbstractAnalyzeProjectJob<Stand
       .build();
   }
 
+  @Override
+  protected String activeRulesFingerprint() {
+    StringBuilder sb = new StringBuilder();
+    // Rule definitions are coming from the analyzers embedded in the plugin
+    sb.append(SonarLintCorePlugin.getInstance().getBundle().getVersion());
+    SonarLintGlobalConfiguration.readRulesConfig().stream()
+      .sorted(Comparator.comparing(RuleConfig::getKey))
+      .forEach(r -> sb.append('|').append(r.getKey()).append(':').append(r.isActive()).append(new TreeMap<>(r.getParams())));
+    return sb.toString();
+  }
+
   @Override
   protected AnalysisResults runAnalysis(StandaloneAnalysisConfiguration analysisConfig, SonarLintIssueListener issueListener, IProgressMonitor monitor) {
     StandaloneEngineFacade standaloneEngine = SonarLintCorePlugin.getInstance().getDefaultSonarLintClientFacade();
@@ -0,0 +1,172 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.CachedAnalysis;
+import org.sonarsource.sonarlint.core.client.api.common.TextRange;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+/**
+ * Raw issue restored from the {@link AnalysisResultCache}. There is no {@link ClientInputFile} attached, since the file was not analyzed.
+ */
+class CachedIssue implements Issue {
+
+  private final CachedAnalysis.Issue issue;
+
+  CachedIssue(CachedAnalysis.Issue issue) {
+    this.issue = issue;
+  }
+
+  @Override
+  public String getSeverity() {
+    return issue.getSeverity();
+  }
+
+  @Override
+  public String getType() {
+    return issue.getType();
+  }
+
+  @Override
+  public String getRuleKey() {
+    return issue.getRuleKey();
+  }
+
+  @Override
+  public String getRuleName() {
+    return issue.getRuleName();
+  }
+
+  @Override
+  public String getMessage() {
+    return issue.getMessage();
+  }
+
+  @Nullable
+  @Override
+  public TextRange getTextRange() {
+    return issue.hasTextRange() ? toTextRange(issue.getTextRange()) : null;
+  }
+
+  @Nullable
+  @Override
+  public ClientInputFile getInputFile() {
+    return null;
+  }
+
+  @Override
+  public List<Flow> flows() {
+    return issue.getFlowList().stream()
+      .map(CachedIssue::toFlow)
+      .collect(Collectors.toList());
+  }
+
+  private static Flow toFlow(CachedAnalysis.Flow flow) {
+    List<IssueLocation> locations = flow.getLocationList().stream()
+      .map(CachedLocation::new)
+      .collect(Collectors.toList());
+    return () -> locations;
+  }
+
+  private static TextRange toTextRange(CachedAnalysis.TextRange textRange) {
+    Integer endLine = textRange.getEndLine() != 0 ? textRange.getEndLine() : null;
+    if (textRange.getHasOffsets()) {
+      return new TextRange(textRange.getStartLine(), textRange.getStartLineOffset(), endLine, textRange.getEndLineOffset());
+    }
+    return new TextRange(textRange.getStartLine(), null, endLine, null);
+  }
+
+  static CachedAnalysis.Issue toProto(Issue issue) {
+    CachedAnalysis.Issue.Builder builder = CachedAnalysis.Issue.newBuilder()
+      .setRuleKey(issue.getRuleKey())
+      .setSeverity(issue.getSeverity())
+      .setType(issue.getType());
+    if (issue.getRuleName() != null) {
+      builder.setRuleName(issue.getRuleName());
+    }
+    if (issue.getMessage() != null) {
+      builder.setMessage(issue.getMessage());
+    }
+    TextRange textRange = issue.getTextRange();
+    if (textRange != null && textRange.getStartLine() != null) {
+      builder.setTextRange(toProto(textRange));
+    }
+    for (Flow flow : issue.flows()) {
+      CachedAnalysis.Flow.Builder flowBuilder = CachedAnalysis.Flow.newBuilder();
+      for (IssueLocation location : flow.locations()) {
+        CachedAnalysis.Location.Builder locationBuilder = CachedAnalysis.Location.newBuilder();
+        if (location.getMessage() != null) {
+          locationBuilder.setMessage(location.getMessage());
+        }
+        TextRange locationRange = location.getTextRange();
+        if (locationRange != null && locationRange.getStartLine() != null) {
+          locationBuilder.setTextRange(toProto(locationRange));
+        }
+        flowBuilder.addLocation(locationBuilder);
+      }
+      builder.addFlow(flowBuilder);
+    }
+    return builder.build();
+  }
+
+  private static CachedAnalysis.TextRange toProto(TextRange textRange) {
+    CachedAnalysis.TextRange.Builder builder = CachedAnalysis.TextRange.newBuilder()
+      .setStartLine(textRange.getStartLine());
+    if (textRange.getEndLine() != null) {
+      builder.setEndLine(textRange.getEndLine());
+    }
+    if (textRange.getStartLineOffset() != null && textRange.getEndLineOffset() != null) {
+      builder.setHasOffsets(true)
+        .setStartLineOffset(textRange.getStartLineOffset())
+        .setEndLineOffset(textRange.getEndLineOffset());
+    }
+    return builder.build();
+  }
+
+  private static class CachedLocation implements IssueLocation {
+    private final CachedAnalysis.Location location;
+
+    CachedLocation(CachedAnalysis.Location location) {
+      this.location = location;
+    }
+
+    @Override
+    public String getMessage() {
+      return location.getMessage();
+    }
+
+    @Nullable
+    @Override
+    public TextRange getTextRange() {
+      return location.hasTextRange() ? toTextRange(location.getTextRange()) : null;
+    }
+
+    @Nullable
+    @Override
+    public ClientInputFile getInputFile() {
+      return null;
+    }
+  }
+}
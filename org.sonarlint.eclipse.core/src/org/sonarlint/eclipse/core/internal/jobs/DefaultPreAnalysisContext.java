@@ -22,8 +22,10 @@ package org.sonarlint.eclipse.core.internal.jobs;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -41,9 +43,12 @@ public class DefaultPreAnalysisContext implements IPreAnalysisContext {
   private final Map<String, String> analysisProperties;
   private final Path tempDir;
   private final Map<ISonarLintFile, ClientInputFile> filesToAnalyze;
+  private final AnalysisConfigurationCache configurationCache;
 
-  public DefaultPreAnalysisContext(ISonarLintProject project, Map<String, String> analysisProperties, List<ClientInputFile> filesToAnalyze, Path tempDir) {
+  public DefaultPreAnalysisContext(ISonarLintProject project, Map<String, String> analysisProperties, List<ClientInputFile> filesToAnalyze, Path tempDir,
+    AnalysisConfigurationCache configurationCache) {
     this.project = project;
+    this.configurationCache = configurationCache;
     this.analysisProperties = analysisProperties;
     this.filesToAnalyze = Collections
       .unmodifiableMap(filesToAnalyze.stream()
@@ -87,4 +92,23 @@ public class DefaultPreAnalysisContext implements IPreAnalysisContext {
     return tempDir;
   }
 
+  @Override
+  public boolean reuseAnalysisProperties(String cacheKey, Object invalidationKey) {
+    Optional<Map<String, String>> cachedProperties = configurationCache.get(project.getName(), cacheKey, invalidationKey);
+    cachedProperties.ifPresent(properties -> properties.forEach(this::setAnalysisProperty));
+    return cachedProperties.isPresent();
+  }
+
+  @Override
+  public void cacheAnalysisProperties(String cacheKey, Object invalidationKey, Collection<String> propertyKeys) {
+    Map<String, String> properties = new LinkedHashMap<>();
+    for (String propertyKey : propertyKeys) {
+      String value = analysisProperties.get(propertyKey);
+      if (value != null) {
+        properties.put(propertyKey, value);
+      }
+    }
+    configurationCache.put(project.getName(), cacheKey, invalidationKey, properties);
+  }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Run the analysis of several projects using a bounded pool of worker threads, see {@link ParallelTaskRunner}.
+ */
+class ParallelProjectAnalyzer {
+
+  private final TriggerType triggerType;
+  private final String errorMessage;
+
+  ParallelProjectAnalyzer(TriggerType triggerType, String errorMessage) {
+    this.triggerType = triggerType;
+    this.errorMessage = errorMessage;
+  }
+
+  IStatus analyze(Map<ISonarLintProject, ? extends Collection<FileWithDocument>> filesPerProject, IProgressMonitor monitor) {
+    SubMonitor analysisMonitor = SubMonitor.convert(monitor, filesPerProject.size());
+    List<ISonarLintProject> openProjects = filesPerProject.keySet().stream().filter(ISonarLintProject::isOpen).collect(Collectors.toList());
+    analysisMonitor.worked(filesPerProject.size() - openProjects.size());
+    if (openProjects.isEmpty()) {
+      return Status.OK_STATUS;
+    }
+
+    ParallelTaskRunner runner = new ParallelTaskRunner("SonarLint project analysis", SonarLintGlobalConfiguration.getAnalysisThreads(),
+      "Analyzing %d project(s) using %d thread(s)");
+    Map<ISonarLintProject, IStatus> statusPerProject = runner.run(openProjects, (project, workerMonitor) -> analyzeProject(project, filesPerProject.get(project), workerMonitor),
+      analysisMonitor.newChild(openProjects.size()));
+    if (monitor.isCanceled()) {
+      return Status.CANCEL_STATUS;
+    }
+    MultiStatus errors = new MultiStatus(SonarLintCorePlugin.PLUGIN_ID, IStatus.OK, errorMessage, null);
+    for (ISonarLintProject project : openProjects) {
+      IStatus status = statusPerProject.get(project);
+      if (status == null) {
+        // The worker failed with an unexpected error, already logged
+        errors.add(new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Project '" + project.getName() + "': analysis failed unexpectedly"));
+      } else if (status.matches(IStatus.ERROR | IStatus.WARNING)) {
+        errors.add(status);
+      }
+    }
+    return errors.isOK() ? Status.OK_STATUS : errors;
+  }
+
+  private IStatus analyzeProject(ISonarLintProject project, Collection<FileWithDocument> files, IProgressMonitor monitor) {
+    if (monitor.isCanceled()) {
+      return Status.CANCEL_STATUS;
+    }
+    try {
+      AnalyzeProjectRequest req = new AnalyzeProjectRequest(project, files, triggerType);
+      AbstractSonarProjectJob job = AbstractAnalyzeProjectJob.create(req);
+      IStatus status = job.run(monitor);
+      if (status.matches(IStatus.ERROR | IStatus.WARNING)) {
+        return new Status(status.getSeverity(), SonarLintCorePlugin.PLUGIN_ID, "Project '" + project.getName() + "': " + status.getMessage(), status.getException());
+      }
+      return status;
+    } catch (Exception e) {
+      SonarLintLogger.get().error("Unable to analyze project", e);
+      return new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Unable to analyze project", e);
+    }
+  }
+
+}
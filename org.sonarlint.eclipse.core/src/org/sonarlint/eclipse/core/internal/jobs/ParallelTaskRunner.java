@@ -0,0 +1,200 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Run a task for each item of a collection using a bounded pool of worker threads, and wait for all of them.
+ * Each worker gets its own monitor, canceled as soon as the monitor of the caller is. The work and sub task names reported by workers
+ * are forwarded to the monitor of the caller by the calling thread, since progress monitors are not thread safe.
+ */
+public class ParallelTaskRunner {
+
+  private static final long POLL_INTERVAL_MS = 100;
+  private static final int TICKS_PER_TASK = 100;
+
+  private final String threadName;
+  private final int maxThreads;
+  @Nullable
+  private final String taskNameFormat;
+
+  /**
+   * @param taskNameFormat optional format of the task name, receiving the number of remaining tasks and the number of threads
+   */
+  public ParallelTaskRunner(String threadName, int maxThreads, @Nullable String taskNameFormat) {
+    this.threadName = threadName;
+    this.maxThreads = maxThreads;
+    this.taskNameFormat = taskNameFormat;
+  }
+
+  /**
+   * @return result of each task, in the order of items. Tasks that failed with an unexpected exception have no result, and tasks not
+   * completed when the calling thread is interrupted are missing.
+   */
+  public <T, R> Map<T, R> run(Collection<T> items, BiFunction<T, IProgressMonitor, R> task, IProgressMonitor monitor) {
+    SubMonitor progress = SubMonitor.convert(monitor, items.size() * TICKS_PER_TASK);
+    Map<T, R> results = new LinkedHashMap<>();
+    if (items.isEmpty()) {
+      return results;
+    }
+    int poolSize = Math.max(1, Math.min(maxThreads, items.size()));
+    ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+      Thread t = new Thread(r, threadName);
+      t.setDaemon(true);
+      return t;
+    });
+    CompletionService<Map.Entry<T, R>> completionService = new ExecutorCompletionService<>(executor);
+    AtomicBoolean cancelWorkers = new AtomicBoolean();
+    Map<Future<Map.Entry<T, R>>, WorkerMonitor> runningTasks = new HashMap<>();
+    Map<T, R> resultsInCompletionOrder = new LinkedHashMap<>();
+    try {
+      for (T item : items) {
+        WorkerMonitor workerMonitor = new WorkerMonitor(monitor, cancelWorkers);
+        runningTasks.put(completionService.submit(() -> new SimpleImmutableEntry<>(item, task.apply(item, workerMonitor))), workerMonitor);
+      }
+      while (!runningTasks.isEmpty()) {
+        if (taskNameFormat != null) {
+          progress.setTaskName(String.format(taskNameFormat, runningTasks.size(), poolSize));
+        }
+        if (monitor.isCanceled()) {
+          // Queued tasks will see it immediately, running ones at their next check
+          cancelWorkers.set(true);
+        }
+        Future<Map.Entry<T, R>> done = completionService.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (done != null) {
+          WorkerMonitor doneMonitor = runningTasks.remove(done);
+          if (doneMonitor != null) {
+            progress.worked(TICKS_PER_TASK - doneMonitor.reportedTicks);
+          }
+          try {
+            Map.Entry<T, R> result = done.get();
+            resultsInCompletionOrder.put(result.getKey(), result.getValue());
+          } catch (ExecutionException e) {
+            SonarLintLogger.get().error("Unexpected error in " + threadName, e.getCause());
+          }
+        }
+        runningTasks.values().forEach(workerMonitor -> workerMonitor.forwardProgress(progress));
+      }
+    } catch (InterruptedException e) {
+      cancelWorkers.set(true);
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
+    for (T item : items) {
+      if (resultsInCompletionOrder.containsKey(item)) {
+        results.put(item, resultsInCompletionOrder.get(item));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Record the progress of a task running in a worker thread, until the calling thread forwards it to its own monitor
+   */
+  private static class WorkerMonitor extends NullProgressMonitor {
+    private final IProgressMonitor parent;
+    private final AtomicBoolean cancelWorkers;
+    // Guarded by this
+    private double totalWork;
+    // Guarded by this
+    private double work;
+    // Guarded by this
+    @Nullable
+    private String pendingSubTask;
+    // Only accessed by the calling thread
+    private int reportedTicks;
+
+    private WorkerMonitor(IProgressMonitor parent, AtomicBoolean cancelWorkers) {
+      this.parent = parent;
+      this.cancelWorkers = cancelWorkers;
+    }
+
+    @Override
+    public synchronized void beginTask(String name, int totalWork) {
+      this.totalWork = totalWork;
+      if (name != null && !name.isEmpty()) {
+        pendingSubTask = name;
+      }
+    }
+
+    @Override
+    public synchronized void setTaskName(String name) {
+      pendingSubTask = name;
+    }
+
+    @Override
+    public synchronized void subTask(String name) {
+      pendingSubTask = name;
+    }
+
+    @Override
+    public void worked(int work) {
+      internalWorked(work);
+    }
+
+    @Override
+    public synchronized void internalWorked(double work) {
+      this.work += work;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return super.isCanceled() || cancelWorkers.get() || parent.isCanceled();
+    }
+
+    private void forwardProgress(SubMonitor progress) {
+      int ticks;
+      String subTask;
+      synchronized (this) {
+        ticks = totalWork > 0 ? (int) Math.min(TICKS_PER_TASK, work * TICKS_PER_TASK / totalWork) : 0;
+        subTask = pendingSubTask;
+        pendingSubTask = null;
+      }
+      if (ticks > reportedTicks) {
+        progress.worked(ticks - reportedTicks);
+        reportedTicks = ticks;
+      }
+      if (subTask != null) {
+        progress.subTask(subTask);
+      }
+    }
+  }
+
+}
@@ -20,22 +20,44 @@
 package org.sonarlint.eclipse.core.internal.jobs;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.engine.connected.IConnectedEngineFacade;
-import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine.State;
 import org.sonarsource.sonarlint.core.client.api.exceptions.CanceledException;
 
+/**
+ * Update the storage of a connection, and of the projects bound to it. The global storage is only updated if the server reports changes.
+ * The server is then asked, in parallel, whether each project storage changed. Issues of up to date projects are still downloaded, but the
+ * rest of their storage is not updated.
+ * Each connection has its own job, so that connections are updated concurrently. Updates of a given connection are sequential, since they
+ * need exclusive access to its storage.
+ */
 public class ServerUpdateJob extends Job {
+
+  /**
+   * Maximum number of concurrent requests sent to the same server to check for updates
+   */
+  static final int MAX_PARALLEL_CHECKS_PER_CONNECTION = 4;
+
+  public enum ProjectUpdateOutcome {
+    UPDATED, UP_TO_DATE, FAILED
+  }
+
   private final IConnectedEngineFacade server;
+  private final Map<String, ProjectUpdateOutcome> outcomePerProjectKey = Collections.synchronizedMap(new LinkedHashMap<>());
 
   public ServerUpdateJob(IConnectedEngineFacade server) {
     super("Update SonarLint binding data from '" + server.getId() + "'");
@@ -44,40 +66,61 @@ public class ServerUpdateJob extends Job {
 
   @Override
   protected IStatus run(IProgressMonitor monitor) {
-    List<ISonarLintProject> projectsToUpdate = server.getBoundProjects();
-    monitor.beginTask("Update SonarLint binding data for all associated projects", projectsToUpdate.size() + 1);
-    try {
-      server.updateStorage(monitor);
-    } catch (Exception e) {
-      if (e instanceof CanceledException && monitor.isCanceled()) {
-        return Status.CANCEL_STATUS;
+    outcomePerProjectKey.clear();
+    Map<String, List<ISonarLintProject>> projectsPerKey = groupByProjectKey(server.getBoundProjects());
+    SubMonitor subMonitor = SubMonitor.convert(monitor, "Update SonarLint binding data for all associated projects", projectsPerKey.size() + 3);
+
+    // Without a global storage, there is nothing to compare with and everything has to be downloaded
+    boolean globalStorageNeedUpdate = server.getStorageState() != State.UPDATED || checkIfGlobalStorageNeedUpdate(subMonitor.newChild(1));
+    if (subMonitor.isCanceled()) {
+      return Status.CANCEL_STATUS;
+    }
+    if (globalStorageNeedUpdate) {
+      try {
+        server.updateStorage(subMonitor.newChild(1));
+      } catch (Exception e) {
+        if (e instanceof CanceledException && monitor.isCanceled()) {
+          return Status.CANCEL_STATUS;
+        }
+        return new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Unable to update binding data from '" + server.getId() + "'", e);
       }
-      return new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Unable to update binding data from '" + server.getId() + "'", e);
+    } else {
+      SonarLintLogger.get().debug("Global storage of '" + server.getId() + "' is up to date");
+      subMonitor.worked(1);
+    }
+
+    // Projects are checked against the updated global storage
+    Map<String, Boolean> needUpdate = server.getStorageState() == State.UPDATED
+      ? new ParallelTaskRunner("SonarLint binding data update check", MAX_PARALLEL_CHECKS_PER_CONNECTION, null)
+        .run(projectsPerKey.keySet(), this::checkIfProjectStorageNeedUpdate, subMonitor.newChild(1))
+      : Collections.emptyMap();
+    if (subMonitor.isCanceled()) {
+      return Status.CANCEL_STATUS;
     }
-    monitor.worked(1);
 
-    Set<String> seenProjectKeys = new HashSet<>();
     List<IStatus> failures = new ArrayList<>();
-    for (ISonarLintProject projectToUpdate : projectsToUpdate) {
-      if (monitor.isCanceled()) {
+    for (Map.Entry<String, List<ISonarLintProject>> entry : projectsPerKey.entrySet()) {
+      if (subMonitor.isCanceled()) {
         return Status.CANCEL_STATUS;
       }
+      String projectKey = entry.getKey();
       try {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(projectToUpdate);
-        config.getProjectBinding().ifPresent(b -> {
-          if (seenProjectKeys.add(b.projectKey())) {
-            server.updateProjectStorage(b.projectKey(), monitor);
-          }
-        });
-
+        if (needUpdate.getOrDefault(projectKey, true)) {
+          server.updateProjectStorage(projectKey, subMonitor.newChild(1));
+          outcomePerProjectKey.put(projectKey, ProjectUpdateOutcome.UPDATED);
+        } else {
+          server.updateProjectIssues(projectKey, subMonitor.newChild(1));
+          outcomePerProjectKey.put(projectKey, ProjectUpdateOutcome.UP_TO_DATE);
+        }
       } catch (Exception e) {
         if (e instanceof CanceledException && monitor.isCanceled()) {
           return Status.CANCEL_STATUS;
         }
-        failures.add(new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Unable to update binding data for project '" + projectToUpdate.getName() + "'", e));
+        outcomePerProjectKey.put(projectKey, ProjectUpdateOutcome.FAILED);
+        failures.add(new Status(IStatus.ERROR, SonarLintCorePlugin.PLUGIN_ID, "Unable to update binding data for project '" + projectNames(entry.getValue()) + "'", e));
       }
-      monitor.worked(1);
     }
+    logSummary();
     monitor.done();
     if (!failures.isEmpty()) {
       return new MultiStatus(SonarLintCorePlugin.PLUGIN_ID, IStatus.ERROR, failures.toArray(new IStatus[0]), "Failed to update binding data for " + failures.size() + " project(s)",
@@ -86,4 +129,64 @@ public class ServerUpdateJob extends Job {
     return Status.OK_STATUS;
   }
 
+  private static Map<String, List<ISonarLintProject>> groupByProjectKey(List<ISonarLintProject> projects) {
+    Map<String, List<ISonarLintProject>> projectsPerKey = new LinkedHashMap<>();
+    for (ISonarLintProject project : projects) {
+      SonarLintCorePlugin.loadConfig(project).getProjectBinding()
+        .ifPresent(b -> projectsPerKey.computeIfAbsent(b.projectKey(), k -> new ArrayList<>()).add(project));
+    }
+    return projectsPerKey;
+  }
+
+  private static String projectNames(List<ISonarLintProject> projects) {
+    return projects.stream().map(ISonarLintProject::getName).collect(Collectors.joining("', '"));
+  }
+
+  /**
+   * @return true if the check failed, so that the storage is updated
+   */
+  private boolean checkIfGlobalStorageNeedUpdate(IProgressMonitor monitor) {
+    try {
+      return server.checkIfGlobalStorageNeedUpdate(monitor);
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to check for binding data updates on '" + server.getId() + "'", e);
+      return true;
+    }
+  }
+
+  /**
+   * @return true if the check failed, so that the storage is updated
+   */
+  private boolean checkIfProjectStorageNeedUpdate(String projectKey, IProgressMonitor monitor) {
+    if (monitor.isCanceled()) {
+      return true;
+    }
+    try {
+      return server.checkIfProjectStorageNeedUpdate(projectKey, monitor);
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to check for binding data updates on '" + server.getId() + "' for project '" + projectKey + "'", e);
+      return true;
+    }
+  }
+
+  private void logSummary() {
+    Map<ProjectUpdateOutcome, List<String>> keysPerOutcome = getProjectOutcomes().entrySet().stream()
+      .collect(Collectors.groupingBy(Map.Entry::getValue, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+    SonarLintLogger.get().info("Binding data from '" + server.getId() + "': "
+      + keysPerOutcome.getOrDefault(ProjectUpdateOutcome.UPDATED, Collections.emptyList()).size() + " project(s) updated, "
+      + keysPerOutcome.getOrDefault(ProjectUpdateOutcome.UP_TO_DATE, Collections.emptyList()).size() + " up to date, "
+      + keysPerOutcome.getOrDefault(ProjectUpdateOutcome.FAILED, Collections.emptyList()).size() + " failed");
+    keysPerOutcome.forEach((outcome, keys) -> SonarLintLogger.get().debug("  " + outcome + ": " + String.join(", ", keys)));
+    SonarLintLogger.get().debug("HTTP connections after update of '" + server.getId() + "': " + SonarLintCorePlugin.getHttpConnectionMetrics());
+  }
+
+  /**
+   * Outcome of the last run for each bound project key, in the order projects were processed
+   */
+  public Map<String, ProjectUpdateOutcome> getProjectOutcomes() {
+    synchronized (outcomePerProjectKey) {
+      return new LinkedHashMap<>(outcomePerProjectKey);
+    }
+  }
+
 }
@@ -23,19 +23,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -74,20 +75,26 @@ public class SonarLintMarkerUpdater {
     taintVulnerabilitiesListener = listener;
   }
 
+  /**
+   * Reconcile the markers of the file with the tracked issues: existing markers are read once, then each marker is created or updated
+   * with a single write of its changed attributes, and markers of issues that disappeared are deleted in bulk. This limits the number of
+   * marker deltas sent to listeners (Problems view, issue views, decorators).
+   */
   public static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Collection<Trackable> issues, TriggerType triggerType) {
     try {
-      Set<IMarker> previousMarkersToDelete;
+      Map<Long, IMarker> previousMarkersToDelete = new HashMap<>();
       if (triggerType.isOnTheFly()) {
         file.getResource().deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO);
-        previousMarkersToDelete = new HashSet<>(Arrays.asList(file.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO)));
-      } else {
-        previousMarkersToDelete = Collections.emptySet();
+        for (IMarker marker : file.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO)) {
+          previousMarkersToDelete.put(marker.getId(), marker);
+        }
       }
 
       createOrUpdateMarkers(file, openedDocument, issues, triggerType, previousMarkersToDelete);
 
-      for (IMarker marker : previousMarkersToDelete) {
-        marker.delete();
+      if (!previousMarkersToDelete.isEmpty()) {
+        previousMarkersToDelete.values().forEach(SonarLintCorePlugin.getMarkerFlowsStore()::remove);
+        ResourcesPlugin.getWorkspace().deleteMarkers(previousMarkersToDelete.values().toArray(new IMarker[0]));
       }
     } catch (CoreException e) {
       SonarLintLogger.get().error(e.getMessage(), e);
@@ -110,10 +117,12 @@ public class SonarLintMarkerUpdater {
       Map<ISonarLintProject, EclipseProjectBinding> bindings = boundSiblingProjects.stream()
         .collect(Collectors.toMap(p -> p, p -> SonarLintCorePlugin.loadConfig(p).getProjectBinding().get()));
 
+      // Documents of files having primary locations, shared by all taint issues
+      Map<ISonarLintFile, IDocument> documents = new HashMap<>();
       for (ServerIssue taintIssue : taintVulnerabilities) {
         Optional<ISonarLintFile> primaryLocationFile = findFileForLocationInBoundProjects(bindings, taintIssue.getFilePath());
         if (primaryLocationFile.isPresent()) {
-          createTaintMarker(primaryLocationFile.get().getDocument(), primaryLocationFile.get(), taintIssue, bindings);
+          createTaintMarker(documents.computeIfAbsent(primaryLocationFile.get(), ISonarLintFile::getDocument), primaryLocationFile.get(), taintIssue, bindings);
         }
       }
       if (!taintVulnerabilities.isEmpty() && taintVulnerabilitiesListener != null) {
@@ -125,10 +134,12 @@ public class SonarLintMarkerUpdater {
 
   public static void deleteTaintMarkers(ISonarLintFile currentFile) {
     try {
-      Set<IMarker> markersToDelete = new HashSet<>(Arrays.asList(currentFile.getResource().findMarkers(SonarLintCorePlugin.MARKER_TAINT_ID, false, IResource.DEPTH_ZERO)));
+      IMarker[] markersToDelete = currentFile.getResource().findMarkers(SonarLintCorePlugin.MARKER_TAINT_ID, false, IResource.DEPTH_ZERO);
       for (IMarker primaryLocationMarker : markersToDelete) {
-        MarkerUtils.getIssueFlows(primaryLocationMarker).deleteAllMarkers();
-        primaryLocationMarker.delete();
+        SonarLintCorePlugin.getMarkerFlowsStore().remove(primaryLocationMarker);
+      }
+      if (markersToDelete.length > 0) {
+        ResourcesPlugin.getWorkspace().deleteMarkers(markersToDelete);
       }
     } catch (CoreException e) {
       SonarLintLogger.get().error(e.getMessage(), e);
@@ -160,6 +171,7 @@ public class SonarLintMarkerUpdater {
 
   public static void clearMarkers(ISonarLintFile file) {
     try {
+      SonarLintCorePlugin.getMarkerFlowsStore().removeAll(file.getResource(), SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID);
       file.getResource().deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
       file.getResource().deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_FLOW_ID, false, IResource.DEPTH_ZERO);
     } catch (CoreException e) {
@@ -167,10 +179,23 @@ public class SonarLintMarkerUpdater {
     }
   }
 
+  /**
+   * Like {@link #createOrUpdateMarkers(ISonarLintFile, Optional, Collection, TriggerType)}, existing markers are read once, each marker gets a
+   * single write, and markers of issues resolved on the server are deleted in bulk.
+   */
   public static void updateMarkersWithServerSideData(ISonarLintIssuable issuable, IDocument document, Collection<Trackable> issues, TriggerType triggerType) {
     try {
+      Map<Long, IMarker> markersById = new HashMap<>();
+      for (IMarker marker : issuable.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO)) {
+        markersById.put(marker.getId(), marker);
+      }
+      List<IMarker> markersToDelete = new ArrayList<>();
       for (Trackable issue : issues) {
-        updateMarkerWithServerSideData(issuable, document, issue, triggerType);
+        updateMarkerWithServerSideData(issuable, document, issue, triggerType, markersById, markersToDelete);
+      }
+      if (!markersToDelete.isEmpty()) {
+        markersToDelete.forEach(SonarLintCorePlugin.getMarkerFlowsStore()::remove);
+        ResourcesPlugin.getWorkspace().deleteMarkers(markersToDelete.toArray(new IMarker[0]));
       }
     } catch (CoreException e) {
       SonarLintLogger.get().error(e.getMessage(), e);
@@ -178,22 +203,24 @@ public class SonarLintMarkerUpdater {
   }
 
   private static void updateMarkerWithServerSideData(ISonarLintIssuable issuable, IDocument document, Trackable issue,
-    TriggerType triggerType)
+    TriggerType triggerType, Map<Long, IMarker> markersById, List<IMarker> markersToDelete)
     throws CoreException {
     Long markerId = issue.getMarkerId();
     IMarker marker = null;
     if (markerId != null) {
-      marker = issuable.getResource().findMarker(markerId);
+      marker = markersById.get(markerId);
     }
     if (issue.isResolved()) {
       if (marker != null) {
         // Issue is associated to a marker, means it was not marked as resolved in previous analysis, but now it is, so clear marker
-        marker.delete();
+        markersToDelete.add(marker);
       }
       issue.setMarkerId(null);
     } else {
       if (marker != null) {
-        updateServerMarkerAttributes(issue, marker);
+        Map<String, Object> attributes = new HashMap<>();
+        addServerMarkerAttributes(issue, attributes);
+        setMarkerAttributesIfDifferent(marker, attributes);
       } else {
         // Issue was previously resolved, and is now reopen, so we need to recreate a marker
         createMarker(document, issuable, issue, triggerType);
@@ -202,18 +229,18 @@ public class SonarLintMarkerUpdater {
   }
 
   private static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Collection<Trackable> issues,
-    TriggerType triggerType, Set<IMarker> previousMarkersToDelete) throws CoreException {
+    TriggerType triggerType, Map<Long, IMarker> previousMarkersToDelete) throws CoreException {
     IDocument lazyInitDocument = openedDocument.orElse(null);
     for (Trackable issue : issues) {
       if (!issue.isResolved()) {
         lazyInitDocument = lazyInitDocument != null ? lazyInitDocument : file.getDocument();
-        if (!triggerType.isOnTheFly() || issue.getMarkerId() == null || file.getResource().findMarker(issue.getMarkerId()) == null) {
+        Long markerId = issue.getMarkerId();
+        IMarker marker = markerId != null ? previousMarkersToDelete.remove(markerId) : null;
+        if (marker == null) {
           createMarker(lazyInitDocument, file, issue, triggerType);
         } else {
-          IMarker marker = file.getResource().findMarker(issue.getMarkerId());
-          updateMarkerAttributes(lazyInitDocument, issue, marker);
-          createFlowMarkersForLocalIssues(lazyInitDocument, file, issue, marker, markerIdForFlows(triggerType));
-          previousMarkersToDelete.remove(marker);
+          setMarkerAttributesIfDifferent(marker, markerAttributes(lazyInitDocument, file, issue));
+          SonarLintCorePlugin.getMarkerFlowsStore().put(marker, createFlowsForLocalIssues(lazyInitDocument, file, issue, markerIdForFlows(triggerType)));
         }
       } else {
         issue.setMarkerId(null);
@@ -227,12 +254,8 @@ public class SonarLintMarkerUpdater {
     if (triggerType.isOnTheFly()) {
       trackable.setMarkerId(marker.getId());
     }
-
-    setMarkerViewUtilsAttributes(issuable, marker);
-
-    updateMarkerAttributes(document, trackable, marker);
-    createFlowMarkersForLocalIssues(document, issuable, trackable, marker, markerIdForFlows(triggerType));
-
+    setMarkerAttributesIfDifferent(marker, markerAttributes(document, issuable, trackable));
+    SonarLintCorePlugin.getMarkerFlowsStore().put(marker, createFlowsForLocalIssues(document, issuable, trackable, markerIdForFlows(triggerType)));
   }
 
   private static String markerIdForFlows(TriggerType triggerType) {
@@ -243,46 +266,48 @@ public class SonarLintMarkerUpdater {
     Map<ISonarLintProject, EclipseProjectBinding> bindingsPerProjects) {
     try {
       IMarker marker = issuable.getResource().createMarker(SonarLintCorePlugin.MARKER_TAINT_ID);
-
-      setMarkerViewUtilsAttributes(issuable, marker);
-
-      updateMarkerAttributes(document, new ServerIssueTrackable(taintIssue), marker);
-      createFlowMarkersForTaint(taintIssue, marker, bindingsPerProjects);
+      setMarkerAttributesIfDifferent(marker, markerAttributes(document, issuable, new ServerIssueTrackable(taintIssue)));
+      SonarLintCorePlugin.getMarkerFlowsStore().put(marker, createFlowsForTaint(taintIssue, bindingsPerProjects));
     } catch (CoreException e) {
       SonarLintLogger.get().error("Unable to create marker", e);
     }
   }
 
-  private static void setMarkerViewUtilsAttributes(ISonarLintIssuable issuable, IMarker marker) throws CoreException {
+  /**
+   * Attributes of the marker of an issue. A null value means that the attribute should be removed, and missing attributes are left untouched.
+   */
+  private static Map<String, Object> markerAttributes(IDocument document, ISonarLintIssuable issuable, Trackable trackable) {
+    Map<String, Object> attributes = new HashMap<>();
     // See MarkerViewUtil
-    marker.setAttribute("org.eclipse.ui.views.markers.name", issuable.getResourceNameForMarker());
-    marker.setAttribute("org.eclipse.ui.views.markers.path", issuable.getResourceContainerForMarker());
-  }
+    attributes.put("org.eclipse.ui.views.markers.name", issuable.getResourceNameForMarker());
+    attributes.put("org.eclipse.ui.views.markers.path", issuable.getResourceContainerForMarker());
 
-  private static void updateMarkerAttributes(IDocument document, Trackable trackable, IMarker marker) throws CoreException {
-    Map<String, Object> existingAttributes = marker.getAttributes();
+    attributes.put(MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
+    attributes.put(MarkerUtils.SONAR_MARKER_RULE_NAME_ATTR, trackable.getRuleName());
+    attributes.put(IMarker.SEVERITY, SonarLintGlobalConfiguration.getMarkerSeverity());
 
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_RULE_NAME_ATTR, trackable.getRuleName());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.SEVERITY, SonarLintGlobalConfiguration.getMarkerSeverity());
-
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.MESSAGE, trackable.getMessage());
+    attributes.put(IMarker.MESSAGE, trackable.getMessage());
 
     // File level issues (line == null) are displayed on line 1
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.LINE_NUMBER, trackable.getLine() != null ? trackable.getLine() : 1);
+    attributes.put(IMarker.LINE_NUMBER, trackable.getLine() != null ? trackable.getLine() : 1);
 
     Position position = MarkerUtils.getPosition(document, trackable.getTextRange());
     if (position != null) {
-      setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.CHAR_START, position.getOffset());
-      setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.CHAR_END, position.getOffset() + position.getLength());
+      attributes.put(IMarker.CHAR_START, position.getOffset());
+      attributes.put(IMarker.CHAR_END, position.getOffset() + position.getLength());
     }
 
-    updateServerMarkerAttributes(trackable, marker);
+    addServerMarkerAttributes(trackable, attributes);
+    return attributes;
   }
 
-  private static void createFlowMarkersForLocalIssues(IDocument document, ISonarLintIssuable issuable, Trackable trackable, IMarker marker, String flowMarkerId)
-    throws CoreException {
+  /**
+   * Flow markers are not created here, but only when the locations of the issue are requested, see {@link MarkerFlows}
+   */
+  private static MarkerFlows createFlowsForLocalIssues(IDocument analyzedDocument, ISonarLintIssuable issuable, Trackable trackable, String flowMarkerType) {
     List<MarkerFlow> flows = new ArrayList<>();
+    // Use the current content of the file once locations are requested, since it may have changed since the analysis
+    Supplier<IDocument> document = issuable instanceof ISonarLintFile ? ((ISonarLintFile) issuable)::getDocument : () -> analyzedDocument;
     int i = 1;
     for (org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow engineFlow : trackable.getFlows()) {
       MarkerFlow flow = new MarkerFlow(i);
@@ -290,29 +315,15 @@ public class SonarLintMarkerUpdater {
       List<IssueLocation> locations = new ArrayList<>(engineFlow.locations());
       Collections.reverse(locations);
       for (IssueLocation l : locations) {
-        l.getInputFile();
         MarkerFlowLocation flowLocation = new MarkerFlowLocation(flow, l.getMessage());
-        try {
-          IMarker m = issuable.getResource().createMarker(flowMarkerId);
-          m.setAttribute(IMarker.MESSAGE, l.getMessage());
-          m.setAttribute(IMarker.LINE_NUMBER, l.getStartLine() != null ? l.getStartLine() : 1);
-          Position flowPosition = MarkerUtils.getPosition(document, TextRange.get(l.getStartLine(), l.getStartLineOffset(), l.getEndLine(), l.getEndLineOffset()));
-          if (flowPosition != null) {
-            m.setAttribute(IMarker.CHAR_START, flowPosition.getOffset());
-            m.setAttribute(IMarker.CHAR_END, flowPosition.getOffset() + flowPosition.getLength());
-          }
-          flowLocation.setMarker(m);
-        } catch (Exception e) {
-          SonarLintLogger.get().debug("Unable to create flow marker", e);
-        }
+        flowLocation.setLocation(issuable, document, TextRange.get(l.getStartLine(), l.getStartLineOffset(), l.getEndLine(), l.getEndLineOffset()), null);
       }
       i++;
     }
-    marker.setAttribute(MarkerUtils.SONAR_MARKER_EXTRA_LOCATIONS_ATTR, new MarkerFlows(flows));
+    return new MarkerFlows(flows, flowMarkerType);
   }
 
-  private static void createFlowMarkersForTaint(ServerIssue taintIssue, IMarker primaryLocationMarker, Map<ISonarLintProject, EclipseProjectBinding> bindingsPerProjects)
-    throws CoreException {
+  private static MarkerFlows createFlowsForTaint(ServerIssue taintIssue, Map<ISonarLintProject, EclipseProjectBinding> bindingsPerProjects) {
     List<MarkerFlow> flows = new ArrayList<>();
     int i = 1;
     for (Flow engineFlow : taintIssue.getFlows()) {
@@ -327,42 +338,19 @@ public class SonarLintMarkerUpdater {
         if (!locationFile.isPresent()) {
           continue;
         }
-        ISonarLintFile file = locationFile.get();
-        try {
-          IMarker marker = createMarkerIfCodeMatches(file, l);
-          if (marker != null) {
-            flowLocation.setMarker(marker);
-          } else {
-            flowLocation.setDeleted(true);
-          }
-        } catch (Exception e) {
-          SonarLintLogger.get().debug("Unable to create flow marker", e);
+        String codeSnippet = l.getCodeSnippet();
+        if (codeSnippet == null) {
+          // No way to check that the code did not change locally
+          flowLocation.setDeleted(true);
+          continue;
         }
+        ISonarLintFile file = locationFile.get();
+        flowLocation.setLocation(file, file::getDocument, TextRange.get(l.getStartLine(), l.getStartLineOffset(), l.getEndLine(), l.getEndLineOffset()),
+          codeSnippet);
       }
       i++;
     }
-    primaryLocationMarker.setAttribute(MarkerUtils.SONAR_MARKER_EXTRA_LOCATIONS_ATTR, new MarkerFlows(flows));
-  }
-
-  @Nullable
-  private static IMarker createMarkerIfCodeMatches(ISonarLintFile file, ServerIssueLocation location) throws BadLocationException, CoreException {
-    IDocument document = file.getDocument();
-    int startOffset = document.getLineOffset(location.getStartLine() - 1) + location.getStartLineOffset();
-    int endOffset = document.getLineOffset(location.getEndLine() - 1) + location.getEndLineOffset();
-    String inEditorCode = document.get(startOffset, endOffset - startOffset);
-    if (inEditorCode.equals(location.getCodeSnippet())) {
-      IMarker marker = file.getResource().createMarker(SonarLintCorePlugin.MARKER_TAINT_FLOW_ID);
-      marker.setAttribute(IMarker.MESSAGE, location.getMessage());
-      marker.setAttribute(IMarker.LINE_NUMBER, location.getStartLine() != null ? location.getStartLine() : 1);
-      Position flowPosition = MarkerUtils.getPosition(document,
-        TextRange.get(location.getStartLine(), location.getStartLineOffset(), location.getEndLine(), location.getEndLineOffset()));
-      if (flowPosition != null) {
-        marker.setAttribute(IMarker.CHAR_START, flowPosition.getOffset());
-        marker.setAttribute(IMarker.CHAR_END, flowPosition.getOffset() + flowPosition.getLength());
-      }
-      return marker;
-    }
-    return null;
+    return new MarkerFlows(flows, SonarLintCorePlugin.MARKER_TAINT_FLOW_ID);
   }
 
   /**
@@ -371,22 +359,31 @@ public class SonarLintMarkerUpdater {
    *   - server issue key
    *   - creation date
    */
-  private static void updateServerMarkerAttributes(Trackable trackable, IMarker marker) throws CoreException {
-    Map<String, Object> existingAttributes = marker.getAttributes();
-
-    setMarkerAttributeIfDifferent(marker, existingAttributes, IMarker.PRIORITY, getPriority(trackable.getSeverity()));
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR, trackable.getSeverity());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_ISSUE_TYPE_ATTR, trackable.getType());
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_SERVER_ISSUE_KEY_ATTR, trackable.getServerIssueKey());
+  private static void addServerMarkerAttributes(Trackable trackable, Map<String, Object> attributes) {
+    attributes.put(IMarker.PRIORITY, getPriority(trackable.getSeverity()));
+    attributes.put(MarkerUtils.SONAR_MARKER_ISSUE_SEVERITY_ATTR, trackable.getSeverity());
+    attributes.put(MarkerUtils.SONAR_MARKER_ISSUE_TYPE_ATTR, trackable.getType());
+    attributes.put(MarkerUtils.SONAR_MARKER_SERVER_ISSUE_KEY_ATTR, trackable.getServerIssueKey());
 
     Long creationDate = trackable.getCreationDate();
-    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR, creationDate != null ? String.valueOf(creationDate) : null);
+    attributes.put(MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR, creationDate != null ? String.valueOf(creationDate) : null);
   }
 
-  private static void setMarkerAttributeIfDifferent(IMarker marker, @Nullable Map<String, Object> existingAttributes, String attributeName, @Nullable Object value)
-    throws CoreException {
-    if (!Objects.equals(value, existingAttributes != null ? existingAttributes.get(attributeName) : null)) {
-      marker.setAttribute(attributeName, value);
+  /**
+   * Write the attributes that changed in a single marker operation, since each one notifies all marker listeners
+   */
+  private static void setMarkerAttributesIfDifferent(IMarker marker, Map<String, Object> attributes) throws CoreException {
+    Map<String, Object> existingAttributes = marker.getAttributes();
+    List<String> changedNames = new ArrayList<>();
+    List<Object> changedValues = new ArrayList<>();
+    for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+      if (!Objects.equals(attribute.getValue(), existingAttributes != null ? existingAttributes.get(attribute.getKey()) : null)) {
+        changedNames.add(attribute.getKey());
+        changedValues.add(attribute.getValue());
+      }
+    }
+    if (!changedNames.isEmpty()) {
+      marker.setAttributes(changedNames.toArray(new String[0]), changedValues.toArray());
     }
   }
 
@@ -415,6 +412,7 @@ public class SonarLintMarkerUpdater {
     ProjectsProviderUtils.allProjects().stream()
       .filter(ISonarLintProject::isOpen)
       .forEach(p -> {
+        SonarLintCorePlugin.getMarkerFlowsStore().removeAll(p.getResource(), SonarLintCorePlugin.MARKER_REPORT_FLOW_ID);
         p.deleteAllMarkers(SonarLintCorePlugin.MARKER_REPORT_ID);
         p.deleteAllMarkers(SonarLintCorePlugin.MARKER_REPORT_FLOW_ID);
       });
@@ -424,6 +422,7 @@ public class SonarLintMarkerUpdater {
     ProjectsProviderUtils.allProjects().stream()
       .filter(ISonarLintProject::isOpen)
       .forEach(p -> {
+        SonarLintCorePlugin.getMarkerFlowsStore().removeAll(p.getResource(), SonarLintCorePlugin.MARKER_TAINT_FLOW_ID);
         p.deleteAllMarkers(SonarLintCorePlugin.MARKER_TAINT_ID);
         p.deleteAllMarkers(SonarLintCorePlugin.MARKER_TAINT_FLOW_ID);
       });
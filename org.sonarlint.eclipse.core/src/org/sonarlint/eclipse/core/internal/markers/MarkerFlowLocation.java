@@ -19,19 +19,38 @@
  */
 package org.sonarlint.eclipse.core.internal.markers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.resource.ISonarLintIssuable;
 
 public class MarkerFlowLocation {
   private final MarkerFlow parent;
   private final int number;
   @Nullable
   private final String message;
+  // Set by the thread creating the markers, read by the UI
   @Nullable
-  private IMarker marker;
-  private boolean deleted;
+  private volatile IMarker marker;
+  private volatile boolean deleted;
   @Nullable
   private String filePath;
+  @Nullable
+  private ISonarLintIssuable issuable;
+  @Nullable
+  private Supplier<IDocument> document;
+  @Nullable
+  private TextRange textRange;
+  @Nullable
+  private String codeSnippet;
 
   public MarkerFlowLocation(MarkerFlow parent, @Nullable String message) {
     this.parent = parent;
@@ -58,10 +77,26 @@ public class MarkerFlowLocation {
     return message;
   }
 
+  /**
+   * Where the marker of this location should be created, once the locations of the issue are needed.
+   *
+   * @param codeSnippet if not null, the marker is only created if the code in the text range is still the same, otherwise the location is
+   * considered as deleted
+   */
+  public void setLocation(ISonarLintIssuable issuable, Supplier<IDocument> document, TextRange textRange, @Nullable String codeSnippet) {
+    this.issuable = issuable;
+    this.document = document;
+    this.textRange = textRange;
+    this.codeSnippet = codeSnippet;
+  }
+
   public void setMarker(IMarker marker) {
     this.marker = marker;
   }
 
+  /**
+   * @return null until the markers of the issue locations are created, see {@link MarkerFlows#createMarkersIfNeeded()}
+   */
   @Nullable
   public IMarker getMarker() {
     return marker;
@@ -79,4 +114,88 @@ public class MarkerFlowLocation {
   public String getFilePath() {
     return filePath;
   }
+
+  /**
+   * Forget the marker, so that it can be created again from the location
+   *
+   * @return the previous marker
+   */
+  @Nullable
+  IMarker resetMarker() {
+    IMarker previousMarker = marker;
+    if (issuable != null) {
+      marker = null;
+      deleted = false;
+    }
+    return previousMarker;
+  }
+
+  /**
+   * @return true if the code of the location is not at the expected place anymore, so that its marker should not be created
+   */
+  boolean isCodeMoved(Map<IResource, IDocument> documents) {
+    ISonarLintIssuable locationIssuable = issuable;
+    Supplier<IDocument> documentSupplier = document;
+    TextRange locationTextRange = textRange;
+    String expectedCode = codeSnippet;
+    if (locationIssuable == null || documentSupplier == null || locationTextRange == null || expectedCode == null) {
+      return false;
+    }
+    try {
+      IDocument locationDocument = documents.computeIfAbsent(locationIssuable.getResource(), r -> documentSupplier.get());
+      return !codeMatches(locationDocument, locationTextRange, expectedCode);
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to compare flow location code", e);
+      return true;
+    }
+  }
+
+  /**
+   * Create a marker at the location, without attaching it to this location
+   *
+   * @return null if the location is unknown or the marker could not be created
+   */
+  @Nullable
+  IMarker createMarker(String markerType, Map<IResource, IDocument> documents) {
+    ISonarLintIssuable locationIssuable = issuable;
+    Supplier<IDocument> documentSupplier = document;
+    TextRange locationTextRange = textRange;
+    if (locationIssuable == null || documentSupplier == null || locationTextRange == null) {
+      return null;
+    }
+    try {
+      IResource resource = locationIssuable.getResource();
+      IDocument locationDocument = documents.computeIfAbsent(resource, r -> documentSupplier.get());
+      List<String> names = new ArrayList<>();
+      List<Object> values = new ArrayList<>();
+      if (message != null) {
+        names.add(IMarker.MESSAGE);
+        values.add(message);
+      }
+      names.add(IMarker.LINE_NUMBER);
+      values.add(locationTextRange.isValid() ? locationTextRange.getStartLine() : 1);
+      Position position = MarkerUtils.getPosition(locationDocument, locationTextRange);
+      if (position != null) {
+        names.add(IMarker.CHAR_START);
+        values.add(position.getOffset());
+        names.add(IMarker.CHAR_END);
+        values.add(position.getOffset() + position.getLength());
+      }
+      IMarker newMarker = resource.createMarker(markerType);
+      newMarker.setAttributes(names.toArray(new String[0]), values.toArray());
+      return newMarker;
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to create flow marker", e);
+      return null;
+    }
+  }
+
+  private static boolean codeMatches(IDocument document, TextRange textRange, String codeSnippet) throws BadLocationException {
+    if (!textRange.isValid() || textRange.isLineOnly()) {
+      return false;
+    }
+    int startOffset = document.getLineOffset(textRange.getStartLine() - 1) + textRange.getStartLineOffset();
+    int endOffset = document.getLineOffset(textRange.getEndLine() - 1) + textRange.getEndLineOffset();
+    return codeSnippet.equals(document.get(startOffset, endOffset - startOffset));
+  }
 }
@@ -19,36 +19,165 @@
  */
 package org.sonarlint.eclipse.core.internal.markers;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Stream;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 
+import static java.util.stream.Collectors.toList;
+
 public class MarkerFlows {
 
   private final List<MarkerFlow> flows;
+  @Nullable
+  private final String flowMarkerType;
+  @Nullable
+  private MarkerFlowsStore store;
+  // Guarded by this
+  private boolean markersCreated;
+  // Guarded by this
+  private boolean creatingMarkers;
+  // Guarded by this
+  private boolean discarded;
 
   public MarkerFlows(List<MarkerFlow> flows) {
+    this(flows, null);
+  }
+
+  /**
+   * @param flowMarkerType type of the markers of the locations, that are only created by {@link #createMarkersIfNeeded()}
+   */
+  public MarkerFlows(List<MarkerFlow> flows, @Nullable String flowMarkerType) {
     this.flows = flows;
+    this.flowMarkerType = flowMarkerType;
   }
 
   public List<MarkerFlow> getFlows() {
     return flows;
   }
 
-  public void deleteAllMarkers() {
-    flows.stream()
-      .flatMap(f -> f.getLocations().stream())
-      .map(MarkerFlowLocation::getMarker)
-      .filter(Objects::nonNull)
-      .forEach(m -> {
-        try {
-          m.delete();
-        } catch (CoreException e) {
-          SonarLintLogger.get().error(e.getMessage(), e);
+  @Nullable
+  String getFlowMarkerType() {
+    return flowMarkerType;
+  }
+
+  void setStore(MarkerFlowsStore store) {
+    this.store = store;
+  }
+
+  /**
+   * Create the markers of all locations at once, positioned on the current content of the files. Nothing is done if markers already exist
+   * or are being created by another thread, or if these flows have been replaced by the ones of a more recent analysis.
+   * <p>
+   * Markers are created without holding the monitor of these flows: creating markers needs the workspace lock, that an analysis may hold
+   * while replacing these flows.
+   *
+   * @return true if markers were created by this call
+   */
+  public boolean createMarkersIfNeeded() {
+    String markerType = flowMarkerType;
+    if (markerType == null) {
+      return false;
+    }
+    boolean alreadyCreated;
+    List<MarkerFlowLocation> locations = new ArrayList<>();
+    synchronized (this) {
+      if (discarded || creatingMarkers) {
+        return false;
+      }
+      alreadyCreated = markersCreated;
+      if (!alreadyCreated) {
+        creatingMarkers = true;
+        allLocationsAsStream().forEach(locations::add);
+      }
+    }
+    MarkerFlowsStore currentStore = store;
+    if (alreadyCreated) {
+      if (currentStore != null) {
+        currentStore.markersUsed(this);
+      }
+      return false;
+    }
+
+    Map<MarkerFlowLocation, IMarker> createdMarkers = new HashMap<>();
+    List<MarkerFlowLocation> movedLocations = new ArrayList<>();
+    try {
+      Map<IResource, IDocument> documents = new HashMap<>();
+      // Batch the creation, so that listeners are notified only once
+      ResourcesPlugin.getWorkspace().run(m -> locations.forEach(l -> {
+        if (l.isCodeMoved(documents)) {
+          movedLocations.add(l);
+        } else {
+          IMarker marker = l.createMarker(markerType, documents);
+          if (marker != null) {
+            createdMarkers.put(l, marker);
+          }
         }
-      });
+      }), null, IWorkspace.AVOID_UPDATE, null);
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+    }
+
+    boolean published;
+    synchronized (this) {
+      creatingMarkers = false;
+      published = !discarded;
+      if (published) {
+        markersCreated = true;
+        createdMarkers.forEach(MarkerFlowLocation::setMarker);
+        movedLocations.forEach(l -> l.setDeleted(true));
+      }
+    }
+    if (!published) {
+      // Replaced while the markers were created
+      deleteQuietly(createdMarkers.values());
+      return false;
+    }
+    if (currentStore != null) {
+      currentStore.markersCreated(this, createdMarkers.size());
+    }
+    return true;
+  }
+
+  /**
+   * @param discard true when these flows are not associated to an issue marker anymore, so their markers should never be created again
+   */
+  void deleteMarkers(boolean discard) {
+    List<IMarker> markers;
+    synchronized (this) {
+      discarded |= discard;
+      if (!markersCreated) {
+        return;
+      }
+      markersCreated = false;
+      markers = allLocationsAsStream()
+        .map(MarkerFlowLocation::resetMarker)
+        .filter(Objects::nonNull)
+        .collect(toList());
+    }
+    deleteQuietly(markers);
+  }
+
+  private static void deleteQuietly(Collection<IMarker> markers) {
+    if (!markers.isEmpty()) {
+      try {
+        ResourcesPlugin.getWorkspace().deleteMarkers(markers.toArray(new IMarker[0]));
+      } catch (CoreException e) {
+        // Markers may have been deleted with their resource
+        SonarLintLogger.get().debug(e.getMessage(), e);
+      }
+    }
   }
 
   /**
@@ -0,0 +1,179 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.markers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Flows and secondary locations of issues, keyed by the issue marker. They are kept out of the marker attributes so that updating
+ * an issue marker doesn't have to compare or replace them. Marker ids are only unique per resource, so the marker handle (resource and id)
+ * is the key.
+ * Flow markers are only created when the locations of an issue are needed (i.e. when the issue is selected), and only the issues that were
+ * selected most recently keep them.
+ */
+public class MarkerFlowsStore {
+
+  private static final int DEFAULT_MAX_ISSUES_WITH_FLOW_MARKERS = 50;
+  private static final int MIN_PURGE_THRESHOLD = 1000;
+
+  private final int maxIssuesWithFlowMarkers;
+  // Guarded by this
+  private final Map<IMarker, MarkerFlows> flowsByMarker = new HashMap<>();
+  // Guarded by this, in access order
+  private final LinkedHashMap<MarkerFlows, Boolean> flowsWithMarkers = new LinkedHashMap<>(16, 0.75f, true);
+  private int purgeThreshold = MIN_PURGE_THRESHOLD;
+  private final AtomicLong createdFlowMarkersCount = new AtomicLong();
+
+  public MarkerFlowsStore() {
+    this(DEFAULT_MAX_ISSUES_WITH_FLOW_MARKERS);
+  }
+
+  public MarkerFlowsStore(int maxIssuesWithFlowMarkers) {
+    this.maxIssuesWithFlowMarkers = maxIssuesWithFlowMarkers;
+  }
+
+  public MarkerFlows get(IMarker marker) {
+    MarkerFlows flows;
+    synchronized (this) {
+      flows = flowsByMarker.get(marker);
+    }
+    return flows != null ? flows : new MarkerFlows(Collections.emptyList());
+  }
+
+  /**
+   * Replace the flows of an issue marker. Markers of the previous flows are deleted.
+   */
+  public void put(IMarker marker, MarkerFlows flows) {
+    List<MarkerFlows> discarded = new ArrayList<>();
+    synchronized (this) {
+      MarkerFlows previous = flows.isEmpty() ? flowsByMarker.remove(marker) : flowsByMarker.put(marker, flows);
+      if (previous != null && previous != flows) {
+        discarded.add(previous);
+      }
+      if (flowsByMarker.size() > purgeThreshold) {
+        purgeDeletedMarkers(discarded);
+      }
+      discarded.forEach(flowsWithMarkers::remove);
+    }
+    flows.setStore(this);
+    discarded.forEach(f -> f.deleteMarkers(true));
+  }
+
+  public void remove(IMarker marker) {
+    MarkerFlows previous;
+    synchronized (this) {
+      previous = flowsByMarker.remove(marker);
+      if (previous != null) {
+        flowsWithMarkers.remove(previous);
+      }
+    }
+    if (previous != null) {
+      previous.deleteMarkers(true);
+    }
+  }
+
+  /**
+   * Remove the flows of the issue markers of a resource and its members, when their flow markers have the given type. To be called when
+   * all the markers of an issue type are deleted at once.
+   */
+  public void removeAll(IResource resource, String flowMarkerType) {
+    List<MarkerFlows> discarded = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Map.Entry<IMarker, MarkerFlows>> it = flowsByMarker.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<IMarker, MarkerFlows> entry = it.next();
+        if (flowMarkerType.equals(entry.getValue().getFlowMarkerType()) && resource.getFullPath().isPrefixOf(entry.getKey().getResource().getFullPath())) {
+          discarded.add(entry.getValue());
+          it.remove();
+        }
+      }
+      discarded.forEach(flowsWithMarkers::remove);
+    }
+    discarded.forEach(f -> f.deleteMarkers(true));
+  }
+
+  public void clear() {
+    List<MarkerFlows> discarded;
+    synchronized (this) {
+      discarded = new ArrayList<>(flowsWithMarkers.keySet());
+      flowsByMarker.clear();
+      flowsWithMarkers.clear();
+    }
+    discarded.forEach(f -> f.deleteMarkers(true));
+  }
+
+  public synchronized int size() {
+    return flowsByMarker.size();
+  }
+
+  /**
+   * Total number of flow markers created since startup, for diagnostic purpose
+   */
+  public long getCreatedFlowMarkersCount() {
+    return createdFlowMarkersCount.get();
+  }
+
+  /**
+   * Called when the markers of some flows have been created, to delete the markers of the least recently used ones
+   */
+  void markersCreated(MarkerFlows flows, int markerCount) {
+    createdFlowMarkersCount.addAndGet(markerCount);
+    List<MarkerFlows> evicted = new ArrayList<>();
+    synchronized (this) {
+      flowsWithMarkers.put(flows, Boolean.TRUE);
+      Iterator<MarkerFlows> it = flowsWithMarkers.keySet().iterator();
+      while (flowsWithMarkers.size() > maxIssuesWithFlowMarkers && it.hasNext()) {
+        evicted.add(it.next());
+        it.remove();
+      }
+    }
+    // Evicted flows are still valid, and will create their markers again if needed
+    evicted.forEach(f -> f.deleteMarkers(false));
+  }
+
+  /**
+   * Called when the markers of some flows are needed again
+   */
+  synchronized void markersUsed(MarkerFlows flows) {
+    flowsWithMarkers.get(flows);
+  }
+
+  private void purgeDeletedMarkers(List<MarkerFlows> discarded) {
+    Iterator<Map.Entry<IMarker, MarkerFlows>> it = flowsByMarker.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<IMarker, MarkerFlows> entry = it.next();
+      if (!entry.getKey().exists()) {
+        discarded.add(entry.getValue());
+        it.remove();
+      }
+    }
+    purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, 2 * flowsByMarker.size());
+  }
+
+}
@@ -19,9 +19,7 @@
  */
 package org.sonarlint.eclipse.core.internal.markers;
 
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiFunction;
 import org.eclipse.core.resources.IMarker;
@@ -50,7 +48,6 @@ public final class MarkerUtils {
   public static final String SONAR_MARKER_CREATION_DATE_ATTR = "creationdate";
 
   public static final String SONAR_MARKER_SERVER_ISSUE_KEY_ATTR = "serverissuekey";
-  public static final String SONAR_MARKER_EXTRA_LOCATIONS_ATTR = "extralocations";
 
   public static final Set<String> SONARLINT_PRIMARY_MARKER_IDS = new HashSet<>(
     asList(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, SonarLintCorePlugin.MARKER_REPORT_ID, SonarLintCorePlugin.MARKER_TAINT_ID));
@@ -127,11 +124,7 @@ public final class MarkerUtils {
   }
 
   public static MarkerFlows getIssueFlows(IMarker marker) {
-    try {
-      return Optional.ofNullable((MarkerFlows) marker.getAttribute(SONAR_MARKER_EXTRA_LOCATIONS_ATTR)).orElseGet(() -> new MarkerFlows(Collections.emptyList()));
-    } catch (CoreException e) {
-      return new MarkerFlows(Collections.emptyList());
-    }
+    return SonarLintCorePlugin.getMarkerFlowsStore().get(marker);
   }
 
 }
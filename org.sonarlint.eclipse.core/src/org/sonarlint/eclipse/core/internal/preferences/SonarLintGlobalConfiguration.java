@@ -78,6 +78,14 @@ public class SonarLintGlobalConfiguration {
   public static final String PREF_TEST_FILE_REGEXPS_DEFAULT = ""; //$NON-NLS-1$
   public static final String PREF_SKIP_CONFIRM_ANALYZE_MULTIPLE_FILES = "skipConfirmAnalyzeMultipleFiles"; //$NON-NLS-1$
   public static final String PREF_NODEJS_PATH = "nodeJsPath"; //$NON-NLS-1$
+  public static final String PREF_ANALYSIS_THREADS = "analysisThreads"; //$NON-NLS-1$
+  public static final int PREF_ANALYSIS_THREADS_DEFAULT = Runtime.getRuntime().availableProcessors();
+  public static final String PREF_ANALYSIS_CACHE_SIZE_MB = "analysisCacheSizeMb"; //$NON-NLS-1$
+  public static final int PREF_ANALYSIS_CACHE_SIZE_MB_DEFAULT = 10;
+  public static final String PREF_ISSUE_CACHE_SIZE_MB = "issueCacheSizeMb"; //$NON-NLS-1$
+  public static final int PREF_ISSUE_CACHE_SIZE_MB_DEFAULT = 32;
+  public static final String PREF_CFAMILY_CACHE_SIZE_MB = "cfamilyCacheSizeMb"; //$NON-NLS-1$
+  public static final int PREF_CFAMILY_CACHE_SIZE_MB_DEFAULT = 512;
   private static final String PREF_TAINT_VULNERABILITY_DISPLAYED = "taintVulnerabilityDisplayed";
 
   private SonarLintGlobalConfiguration() {
@@ -88,6 +96,34 @@ public class SonarLintGlobalConfiguration {
     return Platform.getPreferencesService().getString(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_TEST_FILE_REGEXPS, PREF_TEST_FILE_REGEXPS_DEFAULT, null);
   }
 
+  /**
+   * Maximum number of projects analyzed in parallel by manual analyses of multiple projects
+   */
+  public static int getAnalysisThreads() {
+    return Math.max(1, Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_ANALYSIS_THREADS, PREF_ANALYSIS_THREADS_DEFAULT, null));
+  }
+
+  /**
+   * Disk budget of the analysis result cache of each project, 0 to disable the cache
+   */
+  public static int getAnalysisCacheSizeMb() {
+    return Math.max(0, Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_ANALYSIS_CACHE_SIZE_MB, PREF_ANALYSIS_CACHE_SIZE_MB_DEFAULT, null));
+  }
+
+  /**
+   * Disk budget of the CFamily analyzer cache of each C/C++ project, 0 to disable the cache
+   */
+  public static int getCFamilyCacheSizeMb() {
+    return Math.max(0, Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_CFAMILY_CACHE_SIZE_MB, PREF_CFAMILY_CACHE_SIZE_MB_DEFAULT, null));
+  }
+
+  /**
+   * Heap budget of the issues kept in memory for recently analyzed files, shared by all projects
+   */
+  public static int getIssueCacheSizeMb() {
+    return Math.max(1, Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_ISSUE_CACHE_SIZE_MB, PREF_ISSUE_CACHE_SIZE_MB_DEFAULT, null));
+  }
+
   public static int getMarkerSeverity() {
     return Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_MARKER_SEVERITY, PREF_MARKER_SEVERITY_DEFAULT, null);
   }
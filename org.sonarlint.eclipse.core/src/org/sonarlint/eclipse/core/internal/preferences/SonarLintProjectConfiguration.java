@@ -20,6 +20,7 @@
 package org.sonarlint.eclipse.core.internal.preferences;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -28,13 +29,59 @@ import org.sonarlint.eclipse.core.internal.resources.ExclusionItem;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProperty;
 import org.sonarsource.sonarlint.core.client.api.connected.ProjectBinding;
 
+/**
+ * Configuration of a project. Instances returned by {@link SonarLintProjectConfigurationManager#loadSnapshot} are shared read only
+ * snapshots: use {@link #copy()} to get a configuration that can be modified and saved.
+ */
 public class SonarLintProjectConfiguration {
 
-  private final List<SonarLintProperty> extraProperties = new ArrayList<>();
-  private final List<ExclusionItem> fileExclusions = new ArrayList<>();
+  private final List<SonarLintProperty> extraProperties;
+  private final List<ExclusionItem> fileExclusions;
   @Nullable
   private EclipseProjectBinding projectBinding;
   private boolean autoEnabled = true;
+  private final boolean readOnly;
+  private final long version;
+
+  public SonarLintProjectConfiguration() {
+    this.extraProperties = new ArrayList<>();
+    this.fileExclusions = new ArrayList<>();
+    this.readOnly = false;
+    this.version = 0;
+  }
+
+  private SonarLintProjectConfiguration(SonarLintProjectConfiguration source, long version) {
+    this.extraProperties = Collections.unmodifiableList(new ArrayList<>(source.extraProperties));
+    this.fileExclusions = Collections.unmodifiableList(new ArrayList<>(source.fileExclusions));
+    this.projectBinding = source.projectBinding;
+    this.autoEnabled = source.autoEnabled;
+    this.readOnly = true;
+    this.version = version;
+  }
+
+  SonarLintProjectConfiguration snapshot(long version) {
+    return new SonarLintProjectConfiguration(this, version);
+  }
+
+  /**
+   * Modifiable copy of this configuration
+   */
+  public SonarLintProjectConfiguration copy() {
+    SonarLintProjectConfiguration copy = new SonarLintProjectConfiguration();
+    copy.extraProperties.addAll(extraProperties);
+    copy.fileExclusions.addAll(fileExclusions);
+    copy.projectBinding = projectBinding;
+    copy.autoEnabled = autoEnabled;
+    return copy;
+  }
+
+  /**
+   * Version of a snapshot, different for each snapshot and increasing each time the configuration of a project changes. 0 for modifiable
+   * configurations.
+   */
+  public long getVersion() {
+    return version;
+  }
 
   public List<ExclusionItem> getFileExclusions() {
     return fileExclusions;
@@ -53,13 +100,21 @@ public class SonarLintProjectConfiguration {
   }
 
   public void setAutoEnabled(boolean autoEnabled) {
+    checkModifiable();
     this.autoEnabled = autoEnabled;
   }
 
   public void setProjectBinding(@Nullable EclipseProjectBinding projectBinding) {
+    checkModifiable();
     this.projectBinding = projectBinding;
   }
 
+  private void checkModifiable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("Configuration snapshots are read only, modify a copy");
+    }
+  }
+
   public Optional<EclipseProjectBinding> getProjectBinding() {
     return Optional.ofNullable(projectBinding);
   }
@@ -20,7 +20,13 @@
 package org.sonarlint.eclipse.core.internal.preferences;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.osgi.service.prefs.BackingStoreException;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -47,6 +53,108 @@ public class SonarLintProjectConfigurationManager {
   private static final String P_MODULE_KEY = "moduleKey";
   private static final String P_AUTO_ENABLED_KEY = "autoEnabled";
 
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Map<String, CachedConfiguration> snapshots = new ConcurrentHashMap<>();
+  private final AtomicLong versions = new AtomicLong();
+  // Guarded by this
+  private long invalidationCount;
+  private final List<Consumer<String>> configurationChangeListeners = new CopyOnWriteArrayList<>();
+
+  private static class CachedConfiguration {
+    private final IEclipsePreferences node;
+    private final SonarLintProjectConfiguration snapshot;
+    private final IPreferenceChangeListener listener;
+
+    private CachedConfiguration(IEclipsePreferences node, SonarLintProjectConfiguration snapshot, IPreferenceChangeListener listener) {
+      this.node = node;
+      this.snapshot = snapshot;
+      this.listener = listener;
+    }
+
+    private void stopListening() {
+      try {
+        node.removePreferenceChangeListener(listener);
+      } catch (IllegalStateException e) {
+        // Node removed with the project
+      }
+    }
+  }
+
+  /**
+   * Read only configuration of the project, cached until its preferences change.
+   * Use {@link SonarLintProjectConfiguration#copy()} to modify it.
+   */
+  public SonarLintProjectConfiguration loadSnapshot(IScopeContext projectScope, String projectName) {
+    IEclipsePreferences projectNode = projectScope.getNode(SonarLintCorePlugin.PLUGIN_ID);
+    CachedConfiguration cached = snapshots.get(projectName);
+    // Node differs when the project was deleted and created again
+    if (cached != null && cached.node == projectNode) {
+      return cached.snapshot;
+    }
+
+    long invalidationCountBeforeLoad;
+    synchronized (this) {
+      invalidationCountBeforeLoad = invalidationCount;
+    }
+    SonarLintProjectConfiguration snapshot = load(projectScope, projectName).snapshot(versions.incrementAndGet());
+    if (projectNode != null) {
+      boolean cached;
+      synchronized (this) {
+        // Don't cache a configuration that changed while being loaded
+        cached = invalidationCount == invalidationCountBeforeLoad;
+        if (cached) {
+          IPreferenceChangeListener listener = event -> invalidate(projectName);
+          projectNode.addPreferenceChangeListener(listener);
+          CachedConfiguration previous = snapshots.put(projectName, new CachedConfiguration(projectNode, snapshot, listener));
+          if (previous != null) {
+            previous.stopListening();
+          }
+        }
+      }
+      if (!cached) {
+        // Nobody listens to this project settings, so the returned snapshot might already be outdated
+        notifyConfigurationChanged(projectName);
+      }
+    }
+    return snapshot;
+  }
+
+  public void invalidate(String projectName) {
+    synchronized (this) {
+      invalidationCount++;
+      CachedConfiguration removed = snapshots.remove(projectName);
+      if (removed != null) {
+        removed.stopListening();
+      }
+    }
+    // Outside of the lock, listeners are free to load the configuration again
+    notifyConfigurationChanged(projectName);
+  }
+
+  /**
+   * The listener receives the name of projects for which a previously loaded snapshot might be outdated.
+   */
+  public void addConfigurationChangeListener(Consumer<String> listener) {
+    configurationChangeListeners.add(listener);
+  }
+
+  public void removeConfigurationChangeListener(Consumer<String> listener) {
+    configurationChangeListeners.remove(listener);
+  }
+
+  private void notifyConfigurationChanged(String projectName) {
+    for (Consumer<String> listener : configurationChangeListeners) {
+      try {
+        listener.accept(projectName);
+      } catch (Exception e) {
+        SonarLintLogger.get().error("Unable to notify configuration change of project '" + projectName + "'", e);
+      }
+    }
+  }
+
+  /**
+   * Read the configuration of the project from its preferences. Prefer {@link #loadSnapshot(IScopeContext, String)} to only read it.
+   */
   public SonarLintProjectConfiguration load(IScopeContext projectScope, String projectName) {
     IEclipsePreferences projectNode = projectScope.getNode(SonarLintCorePlugin.PLUGIN_ID);
     SonarLintProjectConfiguration projectConfig = new SonarLintProjectConfiguration();
@@ -66,7 +174,9 @@ public class SonarLintProjectConfigurationManager {
     if (isBlank(projectKey) && isNotBlank(moduleKey)) {
       SonarLintLogger.get().info("Binding configuration of project '" + projectName + "' is outdated. Please rebind this project.");
     }
-    projectNode.remove(P_MODULE_KEY);
+    if (projectNode.get(P_MODULE_KEY, null) != null) {
+      projectNode.remove(P_MODULE_KEY);
+    }
     String serverId = projectNode.get(P_SERVER_ID, "");
     if (isNotBlank(serverId) && isNotBlank(projectKey)) {
       projectConfig.setProjectBinding(new EclipseProjectBinding(serverId, projectKey, projectNode.get(P_SQ_PREFIX_KEY, ""), projectNode.get(P_IDE_PREFIX_KEY, "")));
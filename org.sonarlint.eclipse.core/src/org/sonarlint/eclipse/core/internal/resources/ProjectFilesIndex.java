@@ -0,0 +1,334 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.resources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.adapter.Adapters;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Files of each project that can be adapted to {@link ISonarLintFile}. The files of a project are collected by walking its resource tree on
+ * first access, then only files reported by resource deltas are adapted again, on next access.
+ */
+public class ProjectFilesIndex implements IResourceChangeListener {
+
+  private static final int FILE_CHANGE_FLAGS = IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.TYPE | IResourceDelta.DERIVED_CHANGED
+    | IResourceDelta.LOCAL_CHANGED;
+  // Changes of those files may change the files excluded by adapter participants (JDT classpath, Maven modules)
+  private static final Set<String> PROJECT_SETTINGS = new HashSet<>(Arrays.asList(".project", ".classpath", ".settings", "pom.xml"));
+
+  private final IWorkspace workspace;
+  private final AtomicLong generations = new AtomicLong();
+  // Guarded by this
+  private final Map<String, ProjectFiles> projects = new HashMap<>();
+  private long fullBuildCount;
+  private long adaptedChangeCount;
+
+  private static class ProjectFiles {
+    private final IProject project;
+    // Only one thread at a time updates the index of a project, so that adapted files are not stored in the wrong order
+    private final Object updateLock = new Object();
+    @Nullable
+    private Map<String, ISonarLintFile> filesByPath;
+    private final Set<IFile> changedFiles = new LinkedHashSet<>();
+    private boolean building;
+    private long generation;
+    // Incremented each time the index of this project has to be built again
+    private long epoch;
+
+    private ProjectFiles(IProject project, long generation) {
+      this.project = project;
+      this.generation = generation;
+    }
+
+    private void invalidate(long newGeneration) {
+      filesByPath = null;
+      changedFiles.clear();
+      generation = newGeneration;
+      epoch++;
+    }
+  }
+
+  public ProjectFilesIndex(IWorkspace workspace) {
+    this.workspace = workspace;
+  }
+
+  public void start() {
+    workspace.addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+  }
+
+  public void stop() {
+    workspace.removeResourceChangeListener(this);
+    synchronized (this) {
+      projects.clear();
+    }
+  }
+
+  public Collection<ISonarLintFile> files(IProject project) {
+    return new ArrayList<>(upToDateFiles(project).values());
+  }
+
+  public Optional<ISonarLintFile> find(IProject project, String relativeFilePath) {
+    return Optional.ofNullable(upToDateFiles(project).get(relativeFilePath));
+  }
+
+  /**
+   * @return a number that changes each time files are added to or removed from the index of the project
+   */
+  public synchronized long getGeneration(IProject project) {
+    return entry(project).generation;
+  }
+
+  /**
+   * @return unmodifiable map of files by project relative path
+   */
+  private Map<String, ISonarLintFile> upToDateFiles(IProject project) {
+    ProjectFiles entry;
+    synchronized (this) {
+      entry = entry(project);
+    }
+    synchronized (entry.updateLock) {
+      long epoch;
+      Map<String, ISonarLintFile> files;
+      List<IFile> changedFiles;
+      synchronized (this) {
+        epoch = entry.epoch;
+        files = entry.filesByPath;
+        if (files != null && entry.changedFiles.isEmpty()) {
+          return files;
+        }
+        // Changes reported from now on will be applied on next access
+        changedFiles = new ArrayList<>(entry.changedFiles);
+        entry.changedFiles.clear();
+        entry.building = files == null;
+      }
+      if (files == null) {
+        return build(entry, epoch);
+      }
+
+      // Adapt files outside of the lock, since it may take time (i.e. JDT) and would block workspace operations reporting deltas
+      Map<String, Optional<ISonarLintFile>> adapted = new LinkedHashMap<>();
+      for (IFile file : changedFiles) {
+        adapted.put(file.getProjectRelativePath().toString(), Optional.ofNullable(adapt(file)));
+      }
+      synchronized (this) {
+        adaptedChangeCount += adapted.size();
+        if (entry.epoch != epoch) {
+          // Invalidated meanwhile, the next access will walk the project again
+          return files;
+        }
+        Map<String, ISonarLintFile> updated = new LinkedHashMap<>(files);
+        adapted.forEach((path, file) -> {
+          if (file.isPresent()) {
+            updated.put(path, file.get());
+          } else {
+            updated.remove(path);
+          }
+        });
+        Map<String, ISonarLintFile> result = Collections.unmodifiableMap(updated);
+        entry.filesByPath = result;
+        if (!updated.keySet().equals(files.keySet())) {
+          entry.generation = generations.incrementAndGet();
+        }
+        return result;
+      }
+    }
+  }
+
+  private Map<String, ISonarLintFile> build(ProjectFiles entry, long epoch) {
+    Map<String, ISonarLintFile> walked = Collections.unmodifiableMap(walk(entry.project));
+    synchronized (this) {
+      entry.building = false;
+      if (entry.epoch == epoch) {
+        entry.filesByPath = walked;
+        entry.generation = generations.incrementAndGet();
+        fullBuildCount++;
+      }
+    }
+    return walked;
+  }
+
+  private ProjectFiles entry(IProject project) {
+    ProjectFiles entry = projects.get(project.getName());
+    if (entry == null) {
+      entry = new ProjectFiles(project, generations.incrementAndGet());
+      projects.put(project.getName(), entry);
+    }
+    return entry;
+  }
+
+  private static Map<String, ISonarLintFile> walk(IProject project) {
+    Map<String, ISonarLintFile> result = new LinkedHashMap<>();
+    try {
+      project.accept(resource -> {
+        if (!SonarLintUtils.isSonarLintFileCandidate(resource)) {
+          return false;
+        }
+        ISonarLintFile sonarLintFile = Adapters.adapt(resource, ISonarLintFile.class);
+        if (sonarLintFile != null) {
+          result.put(resource.getProjectRelativePath().toString(), sonarLintFile);
+        }
+        return true;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error("Error collecting files in project " + project.getName(), e);
+    }
+    return result;
+  }
+
+  @Nullable
+  private static ISonarLintFile adapt(IFile file) {
+    // Same checks than the walk, the file may be in an excluded folder
+    return SonarLintUtils.isSonarLintFileCandidate(file) ? Adapters.adapt(file, ISonarLintFile.class) : null;
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta rootDelta = event.getDelta();
+    if (event.getType() != IResourceChangeEvent.POST_CHANGE || rootDelta == null) {
+      return;
+    }
+    boolean projectsChanged = false;
+    List<String> removedProjects = new ArrayList<>();
+    Map<IProject, List<IFile>> changedFilesPerProject = new LinkedHashMap<>();
+    List<IProject> invalidatedProjects = new ArrayList<>();
+    for (IResourceDelta projectDelta : rootDelta.getAffectedChildren()) {
+      IProject project = (IProject) projectDelta.getResource();
+      if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+        // Files of other projects might be excluded or not anymore, i.e. nested Maven modules
+        projectsChanged = true;
+        if (projectDelta.getKind() == IResourceDelta.REMOVED) {
+          removedProjects.add(project.getName());
+        }
+      } else if (isIndexed(project)) {
+        List<IFile> changedFiles = new ArrayList<>();
+        if (collectChangedFiles(projectDelta, changedFiles)) {
+          changedFilesPerProject.put(project, changedFiles);
+        } else {
+          invalidatedProjects.add(project);
+        }
+      }
+    }
+    if (projectsChanged) {
+      projectsChanged(removedProjects);
+    } else {
+      filesChanged(changedFilesPerProject, invalidatedProjects);
+    }
+  }
+
+  private synchronized boolean isIndexed(IProject project) {
+    return projects.containsKey(project.getName());
+  }
+
+  /**
+   * @return false when the whole project has to be walked again
+   */
+  private static boolean collectChangedFiles(IResourceDelta projectDelta, List<IFile> changedFiles) {
+    boolean[] incremental = {true};
+    try {
+      projectDelta.accept(delta -> {
+        IResource resource = delta.getResource();
+        if (resource.getType() == IResource.PROJECT) {
+          return true;
+        }
+        if (resource.getParent().getType() == IResource.PROJECT && PROJECT_SETTINGS.contains(resource.getName())) {
+          incremental[0] = false;
+          return false;
+        }
+        if (resource.getType() == IResource.FILE) {
+          if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & FILE_CHANGE_FLAGS) != 0) {
+            changedFiles.add((IFile) resource);
+          }
+          return false;
+        }
+        if ((delta.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0) {
+          // All files of the folder are concerned
+          incremental[0] = false;
+          return false;
+        }
+        return true;
+      });
+    } catch (CoreException e) {
+      SonarLintLogger.get().error("Unable to process changes of project " + projectDelta.getResource().getName(), e);
+      return false;
+    }
+    return incremental[0];
+  }
+
+  private synchronized void projectsChanged(List<String> removedProjects) {
+    removedProjects.forEach(projects::remove);
+    invalidateAll();
+  }
+
+  /**
+   * All projects will be walked again on next access
+   */
+  public synchronized void invalidateAll() {
+    projects.values().forEach(entry -> entry.invalidate(generations.incrementAndGet()));
+  }
+
+  private synchronized void filesChanged(Map<IProject, List<IFile>> changedFilesPerProject, List<IProject> invalidatedProjects) {
+    invalidatedProjects.forEach(project -> {
+      ProjectFiles entry = projects.get(project.getName());
+      if (entry != null) {
+        entry.invalidate(generations.incrementAndGet());
+      }
+    });
+    changedFilesPerProject.forEach((project, files) -> {
+      ProjectFiles entry = projects.get(project.getName());
+      // No need to keep changes of a project that will be walked again
+      if (entry != null && (entry.filesByPath != null || entry.building)) {
+        entry.changedFiles.addAll(files);
+      }
+    });
+  }
+
+  public synchronized long getFullBuildCount() {
+    return fullBuildCount;
+  }
+
+  public synchronized long getAdaptedChangeCount() {
+    return adaptedChangeCount;
+  }
+
+}
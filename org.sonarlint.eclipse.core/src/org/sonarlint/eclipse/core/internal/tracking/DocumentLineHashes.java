@@ -0,0 +1,130 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Checksums of the lines and text ranges of a file, computed lazily and memoized by line number. Instances are meant to live for the
+ * duration of an analysis (or of a marker update), since they don't follow document changes.
+ */
+public class DocumentLineHashes {
+
+  private final ISonarLintFile file;
+  private final IDocument document;
+  private final int[] lineHashes;
+  // 0 = not computed, 1 = computed, -1 = not available
+  private final byte[] lineHashStates;
+  private final Map<Position, Integer> textRangeHashes = new HashMap<>();
+
+  public DocumentLineHashes(ISonarLintFile file) {
+    this(file, file.getDocument());
+  }
+
+  public DocumentLineHashes(ISonarLintFile file, IDocument document) {
+    this.file = file;
+    this.document = document;
+    int lines = document.getNumberOfLines();
+    this.lineHashes = new int[lines];
+    this.lineHashStates = new byte[lines];
+  }
+
+  public IDocument getDocument() {
+    return document;
+  }
+
+  /**
+   * @param line line number, starting with 1
+   */
+  @Nullable
+  public Integer getLineHash(int line) {
+    int index = line - 1;
+    if (index < 0 || index >= lineHashes.length) {
+      return null;
+    }
+    if (lineHashStates[index] == 0) {
+      String content = readLineContent(line);
+      if (content != null) {
+        lineHashes[index] = TextChecksum.checksum(content);
+        lineHashStates[index] = 1;
+      } else {
+        lineHashStates[index] = -1;
+      }
+    }
+    return lineHashStates[index] == 1 ? lineHashes[index] : null;
+  }
+
+  @Nullable
+  public Integer getTextRangeHash(TextRange textRange) {
+    if (textRange.isLineOnly()) {
+      return getLineHash(textRange.getStartLine());
+    }
+    Position position = MarkerUtils.getPosition(document, textRange);
+    if (position == null) {
+      return null;
+    }
+    Integer hash = textRangeHashes.get(position);
+    if (hash == null) {
+      try {
+        hash = TextChecksum.checksum(document.get(position.getOffset(), position.getLength()));
+      } catch (BadLocationException e) {
+        SonarLintLogger.get().error("failed to get text range content of resource " + file.getName(), e);
+        return null;
+      }
+      textRangeHashes.put(position, hash);
+    }
+    return hash;
+  }
+
+  @Nullable
+  private String readLineContent(int line) {
+    Position position = MarkerUtils.getPosition(document, line);
+    if (position != null) {
+      try {
+        return document.get(position.getOffset(), position.getLength());
+      } catch (BadLocationException e) {
+        SonarLintLogger.get().error("Failed to get line content of file " + file.getName(), e);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Number of lines whose checksum was computed
+   */
+  public int getComputedLineCount() {
+    int count = 0;
+    for (byte state : lineHashStates) {
+      if (state != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
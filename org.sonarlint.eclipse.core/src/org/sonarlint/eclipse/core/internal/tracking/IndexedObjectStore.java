@@ -23,12 +23,13 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
 import java.util.Optional;
 import org.sonarlint.eclipse.core.SonarLintLogger;
-import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMapper;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
@@ -39,7 +40,7 @@ import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
  * @param <K> type of the key to store by and used when reading back; must be hashable
  * @param <V> type of the value to store
  */
-class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
+class IndexedObjectStore<K, V> implements ValidatingObjectStore<K, V> {
 
   private final StoreIndex<K> index;
   private final PathMapper<K> pathMapper;
@@ -66,6 +67,7 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     }
   }
 
+  @Override
   public boolean contains(K key) {
     Path path = pathMapper.apply(key);
     return path.toFile().exists();
@@ -74,6 +76,7 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
   /**
    * Deletes all entries in the index that are no longer valid.
    */
+  @Override
   public void deleteInvalid() {
     int counter = 0;
     Collection<K> keys = index.keys();
@@ -91,6 +94,27 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     SonarLintLogger.get().debug(String.format("%d entries removed from the store", counter));
   }
 
+  /**
+   * Deletes the files of all entries, then the index.
+   */
+  @Override
+  public void clear() {
+    for (K k : index.keys()) {
+      Path path = pathMapper.apply(k);
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        SonarLintLogger.get().debug("Unable to delete " + path, e);
+      }
+    }
+    index.clear();
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+
   @Override
   public void delete(K key) throws IOException {
     Path path = pathMapper.apply(key);
@@ -106,8 +130,19 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     if (!parent.toFile().exists()) {
       Files.createDirectories(parent);
     }
-    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
-      writer.accept(out, value);
+    // Write to a temporary file first, so that a concurrent read never sees a partially written value
+    Path tmpPath = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpPath))) {
+        writer.accept(out, value);
+      }
+      try {
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmpPath);
     }
   }
 }
@@ -0,0 +1,215 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+/**
+ * Heap budget shared by the issue tracker caches of all projects. Live entries are weighted by the estimated retained size of their
+ * trackables, and the least recently used entries of any project are evicted once the total weight exceeds the budget.
+ * <p>
+ * The budget never calls back the caches while holding its lock: victims are returned to the cache that recorded an entry, which evicts
+ * them from their owner (queuing them to be persisted in the {@link IssueStore} of its project).
+ */
+public class IssueCacheMemoryBudget {
+
+  private static final long BYTES_PER_MB = 1024L * 1024L;
+  // Rough retained sizes, in bytes, of the objects referenced by a live entry
+  private static final long ENTRY_OVERHEAD = 96;
+  private static final long TRACKABLE_OVERHEAD = 256;
+  private static final long LOCATION_OVERHEAD = 96;
+
+  private final LongSupplier maxWeightSupplier;
+  private final LinkedHashMap<EntryKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long evictionCount;
+  private long evictedWeight;
+
+  public IssueCacheMemoryBudget(LongSupplier maxWeightInBytes) {
+    this.maxWeightSupplier = maxWeightInBytes;
+  }
+
+  public static IssueCacheMemoryBudget ofMegabytes(LongSupplier maxSizeInMb) {
+    return new IssueCacheMemoryBudget(() -> maxSizeInMb.getAsLong() * BYTES_PER_MB);
+  }
+
+  static class Victim {
+    final PersistentIssueTrackerCache owner;
+    final String file;
+    final Collection<Trackable> trackables;
+
+    private Victim(PersistentIssueTrackerCache owner, String file, Collection<Trackable> trackables) {
+      this.owner = owner;
+      this.file = file;
+      this.trackables = trackables;
+    }
+  }
+
+  private static class EntryKey {
+    private final PersistentIssueTrackerCache owner;
+    private final String file;
+
+    private EntryKey(PersistentIssueTrackerCache owner, String file) {
+      this.owner = owner;
+      this.file = file;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof EntryKey)) {
+        return false;
+      }
+      EntryKey other = (EntryKey) obj;
+      return owner == other.owner && file.equals(other.file);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(owner), file);
+    }
+  }
+
+  private static class Entry {
+    private final Collection<Trackable> trackables;
+    private final long weight;
+
+    private Entry(Collection<Trackable> trackables, long weight) {
+      this.trackables = trackables;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * Record a live entry as the most recently used one, and select the entries to evict to stay within the budget.
+   * The recorded entry itself is never selected, even if it exceeds the budget alone, since its owner needs it for the ongoing tracking.
+   */
+  synchronized List<Victim> record(PersistentIssueTrackerCache owner, String file, Collection<Trackable> trackables) {
+    EntryKey key = new EntryKey(owner, file);
+    Entry entry = new Entry(trackables, weigh(trackables));
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      weight -= previous.weight;
+    }
+    weight += entry.weight;
+
+    long maxWeight = maxWeightSupplier.getAsLong();
+    if (weight <= maxWeight) {
+      return Collections.emptyList();
+    }
+    List<Victim> victims = new ArrayList<>();
+    Iterator<Map.Entry<EntryKey, Entry>> it = entries.entrySet().iterator();
+    while (weight > maxWeight && it.hasNext()) {
+      Map.Entry<EntryKey, Entry> eldest = it.next();
+      if (eldest.getValue() == entry) {
+        break;
+      }
+      it.remove();
+      weight -= eldest.getValue().weight;
+      evictionCount++;
+      evictedWeight += eldest.getValue().weight;
+      victims.add(new Victim(eldest.getKey().owner, eldest.getKey().file, eldest.getValue().trackables));
+    }
+    if (!victims.isEmpty()) {
+      SonarLintLogger.get().debug(String.format("Evicting issues of %d file(s) from memory, %d bytes in use", victims.size(), weight));
+    }
+    return victims;
+  }
+
+  /**
+   * Mark an entry as the most recently used one
+   */
+  synchronized void touch(PersistentIssueTrackerCache owner, String file) {
+    entries.get(new EntryKey(owner, file));
+  }
+
+  synchronized void remove(PersistentIssueTrackerCache owner, String file) {
+    Entry removed = entries.remove(new EntryKey(owner, file));
+    if (removed != null) {
+      weight -= removed.weight;
+    }
+  }
+
+  synchronized void removeAll(PersistentIssueTrackerCache owner) {
+    Iterator<Map.Entry<EntryKey, Entry>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<EntryKey, Entry> entry = it.next();
+      if (entry.getKey().owner == owner) {
+        it.remove();
+        weight -= entry.getValue().weight;
+      }
+    }
+  }
+
+  /**
+   * Estimated retained size of the given trackables, in bytes
+   */
+  public static long weigh(Collection<Trackable> trackables) {
+    long result = ENTRY_OVERHEAD;
+    for (Trackable trackable : trackables) {
+      result += TRACKABLE_OVERHEAD + sizeOf(trackable.getMessage()) + sizeOf(trackable.getRuleKey()) + sizeOf(trackable.getRuleName());
+      for (Flow flow : trackable.getFlows()) {
+        for (IssueLocation location : flow.locations()) {
+          result += LOCATION_OVERHEAD + sizeOf(location.getMessage());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static long sizeOf(@Nullable String s) {
+    return s != null ? (2L * s.length()) : 0;
+  }
+
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeightSupplier.getAsLong();
+  }
+
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public synchronized long getEvictedWeight() {
+    return evictedWeight;
+  }
+
+}
@@ -25,6 +25,10 @@ import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.internal.proto.Sonarlint;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -36,13 +40,15 @@ import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
 public class IssueStore {
   private Path basePath;
-  private IndexedObjectStore<String, Sonarlint.Issues> store;
+  private ValidatingObjectStore<String, Sonarlint.Issues> store;
 
   public IssueStore(Path storeBasePath, ISonarLintProject project) {
+    this(storeBasePath, project, IssueStoreLayout.FILE_PER_SOURCE_FILE);
+  }
+
+  public IssueStore(Path storeBasePath, ISonarLintProject project, IssueStoreLayout layout) {
     this.basePath = storeBasePath;
     FileUtils.mkdirs(storeBasePath);
-    StoreIndex<String> index = new StringStoreIndex(storeBasePath);
-    PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
     StoreKeyValidator<String> validator = new PathStoreKeyValidator(project);
     Reader<Sonarlint.Issues> reader = is -> {
       try {
@@ -58,10 +64,28 @@ public class IssueStore {
         throw new IllegalStateException("Failed to save issues", e);
       }
     };
-    store = new IndexedObjectStore<>(index, mapper, reader, writer, validator);
+    if (layout == IssueStoreLayout.SEGMENTS) {
+      store = new SegmentedObjectStore<>(storeBasePath, reader, writer, validator, SegmentedObjectStore.DEFAULT_MAX_SEGMENT_SIZE, IssueStore::compactInBackground);
+    } else {
+      StoreIndex<String> index = new StringStoreIndex(storeBasePath);
+      PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
+      store = new IndexedObjectStore<>(index, mapper, reader, writer, validator);
+    }
     store.deleteInvalid();
   }
 
+  private static void compactInBackground(Runnable compaction) {
+    Job job = new Job("SonarLint issue store compaction") {
+      @Override
+      protected IStatus run(IProgressMonitor monitor) {
+        compaction.run();
+        return Status.OK_STATUS;
+      }
+    };
+    job.setSystem(true);
+    job.schedule();
+  }
+
   public boolean contains(String key) {
     return store.contains(key);
   }
@@ -84,10 +108,15 @@ public class IssueStore {
   }
 
   public void clear() {
+    store.clear();
     FileUtils.deleteRecursively(basePath);
     FileUtils.mkdirs(basePath);
   }
 
+  public void close() {
+    store.close();
+  }
+
   private static Collection<Trackable> transform(Sonarlint.Issues protoIssues) {
     return protoIssues.getIssueList().stream()
       .map(IssueStore::transform)
@@ -0,0 +1,64 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.nio.file.Path;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.StoragePathManager;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * How issues are stored on disk by the {@link IssueStore}
+ */
+public enum IssueStoreLayout {
+  /**
+   * One file per source file, in a folder hierarchy derived from the hash of the file path
+   */
+  FILE_PER_SOURCE_FILE {
+    @Override
+    public Path getStoreDir(ISonarLintProject project) {
+      return StoragePathManager.getIssuesDir(project);
+    }
+  },
+
+  /**
+   * Records of all source files appended to a few memory-mapped segment files
+   */
+  SEGMENTS {
+    @Override
+    public Path getStoreDir(ISonarLintProject project) {
+      return StoragePathManager.getIssueSegmentsDir(project);
+    }
+  };
+
+  public static final String PROPERTY_KEY = "sonarlint.internal.issueStoreLayout";
+
+  public abstract Path getStoreDir(ISonarLintProject project);
+
+  public static IssueStoreLayout fromSystemProperty() {
+    String layout = System.getProperty(PROPERTY_KEY, FILE_PER_SOURCE_FILE.name());
+    try {
+      return valueOf(layout);
+    } catch (IllegalArgumentException e) {
+      SonarLintLogger.get().error("Unknown issue store layout '" + layout + "', using " + FILE_PER_SOURCE_FILE.name());
+      return FILE_PER_SOURCE_FILE;
+    }
+  }
+}
@@ -26,4 +26,11 @@ import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 public interface IssueTrackerCacheFactory extends Function<ISonarLintProject, IssueTrackerCache> {
   @Override
   IssueTrackerCache apply(ISonarLintProject project);
+
+  /**
+   * Caches persisting issues in the working directory of each project, using the given storage layout, and sharing the given memory budget
+   */
+  static IssueTrackerCacheFactory persistent(IssueStoreLayout layout, IssueCacheMemoryBudget budget) {
+    return project -> new PersistentIssueTrackerCache(new IssueStore(layout.getStoreDir(project), project, layout), budget);
+  }
 }
@@ -32,9 +32,18 @@ public class IssueTrackerRegistry {
   // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
   private final Map<String, IssueTracker> registry = new HashMap<>();
   private final IssueTrackerCacheFactory cacheFactory;
+  private final IssueCacheMemoryBudget memoryBudget;
 
-  public IssueTrackerRegistry(IssueTrackerCacheFactory cacheFactory) {
+  /**
+   * @param memoryBudget budget shared by the caches created by the factory, exposed for eviction statistics
+   */
+  public IssueTrackerRegistry(IssueTrackerCacheFactory cacheFactory, IssueCacheMemoryBudget memoryBudget) {
     this.cacheFactory = cacheFactory;
+    this.memoryBudget = memoryBudget;
+  }
+
+  public IssueCacheMemoryBudget getMemoryBudget() {
+    return memoryBudget;
   }
 
   public synchronized IssueTracker getOrCreate(ISonarLintProject project) {
@@ -20,59 +20,134 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 
+/**
+ * Keeps issues of the most recently used files in memory, and persists the other ones in the {@link IssueStore}. The size of the
+ * in-memory part is bounded by a {@link IssueCacheMemoryBudget} shared with the caches of the other projects.
+ * <p>
+ * Writes are done in background: evicted entries are queued in a backlog drained by a flush job, and modified live entries are periodically
+ * persisted (checkpoint), so that shutdown only has to write what changed since the last checkpoint. When the backlog is full, the thread
+ * adding entries flushes it itself.
+ * <p>
+ * An entry stays in the backlog or dirty until it has been successfully saved, so that it is never read from the store before being written.
+ */
 public class PersistentIssueTrackerCache implements IssueTrackerCache {
 
-  static final int MAX_ENTRIES = 100;
+  public static final int MAX_BACKLOG = 500;
+  private static final int FLUSH_BATCH_SIZE = 50;
+  private static final long CHECKPOINT_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
 
   private final IssueStore store;
-  private final Map<String, Collection<Trackable>> cache;
+  private final IssueCacheMemoryBudget budget;
+  private final Map<String, Collection<Trackable>> cache = new HashMap<>();
+  /**
+   * Evicted entries not yet persisted
+   */
+  private final Map<String, Collection<Trackable>> backlog = new LinkedHashMap<>();
+  /**
+   * Live entries modified since they were last saved
+   */
+  private final Set<String> dirtyLiveEntries = new HashSet<>();
+  /**
+   * Serialize writes to the store, always acquired before the cache monitor
+   */
+  private final Object flushLock = new Object();
+  private final AtomicLong flushedCount = new AtomicLong();
+  @Nullable
+  private final FlushJob flushJob;
+  private boolean shutdown;
+
+  public PersistentIssueTrackerCache(IssueStore store, IssueCacheMemoryBudget budget) {
+    this(store, budget, true);
+  }
 
-  public PersistentIssueTrackerCache(IssueStore store) {
+  public PersistentIssueTrackerCache(IssueStore store, IssueCacheMemoryBudget budget, boolean backgroundFlush) {
     this.store = store;
-    this.cache = new LimitedSizeLinkedHashMap();
+    this.budget = budget;
+    this.flushJob = backgroundFlush ? new FlushJob() : null;
   }
 
   /**
-   * Keeps a maximum number of entries in the map. On insertion, if the limit is passed, the entry accessed the longest time ago
-   * is flushed into cache and removed from the map.
+   * Remove an entry selected by the memory budget, unless it was replaced in the meantime. It is queued to be persisted if needed.
    */
-  private class LimitedSizeLinkedHashMap extends LinkedHashMap<String, Collection<Trackable>> {
-    LimitedSizeLinkedHashMap() {
-      super(MAX_ENTRIES, 0.75f, true);
+  synchronized void evict(String file, Collection<Trackable> trackables) {
+    if (cache.get(file) != trackables) {
+      return;
+    }
+    cache.remove(file);
+    if (dirtyLiveEntries.remove(file) || !store.contains(file)) {
+      backlog.put(file, trackables);
+      scheduleFlush();
+    }
+  }
+
+  private class FlushJob extends Job {
+    FlushJob() {
+      super("SonarLint issue cache persistence");
+      setSystem(true);
     }
 
     @Override
-    protected boolean removeEldestEntry(Map.Entry<String, Collection<Trackable>> eldest) {
-      if (size() <= MAX_ENTRIES) {
-        return false;
+    protected IStatus run(IProgressMonitor monitor) {
+      synchronized (PersistentIssueTrackerCache.this) {
+        if (shutdown) {
+          return Status.OK_STATUS;
+        }
       }
-
-      String key = eldest.getKey();
-      try {
-        SonarLintLogger.get().debug("Persisting issues for " + key);
-        store.save(key, eldest.getValue());
-      } catch (IOException e) {
-        throw new IllegalStateException(String.format("Error persisting issues for %s", key), e);
+      flushBacklog();
+      checkpoint();
+      synchronized (PersistentIssueTrackerCache.this) {
+        // Entries modified while running
+        if (!shutdown && getDirtyCount() > 0) {
+          schedule(CHECKPOINT_INTERVAL_MS);
+        }
       }
-      return true;
+      return Status.OK_STATUS;
+    }
+  }
+
+  private void scheduleFlush() {
+    FlushJob job = flushJob;
+    if (job != null && !shutdown) {
+      job.schedule();
+    }
+  }
+
+  private void scheduleCheckpoint() {
+    FlushJob job = flushJob;
+    if (job != null && !shutdown && job.getState() == Job.NONE) {
+      job.schedule(CHECKPOINT_INTERVAL_MS);
     }
   }
 
   @Override
-  public boolean isFirstAnalysis(String file) {
-    return !cache.containsKey(file) && !store.contains(file);
+  public synchronized boolean isFirstAnalysis(String file) {
+    return !cache.containsKey(file) && !backlog.containsKey(file) && !store.contains(file);
   }
 
   @Override
   public synchronized Collection<Trackable> getLiveOrFail(String file) {
     Collection<Trackable> liveTrackables = cache.get(file);
     if (liveTrackables != null) {
+      budget.touch(this, file);
       return liveTrackables;
     }
 
@@ -86,8 +161,13 @@ public class PersistentIssueTrackerCache implements IssueTrackerCache {
   public synchronized Collection<Trackable> getCurrentTrackables(String file) {
     Collection<Trackable> liveTrackables = cache.get(file);
     if (liveTrackables != null) {
+      budget.touch(this, file);
       return liveTrackables;
     }
+    Collection<Trackable> pendingTrackables = backlog.get(file);
+    if (pendingTrackables != null) {
+      return Collections.unmodifiableCollection(pendingTrackables);
+    }
 
     try {
       Collection<Trackable> storedTrackables = store.read(file);
@@ -101,33 +181,159 @@ public class PersistentIssueTrackerCache implements IssueTrackerCache {
   }
 
   @Override
-  public synchronized void put(String file, Collection<Trackable> trackables) {
-    cache.put(file, trackables);
+  public void put(String file, Collection<Trackable> trackables) {
+    if (getBacklogSize() >= MAX_BACKLOG) {
+      // Back-pressure: don't let the backlog grow faster than it is persisted
+      flushBacklog();
+    }
+    List<IssueCacheMemoryBudget.Victim> victims;
+    synchronized (this) {
+      backlog.remove(file);
+      cache.put(file, trackables);
+      dirtyLiveEntries.add(file);
+      scheduleCheckpoint();
+      victims = budget.record(this, file, trackables);
+    }
+    // Evict outside of the monitor, victims may belong to the cache of another project
+    for (IssueCacheMemoryBudget.Victim victim : victims) {
+      victim.owner.evict(victim.file, victim.trackables);
+    }
   }
 
   @Override
-  public synchronized void clear() {
-    store.clear();
-    cache.clear();
+  public void clear() {
+    synchronized (flushLock) {
+      synchronized (this) {
+        store.clear();
+        budget.removeAll(this);
+        cache.clear();
+        backlog.clear();
+        dirtyLiveEntries.clear();
+      }
+    }
+  }
+
+  /**
+   * Persist entries evicted from memory, by batches.
+   */
+  public void flushBacklog() {
+    synchronized (flushLock) {
+      while (true) {
+        Map<String, Collection<Trackable>> batch = new LinkedHashMap<>();
+        synchronized (this) {
+          for (Map.Entry<String, Collection<Trackable>> entry : backlog.entrySet()) {
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+              break;
+            }
+            batch.put(entry.getKey(), entry.getValue());
+          }
+        }
+        if (batch.isEmpty()) {
+          return;
+        }
+        boolean failed = false;
+        for (Map.Entry<String, Collection<Trackable>> entry : batch.entrySet()) {
+          if (save(entry.getKey(), entry.getValue())) {
+            markSaved(entry.getKey(), entry.getValue());
+          } else {
+            failed = true;
+          }
+        }
+        if (failed) {
+          // Keep failed entries for the next flush instead of retrying them in a loop
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Persist live entries modified since the last checkpoint. It does not clear the cache.
+   */
+  public void checkpoint() {
+    synchronized (flushLock) {
+      List<Map.Entry<String, Collection<Trackable>>> modified = new ArrayList<>();
+      synchronized (this) {
+        for (String file : dirtyLiveEntries) {
+          Collection<Trackable> trackables = cache.get(file);
+          if (trackables != null) {
+            modified.add(new SimpleImmutableEntry<>(file, trackables));
+          }
+        }
+        // Entries stay dirty while being saved, in case they are evicted in the meantime
+        dirtyLiveEntries.retainAll(cache.keySet());
+      }
+      for (Map.Entry<String, Collection<Trackable>> entry : modified) {
+        if (save(entry.getKey(), entry.getValue())) {
+          markSaved(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Forget that an entry has to be persisted, unless it was put again while being saved
+   */
+  private synchronized void markSaved(String file, Collection<Trackable> trackables) {
+    if (cache.get(file) == trackables) {
+      dirtyLiveEntries.remove(file);
+    }
+    // Entry evicted while being saved
+    if (backlog.get(file) == trackables) {
+      backlog.remove(file);
+    }
+  }
+
+  private boolean save(String file, Collection<Trackable> trackables) {
+    try {
+      SonarLintLogger.get().debug("Persisting issues for " + file);
+      store.save(file, trackables);
+      flushedCount.incrementAndGet();
+      return true;
+    } catch (IOException e) {
+      SonarLintLogger.get().error(String.format("Error persisting issues for %s", file), e);
+      return false;
+    }
   }
 
   /**
-   * Flushes all cached entries to disk.
+   * Flushes all modified entries to disk.
    * It does not clear the cache.
    */
-  public synchronized void flushAll() {
+  public void flushAll() {
     SonarLintLogger.get().debug("Persisting all issues");
-    cache.forEach((path, trackables) -> {
-      try {
-        store.save(path, trackables);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to flush cache", e);
-      }
-    });
+    flushBacklog();
+    checkpoint();
+  }
+
+  /**
+   * Number of entries waiting to be persisted, either evicted from memory or modified since the last checkpoint
+   */
+  public synchronized int getDirtyCount() {
+    return backlog.size() + dirtyLiveEntries.size();
+  }
+
+  public long getFlushedCount() {
+    return flushedCount.get();
+  }
+
+  public synchronized int getBacklogSize() {
+    return backlog.size();
   }
 
   @Override
-  public synchronized void shutdown() {
+  public void shutdown() {
+    synchronized (this) {
+      shutdown = true;
+    }
+    FlushJob job = flushJob;
+    if (job != null) {
+      job.cancel();
+    }
     flushAll();
+    budget.removeAll(this);
+    synchronized (flushLock) {
+      store.close();
+    }
   }
 }
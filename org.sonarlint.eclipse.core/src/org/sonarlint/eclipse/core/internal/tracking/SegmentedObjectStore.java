@@ -0,0 +1,740 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An ObjectStore appending records to a few segment files instead of using one file per key.
+ * <p>
+ * Each segment starts with a header, followed by records <code>[key length][key][value length][value]</code>. A value length of -1 is a tombstone,
+ * recording the deletion of the key. Records are appended to the active segment, which is sealed and memory-mapped for reading before it would
+ * exceed the maximum segment size. Since mapped buffers are indexed by int, no segment is ever larger than 2 GB. The offset of the last record of
+ * each key is kept in memory, and rebuilt at startup by replaying segments in order.
+ * <p>
+ * When too much space is used by overwritten or deleted records, live records of all sealed segments are compacted in background into new
+ * segments. The header of the first one marks every segment with a lower id as obsolete, so that a crash during or after compaction never
+ * resurrects stale records. It is moved in place last.
+ * <p>
+ * Segments are unmapped before their file is deleted, since mapped files can't be deleted on Windows.
+ *
+ * @param <V> type of the value to store
+ */
+public class SegmentedObjectStore<V> implements ValidatingObjectStore<String, V> {
+
+  static final long DEFAULT_MAX_SEGMENT_SIZE = 8L * 1024 * 1024;
+  public static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+  private static final int MAGIC = 0x534c5347;
+  private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+  private static final int TOMBSTONE = -1;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final Pattern SEGMENT_PATTERN = Pattern.compile(Pattern.quote(SEGMENT_PREFIX) + "(\\d+)" + Pattern.quote(SEGMENT_SUFFIX));
+
+  private final Path basePath;
+  private final Reader<V> reader;
+  private final Writer<V> writer;
+  private final StoreKeyValidator<String> validator;
+  private final long maxSegmentSize;
+  private final Executor compactionExecutor;
+
+  private final Map<String, RecordLocation> index = new HashMap<>();
+  private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+  @Nullable
+  private Segment active;
+  private long nextSegmentId = 1;
+  private long totalBytes;
+  private long liveBytes;
+  private boolean compacting;
+  /**
+   * Incremented when the store is cleared or closed, to discard the result of a compaction running concurrently
+   */
+  private int generation;
+
+  public SegmentedObjectStore(Path basePath, Reader<V> reader, Writer<V> writer, StoreKeyValidator<String> validator, long maxSegmentSize, Executor compactionExecutor) {
+    if (maxSegmentSize <= HEADER_SIZE || maxSegmentSize > MAX_SEGMENT_SIZE) {
+      throw new IllegalArgumentException("Invalid maximum segment size: " + maxSegmentSize);
+    }
+    this.basePath = basePath;
+    this.reader = reader;
+    this.writer = writer;
+    this.validator = validator;
+    this.maxSegmentSize = maxSegmentSize;
+    this.compactionExecutor = compactionExecutor;
+    load();
+  }
+
+  @Override
+  public synchronized boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  public Optional<V> read(String key) throws IOException {
+    byte[] value;
+    synchronized (this) {
+      RecordLocation location = index.get(key);
+      if (location == null) {
+        return Optional.empty();
+      }
+      value = location.segment.read(location.valueOffset, location.valueLength);
+    }
+    return Optional.of(reader.apply(new ByteArrayInputStream(value)));
+  }
+
+  @Override
+  public void write(String key, V value) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.accept(out, value);
+    byte[] valueBytes = out.toByteArray();
+    synchronized (this) {
+      RecordLocation location = append(key, valueBytes);
+      RecordLocation previous = index.put(key, location);
+      liveBytes += location.recordLength();
+      if (previous != null) {
+        liveBytes -= previous.recordLength();
+      }
+      afterAppend();
+    }
+  }
+
+  @Override
+  public synchronized void delete(String key) throws IOException {
+    RecordLocation previous = index.remove(key);
+    if (previous != null) {
+      liveBytes -= previous.recordLength();
+      append(key, null);
+      afterAppend();
+    }
+  }
+
+  @Override
+  public void deleteInvalid() {
+    int counter = 0;
+    List<String> keys;
+    synchronized (this) {
+      keys = new ArrayList<>(index.keySet());
+    }
+    for (String key : keys) {
+      if (!validator.apply(key)) {
+        try {
+          counter++;
+          delete(key);
+        } catch (IOException e) {
+          SonarLintLogger.get().error("Failed to delete entry in the store", e);
+        }
+      }
+    }
+    SonarLintLogger.get().debug(String.format("%d entries removed from the store", counter));
+  }
+
+  @Override
+  public synchronized void clear() {
+    releaseSegments(true);
+    try (Stream<Path> files = Files.list(basePath)) {
+      files.filter(p -> SEGMENT_PATTERN.matcher(p.getFileName().toString()).matches()).forEach(SegmentedObjectStore::deleteQuietly);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to list segments in " + basePath, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    releaseSegments(false);
+  }
+
+  private void releaseSegments(boolean deleteFiles) {
+    generation++;
+    for (Segment segment : segments.values()) {
+      segment.release(deleteFiles);
+    }
+    active = null;
+    index.clear();
+    segments.clear();
+    totalBytes = 0;
+    liveBytes = 0;
+  }
+
+  public synchronized long getGarbageBytes() {
+    return totalBytes - liveBytes;
+  }
+
+  public synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  private RecordLocation append(String key, @Nullable byte[] value) throws IOException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    int valueLength = value != null ? value.length : TOMBSTONE;
+    long recordLength = 2L * Integer.BYTES + keyBytes.length + Math.max(0, valueLength);
+    if (HEADER_SIZE + recordLength > MAX_SEGMENT_SIZE) {
+      throw new IOException("Value of " + key + " is too large to be stored: " + valueLength + " bytes");
+    }
+    Segment segment = active;
+    if (segment != null && segment.size > HEADER_SIZE && segment.size + recordLength > maxSegmentSize) {
+      segment.seal();
+      segment = null;
+    }
+    if (segment == null) {
+      segment = createActiveSegment();
+    }
+    ByteBuffer record = ByteBuffer.allocate((int) recordLength);
+    record.putInt(keyBytes.length).put(keyBytes).putInt(valueLength);
+    if (value != null) {
+      record.put(value);
+    }
+    record.flip();
+    long recordOffset = segment.append(record);
+    totalBytes += record.capacity();
+    return new RecordLocation(segment, recordOffset + 2 * Integer.BYTES + keyBytes.length, keyBytes.length, Math.max(0, valueLength));
+  }
+
+  private void afterAppend() throws IOException {
+    Segment segment = active;
+    if (segment != null && segment.size >= maxSegmentSize) {
+      segment.seal();
+      active = null;
+    }
+    if (!compacting && getGarbageBytes() > Math.max(maxSegmentSize, totalBytes / 2)) {
+      compacting = true;
+      compactionExecutor.execute(this::compact);
+    }
+  }
+
+  private Segment createActiveSegment() throws IOException {
+    FileUtils.mkdirs(basePath);
+    long id = nextSegmentId++;
+    Path path = segmentPath(id);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(0);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+    Segment segment = new Segment(id, path, channel, HEADER_SIZE);
+    segments.put(id, segment);
+    totalBytes += HEADER_SIZE;
+    active = segment;
+    return segment;
+  }
+
+  /**
+   * Copy live records of all sealed segments into new segments, then drop the sealed segments.
+   */
+  void compact() {
+    List<List<Map.Entry<String, RecordLocation>>> chunks;
+    List<Segment> sources;
+    long firstCompactedId;
+    int startGeneration;
+    synchronized (this) {
+      try {
+        if (active != null) {
+          active.seal();
+          active = null;
+        }
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Failed to seal active segment of the store", e);
+        compacting = false;
+        return;
+      }
+      sources = new ArrayList<>(segments.values());
+      // Sources are read without holding the lock, they must stay mapped until the end of the compaction
+      sources.forEach(Segment::pin);
+      chunks = splitInSegments(index);
+      // Reserve the ids before any new active segment, so that records written during compaction are replayed after the compacted ones
+      firstCompactedId = nextSegmentId;
+      nextSegmentId += chunks.size();
+      startGeneration = generation;
+    }
+
+    List<Map<String, Long>> newOffsets = new ArrayList<>();
+    List<Path> tmpPaths = new ArrayList<>();
+    List<Path> compactedPaths = new ArrayList<>();
+    try {
+      for (int i = 0; i < chunks.size(); i++) {
+        long id = firstCompactedId + i;
+        Path tmpPath = basePath.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX + TMP_SUFFIX);
+        tmpPaths.add(tmpPath);
+        newOffsets.add(writeCompactedSegment(tmpPath, i == 0 ? firstCompactedId : 0, chunks.get(i)));
+      }
+      // The first segment makes the sources obsolete, so it must only appear once all the others are in place
+      for (int i = chunks.size() - 1; i >= 0; i--) {
+        Path compactedPath = segmentPath(firstCompactedId + i);
+        moveAtomically(tmpPaths.get(i), compactedPath);
+        compactedPaths.add(compactedPath);
+      }
+    } catch (IOException | RuntimeException e) {
+      SonarLintLogger.get().error("Failed to compact the store", e);
+      tmpPaths.forEach(SegmentedObjectStore::deleteQuietly);
+      compactedPaths.forEach(SegmentedObjectStore::deleteQuietly);
+      synchronized (this) {
+        compacting = false;
+        sources.forEach(Segment::unpin);
+      }
+      return;
+    }
+
+    synchronized (this) {
+      compacting = false;
+      try {
+        if (generation != startGeneration) {
+          compactedPaths.forEach(SegmentedObjectStore::deleteQuietly);
+          return;
+        }
+        List<Segment> compacted = new ArrayList<>();
+        try {
+          for (int i = 0; i < chunks.size(); i++) {
+            compacted.add(Segment.sealed(firstCompactedId + i, segmentPath(firstCompactedId + i)));
+          }
+        } catch (IOException e) {
+          SonarLintLogger.get().error("Failed to open compacted segment of the store", e);
+          compacted.forEach(c -> c.release(false));
+          return;
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+          Segment segment = compacted.get(i);
+          segments.put(segment.id, segment);
+          for (Map.Entry<String, RecordLocation> entry : chunks.get(i)) {
+            // Keys written or deleted during the compaction are already pointing to a newer record
+            if (index.get(entry.getKey()) == entry.getValue()) {
+              RecordLocation old = entry.getValue();
+              index.put(entry.getKey(), new RecordLocation(segment, newOffsets.get(i).get(entry.getKey()), old.keyLength, old.valueLength));
+            }
+          }
+        }
+        for (Segment source : sources) {
+          segments.remove(source.id);
+          source.release(true);
+        }
+        recomputeSizes();
+      } finally {
+        sources.forEach(Segment::unpin);
+      }
+    }
+  }
+
+  /**
+   * Group live records so that each compacted segment stays below the maximum segment size. There is always at least one group, holding the
+   * header that makes sources obsolete.
+   */
+  private List<List<Map.Entry<String, RecordLocation>>> splitInSegments(Map<String, RecordLocation> liveRecords) {
+    List<List<Map.Entry<String, RecordLocation>>> chunks = new ArrayList<>();
+    List<Map.Entry<String, RecordLocation>> current = new ArrayList<>();
+    chunks.add(current);
+    long currentSize = HEADER_SIZE;
+    for (Map.Entry<String, RecordLocation> entry : new HashMap<>(liveRecords).entrySet()) {
+      long recordLength = entry.getValue().recordLength();
+      if (!current.isEmpty() && currentSize + recordLength > maxSegmentSize) {
+        current = new ArrayList<>();
+        chunks.add(current);
+        currentSize = HEADER_SIZE;
+      }
+      current.add(entry);
+      currentSize += recordLength;
+    }
+    return chunks;
+  }
+
+  /**
+   * @return the new value offset of each key
+   */
+  private static Map<String, Long> writeCompactedSegment(Path tmpPath, long obsoleteBelow, List<Map.Entry<String, RecordLocation>> records) throws IOException {
+    Map<String, Long> offsets = new HashMap<>();
+    try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(obsoleteBelow);
+      header.flip();
+      long position = writeFully(channel, header, 0);
+      for (Map.Entry<String, RecordLocation> entry : records) {
+        RecordLocation location = entry.getValue();
+        byte[] keyBytes = entry.getKey().getBytes(UTF_8);
+        byte[] value = location.segment.read(location.valueOffset, location.valueLength);
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + keyBytes.length + value.length);
+        record.putInt(keyBytes.length).put(keyBytes).putInt(value.length).put(value);
+        record.flip();
+        offsets.put(entry.getKey(), position + 2 * Integer.BYTES + keyBytes.length);
+        position = writeFully(channel, record, position);
+      }
+      channel.force(true);
+    }
+    return offsets;
+  }
+
+  private void recomputeSizes() {
+    totalBytes = segments.values().stream().mapToLong(s -> s.size).sum();
+    liveBytes = index.values().stream().mapToLong(RecordLocation::recordLength).sum();
+  }
+
+  private void load() {
+    if (!Files.isDirectory(basePath)) {
+      return;
+    }
+    NavigableMap<Long, Path> segmentFiles = new TreeMap<>();
+    try (Stream<Path> files = Files.list(basePath)) {
+      files.forEach(p -> {
+        String name = p.getFileName().toString();
+        Matcher matcher = SEGMENT_PATTERN.matcher(name);
+        if (matcher.matches()) {
+          segmentFiles.put(Long.parseLong(matcher.group(1)), p);
+        } else if (name.endsWith(TMP_SUFFIX)) {
+          // Leftover of an interrupted compaction
+          deleteQuietly(p);
+        }
+      });
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to list segments of the store in " + basePath, e);
+    }
+    if (segmentFiles.isEmpty()) {
+      return;
+    }
+    nextSegmentId = segmentFiles.lastKey() + 1;
+    long obsoleteBelow = 0;
+    Map<Long, Segment> loaded = new TreeMap<>();
+    for (Map.Entry<Long, Path> segmentFile : segmentFiles.entrySet()) {
+      try {
+        Segment segment = Segment.recover(segmentFile.getKey(), segmentFile.getValue());
+        if (segment != null) {
+          loaded.put(segment.id, segment);
+          obsoleteBelow = Math.max(obsoleteBelow, segment.obsoleteBelow);
+        } else {
+          SonarLintLogger.get().debug("Ignoring invalid segment " + segmentFile.getValue());
+          deleteQuietly(segmentFile.getValue());
+        }
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Failed to read segment " + segmentFile.getValue(), e);
+      }
+    }
+    for (Segment segment : loaded.values()) {
+      if (segment.id < obsoleteBelow) {
+        segment.release(true);
+      } else {
+        segments.put(segment.id, segment);
+        replay(segment);
+      }
+    }
+    recomputeSizes();
+  }
+
+  private void replay(Segment segment) {
+    ByteBuffer buffer = segment.readOnlyView();
+    buffer.position(HEADER_SIZE);
+    while (buffer.remaining() >= 2 * Integer.BYTES) {
+      int keyLength = buffer.getInt();
+      byte[] keyBytes = new byte[keyLength];
+      buffer.get(keyBytes);
+      String key = new String(keyBytes, UTF_8);
+      int valueLength = buffer.getInt();
+      if (valueLength == TOMBSTONE) {
+        index.remove(key);
+      } else {
+        index.put(key, new RecordLocation(segment, buffer.position(), keyLength, valueLength));
+        buffer.position(buffer.position() + valueLength);
+      }
+    }
+  }
+
+  private Path segmentPath(long id) {
+    return basePath.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+  }
+
+  private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    long current = position;
+    while (buffer.hasRemaining()) {
+      current += channel.write(buffer, current);
+    }
+    return current;
+  }
+
+  private static void moveAtomically(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to delete " + path, e);
+    }
+  }
+
+  /**
+   * Release the memory mapping right away instead of waiting for the buffer to be garbage collected, as the file can't be deleted or truncated
+   * on Windows while it is mapped. The buffer must not be accessed anymore.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      // Java 9+
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      return;
+    } catch (NoSuchMethodException e) {
+      // Java 8, see below
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to unmap segment", e);
+      return;
+    }
+    try {
+      Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+      cleanerMethod.setAccessible(true);
+      Object cleaner = cleanerMethod.invoke(buffer);
+      if (cleaner != null) {
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to unmap segment", e);
+    }
+  }
+
+  private static class RecordLocation {
+    private final Segment segment;
+    private final long valueOffset;
+    private final int keyLength;
+    private final int valueLength;
+
+    RecordLocation(Segment segment, long valueOffset, int keyLength, int valueLength) {
+      this.segment = segment;
+      this.valueOffset = valueOffset;
+      this.keyLength = keyLength;
+      this.valueLength = valueLength;
+    }
+
+    long recordLength() {
+      return 2L * Integer.BYTES + keyLength + valueLength;
+    }
+  }
+
+  private static class Segment {
+    private final long id;
+    private final Path path;
+    private final long obsoleteBelow;
+    @Nullable
+    private FileChannel channel;
+    @Nullable
+    private MappedByteBuffer mapped;
+    private long size;
+    private int pins;
+    private boolean released;
+    private boolean deleteOnRelease;
+    private boolean disposed;
+
+    private Segment(long id, Path path, long obsoleteBelow, long size) {
+      this.id = id;
+      this.path = path;
+      this.obsoleteBelow = obsoleteBelow;
+      this.size = size;
+    }
+
+    Segment(long id, Path path, FileChannel channel, long size) {
+      this(id, path, 0, size);
+      this.channel = channel;
+    }
+
+    static Segment sealed(long id, Path path) throws IOException {
+      Segment segment = recover(id, path);
+      if (segment == null) {
+        throw new IOException("Invalid segment " + path);
+      }
+      return segment;
+    }
+
+    /**
+     * Map an existing segment, truncating a partially written last record if any.
+     * @return null if the file is not a valid segment
+     */
+    @Nullable
+    static Segment recover(long id, Path path) throws IOException {
+      try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        long fileSize = fileChannel.size();
+        if (fileSize < HEADER_SIZE || fileSize > MAX_SEGMENT_SIZE) {
+          return null;
+        }
+        MappedByteBuffer buffer = fileChannel.map(MapMode.READ_ONLY, 0, fileSize);
+        if (buffer.getInt() != MAGIC) {
+          unmap(buffer);
+          return null;
+        }
+        long obsoleteBelow = buffer.getLong();
+        long validSize = HEADER_SIZE;
+        while (buffer.remaining() >= 2 * Integer.BYTES) {
+          int keyLength = buffer.getInt();
+          if (keyLength <= 0 || buffer.remaining() < keyLength + Integer.BYTES) {
+            break;
+          }
+          buffer.position(buffer.position() + keyLength);
+          int valueLength = buffer.getInt();
+          if (valueLength < TOMBSTONE || (valueLength > 0 && buffer.remaining() < valueLength)) {
+            break;
+          }
+          buffer.position(buffer.position() + Math.max(0, valueLength));
+          validSize = buffer.position();
+        }
+        if (validSize < fileSize) {
+          SonarLintLogger.get().debug("Truncating partially written record at the end of segment " + path);
+          unmap(buffer);
+          fileChannel.truncate(validSize);
+          buffer = fileChannel.map(MapMode.READ_ONLY, 0, validSize);
+        }
+        Segment segment = new Segment(id, path, obsoleteBelow, validSize);
+        segment.mapped = buffer;
+        return segment;
+      }
+    }
+
+    long append(ByteBuffer record) throws IOException {
+      FileChannel fileChannel = channel;
+      if (fileChannel == null) {
+        throw new IllegalStateException("Segment is sealed: " + path);
+      }
+      long offset = size;
+      size = writeFully(fileChannel, record, offset);
+      return offset;
+    }
+
+    /**
+     * Stop appending to this segment and map it in memory
+     */
+    void seal() throws IOException {
+      FileChannel fileChannel = channel;
+      if (fileChannel != null) {
+        mapped = fileChannel.map(MapMode.READ_ONLY, 0, size);
+        closeChannel();
+      }
+    }
+
+    void pin() {
+      pins++;
+    }
+
+    void unpin() {
+      pins--;
+      disposeIfUnused();
+    }
+
+    /**
+     * Close and unmap the segment, and optionally delete its file, as soon as it is not pinned by a compaction anymore
+     */
+    void release(boolean deleteFile) {
+      released = true;
+      deleteOnRelease |= deleteFile;
+      disposeIfUnused();
+    }
+
+    private void disposeIfUnused() {
+      if (!released || pins > 0 || disposed) {
+        return;
+      }
+      disposed = true;
+      closeChannel();
+      MappedByteBuffer buffer = mapped;
+      if (buffer != null) {
+        mapped = null;
+        unmap(buffer);
+      }
+      if (deleteOnRelease) {
+        deleteQuietly(path);
+      }
+    }
+
+    private void closeChannel() {
+      FileChannel fileChannel = channel;
+      if (fileChannel != null) {
+        try {
+          fileChannel.close();
+        } catch (IOException e) {
+          SonarLintLogger.get().debug("Unable to close segment " + path, e);
+        }
+        channel = null;
+      }
+    }
+
+    ByteBuffer readOnlyView() {
+      MappedByteBuffer buffer = mapped;
+      if (buffer == null) {
+        throw new IllegalStateException("Segment is not sealed: " + path);
+      }
+      return buffer.asReadOnlyBuffer();
+    }
+
+    byte[] read(long offset, int length) throws IOException {
+      byte[] result = new byte[length];
+      MappedByteBuffer buffer = mapped;
+      if (buffer != null) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        // Segments are never larger than MAX_SEGMENT_SIZE
+        view.position((int) offset);
+        view.get(result);
+        return result;
+      }
+      FileChannel fileChannel = channel;
+      if (fileChannel == null) {
+        throw new IOException("Segment is closed: " + path);
+      }
+      ByteBuffer target = ByteBuffer.wrap(result);
+      long position = offset;
+      while (target.hasRemaining()) {
+        int read = fileChannel.read(target, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of segment " + path);
+        }
+        position += read;
+      }
+      return result;
+    }
+  }
+}
@@ -28,9 +28,14 @@ import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
 public class ServerIssueTrackable implements Trackable {
 
   private final ServerIssue serverIssue;
+  @Nullable
+  private final Integer lineHash;
 
   public ServerIssueTrackable(ServerIssue serverIssue) {
     this.serverIssue = serverIssue;
+    // Digest computed by the server on its version of the line, it can't be taken from the local document
+    String serverLineHash = serverIssue.lineHash();
+    this.lineHash = serverLineHash != null ? serverLineHash.hashCode() : null;
   }
 
   @Override
@@ -62,9 +67,10 @@ public class ServerIssueTrackable implements Trackable {
     return null;
   }
 
+  @Nullable
   @Override
   public Integer getLineHash() {
-    return serverIssue.lineHash().hashCode();
+    return lineHash;
   }
 
   @Override
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -48,6 +49,12 @@ public class ServerIssueUpdater {
 
   public static final String PATH_SEPARATOR_PATTERN = Pattern.quote(File.separator);
 
+  /**
+   * When a bulk update downloads issues of all files of a project at once, they are served from the local storage as long as they are
+   * not older than this
+   */
+  public static final long PROJECT_ISSUES_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
   private final IssueTrackerRegistry issueTrackerRegistry;
 
   public ServerIssueUpdater(IssueTrackerRegistry issueTrackerRegistry) {
@@ -86,6 +93,7 @@ public class ServerIssueUpdater {
     protected IStatus run(IProgressMonitor monitor) {
       Map<ISonarLintIssuable, Collection<Trackable>> trackedIssues = new HashMap<>();
       try {
+        boolean projectIssuesSynced = triggerType.shouldUpdateProjectIssuesAsync(issuables.size()) && syncProjectIssues(monitor);
         for (ISonarLintIssuable issuable : issuables) {
           if (monitor.isCanceled()) {
             return Status.CANCEL_STATUS;
@@ -93,7 +101,9 @@ public class ServerIssueUpdater {
           if (issuable instanceof ISonarLintFile) {
             ISonarLintFile file = ((ISonarLintFile) issuable);
             IssueTracker issueTracker = issueTrackerRegistry.getOrCreate(project);
-            List<ServerIssue> serverIssues = fetchServerIssues(engineFacade, projectBinding, (ISonarLintFile) issuable, monitor);
+            List<ServerIssue> serverIssues = projectIssuesSynced
+              ? engineFacade.getServerIssues(projectBinding, file.getProjectRelativePath())
+              : fetchServerIssues(engineFacade, projectBinding, file, monitor);
             Collection<Trackable> serverIssuesTrackable = serverIssues.stream().map(ServerIssueTrackable::new).collect(Collectors.toList());
             Collection<Trackable> tracked = issueTracker.matchAndTrackServerIssues(file, serverIssuesTrackable);
             issueTracker.updateCache(file, tracked);
@@ -112,12 +122,31 @@ public class ServerIssueUpdater {
       }
     }
 
+    /**
+     * @return false if issues of the project could not be downloaded, and should be downloaded for each file instead
+     */
+    private boolean syncProjectIssues(IProgressMonitor monitor) {
+      try {
+        return engineFacade.syncServerIssuesIfNeeded(projectBinding.projectKey(), PROJECT_ISSUES_MAX_AGE_MILLIS, monitor);
+      } catch (DownloadException e) {
+        SonarLintLogger.get().info(e.getMessage());
+        return false;
+      }
+    }
+
   }
 
+  /**
+   * Issues of the file are read from the local storage when a bulk update downloaded issues of the whole project recently, so that opening
+   * editors right after doesn't download them again
+   */
   public static List<ServerIssue> fetchServerIssues(ConnectedEngineFacade engineFacade,
     ProjectBinding projectBinding,
     ISonarLintFile file, IProgressMonitor monitor) {
     String filePath = file.getProjectRelativePath();
+    if (engineFacade.hasRecentServerIssues(projectBinding.projectKey(), PROJECT_ISSUES_MAX_AGE_MILLIS)) {
+      return engineFacade.getServerIssues(projectBinding, filePath);
+    }
 
     try {
       SonarLintLogger.get().debug("Download server issues for " + file.getName());
@@ -19,65 +19,178 @@
  */
 package org.sonarlint.eclipse.core.internal.tracking;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.proto.Sonarlint;
 import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
-class StringStoreIndex implements StoreIndex<String> {
+/**
+ * Index kept in memory. Each change is appended to a journal, replayed on top of the last snapshot when the index is loaded.
+ * The journal is merged into a new snapshot once it has more entries than the index itself, so that the cost of a change
+ * doesn't depend on the size of the index.
+ */
+public class StringStoreIndex implements StoreIndex<String> {
   public static final String INDEX_FILENAME = "index.pb";
+  public static final String JOURNAL_FILENAME = "index.journal";
+  public static final int MIN_COMPACTION_THRESHOLD = 1000;
+
   private final Path storeBasePath;
   private final Path indexFilePath;
+  private final Path journalFilePath;
+  @Nullable
+  private Map<String, String> index;
+  private int journalSize;
 
   public StringStoreIndex(Path storeBasePath) {
     this.storeBasePath = storeBasePath;
     this.indexFilePath = storeBasePath.resolve(INDEX_FILENAME);
+    this.journalFilePath = storeBasePath.resolve(JOURNAL_FILENAME);
   }
 
   @Override
-  public Collection<String> keys() {
-    return load().keySet();
+  public synchronized Collection<String> keys() {
+    return new ArrayList<>(index().keySet());
   }
 
-  private Map<String, String> load() {
-    if (!indexFilePath.toFile().exists()) {
-      return Collections.emptyMap();
-    }
-    try (InputStream stream = Files.newInputStream(indexFilePath)) {
-      return Sonarlint.StorageIndex.parseFrom(stream).getMappedPathByKeyMap();
-    } catch (IOException e) {
-      throw new IllegalStateException("Failed to read local issue store index", e);
+  @Override
+  public synchronized void save(String storageKey, Path path) {
+    String relativeMappedPath = storeBasePath.relativize(path).toString();
+    Map<String, String> currentIndex = index();
+    if (relativeMappedPath.equals(currentIndex.get(storageKey))) {
+      return;
     }
+    currentIndex.put(storageKey, relativeMappedPath);
+    append(Sonarlint.StorageIndexChange.newBuilder()
+      .setKey(storageKey)
+      .setMappedPath(relativeMappedPath)
+      .build());
   }
 
   @Override
-  public void save(String storageKey, Path path) {
-    String relativeMappedPath = storeBasePath.relativize(path).toString();
-    Sonarlint.StorageIndex.Builder builder = Sonarlint.StorageIndex.newBuilder();
-    builder.putAllMappedPathByKey(load());
-    builder.putMappedPathByKey(storageKey, relativeMappedPath);
-    save(builder.build());
+  public synchronized void delete(String storageKey) {
+    if (index().remove(storageKey) != null) {
+      append(Sonarlint.StorageIndexChange.newBuilder()
+        .setKey(storageKey)
+        .setDeleted(true)
+        .build());
+    }
   }
 
   @Override
-  public void delete(String storageKey) {
-    Sonarlint.StorageIndex.Builder builder = Sonarlint.StorageIndex.newBuilder();
-    builder.putAllMappedPathByKey(load());
-    builder.removeMappedPathByKey(storageKey);
-    save(builder.build());
+  public synchronized void clear() {
+    index = new HashMap<>();
+    journalSize = 0;
+    try {
+      Files.deleteIfExists(journalFilePath);
+      Files.deleteIfExists(indexFilePath);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to delete local issue store index", e);
+    }
+  }
+
+  public int getJournalSize() {
+    return journalSize;
+  }
+
+  private Map<String, String> index() {
+    Map<String, String> currentIndex = index;
+    if (currentIndex == null) {
+      currentIndex = load();
+      index = currentIndex;
+    }
+    return currentIndex;
+  }
+
+  private Map<String, String> load() {
+    Map<String, String> loaded = new HashMap<>();
+    if (indexFilePath.toFile().exists()) {
+      try (InputStream stream = Files.newInputStream(indexFilePath)) {
+        loaded.putAll(Sonarlint.StorageIndex.parseFrom(stream).getMappedPathByKeyMap());
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to read local issue store index", e);
+      }
+    }
+    journalSize = 0;
+    if (journalFilePath.toFile().exists() && replayJournal(loaded)) {
+      // The last change was only partially written, rewrite a clean state
+      compact(loaded);
+    }
+    return loaded;
   }
 
-  private void save(Sonarlint.StorageIndex index) {
+  /**
+   * @return true if the journal ends with a truncated change, for example after a crash
+   */
+  private boolean replayJournal(Map<String, String> loaded) {
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(journalFilePath))) {
+      while (true) {
+        Sonarlint.StorageIndexChange change = Sonarlint.StorageIndexChange.parseDelimitedFrom(stream);
+        if (change == null) {
+          return false;
+        }
+        if (change.getDeleted()) {
+          loaded.remove(change.getKey());
+        } else {
+          loaded.put(change.getKey(), change.getMappedPath());
+        }
+        journalSize++;
+      }
+    } catch (InvalidProtocolBufferException e) {
+      SonarLintLogger.get().debug("Ignoring truncated change at the end of the local issue store index journal");
+      return true;
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read local issue store index journal", e);
+    }
+  }
+
+  private void append(Sonarlint.StorageIndexChange change) {
     // In case folder was deleted while Eclipse was live
+    FileUtils.mkdirs(journalFilePath.getParent());
+    try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(journalFilePath, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+      change.writeDelimitedTo(stream);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write local issue store index journal", e);
+    }
+    journalSize++;
+    Map<String, String> currentIndex = index();
+    if (journalSize > Math.max(MIN_COMPACTION_THRESHOLD, currentIndex.size())) {
+      compact(currentIndex);
+    }
+  }
+
+  /**
+   * Write a snapshot of the index, then drop the journal. Replaying a journal already merged in the snapshot is harmless, so a crash in-between
+   * doesn't lose anything.
+   */
+  private void compact(Map<String, String> currentIndex) {
     FileUtils.mkdirs(indexFilePath.getParent());
-    try (OutputStream stream = Files.newOutputStream(indexFilePath)) {
-      index.writeTo(stream);
+    Path tmpFilePath = storeBasePath.resolve(INDEX_FILENAME + ".tmp");
+    try {
+      try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmpFilePath))) {
+        Sonarlint.StorageIndex.newBuilder().putAllMappedPathByKey(currentIndex).build().writeTo(stream);
+      }
+      try {
+        Files.move(tmpFilePath, indexFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFilePath, indexFilePath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.deleteIfExists(journalFilePath);
+      journalSize = 0;
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write local issue store index", e);
     }
@@ -0,0 +1,148 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Checksum of a piece of code ignoring whitespaces, used to track issues when lines move.
+ * <p>
+ * The value is the hash code of the hexadecimal MD5 digest of the UTF-8 encoded content without whitespaces, as computed by SonarQube for
+ * line hashes of server issues and as persisted in issue stores. It is computed without intermediate strings, using a digest and buffers
+ * per thread.
+ */
+public final class TextChecksum {
+
+  private static final int MD5_LENGTH = 16;
+  private static final int BUFFER_SIZE = 1024;
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+  private static final byte UNMAPPABLE = '?';
+
+  private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+  private TextChecksum() {
+    // utility class, forbidden constructor
+  }
+
+  private static class State {
+    private final MessageDigest md5;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digest = new byte[MD5_LENGTH];
+    private int position;
+
+    State() {
+      try {
+        md5 = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    void put(int b) {
+      if (position == buffer.length) {
+        md5.update(buffer, 0, position);
+        position = 0;
+      }
+      buffer[position++] = (byte) b;
+    }
+
+    void putCodePoint(int codePoint) {
+      if (codePoint < 0x80) {
+        put(codePoint);
+      } else if (codePoint < 0x800) {
+        put(0xc0 | (codePoint >> 6));
+        put(0x80 | (codePoint & 0x3f));
+      } else if (codePoint < 0x10000) {
+        put(0xe0 | (codePoint >> 12));
+        put(0x80 | ((codePoint >> 6) & 0x3f));
+        put(0x80 | (codePoint & 0x3f));
+      } else {
+        put(0xf0 | (codePoint >> 18));
+        put(0x80 | ((codePoint >> 12) & 0x3f));
+        put(0x80 | ((codePoint >> 6) & 0x3f));
+        put(0x80 | (codePoint & 0x3f));
+      }
+    }
+
+    byte[] digest() {
+      md5.update(buffer, 0, position);
+      position = 0;
+      try {
+        md5.digest(digest, 0, MD5_LENGTH);
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      return digest;
+    }
+  }
+
+  public static int checksum(CharSequence content) {
+    State state = STATE.get();
+    // High surrogate waiting for the next non whitespace character
+    char pendingHighSurrogate = 0;
+    for (int i = 0; i < content.length(); i++) {
+      char c = content.charAt(i);
+      if (isWhitespace(c)) {
+        continue;
+      }
+      if (pendingHighSurrogate != 0) {
+        if (Character.isLowSurrogate(c)) {
+          state.putCodePoint(Character.toCodePoint(pendingHighSurrogate, c));
+          pendingHighSurrogate = 0;
+          continue;
+        }
+        state.put(UNMAPPABLE);
+        pendingHighSurrogate = 0;
+      }
+      if (Character.isHighSurrogate(c)) {
+        pendingHighSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        state.put(UNMAPPABLE);
+      } else {
+        state.putCodePoint(c);
+      }
+    }
+    if (pendingHighSurrogate != 0) {
+      state.put(UNMAPPABLE);
+    }
+    return hexStringHashCode(state.digest());
+  }
+
+  /**
+   * Same as {@link String#hashCode()} of the lower case hexadecimal representation of the bytes
+   */
+  private static int hexStringHashCode(byte[] bytes) {
+    int h = 0;
+    for (byte b : bytes) {
+      h = 31 * h + DIGITS[(0xf0 & b) >>> 4];
+      h = 31 * h + DIGITS[0x0f & b];
+    }
+    return h;
+  }
+
+  /**
+   * Characters matched by the regular expression \s
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+}
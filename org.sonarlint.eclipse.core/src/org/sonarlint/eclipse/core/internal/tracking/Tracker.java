@@ -20,406 +20,317 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 
+/**
+ * Matches raw issues with base issues in successive passes, each one using a less strict criterion on the still unmatched issues.
+ * <p>
+ * The fields used by the criteria and their hashes are extracted once per trackable, and each pass indexes unmatched bases in
+ * primitive arrays reused across passes. In a pass, each unmatched raw issue (in input order) is matched with the first unmatched
+ * base issue (in input order) having the same key.
+ */
 public class Tracker<RAW extends Trackable, BASE extends Trackable> {
 
   public Tracking<RAW, BASE> trackRaw(Input<RAW> rawIssues, Input<BASE> localStorage) {
     Tracking<RAW, BASE> tracking = new Tracking<>(rawIssues, localStorage);
+    Matcher matcher = new Matcher(tracking);
 
     // Raw issues don't have server issue key
 
     // 1. match issues with same rule, same line and same text range hash, but not necessarily with same message
-    match(tracking, LineAndTextRangeHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_AND_TEXT_RANGE_HASH);
 
     // 2. match issues with same rule, same message and same text range hash
-    match(tracking, TextRangeHashAndMessageKeyFactory.INSTANCE);
+    matcher.match(Criterion.TEXT_RANGE_HASH_AND_MESSAGE);
 
     // 3. match issues with same rule, same line and same message
-    match(tracking, LineAndMessageKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_AND_MESSAGE);
 
     // 4. match issues with same rule and same text range hash but different line and different message.
     // See SONAR-2812
-    match(tracking, TextRangeHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.TEXT_RANGE_HASH);
 
     // 5. match issues with same rule, same line and same line hash
-    match(tracking, LineAndLineHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_AND_LINE_HASH);
 
     // 6. match issues with same rule and same same line hash
-    match(tracking, LineHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_HASH);
 
     return tracking;
   }
 
   public Tracking<RAW, BASE> trackServer(Input<RAW> trackedLocally, Input<BASE> serverIssue) {
     Tracking<RAW, BASE> tracking = new Tracking<>(trackedLocally, serverIssue);
+    Matcher matcher = new Matcher(tracking);
 
     // ConnectedEngineFacade issues don't have text range hash
     // 1. match issues with same server issue key
-    match(tracking, ServerIssueSearchKeyFactory.INSTANCE);
+    matcher.match(Criterion.SERVER_ISSUE_KEY);
 
     // 2. match issues with same rule, same line and same message
-    match(tracking, LineAndMessageKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_AND_MESSAGE);
 
     // 3. match issues with same rule, same line and same line hash
-    match(tracking, LineAndLineHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_AND_LINE_HASH);
 
     // 4. match issues with same rule and same same line hash
-    match(tracking, LineHashKeyFactory.INSTANCE);
+    matcher.match(Criterion.LINE_HASH);
 
     return tracking;
   }
 
-  private void match(Tracking<RAW, BASE> tracking, SearchKeyFactory factory) {
-    if (tracking.isComplete()) {
-      return;
+  private static final int NO_ENTRY = -1;
+
+  private class Matcher {
+    private final Tracking<RAW, BASE> tracking;
+    private final List<RAW> raws = new ArrayList<>();
+    private final List<BASE> bases = new ArrayList<>();
+    private final Fields rawFields;
+    private final Fields baseFields;
+    private final boolean[] matchedRaws;
+    private final boolean[] matchedBases;
+    // Chained hash table of unmatched bases, rebuilt by each pass
+    private final int[] buckets;
+    private final int[] nextInBucket;
+    private final int[] baseKeyHashes;
+
+    Matcher(Tracking<RAW, BASE> tracking) {
+      this.tracking = tracking;
+      tracking.getUnmatchedRaws().forEach(raws::add);
+      tracking.getUnmatchedBases().forEach(bases::add);
+      this.rawFields = new Fields(raws);
+      this.baseFields = new Fields(bases);
+      this.matchedRaws = new boolean[raws.size()];
+      this.matchedBases = new boolean[bases.size()];
+      this.buckets = new int[tableSize(bases.size())];
+      this.nextInBucket = new int[bases.size()];
+      this.baseKeyHashes = new int[bases.size()];
     }
 
-    Map<SearchKey, List<BASE>> baseSearch = new HashMap<>();
-    for (BASE base : tracking.getUnmatchedBases()) {
-      SearchKey searchKey = factory.apply(base);
-      if (!baseSearch.containsKey(searchKey)) {
-        baseSearch.put(searchKey, new ArrayList<>());
+    void match(Criterion criterion) {
+      if (tracking.isComplete() || bases.isEmpty()) {
+        return;
       }
-      baseSearch.get(searchKey).add(base);
-    }
 
-    for (RAW raw : tracking.getUnmatchedRaws()) {
-      SearchKey rawKey = factory.apply(raw);
-      Collection<BASE> bases = baseSearch.get(rawKey);
-      if (bases != null && !bases.isEmpty()) {
-        // TODO taking the first one. Could be improved if there are more than 2 issues on the same line.
-        // Message could be checked to take the best one.
-        BASE match = bases.iterator().next();
-        tracking.match(raw, match);
-        baseSearch.get(rawKey).remove(match);
+      Arrays.fill(buckets, NO_ENTRY);
+      int mask = buckets.length - 1;
+      // Insert in reverse order so that chains are in input order
+      for (int b = bases.size() - 1; b >= 0; b--) {
+        if (matchedBases[b] || !criterion.isMatchable(baseFields, b)) {
+          continue;
+        }
+        int hash = criterion.hash(baseFields, b);
+        int bucket = spread(hash) & mask;
+        baseKeyHashes[b] = hash;
+        nextInBucket[b] = buckets[bucket];
+        buckets[bucket] = b;
       }
-    }
-  }
-
-  private interface SearchKey {
-  }
-
-  @FunctionalInterface
-  private interface SearchKeyFactory extends Function<Trackable, SearchKey> {
-    @Override
-    SearchKey apply(Trackable trackable);
-  }
-
-  private static class LineAndTextRangeHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer textRangeHash;
-    private final Integer line;
-
-    LineAndTextRangeHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.line = trackable.getLine();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null) {
-        return false;
-      }
-      if (this.getClass() != o.getClass()) {
-        return false;
+      for (int r = 0; r < raws.size(); r++) {
+        if (matchedRaws[r] || !criterion.isMatchable(rawFields, r)) {
+          continue;
+        }
+        int hash = criterion.hash(rawFields, r);
+        int bucket = spread(hash) & mask;
+        int previous = NO_ENTRY;
+        for (int b = buckets[bucket]; b != NO_ENTRY; previous = b, b = nextInBucket[b]) {
+          if (baseKeyHashes[b] == hash && criterion.sameKey(rawFields, r, baseFields, b)) {
+            // TODO taking the first one. Could be improved if there are more than 2 issues on the same line.
+            // Message could be checked to take the best one.
+            matchedRaws[r] = true;
+            matchedBases[b] = true;
+            tracking.match(raws.get(r), bases.get(b));
+            // Unlink the base so that next lookups don't go through it
+            if (previous == NO_ENTRY) {
+              buckets[bucket] = nextInBucket[b];
+            } else {
+              nextInBucket[previous] = nextInBucket[b];
+            }
+            break;
+          }
+        }
       }
-      LineAndTextRangeHashKey that = (LineAndTextRangeHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && Objects.equals(textRangeHash, that.textRangeHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
     }
   }
 
-  private enum LineAndTextRangeHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndTextRangeHashKey(t);
+  private static int tableSize(int entries) {
+    int size = 1;
+    while (size < 2 * entries) {
+      size <<= 1;
     }
+    return size;
   }
 
-  private static class LineAndLineHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer line;
-    private final Integer lineHash;
-
-    LineAndLineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.line = trackable.getLine();
-      this.lineHash = trackable.getLineHash();
-    }
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null) {
-        return false;
+  /**
+   * Fields of trackables used by the matching criteria, with their hashes, extracted once
+   */
+  private static class Fields {
+    private final String[] ruleKeys;
+    private final int[] ruleKeyHashes;
+    private final @Nullable Integer[] lines;
+    private final int[] lineHashCodes;
+    private final @Nullable Integer[] textRangeHashes;
+    private final int[] textRangeHashCodes;
+    private final @Nullable Integer[] lineHashes;
+    private final int[] lineHashHashCodes;
+    private final @Nullable String[] messages;
+    private final int[] messageHashes;
+    private final @Nullable String[] serverIssueKeys;
+    private final int[] serverIssueKeyHashes;
+
+    Fields(List<? extends Trackable> trackables) {
+      int size = trackables.size();
+      ruleKeys = new String[size];
+      ruleKeyHashes = new int[size];
+      lines = new Integer[size];
+      lineHashCodes = new int[size];
+      textRangeHashes = new Integer[size];
+      textRangeHashCodes = new int[size];
+      lineHashes = new Integer[size];
+      lineHashHashCodes = new int[size];
+      messages = new String[size];
+      messageHashes = new int[size];
+      serverIssueKeys = new String[size];
+      serverIssueKeyHashes = new int[size];
+      for (int i = 0; i < size; i++) {
+        Trackable trackable = trackables.get(i);
+        ruleKeys[i] = trackable.getRuleKey();
+        ruleKeyHashes[i] = ruleKeys[i].hashCode();
+        lines[i] = trackable.getLine();
+        lineHashCodes[i] = Objects.hashCode(lines[i]);
+        textRangeHashes[i] = trackable.getTextRangeHash();
+        textRangeHashCodes[i] = Objects.hashCode(textRangeHashes[i]);
+        lineHashes[i] = trackable.getLineHash();
+        lineHashHashCodes[i] = Objects.hashCode(lineHashes[i]);
+        messages[i] = trackable.getMessage();
+        messageHashes[i] = Objects.hashCode(messages[i]);
+        String serverIssueKey = trackable.getServerIssueKey();
+        serverIssueKeys[i] = StringUtils.isBlank(serverIssueKey) ? null : serverIssueKey;
+        serverIssueKeyHashes[i] = Objects.hashCode(serverIssueKeys[i]);
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      LineAndLineHashKey that = (LineAndLineHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && Objects.equals(lineHash, that.lineHash)
-        && ruleKey.equals(that.ruleKey);
     }
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (lineHash != null ? lineHash.hashCode() : 0);
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
+    boolean sameRuleKey(int i, Fields other, int j) {
+      return ruleKeyHashes[i] == other.ruleKeyHashes[j] && ruleKeys[i].equals(other.ruleKeys[j]);
     }
-  }
-
-  private enum LineAndLineHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
 
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndLineHashKey(t);
+    boolean sameLine(int i, Fields other, int j) {
+      return Objects.equals(lines[i], other.lines[j]);
     }
-  }
-
-  private static class LineHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer lineHash;
 
-    LineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.lineHash = trackable.getLineHash();
+    boolean sameTextRangeHash(int i, Fields other, int j) {
+      return Objects.equals(textRangeHashes[i], other.textRangeHashes[j]);
     }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null) {
-        return false;
-      }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      LineHashKey that = (LineHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(lineHash, that.lineHash)
-        && ruleKey.equals(that.ruleKey);
+    boolean sameLineHash(int i, Fields other, int j) {
+      return Objects.equals(lineHashes[i], other.lineHashes[j]);
     }
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (lineHash != null ? lineHash.hashCode() : 0);
-      return result;
+    boolean sameMessage(int i, Fields other, int j) {
+      return messageHashes[i] == other.messageHashes[j] && Objects.equals(messages[i], other.messages[j]);
     }
   }
 
-  private enum LineHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineHashKey(t);
-    }
-  }
-
-  private static class TextRangeHashAndMessageKey implements SearchKey {
-    private final String ruleKey;
-    private final String message;
-    private final Integer textRangeHash;
-
-    TextRangeHashAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
-
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+  private enum Criterion {
+    LINE_AND_TEXT_RANGE_HASH {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * (31 * f.ruleKeyHashes[i] + f.textRangeHashCodes[i]) + f.lineHashCodes[i];
       }
-      if (o == null) {
-        return false;
+
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        // start with most discriminant field
+        return f1.sameLine(i, f2, j) && f1.sameTextRangeHash(i, f2, j) && f1.sameRuleKey(i, f2, j);
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
+    },
+    TEXT_RANGE_HASH_AND_MESSAGE {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * (31 * f.ruleKeyHashes[i] + f.messageHashes[i]) + f.textRangeHashCodes[i];
       }
-      TextRangeHashAndMessageKey that = (TextRangeHashAndMessageKey) o;
-      // start with most discriminant field
-      return Objects.equals(textRangeHash, that.textRangeHash)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum TextRangeHashAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new TextRangeHashAndMessageKey(t);
-    }
-  }
 
-  private static class LineAndMessageKey implements SearchKey {
-    private final String ruleKey;
-    private final String message;
-    private final Integer line;
-
-    LineAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.line = trackable.getLine();
-    }
-
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return f1.sameTextRangeHash(i, f2, j) && f1.sameMessage(i, f2, j) && f1.sameRuleKey(i, f2, j);
       }
-      if (o == null) {
-        return false;
+    },
+    LINE_AND_MESSAGE {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * (31 * f.ruleKeyHashes[i] + f.messageHashes[i]) + f.lineHashCodes[i];
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      LineAndMessageKey that = (LineAndMessageKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum LineAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndMessageKey(t);
-    }
-  }
-
-  private static class TextRangeHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer textRangeHash;
-
-    TextRangeHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return f1.sameLine(i, f2, j) && f1.sameMessage(i, f2, j) && f1.sameRuleKey(i, f2, j);
       }
-      if (o == null) {
-        return false;
+    },
+    TEXT_RANGE_HASH {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * f.ruleKeyHashes[i] + f.textRangeHashCodes[i];
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      TextRangeHashKey that = (TextRangeHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(textRangeHash, that.textRangeHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      return result;
-    }
-  }
 
-  private enum TextRangeHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new TextRangeHashKey(t);
-    }
-  }
-
-  private static class ServerIssueSearchKey implements SearchKey {
-    private final String serverIssueKey;
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return f1.sameTextRangeHash(i, f2, j) && f1.sameRuleKey(i, f2, j);
+      }
+    },
+    LINE_AND_LINE_HASH {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * (31 * f.ruleKeyHashes[i] + f.lineHashHashCodes[i]) + f.lineHashCodes[i];
+      }
 
-    ServerIssueSearchKey(Trackable trackable) {
-      serverIssueKey = trackable.getServerIssueKey();
-    }
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return f1.sameLine(i, f2, j) && f1.sameLineHash(i, f2, j) && f1.sameRuleKey(i, f2, j);
+      }
+    },
+    LINE_HASH {
+      @Override
+      int hash(Fields f, int i) {
+        return 31 * f.ruleKeyHashes[i] + f.lineHashHashCodes[i];
+      }
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return f1.sameLineHash(i, f2, j) && f1.sameRuleKey(i, f2, j);
       }
-      if (o == null || getClass() != o.getClass()) {
-        return false;
+    },
+    SERVER_ISSUE_KEY {
+      @Override
+      boolean isMatchable(Fields f, int i) {
+        // Blank keys never match
+        return f.serverIssueKeys[i] != null;
       }
 
-      ServerIssueSearchKey that = (ServerIssueSearchKey) o;
+      @Override
+      int hash(Fields f, int i) {
+        return f.serverIssueKeyHashes[i];
+      }
 
-      return !StringUtils.isBlank(serverIssueKey) && !StringUtils.isBlank(that.serverIssueKey) && serverIssueKey.equals(that.serverIssueKey);
-    }
+      @Override
+      boolean sameKey(Fields f1, int i, Fields f2, int j) {
+        return Objects.equals(f1.serverIssueKeys[i], f2.serverIssueKeys[j]);
+      }
+    };
 
-    @Override
-    public int hashCode() {
-      return serverIssueKey != null ? serverIssueKey.hashCode() : 0;
+    boolean isMatchable(Fields f, int i) {
+      return true;
     }
-  }
 
-  private enum ServerIssueSearchKeyFactory implements SearchKeyFactory {
-    INSTANCE;
+    abstract int hash(Fields f, int i);
 
-    @Override
-    public SearchKey apply(Trackable trackable) {
-      return new ServerIssueSearchKey(trackable);
-    }
+    abstract boolean sameKey(Fields f1, int i, Fields f2, int j);
   }
 }
@@ -21,7 +21,7 @@ package org.sonarlint.eclipse.core.internal.utils;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -58,24 +58,33 @@ public class FileExclusionsChecker {
     globalExclusions = new FileExclusions(globalGlobExclusions);
   }
 
-  public Collection<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files) {
+  public Set<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files) {
     return filterExcludedFiles(project, files, true);
   }
 
-  public Collection<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files, boolean log) {
+  /**
+   * Evaluate local exclusions first, then server side exclusions of the remaining files in a single call to the engine.
+   * @return files that are not excluded, in the same order
+   */
+  public Set<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files, boolean log) {
+    long start = System.currentTimeMillis();
     Set<ISonarLintFile> notExcluded = files
       .stream()
       .filter(file -> !isExcludedByLocalConfiguration(file, log))
-      .collect(toCollection(HashSet::new));
+      .collect(toCollection(LinkedHashSet::new));
+    logTiming(log, "Local", files.size(), start);
 
+    if (notExcluded.isEmpty()) {
+      return notExcluded;
+    }
     SonarLintCorePlugin.getServersManager()
       .resolveBinding(project)
       .ifPresent(binding -> {
+        long serverStart = System.currentTimeMillis();
         TestFileClassifier testFileClassifier = TestFileClassifier.get();
         try {
           List<ISonarLintFile> excludedByServerSideExclusions = binding.getEngineFacade().getServerFileExclusions(binding.getProjectBinding(), notExcluded,
             testFileClassifier::isTest);
-          notExcluded.removeAll(excludedByServerSideExclusions);
           excludedByServerSideExclusions.forEach(file -> {
             notExcluded.remove(file);
             logIfNeeded(file, log, "server side");
@@ -83,10 +92,17 @@ public class FileExclusionsChecker {
         } catch (SonarLintException e) {
           SonarLintLogger.get().error("Unable to read server side exclusions. Check your binding.", e);
         }
+        logTiming(log, "Server side", notExcluded.size(), serverStart);
       });
     return notExcluded;
   }
 
+  private static void logTiming(boolean log, String exclusionSource, int fileCount, long start) {
+    if (log) {
+      SonarLintLogger.get().debug(String.format("%s exclusions evaluated on %d file(s) in %d ms", exclusionSource, fileCount, System.currentTimeMillis() - start));
+    }
+  }
+
   public boolean isExcluded(ISonarLintFile file, boolean log) {
     return filterExcludedFiles(file.getProject(), Collections.singletonList(file), log).isEmpty();
   }
@@ -114,7 +130,7 @@ public class FileExclusionsChecker {
   }
 
   public static void addProjectFileExclusion(ISonarLintProject project, ISonarLintFile file, ExclusionItem exclusion) {
-    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project).copy();
     projectConfiguration.getFileExclusions().add(exclusion);
     SonarLintCorePlugin.saveConfig(project, projectConfiguration);
     SonarLintMarkerUpdater.clearMarkers(file);
@@ -35,6 +35,7 @@ import okhttp3.OkHttpClient.Builder;
 import org.eclipse.core.net.proxy.IProxyData;
 import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
@@ -70,6 +71,32 @@ public class SonarLintUtils {
     Builder newBuilder = baseClient.newBuilder()
       .connectTimeout(30, TimeUnit.SECONDS)
       .readTimeout(10, TimeUnit.MINUTES);
+    IProxyData proxyData = selectProxy(url);
+    if (proxyData != null) {
+      Type proxyType = IProxyData.SOCKS_PROXY_TYPE.equals(proxyData.getType()) ? Proxy.Type.SOCKS : Proxy.Type.HTTP;
+      newBuilder.proxy(new Proxy(proxyType, new InetSocketAddress(proxyData.getHost(), proxyData.getPort())));
+      if (proxyData.isRequiresAuthentication()) {
+        newBuilder.proxyAuthenticator((route, response) -> {
+          if (response.request().header(PROXY_AUTHORIZATION) != null) {
+            // Give up, we've already attempted to authenticate.
+            return null;
+          }
+          String proxyCrendentials = Credentials.basic(defaultString(proxyData.getUserId(), ""), defaultString(proxyData.getPassword(), ""));
+          return response.request().newBuilder()
+            .header(PROXY_AUTHORIZATION, proxyCrendentials)
+            .build();
+        });
+      }
+    }
+
+    return newBuilder;
+  }
+
+  /**
+   * @return the proxy to use for the given URL, or null for a direct connection
+   */
+  @Nullable
+  public static IProxyData selectProxy(String url) {
     IProxyService proxyService = SonarLintCorePlugin.getInstance().getProxyService();
     IProxyData[] proxyDataForHost;
     try {
@@ -77,27 +104,10 @@ public class SonarLintUtils {
     } catch (MalformedURLException | URISyntaxException e) {
       throw new IllegalStateException("Invalid URL for server: " + url, e);
     }
-    if (proxyDataForHost.length > 0) {
-      IProxyData proxyData = proxyDataForHost[0];
-      if (proxyData.getHost() != null) {
-        Type proxyType = IProxyData.SOCKS_PROXY_TYPE.equals(proxyData.getType()) ? Proxy.Type.SOCKS : Proxy.Type.HTTP;
-        newBuilder.proxy(new Proxy(proxyType, new InetSocketAddress(proxyData.getHost(), proxyData.getPort())));
-        if (proxyData.isRequiresAuthentication()) {
-          newBuilder.proxyAuthenticator((route, response) -> {
-            if (response.request().header(PROXY_AUTHORIZATION) != null) {
-              // Give up, we've already attempted to authenticate.
-              return null;
-            }
-            String proxyCrendentials = Credentials.basic(defaultString(proxyData.getUserId(), ""), defaultString(proxyData.getPassword(), ""));
-            return response.request().newBuilder()
-              .header(PROXY_AUTHORIZATION, proxyCrendentials)
-              .build();
-          });
-        }
-      }
+    if (proxyDataForHost.length > 0 && proxyDataForHost[0].getHost() != null) {
+      return proxyDataForHost[0];
     }
-
-    return newBuilder;
+    return null;
   }
 
   public static Set<Language> getEnabledLanguages() {
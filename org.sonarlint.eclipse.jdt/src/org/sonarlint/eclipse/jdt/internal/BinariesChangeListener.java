@@ -0,0 +1,77 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+/**
+ * Count changes of compiled classes and archives in the workspace, usually written by builds in output folders. Semantic rules of
+ * an unchanged file may give different results when the API of the classes it uses change, including classes of other projects, so a
+ * single generation is used for the whole workspace.
+ */
+public class BinariesChangeListener implements IResourceChangeListener {
+
+  private static BinariesChangeListener instance;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public static synchronized BinariesChangeListener getInstance() {
+    if (instance == null) {
+      instance = new BinariesChangeListener();
+      ResourcesPlugin.getWorkspace().addResourceChangeListener(instance, IResourceChangeEvent.POST_CHANGE);
+    }
+    return instance;
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta delta = event.getDelta();
+    if (delta != null && containsBinaryChange(delta)) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private static boolean containsBinaryChange(IResourceDelta delta) {
+    IResource resource = delta.getResource();
+    if (resource.getType() == IResource.FILE) {
+      if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) == 0) {
+        return false;
+      }
+      String extension = resource.getFileExtension();
+      return "class".equals(extension) || "jar".equals(extension);
+    }
+    for (IResourceDelta child : delta.getAffectedChildren()) {
+      if (containsBinaryChange(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
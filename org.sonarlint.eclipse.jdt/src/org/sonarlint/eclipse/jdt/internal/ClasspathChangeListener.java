@@ -0,0 +1,76 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2021 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.jdt.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Count changes of the Java model that may change the classpath computed by {@link JdtUtils}. Since projects also get the classpath
+ * of the projects they depend on, a single generation is used for the whole workspace.
+ */
+public class ClasspathChangeListener implements IElementChangedListener {
+
+  private static final int CLASSPATH_CHANGE_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+    | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+  private static ClasspathChangeListener instance;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public static synchronized ClasspathChangeListener getInstance() {
+    if (instance == null) {
+      instance = new ClasspathChangeListener();
+      JavaCore.addElementChangedListener(instance, ElementChangedEvent.POST_CHANGE);
+    }
+    return instance;
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    if (affectsClasspath(event.getDelta())) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private static boolean affectsClasspath(IJavaElementDelta delta) {
+    int type = delta.getElement().getElementType();
+    if (type != IJavaElement.JAVA_MODEL && (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CLASSPATH_CHANGE_FLAGS) != 0)) {
+      return true;
+    }
+    if (type == IJavaElement.JAVA_MODEL || type == IJavaElement.JAVA_PROJECT) {
+      for (IJavaElementDelta child : delta.getAffectedChildren()) {
+        if (child.getElement().getElementType() <= IJavaElement.PACKAGE_FRAGMENT_ROOT && affectsClasspath(child)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+}
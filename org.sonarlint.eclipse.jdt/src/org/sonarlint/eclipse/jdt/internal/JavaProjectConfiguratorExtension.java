@@ -70,6 +70,11 @@ public class JavaProjectConfiguratorExtension implements IAnalysisConfigurator,
     javaProjectConfigurator.configure(context, monitor);
   }
 
+  @Override
+  public String getConfigurationFingerprint(ISonarLintProject project) {
+    return JdtUtils.configurationFingerprint((IProject) project.getResource());
+  }
+
   @Override
   public boolean exclude(IFile file) {
     if (jdtPresent) {
@@ -21,6 +21,7 @@ package org.sonarlint.eclipse.jdt.internal;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Set;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -49,6 +50,10 @@ import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
 public class JdtUtils {
 
+  private static final String CLASSPATH_CACHE_KEY = "jdt.classpath";
+  private static final Collection<String> CLASSPATH_PROPERTIES = Arrays.asList("sonar.java.libraries", "sonar.java.test.libraries", "sonar.java.binaries",
+    "sonar.java.test.binaries");
+
   public void configure(IPreAnalysisContext context, IProgressMonitor monitor) {
     IProject project = (IProject) context.getProject().getResource();
     if (project != null) {
@@ -57,6 +62,19 @@ public class JdtUtils {
     }
   }
 
+  static String configurationFingerprint(IProject project) {
+    return configurationFingerprint(JavaCore.create(project));
+  }
+
+  /**
+   * Changes when the classpath or the compiled classes of any Java project, or the Java levels of the given project change
+   */
+  public static String configurationFingerprint(IJavaProject javaProject) {
+    return ClasspathChangeListener.getInstance().getGeneration() + "|" + BinariesChangeListener.getInstance().getGeneration() + "|"
+      + javaProject.getOption(JavaCore.COMPILER_SOURCE, true) + "|"
+      + javaProject.getOption(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, true);
+  }
+
   static boolean hasJavaNature(IProject project) {
     try {
       return project.hasNature(JavaCore.NATURE_ID);
@@ -101,11 +119,20 @@ public class JdtUtils {
     context.setAnalysisProperty("sonar.java.source", javaSource);
     context.setAnalysisProperty("sonar.java.target", javaTarget);
 
+    // Resolving the classpath of the project and of its dependencies is costly, so reuse it until the Java model reports a classpath change
+    Long classpathGeneration = ClasspathChangeListener.getInstance().getGeneration();
+    if (context.reuseAnalysisProperties(CLASSPATH_CACHE_KEY, classpathGeneration)) {
+      return;
+    }
     try {
       JavaProjectConfiguration configuration = new JavaProjectConfiguration();
       configuration.dependentProjects().add(javaProject);
       addClassPathToSonarProject(javaProject, configuration, true, false, false);
       configurationToProperties(context, configuration);
+      // Entries that don't exist yet (i.e. output folders before the first build) would not be noticed as classpath changes
+      if (configuration.isComplete()) {
+        context.cacheAnalysisProperties(CLASSPATH_CACHE_KEY, classpathGeneration, CLASSPATH_PROPERTIES);
+      }
     } catch (JavaModelException e) {
       SonarLintLogger.get().error(e.getMessage(), e);
     }
@@ -196,6 +223,7 @@ public class JdtUtils {
         }
       }
     } else {
+      context.markIncomplete();
       SonarLintLogger.get().debug("Binary directory '" + outputDir + "' was not added because it was not found. Maybe you should enable auto build of your project.");
     }
   }
@@ -229,6 +257,8 @@ public class JdtUtils {
       } else {
         addMainClasspathEntry(context, libPath);
       }
+    } else {
+      context.markIncomplete();
     }
   }
 
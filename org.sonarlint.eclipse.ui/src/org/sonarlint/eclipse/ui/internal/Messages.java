@@ -38,6 +38,10 @@ public final class Messages extends NLS {
   public static String SonarPreferencePage_label_marker_severity;
   public static String SonarPreferencePage_label_extra_args;
   public static String SonarPreferencePage_label_test_file_regexps;
+  public static String SonarPreferencePage_label_analysis_threads;
+  public static String SonarPreferencePage_label_analysis_cache_size;
+  public static String SonarPreferencePage_label_issue_cache_size;
+  public static String SonarPreferencePage_label_cfamily_cache_size;
   public static String SonarProjectPropertyBlock_label_override_workspace_settings;
 
   public static String SonarConsoleRemoveAction_tooltip;
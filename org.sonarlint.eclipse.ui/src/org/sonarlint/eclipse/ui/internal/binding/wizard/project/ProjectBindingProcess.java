@@ -40,7 +40,7 @@ public class ProjectBindingProcess {
     List<ISonarLintProject> projectToSubscribeToNotifications = new ArrayList<>();
     projects.forEach(p -> {
       boolean changed = false;
-      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfig(p);
+      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfig(p).copy();
       String oldServerId = projectConfig.getProjectBinding().map(EclipseProjectBinding::connectionId).orElse(null);
       String oldProjectKey = projectConfig.getProjectBinding().map(EclipseProjectBinding::projectKey).orElse(null);
       if (!Objects.equals(serverId, oldServerId) || !Objects.equals(projectKey, oldProjectKey)) {
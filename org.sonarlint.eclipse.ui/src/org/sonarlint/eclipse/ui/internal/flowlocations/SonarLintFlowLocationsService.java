@@ -27,6 +27,10 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.swt.widgets.Display;
@@ -175,6 +179,33 @@ public class SonarLintFlowLocationsService implements ISelectionListener, Analys
 
   private void notifyAllOfMarkerChange() {
     markerSelectionListeners.forEach(l -> l.markerSelected(lastSelectedMarker));
+    lastSelectedMarker.ifPresent(this::createFlowMarkersInBackground);
+  }
+
+  /**
+   * Flow location markers are created outside of the UI thread, since it may have to wait for an analysis to release the workspace.
+   * Listeners are notified again once they exist, if the issue is still selected.
+   */
+  private void createFlowMarkersInBackground(IMarker selectedMarker) {
+    MarkerFlows issueFlows = MarkerUtils.getIssueFlows(selectedMarker);
+    if (issueFlows.isEmpty()) {
+      return;
+    }
+    Job job = new Job("Create issue location markers") {
+      @Override
+      protected IStatus run(IProgressMonitor monitor) {
+        if (issueFlows.createMarkersIfNeeded()) {
+          Display.getDefault().asyncExec(() -> {
+            if (Objects.equals(lastSelectedMarker.orElse(null), selectedMarker)) {
+              markerSelectionListeners.forEach(l -> l.markerSelected(lastSelectedMarker));
+            }
+          });
+        }
+        return Status.OK_STATUS;
+      }
+    };
+    job.setSystem(true);
+    job.schedule();
   }
 
   private static void openIssueLocationsView(boolean forceShowAnnotationsInEditor, boolean bringToTop) {
@@ -27,6 +27,7 @@ import org.eclipse.core.resources.IMarker;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringButtonFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.swt.SWT;
@@ -74,6 +75,22 @@ public class SonarLintPreferencePage extends FieldEditorPreferencePage implement
       getFieldEditorParent()));
     addField(new StringFieldEditor(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS,
       Messages.SonarPreferencePage_label_test_file_regexps, getFieldEditorParent()));
+    IntegerFieldEditor analysisThreads = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_ANALYSIS_THREADS,
+      Messages.SonarPreferencePage_label_analysis_threads, getFieldEditorParent());
+    analysisThreads.setValidRange(1, 256);
+    addField(analysisThreads);
+    IntegerFieldEditor analysisCacheSize = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_ANALYSIS_CACHE_SIZE_MB,
+      Messages.SonarPreferencePage_label_analysis_cache_size, getFieldEditorParent());
+    analysisCacheSize.setValidRange(0, 10_000);
+    addField(analysisCacheSize);
+    IntegerFieldEditor issueCacheSize = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_ISSUE_CACHE_SIZE_MB,
+      Messages.SonarPreferencePage_label_issue_cache_size, getFieldEditorParent());
+    issueCacheSize.setValidRange(1, 10_000);
+    addField(issueCacheSize);
+    IntegerFieldEditor cfamilyCacheSize = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_CFAMILY_CACHE_SIZE_MB,
+      Messages.SonarPreferencePage_label_cfamily_cache_size, getFieldEditorParent());
+    cfamilyCacheSize.setValidRange(0, 100_000);
+    addField(cfamilyCacheSize);
     addField(new NodeJsField(getFieldEditorParent()));
   }
 
@@ -405,8 +405,9 @@ public class SonarLintExtraArgumentsPreferenceAndPropertyPage extends AbstractLi
       String props = SonarLintGlobalConfiguration.serializeExtraProperties(sonarProperties);
       getPreferenceStore().setValue(SonarLintGlobalConfiguration.PREF_EXTRA_ARGS, props);
     } else {
-      SonarLintProjectConfiguration projectConfig = getProjectConfig();
-      if (projectConfig != null) {
+      SonarLintProjectConfiguration savedConfig = getProjectConfig();
+      if (savedConfig != null) {
+        SonarLintProjectConfiguration projectConfig = savedConfig.copy();
         projectConfig.getExtraProperties().clear();
         projectConfig.getExtraProperties().addAll(sonarProperties);
         SonarLintCorePlugin.saveConfig(getProject(), projectConfig);